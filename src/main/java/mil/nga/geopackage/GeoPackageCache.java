@@ -3,6 +3,7 @@ package mil.nga.geopackage;
 import java.io.File;
 
 import mil.nga.geopackage.manager.GeoPackageManager;
+import mil.nga.geopackage.manager.GeoPackageOpenOptions;
 
 /**
  * GeoPackage Cache
@@ -40,7 +41,40 @@ public class GeoPackageCache extends GeoPackageCoreCache<GeoPackage> {
 	 * @return GeoPackage
 	 */
 	public GeoPackage getOrOpen(String name, File file) {
-		return getOrOpen(name, file, true);
+		return getOrOpen(name, file, true, null);
+	}
+
+	/**
+	 * Get the cached GeoPackage or open and cache the GeoPackage file with open
+	 * options
+	 *
+	 * @param file
+	 *            GeoPackage file
+	 * @param options
+	 *            open options
+	 * @return GeoPackage
+	 * @since 3.4.1
+	 */
+	public GeoPackage getOrOpen(File file, GeoPackageOpenOptions options) {
+		return getOrOpen(file.getName(), file, options);
+	}
+
+	/**
+	 * Get the cached GeoPackage or open and cache the GeoPackage file with open
+	 * options
+	 *
+	 * @param name
+	 *            GeoPackage name
+	 * @param file
+	 *            GeoPackage file
+	 * @param options
+	 *            open options
+	 * @return GeoPackage
+	 * @since 3.4.1
+	 */
+	public GeoPackage getOrOpen(String name, File file,
+			GeoPackageOpenOptions options) {
+		return getOrOpen(name, file, true, options);
 	}
 
 	/**
@@ -66,7 +100,7 @@ public class GeoPackageCache extends GeoPackageCoreCache<GeoPackage> {
 	 * @since 3.1.0
 	 */
 	public GeoPackage getOrNoCacheOpen(String name, File file) {
-		return getOrOpen(name, file, false);
+		return getOrOpen(name, file, false, null);
 	}
 
 	/**
@@ -78,12 +112,15 @@ public class GeoPackageCache extends GeoPackageCoreCache<GeoPackage> {
 	 *            GeoPackage file
 	 * @param cache
 	 *            true to cache opened GeoPackages
+	 * @param options
+	 *            open options, null for SQLite defaults
 	 * @return GeoPackage
 	 */
-	private GeoPackage getOrOpen(String name, File file, boolean cache) {
+	private GeoPackage getOrOpen(String name, File file, boolean cache,
+			GeoPackageOpenOptions options) {
 		GeoPackage geoPackage = get(name);
 		if (geoPackage == null) {
-			geoPackage = GeoPackageManager.open(name, file);
+			geoPackage = GeoPackageManager.open(name, file, true, options);
 			if (cache) {
 				add(geoPackage);
 			}
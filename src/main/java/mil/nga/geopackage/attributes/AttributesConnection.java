@@ -33,4 +33,14 @@ public class AttributesConnection
 		return new AttributesResultSet(table, resultSet, count);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected AttributesResultSet createResult(ResultSet resultSet, String sql,
+			String[] selectionArgs) {
+		return new AttributesResultSet(table, resultSet,
+				getConnection(resultSet), sql, selectionArgs);
+	}
+
 }
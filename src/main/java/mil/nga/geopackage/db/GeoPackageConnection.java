@@ -2,12 +2,16 @@ package mil.nga.geopackage.db;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.sqlite.SQLiteConfig;
+
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
 import com.j256.ormlite.support.ConnectionSource;
 
 import mil.nga.geopackage.GeoPackageException;
@@ -35,11 +39,27 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	 */
 	private final Connection connection;
 
+	/**
+	 * SQLite configuration of additional read connections, null for SQLite
+	 * defaults
+	 */
+	private final SQLiteConfig readConfig;
+
 	/**
 	 * Auto commit mode at the beginning of a transaction
 	 */
 	private Boolean autoCommit = null;
 
+	/**
+	 * Pool of read connections, null when reads share the connection
+	 */
+	private volatile GeoPackageConnectionPool pool = null;
+
+	/**
+	 * Cache of prepared statements for repeated lookups
+	 */
+	private final PreparedStatementCache statementCache = new PreparedStatementCache();
+
 	/**
 	 * Constructor
 	 *
@@ -52,9 +72,29 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	 */
 	public GeoPackageConnection(File file, Connection connection,
 			ConnectionSource connectionSource) {
+		this(file, connection, connectionSource, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param file
+	 *            file
+	 * @param connection
+	 *            connection
+	 * @param connectionSource
+	 *            connection source
+	 * @param readConfig
+	 *            SQLite configuration of additional read connections, null
+	 *            for SQLite defaults
+	 * @since 3.4.1
+	 */
+	public GeoPackageConnection(File file, Connection connection,
+			ConnectionSource connectionSource, SQLiteConfig readConfig) {
 		super(connectionSource);
 		this.file = file;
 		this.connection = connection;
+		this.readConfig = readConfig;
 	}
 
 	/**
@@ -66,6 +106,171 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 		return connection;
 	}
 
+	/**
+	 * Get the cache of prepared statements, used by repeated lookups such as
+	 * tile, id, RTree index, and style mapping queries
+	 *
+	 * @return statement cache
+	 * @since 3.4.1
+	 */
+	public PreparedStatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * Get the connection for reads by the current thread. When pooled, this
+	 * is a read connection assigned to the thread or this writer connection
+	 * while the thread is within a transaction.
+	 *
+	 * @return read connection
+	 * @since 3.4.1
+	 */
+	public Connection getReadConnection() {
+		GeoPackageConnectionPool pool = this.pool;
+		return pool != null ? pool.getReadConnection() : connection;
+	}
+
+	/**
+	 * Enable a pool of read connections alongside this writer connection,
+	 * switching the GeoPackage to write-ahead logging journal mode until the
+	 * pool is disabled. Queries then read through per thread read
+	 * connections, concurrent with each other and with writes.
+	 *
+	 * @param readers
+	 *            max read connections
+	 * @return connection pool
+	 * @since 3.4.1
+	 */
+	public synchronized GeoPackageConnectionPool enablePool(int readers) {
+		if (pool == null) {
+			pool = new GeoPackageConnectionPool(file, connection, readers,
+					readConfig);
+		}
+		return pool;
+	}
+
+	/**
+	 * Disable the pool of read connections, closing the read connections and
+	 * restoring the prior journal mode
+	 *
+	 * @since 3.4.1
+	 */
+	public synchronized void disablePool() {
+		if (pool != null) {
+			statementCache.clear();
+			// Release the connection source connection, reconnected on next
+			// use, as open connections block leaving write-ahead logging
+			if (connectionSource instanceof JdbcConnectionSource) {
+				connectionSource.closeQuietly();
+			}
+			pool.close();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Get the pool of read connections
+	 *
+	 * @return connection pool, null when not pooled
+	 * @since 3.4.1
+	 */
+	public GeoPackageConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Determine if reads use a pool of read connections
+	 *
+	 * @return true if pooled
+	 * @since 3.4.1
+	 */
+	public boolean isPooled() {
+		return pool != null;
+	}
+
+	/**
+	 * Get the GeoPackage file
+	 *
+	 * @return file
+	 * @since 3.4.1
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Get the database identity of the GeoPackage, the absolute file path, used
+	 * to key caches shared between GeoPackages. Connections without a file are
+	 * identified by the connection instance.
+	 *
+	 * @return database identity
+	 * @since 3.4.1
+	 */
+	public String getDatabaseIdentity() {
+		String identity;
+		if (file != null) {
+			identity = file.getAbsolutePath();
+		} else {
+			identity = getClass().getName() + "@"
+					+ Integer.toHexString(System.identityHashCode(this));
+		}
+		return identity;
+	}
+
+	/**
+	 * Determine if additional connections to the GeoPackage file see the same
+	 * data as this connection, meaning it is in auto commit mode and not
+	 * within a transaction
+	 *
+	 * @return true if committed
+	 * @since 3.4.1
+	 */
+	public boolean isCommitted() {
+		boolean committed = false;
+		if (file != null && !inTransaction()) {
+			try {
+				committed = connection.getAutoCommit();
+			} catch (SQLException e) {
+				log.log(Level.WARNING,
+						"Failed to check the connection auto commit mode", e);
+			}
+		}
+		return committed;
+	}
+
+	/**
+	 * Get the SQLite configuration of additional read connections
+	 *
+	 * @return read configuration, null for SQLite defaults
+	 * @since 3.4.1
+	 */
+	public SQLiteConfig getReadConfig() {
+		return readConfig;
+	}
+
+	/**
+	 * Open an additional read only connection to the GeoPackage file with the
+	 * read configuration, closed by the caller
+	 *
+	 * @return read only connection
+	 * @since 3.4.1
+	 */
+	public Connection openReadConnection() {
+		SQLiteConfig config = readConfig != null
+				? new SQLiteConfig(readConfig.toProperties())
+				: new SQLiteConfig();
+		config.setReadOnly(true);
+		try {
+			return DriverManager.getConnection("jdbc:sqlite:" + file.getPath(),
+					config.toProperties());
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to open read connection to the SQLite file: "
+							+ file.getAbsolutePath(),
+					e);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -136,7 +341,7 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	 */
 	@Override
 	public int count(String table, String where, String[] args) {
-		return SQLUtils.count(connection, table, where, args);
+		return SQLUtils.count(getReadConnection(), table, where, args);
 	}
 
 	/**
@@ -145,7 +350,7 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	@Override
 	public Integer min(String table, String column, String where,
 			String[] args) {
-		return SQLUtils.min(connection, table, column, where, args);
+		return SQLUtils.min(getReadConnection(), table, column, where, args);
 	}
 
 	/**
@@ -154,7 +359,7 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	@Override
 	public Integer max(String table, String column, String where,
 			String[] args) {
-		return SQLUtils.max(connection, table, column, where, args);
+		return SQLUtils.max(getReadConnection(), table, column, where, args);
 	}
 
 	/**
@@ -162,6 +367,8 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	 */
 	@Override
 	public void close() {
+		disablePool();
+		statementCache.clear();
 		super.close();
 		try {
 			connection.close();
@@ -177,8 +384,8 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	@Override
 	public Object querySingleResult(String sql, String[] args, int column,
 			GeoPackageDataType dataType) {
-		return SQLUtils.querySingleResult(connection, sql, args, column,
-				dataType);
+		return SQLUtils.querySingleResult(getReadConnection(), sql, args,
+				column, dataType);
 	}
 
 	/**
@@ -187,8 +394,8 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	@Override
 	public List<Object> querySingleColumnResults(String sql, String[] args,
 			int column, GeoPackageDataType dataType, Integer limit) {
-		return SQLUtils.querySingleColumnResults(connection, sql, args, column,
-				dataType, limit);
+		return SQLUtils.querySingleColumnResults(getReadConnection(), sql,
+				args, column, dataType, limit);
 	}
 
 	/**
@@ -197,7 +404,8 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	@Override
 	public List<List<Object>> queryResults(String sql, String[] args,
 			GeoPackageDataType[] dataTypes, Integer limit) {
-		return SQLUtils.queryResults(connection, sql, args, dataTypes, limit);
+		return SQLUtils.queryResults(getReadConnection(), sql, args,
+				dataTypes, limit);
 	}
 
 	/**
@@ -211,7 +419,7 @@ public class GeoPackageConnection extends GeoPackageCoreConnection {
 	 * @since 1.1.2
 	 */
 	public ResultSet query(String sql, String[] args) {
-		return SQLUtils.query(connection, sql, args);
+		return SQLUtils.query(getReadConnection(), sql, args);
 	}
 
 }
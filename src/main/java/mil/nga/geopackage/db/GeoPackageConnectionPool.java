@@ -0,0 +1,480 @@
+package mil.nga.geopackage.db;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.sqlite.SQLiteConfig;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * GeoPackage Connection Pool of read only connections alongside the single
+ * writer connection of a GeoPackage in write-ahead logging (WAL) journal
+ * mode. Reading threads are each assigned a read connection, up to the max
+ * readers, so reads proceed concurrently with each other and with writes.
+ * Reads by threads within a writer transaction, or while the writer is in a
+ * transaction of an unknown thread, use the writer connection to see the
+ * uncommitted changes. Transactions begun through
+ * {@link SQLUtils#beginTransaction(Connection)} on the writer connection are
+ * tracked by thread. Threads beyond the max readers share the writer
+ * connection. The prior journal mode is restored when the pool is closed.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class GeoPackageConnectionPool {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(GeoPackageConnectionPool.class.getName());
+
+	/**
+	 * Default max read connections
+	 */
+	public static final int DEFAULT_READERS = 4;
+
+	/**
+	 * Write-ahead logging journal mode
+	 */
+	private static final String WAL = "wal";
+
+	/**
+	 * Open pools by writer connection
+	 */
+	private static final Map<Connection, GeoPackageConnectionPool> pools = Collections
+			.synchronizedMap(
+					new WeakHashMap<Connection, GeoPackageConnectionPool>());
+
+	/**
+	 * GeoPackage file
+	 */
+	private final File file;
+
+	/**
+	 * Writer connection
+	 */
+	private final Connection writer;
+
+	/**
+	 * Max read connections
+	 */
+	private final int readers;
+
+	/**
+	 * SQLite configuration of read connections
+	 */
+	private final SQLiteConfig readConfig;
+
+	/**
+	 * Journal mode prior to enabling write-ahead logging
+	 */
+	private final String journalMode;
+
+	/**
+	 * Read connections assigned to threads
+	 */
+	private final Map<Thread, Connection> assigned = new HashMap<>();
+
+	/**
+	 * Idle read connections
+	 */
+	private final Deque<Connection> idle = new ArrayDeque<>();
+
+	/**
+	 * Number of open read connections
+	 */
+	private int open = 0;
+
+	/**
+	 * Transaction depths of threads within a writer transaction
+	 */
+	private final Map<Thread, Integer> transactions = new ConcurrentHashMap<>();
+
+	/**
+	 * Closed flag
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Constructor, switches the GeoPackage to write-ahead logging journal
+	 * mode until closed
+	 *
+	 * @param file
+	 *            GeoPackage file
+	 * @param writer
+	 *            writer connection
+	 * @param readers
+	 *            max read connections
+	 */
+	public GeoPackageConnectionPool(File file, Connection writer,
+			int readers) {
+		this(file, writer, readers, null);
+	}
+
+	/**
+	 * Constructor, switches the GeoPackage to write-ahead logging journal
+	 * mode until closed
+	 *
+	 * @param file
+	 *            GeoPackage file
+	 * @param writer
+	 *            writer connection
+	 * @param readers
+	 *            max read connections
+	 * @param readConfig
+	 *            SQLite configuration of read connections, null for SQLite
+	 *            defaults. Read connections are always opened read only.
+	 */
+	public GeoPackageConnectionPool(File file, Connection writer, int readers,
+			SQLiteConfig readConfig) {
+		this.file = file;
+		this.writer = writer;
+		this.readers = Math.max(1, readers);
+		this.readConfig = readConfig;
+		validateLockingMode();
+		journalMode = enableWriteAheadLogging();
+		pools.put(writer, this);
+	}
+
+	/**
+	 * Get the open pool of the writer connection
+	 *
+	 * @param writer
+	 *            writer connection
+	 * @return connection pool or null
+	 */
+	public static GeoPackageConnectionPool getPool(Connection writer) {
+		return pools.get(writer);
+	}
+
+	/**
+	 * Get the GeoPackage file
+	 *
+	 * @return file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Get the writer connection
+	 *
+	 * @return writer connection
+	 */
+	public Connection getWriteConnection() {
+		return writer;
+	}
+
+	/**
+	 * Get the max read connections
+	 *
+	 * @return max readers
+	 */
+	public int getReaders() {
+		return readers;
+	}
+
+	/**
+	 * Get the journal mode prior to enabling write-ahead logging, restored
+	 * when the pool is closed
+	 *
+	 * @return journal mode
+	 */
+	public String getPriorJournalMode() {
+		return journalMode;
+	}
+
+	/**
+	 * Get the number of open read connections
+	 *
+	 * @return open read connections
+	 */
+	public synchronized int getOpenReaders() {
+		return open;
+	}
+
+	/**
+	 * Get the connection for reads by the current thread, a read connection
+	 * assigned to the thread or the writer connection
+	 *
+	 * @return read connection
+	 */
+	public Connection getReadConnection() {
+
+		Thread thread = Thread.currentThread();
+
+		Connection connection = writer;
+		if (!readFromWriter(thread)) {
+			synchronized (this) {
+				if (!closed) {
+					connection = assigned.get(thread);
+					if (connection == null) {
+						connection = assign(thread);
+					}
+				}
+			}
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Release the read connection assigned to the current thread back to the
+	 * pool, such as at the end of a request handled by a pooled thread
+	 */
+	public synchronized void releaseReadConnection() {
+		Connection connection = assigned.remove(Thread.currentThread());
+		if (connection != null) {
+			if (closed) {
+				close(connection);
+			} else {
+				idle.push(connection);
+			}
+		}
+	}
+
+	/**
+	 * Set the current thread as within a writer transaction, reading from the
+	 * writer connection until the transaction ends. Nested calls are counted.
+	 */
+	public void beginTransaction() {
+		Thread thread = Thread.currentThread();
+		Integer depth = transactions.get(thread);
+		transactions.put(thread, depth != null ? depth + 1 : 1);
+	}
+
+	/**
+	 * End the writer transaction of the current thread
+	 */
+	public void endTransaction() {
+		Thread thread = Thread.currentThread();
+		Integer depth = transactions.get(thread);
+		if (depth != null) {
+			if (depth > 1) {
+				transactions.put(thread, depth - 1);
+			} else {
+				transactions.remove(thread);
+			}
+		}
+	}
+
+	/**
+	 * Close all read connections and restore the prior journal mode
+	 */
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			pools.remove(writer);
+			for (Connection connection : assigned.values()) {
+				close(connection);
+			}
+			assigned.clear();
+			for (Connection connection : idle) {
+				close(connection);
+			}
+			idle.clear();
+			open = 0;
+			transactions.clear();
+			restoreJournalMode();
+		}
+	}
+
+	/**
+	 * Determine if the thread reads from the writer connection
+	 *
+	 * @param thread
+	 *            thread
+	 * @return true to read from the writer
+	 */
+	private boolean readFromWriter(Thread thread) {
+		boolean readFromWriter = false;
+		if (transactions.containsKey(thread)) {
+			readFromWriter = true;
+		} else if (transactions.isEmpty()) {
+			try {
+				readFromWriter = !writer.getAutoCommit();
+			} catch (SQLException e) {
+				readFromWriter = true;
+			}
+		}
+		return readFromWriter;
+	}
+
+	/**
+	 * Assign a read connection to the thread, reusing an idle or reclaimed
+	 * connection or opening a new one while under the max readers
+	 *
+	 * @param thread
+	 *            thread
+	 * @return read connection, or the writer when all readers are assigned
+	 */
+	private Connection assign(Thread thread) {
+
+		Connection connection = idle.poll();
+
+		if (connection == null) {
+			if (open < readers) {
+				connection = open();
+				open++;
+			} else {
+				connection = reclaim();
+			}
+		}
+
+		if (connection != null) {
+			assigned.put(thread, connection);
+		} else {
+			connection = writer;
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Reclaim a read connection assigned to a terminated thread
+	 *
+	 * @return read connection or null
+	 */
+	private Connection reclaim() {
+		Connection connection = null;
+		Iterator<Entry<Thread, Connection>> iterator = assigned.entrySet()
+				.iterator();
+		while (connection == null && iterator.hasNext()) {
+			Entry<Thread, Connection> entry = iterator.next();
+			if (!entry.getKey().isAlive()) {
+				connection = entry.getValue();
+				iterator.remove();
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * Open a read only connection
+	 *
+	 * @return read connection
+	 */
+	private Connection open() {
+		SQLiteConfig config = readConfig != null
+				? new SQLiteConfig(readConfig.toProperties())
+				: new SQLiteConfig();
+		config.setReadOnly(true);
+		try {
+			return DriverManager.getConnection("jdbc:sqlite:" + file.getPath(),
+					config.toProperties());
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to open read connection to the SQLite file: "
+							+ file.getAbsolutePath(),
+					e);
+		}
+	}
+
+	/**
+	 * Close a read connection
+	 *
+	 * @param connection
+	 *            read connection
+	 */
+	private void close(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			LOGGER.log(Level.WARNING,
+					"Failed to close read connection to: "
+							+ file.getAbsolutePath(),
+					e);
+		}
+	}
+
+	/**
+	 * Validate the writer connection does not hold exclusive locks, which
+	 * block the read connections
+	 */
+	private void validateLockingMode() {
+		String lockingMode = pragma("PRAGMA locking_mode");
+		if ("exclusive".equalsIgnoreCase(lockingMode)) {
+			throw new GeoPackageException(
+					"GeoPackage connection pools require the normal locking mode: "
+							+ file.getAbsolutePath() + ", Mode: "
+							+ lockingMode);
+		}
+	}
+
+	/**
+	 * Switch the GeoPackage to write-ahead logging journal mode, allowing
+	 * reads concurrent with writes
+	 *
+	 * @return prior journal mode
+	 */
+	private String enableWriteAheadLogging() {
+		String priorMode = pragma("PRAGMA journal_mode");
+		if (!WAL.equalsIgnoreCase(priorMode)) {
+			String mode = pragma("PRAGMA journal_mode=WAL");
+			if (!WAL.equalsIgnoreCase(mode)) {
+				throw new GeoPackageException(
+						"GeoPackage connection pools require write-ahead logging journal mode: "
+								+ file.getAbsolutePath() + ", Mode: " + mode);
+			}
+		}
+		return priorMode;
+	}
+
+	/**
+	 * Restore the journal mode prior to enabling write-ahead logging
+	 */
+	private void restoreJournalMode() {
+		if (journalMode != null && !WAL.equalsIgnoreCase(journalMode)) {
+			String mode = null;
+			try {
+				mode = pragma("PRAGMA journal_mode=" + journalMode);
+			} catch (GeoPackageException e) {
+				LOGGER.log(Level.WARNING,
+						"Failed to restore journal mode: "
+								+ file.getAbsolutePath(),
+						e);
+			}
+			if (mode != null && !journalMode.equalsIgnoreCase(mode)) {
+				LOGGER.log(Level.WARNING,
+						"Failed to restore journal mode: "
+								+ file.getAbsolutePath() + ", Expected: "
+								+ journalMode + ", Mode: " + mode);
+			}
+		}
+	}
+
+	/**
+	 * Query a pragma value on the writer connection
+	 *
+	 * @param sql
+	 *            pragma statement
+	 * @return pragma value
+	 */
+	private String pragma(String sql) {
+		Object value;
+		try {
+			value = SQLUtils.querySingleResult(writer, sql, null, 0,
+					GeoPackageDataType.TEXT);
+		} catch (Exception e) {
+			throw new GeoPackageException("Failed to query pragma: " + sql
+					+ ", File: " + file.getAbsolutePath(), e);
+		}
+		return value != null ? value.toString() : null;
+	}
+
+}
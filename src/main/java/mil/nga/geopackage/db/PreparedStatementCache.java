@@ -0,0 +1,408 @@
+package mil.nga.geopackage.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Prepared Statement Cache of idle prepared statements keyed by connection and
+ * SQL text, bounded in least recently used order. Acquired statements are
+ * exclusively in use until released, with concurrent or nested acquires of the
+ * same SQL preparing an additional statement. Released statements return to
+ * the cache unless the cache already holds an idle statement for the SQL.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class PreparedStatementCache {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(PreparedStatementCache.class.getName());
+
+	/**
+	 * Default max idle statements
+	 */
+	public static final int DEFAULT_MAX_STATEMENTS = 32;
+
+	/**
+	 * Idle statements in least recently used order
+	 */
+	private final LinkedHashMap<StatementKey, PreparedStatement> idle = new LinkedHashMap<>(
+			16, 0.75f, true);
+
+	/**
+	 * In use statements and their keys
+	 */
+	private final Map<PreparedStatement, StatementKey> inUse = new IdentityHashMap<>();
+
+	/**
+	 * Max idle statements
+	 */
+	private int maxStatements;
+
+	/**
+	 * Statements acquired from the cache
+	 */
+	private long hits = 0;
+
+	/**
+	 * Statements prepared on acquire
+	 */
+	private long misses = 0;
+
+	/**
+	 * Constructor
+	 */
+	public PreparedStatementCache() {
+		this(DEFAULT_MAX_STATEMENTS);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxStatements
+	 *            max idle statements, 0 to disable caching
+	 */
+	public PreparedStatementCache(int maxStatements) {
+		this.maxStatements = Math.max(0, maxStatements);
+	}
+
+	/**
+	 * Get the max idle statements
+	 *
+	 * @return max statements
+	 */
+	public synchronized int getMaxStatements() {
+		return maxStatements;
+	}
+
+	/**
+	 * Set the max idle statements, closing least recently used statements
+	 * beyond the max
+	 *
+	 * @param maxStatements
+	 *            max idle statements, 0 to disable caching
+	 */
+	public synchronized void setMaxStatements(int maxStatements) {
+		this.maxStatements = Math.max(0, maxStatements);
+		evict();
+	}
+
+	/**
+	 * Get the number of idle statements
+	 *
+	 * @return idle statements
+	 */
+	public synchronized int size() {
+		return idle.size();
+	}
+
+	/**
+	 * Get the number of acquired statements not yet released
+	 *
+	 * @return in use statements
+	 */
+	public synchronized int getInUse() {
+		return inUse.size();
+	}
+
+	/**
+	 * Get the number of statements acquired from the cache
+	 *
+	 * @return hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of statements prepared on acquire
+	 *
+	 * @return misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Acquire a prepared statement for the SQL, cached or newly prepared, in
+	 * use until released
+	 *
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            SQL statement
+	 * @return prepared statement with cleared parameters
+	 * @throws SQLException
+	 *             upon failure to prepare the statement
+	 */
+	public PreparedStatement acquire(Connection connection, String sql)
+			throws SQLException {
+
+		StatementKey key = new StatementKey(connection, sql);
+
+		PreparedStatement statement;
+		synchronized (this) {
+			statement = idle.remove(key);
+			if (statement != null) {
+				hits++;
+				inUse.put(statement, key);
+			} else {
+				misses++;
+			}
+		}
+
+		if (statement != null) {
+			try {
+				statement.clearParameters();
+			} catch (SQLException e) {
+				release(statement, true);
+				throw e;
+			}
+		} else {
+			statement = connection.prepareStatement(sql);
+			synchronized (this) {
+				inUse.put(statement, key);
+			}
+		}
+
+		return statement;
+	}
+
+	/**
+	 * Release an acquired statement back to the cache. Statements not
+	 * acquired from the cache are closed.
+	 *
+	 * @param statement
+	 *            prepared statement
+	 */
+	public void release(PreparedStatement statement) {
+		release(statement, false);
+	}
+
+	/**
+	 * Prepare the SQL statement through the cache and execute the query
+	 *
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            SQL statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @return result set, closed by {@link #release(ResultSet)}
+	 */
+	public ResultSet query(Connection connection, String sql,
+			String[] selectionArgs) {
+		PreparedStatement statement = null;
+		try {
+			statement = acquire(connection, sql);
+			SQLUtils.setArguments(statement, selectionArgs);
+			return statement.executeQuery();
+		} catch (SQLException e) {
+			if (statement != null) {
+				release(statement, true);
+			}
+			throw new GeoPackageException("Failed to execute SQL statement: "
+					+ sql, e);
+		}
+	}
+
+	/**
+	 * Close a result set of {@link #query(Connection, String, String[])},
+	 * releasing the statement back to the cache
+	 *
+	 * @param resultSet
+	 *            result set
+	 */
+	public void release(ResultSet resultSet) {
+		PreparedStatement statement = null;
+		try {
+			statement = (PreparedStatement) resultSet.getStatement();
+		} catch (SQLException e) {
+			LOGGER.log(Level.WARNING, "Failed to get result set statement", e);
+		}
+		try {
+			resultSet.close();
+		} catch (SQLException e) {
+			if (statement != null) {
+				release(statement, true);
+				statement = null;
+			}
+			throw new GeoPackageException("Failed to close ResultSet", e);
+		}
+		if (statement != null) {
+			release(statement);
+		}
+	}
+
+	/**
+	 * Close all idle statements. Statements in use are closed when released.
+	 */
+	public synchronized void clear() {
+		for (PreparedStatement statement : idle.values()) {
+			close(statement);
+		}
+		idle.clear();
+		inUse.clear();
+	}
+
+	/**
+	 * Close the idle statements of a connection, such as before closing the
+	 * connection. Statements in use are closed when released.
+	 *
+	 * @param connection
+	 *            connection
+	 */
+	public synchronized void clear(Connection connection) {
+		Iterator<Entry<StatementKey, PreparedStatement>> idleIterator = idle
+				.entrySet().iterator();
+		while (idleIterator.hasNext()) {
+			Entry<StatementKey, PreparedStatement> entry = idleIterator.next();
+			if (entry.getKey().connection == connection) {
+				close(entry.getValue());
+				idleIterator.remove();
+			}
+		}
+		Iterator<StatementKey> inUseIterator = inUse.values().iterator();
+		while (inUseIterator.hasNext()) {
+			if (inUseIterator.next().connection == connection) {
+				inUseIterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Release a statement, returning it to the cache or closing it
+	 *
+	 * @param statement
+	 *            prepared statement
+	 * @param discard
+	 *            true to close the statement
+	 */
+	private void release(PreparedStatement statement, boolean discard) {
+
+		boolean close = true;
+
+		synchronized (this) {
+			StatementKey key = inUse.remove(statement);
+			if (key != null && !discard && maxStatements > 0
+					&& !idle.containsKey(key) && !isClosed(statement)) {
+				idle.put(key, statement);
+				close = false;
+				evict();
+			}
+		}
+
+		if (close) {
+			close(statement);
+		}
+	}
+
+	/**
+	 * Close least recently used idle statements beyond the max
+	 */
+	private void evict() {
+		Iterator<PreparedStatement> iterator = idle.values().iterator();
+		while (idle.size() > maxStatements && iterator.hasNext()) {
+			close(iterator.next());
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Check if the statement is closed
+	 *
+	 * @param statement
+	 *            prepared statement
+	 * @return true if closed
+	 */
+	private static boolean isClosed(PreparedStatement statement) {
+		boolean closed;
+		try {
+			closed = statement.isClosed();
+		} catch (SQLException e) {
+			closed = true;
+		}
+		return closed;
+	}
+
+	/**
+	 * Close the statement
+	 *
+	 * @param statement
+	 *            prepared statement
+	 */
+	private static void close(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			LOGGER.log(Level.WARNING, "Failed to close cached statement", e);
+		}
+	}
+
+	/**
+	 * Statement cache key of a connection and SQL text
+	 */
+	private static class StatementKey {
+
+		/**
+		 * Connection
+		 */
+		private final Connection connection;
+
+		/**
+		 * SQL statement
+		 */
+		private final String sql;
+
+		/**
+		 * Constructor
+		 *
+		 * @param connection
+		 *            connection
+		 * @param sql
+		 *            SQL statement
+		 */
+		StatementKey(Connection connection, String sql) {
+			this.connection = connection;
+			this.sql = sql;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(connection) + sql.hashCode();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			boolean equals = this == obj;
+			if (!equals && obj instanceof StatementKey) {
+				StatementKey other = (StatementKey) obj;
+				equals = connection == other.connection
+						&& sql.equals(other.sql);
+			}
+			return equals;
+		}
+
+	}
+
+}
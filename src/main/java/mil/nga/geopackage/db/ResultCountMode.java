@@ -0,0 +1,27 @@
+package mil.nga.geopackage.db;
+
+/**
+ * Result count mode enumeration, determining when the row count of a query
+ * result is computed
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public enum ResultCountMode {
+
+	/**
+	 * Count query executed on the first request for the count
+	 */
+	LAZY,
+
+	/**
+	 * Count query executed with the result query
+	 */
+	EAGER,
+
+	/**
+	 * No count query, count is reported as -1
+	 */
+	DISABLED;
+
+}
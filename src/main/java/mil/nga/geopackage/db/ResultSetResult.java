@@ -20,6 +20,12 @@ public class ResultSetResult implements Result {
 	 */
 	protected ResultSet resultSet;
 
+	/**
+	 * Statement cache the result set statement is released to on close, null
+	 * to close the statement
+	 */
+	private PreparedStatementCache statementCache;
+
 	/**
 	 * Constructor
 	 * 
@@ -39,6 +45,29 @@ public class ResultSetResult implements Result {
 		return resultSet;
 	}
 
+	/**
+	 * Get the statement cache the result set statement is released to on
+	 * close
+	 * 
+	 * @return statement cache, null when the statement is closed
+	 * @since 3.4.1
+	 */
+	public PreparedStatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * Set the statement cache of a result set queried through the cache,
+	 * releasing the statement to the cache on close instead of closing it
+	 * 
+	 * @param statementCache
+	 *            statement cache
+	 * @since 3.4.1
+	 */
+	public void setStatementCache(PreparedStatementCache statementCache) {
+		this.statementCache = statementCache;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -312,6 +341,10 @@ public class ResultSetResult implements Result {
 	 */
 	@Override
 	public void close() {
+		if (statementCache != null) {
+			statementCache.release(resultSet);
+			return;
+		}
 		try {
 			resultSet.getStatement().close();
 		} catch (SQLException e) {
@@ -599,7 +599,9 @@ public class SQLUtils {
 	}
 
 	/**
-	 * Begin a transaction for the connection
+	 * Begin a transaction for the connection. When the connection is the
+	 * writer of a {@link GeoPackageConnectionPool}, the current thread reads
+	 * from the writer until the transaction ends.
 	 * 
 	 * @param connection
 	 *            connection
@@ -616,6 +618,11 @@ public class SQLUtils {
 		} catch (SQLException e) {
 			throw new GeoPackageException("Failed to begin transaction", e);
 		}
+		GeoPackageConnectionPool pool = GeoPackageConnectionPool
+				.getPool(connection);
+		if (pool != null) {
+			pool.beginTransaction();
+		}
 		return autoCommit;
 	}
 
@@ -656,6 +663,12 @@ public class SQLUtils {
 			}
 		} catch (SQLException e) {
 			throw new GeoPackageException("Failed to end transaction", e);
+		} finally {
+			GeoPackageConnectionPool pool = GeoPackageConnectionPool
+					.getPool(connection);
+			if (pool != null) {
+				pool.endTransaction();
+			}
 		}
 	}
 
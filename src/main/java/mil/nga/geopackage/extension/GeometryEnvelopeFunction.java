@@ -0,0 +1,68 @@
+package mil.nga.geopackage.extension;
+
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * Geometry Envelope Function for reading the envelope of a geometry column
+ * blob without parsing the geometry when the envelope is in the header. Parsed
+ * blobs are shared with the other functions of the same envelope reader.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public abstract class GeometryEnvelopeFunction extends GeometryFunction {
+
+	/**
+	 * Envelope reader
+	 */
+	private final GeometryEnvelopeReader reader;
+
+	/**
+	 * Constructor
+	 *
+	 * @param reader
+	 *            envelope reader
+	 */
+	public GeometryEnvelopeFunction(GeometryEnvelopeReader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Get the envelope reader
+	 *
+	 * @return envelope reader
+	 */
+	public GeometryEnvelopeReader getReader() {
+		return reader;
+	}
+
+	/**
+	 * Execute the function
+	 *
+	 * @param empty
+	 *            true if a null or empty geometry
+	 * @param envelope
+	 *            envelope or null
+	 * @return function result
+	 */
+	public abstract Object execute(boolean empty, GeometryEnvelope envelope);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object execute(GeoPackageGeometryData geometryData) {
+		return execute(geometryData != null ? geometryData.getBytes() : null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Object execute(byte[] bytes) {
+		GeometryEnvelopeReader.Entry entry = reader.read(bytes);
+		return execute(entry.empty, entry.envelope);
+	}
+
+}
@@ -0,0 +1,441 @@
+package mil.nga.geopackage.extension;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * Geometry Envelope Reader, reads the envelope and empty flag of GeoPackage
+ * geometry blobs. Envelopes are read directly from the GeoPackage binary
+ * header when present, or otherwise from a single pass scan of the
+ * well-known binary coordinates without building the geometry. Blobs the scan
+ * does not support are parsed once, with the result remembered for the last
+ * parsed blob so that consecutive reads of the same blob (such as by the RTree
+ * SQL functions of a single trigger statement) share a single parse.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class GeometryEnvelopeReader {
+
+	/**
+	 * Byte offset of the flags within the header
+	 */
+	private static final int FLAGS_OFFSET = 3;
+
+	/**
+	 * Byte offset of the envelope within the header
+	 */
+	private static final int ENVELOPE_OFFSET = 8;
+
+	/**
+	 * Last parsed blob entry
+	 */
+	private volatile Entry last = null;
+
+	/**
+	 * Number of full geometry parses
+	 */
+	private final AtomicLong parses = new AtomicLong();
+
+	/**
+	 * Constructor
+	 */
+	public GeometryEnvelopeReader() {
+
+	}
+
+	/**
+	 * Get the envelope of the geometry blob, from the header when present or
+	 * built from the geometry
+	 *
+	 * @param bytes
+	 *            geometry blob bytes
+	 * @return envelope or null
+	 */
+	public GeometryEnvelope getEnvelope(byte[] bytes) {
+		return read(bytes).envelope;
+	}
+
+	/**
+	 * Determine if the geometry blob is null or an empty geometry
+	 *
+	 * @param bytes
+	 *            geometry blob bytes
+	 * @return true if empty
+	 */
+	public boolean isEmpty(byte[] bytes) {
+		return read(bytes).empty;
+	}
+
+	/**
+	 * Get the number of full geometry parses of blobs without a header
+	 * envelope that could not be scanned
+	 *
+	 * @return parse count
+	 */
+	public long getParseCount() {
+		return parses.get();
+	}
+
+	/**
+	 * Clear the last parsed blob
+	 */
+	public void clear() {
+		last = null;
+	}
+
+	/**
+	 * Read the envelope and empty flag of the geometry blob
+	 *
+	 * @param bytes
+	 *            geometry blob bytes
+	 * @return entry
+	 */
+	Entry read(byte[] bytes) {
+
+		if (bytes == null || bytes.length == 0) {
+			return Entry.NULL;
+		}
+
+		Entry entry = readHeader(bytes);
+		if (entry == null) {
+
+			entry = last;
+			if (entry == null || !Arrays.equals(entry.bytes, bytes)) {
+
+				GeoPackageGeometryData geometryData = new GeoPackageGeometryData(
+						bytes);
+				parses.incrementAndGet();
+
+				entry = new Entry(bytes, geometryData.isEmpty()
+						|| geometryData.getGeometry() == null,
+						geometryData.getOrBuildEnvelope());
+				last = entry;
+			}
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Read the envelope and empty flag from the header, or from a scan of the
+	 * well-known binary coordinates when the header has no envelope
+	 *
+	 * @param bytes
+	 *            geometry blob bytes
+	 * @return entry, or null when the geometry must be parsed
+	 */
+	private static Entry readHeader(byte[] bytes) {
+
+		Entry entry = null;
+
+		if (bytes.length >= ENVELOPE_OFFSET && bytes[0] == 'G'
+				&& bytes[1] == 'P' && bytes[2] == 0) {
+
+			int flags = bytes[FLAGS_OFFSET];
+			boolean empty = ((flags >> 4) & 1) == 1;
+			boolean extended = ((flags >> 5) & 1) == 1;
+			int indicator = (flags >> 1) & 7;
+
+			if (indicator > 0 && indicator <= 4
+					&& bytes.length >= ENVELOPE_OFFSET
+							+ envelopeLength(indicator)) {
+
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				buffer.order((flags & 1) == 0 ? ByteOrder.BIG_ENDIAN
+						: ByteOrder.LITTLE_ENDIAN);
+				GeometryEnvelope envelope = new GeometryEnvelope(
+						buffer.getDouble(ENVELOPE_OFFSET),
+						buffer.getDouble(ENVELOPE_OFFSET + 16),
+						buffer.getDouble(ENVELOPE_OFFSET + 8),
+						buffer.getDouble(ENVELOPE_OFFSET + 24));
+				int offset = ENVELOPE_OFFSET + 32;
+				if (indicator == 2 || indicator == 4) {
+					envelope.setHasZ(true);
+					envelope.setMinZ(buffer.getDouble(offset));
+					envelope.setMaxZ(buffer.getDouble(offset + 8));
+					offset += 16;
+				}
+				if (indicator == 3 || indicator == 4) {
+					envelope.setHasM(true);
+					envelope.setMinM(buffer.getDouble(offset));
+					envelope.setMaxM(buffer.getDouble(offset + 8));
+				}
+				entry = new Entry(null, empty, envelope);
+
+			} else if (indicator == 0) {
+				if (empty) {
+					entry = new Entry(null, true, null);
+				} else if (!extended) {
+					Bounds bounds = scan(bytes, ENVELOPE_OFFSET);
+					if (bounds != null) {
+						GeometryEnvelope envelope = bounds.toEnvelope();
+						entry = new Entry(null, envelope == null, envelope);
+					}
+				}
+			}
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Get the header envelope length in bytes
+	 *
+	 * @param indicator
+	 *            envelope contents indicator
+	 * @return envelope length
+	 */
+	private static int envelopeLength(int indicator) {
+		return indicator == 1 ? 32 : (indicator == 4 ? 64 : 48);
+	}
+
+	/**
+	 * Scan the well-known binary geometry coordinates for the bounds, without
+	 * building the geometry
+	 *
+	 * @param bytes
+	 *            geometry blob bytes
+	 * @param offset
+	 *            well-known binary offset
+	 * @return bounds, or null when the geometry must be parsed
+	 */
+	private static Bounds scan(byte[] bytes, int offset) {
+		Bounds bounds = new Bounds();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		buffer.position(offset);
+		try {
+			if (!scanGeometry(buffer, bounds)) {
+				bounds = null;
+			}
+		} catch (RuntimeException e) {
+			// Malformed or truncated, leave to the geometry parser
+			bounds = null;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Scan a well-known binary geometry, expanding the bounds by its
+	 * coordinates
+	 *
+	 * @param buffer
+	 *            byte buffer positioned at the geometry
+	 * @param bounds
+	 *            bounds
+	 * @return false if the geometry type is not supported by the scan
+	 */
+	private static boolean scanGeometry(ByteBuffer buffer, Bounds bounds) {
+
+		buffer.order(buffer.get() == 0 ? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN);
+		long typeCode = buffer.getInt() & 0xffffffffL;
+
+		// Extended well-known binary dimension and SRID flags
+		boolean hasZ = (typeCode & 0x80000000L) != 0;
+		boolean hasM = (typeCode & 0x40000000L) != 0;
+		if ((typeCode & 0x20000000L) != 0) {
+			buffer.getInt();
+		}
+		typeCode &= 0x0fffffffL;
+
+		// ISO well-known binary dimension thousands
+		int dimension = (int) (typeCode / 1000);
+		hasZ = hasZ || dimension == 1 || dimension == 3;
+		hasM = hasM || dimension == 2 || dimension == 3;
+
+		boolean supported = true;
+
+		switch ((int) (typeCode % 1000)) {
+		case 1: // Point
+			scanPoints(buffer, 1, hasZ, hasM, bounds);
+			break;
+		case 2: // LineString
+		case 8: // CircularString
+			scanPoints(buffer, buffer.getInt(), hasZ, hasM, bounds);
+			break;
+		case 3: // Polygon
+		case 17: // Triangle
+			int rings = buffer.getInt();
+			for (int i = 0; i < rings; i++) {
+				scanPoints(buffer, buffer.getInt(), hasZ, hasM, bounds);
+			}
+			break;
+		case 4: // MultiPoint
+		case 5: // MultiLineString
+		case 6: // MultiPolygon
+		case 7: // GeometryCollection
+		case 9: // CompoundCurve
+		case 10: // CurvePolygon
+		case 11: // MultiCurve
+		case 12: // MultiSurface
+		case 15: // PolyhedralSurface
+		case 16: // TIN
+			int geometries = buffer.getInt();
+			for (int i = 0; supported && i < geometries; i++) {
+				supported = scanGeometry(buffer, bounds);
+			}
+			break;
+		default:
+			supported = false;
+		}
+
+		return supported;
+	}
+
+	/**
+	 * Scan well-known binary points, expanding the bounds. Points with NaN
+	 * coordinates (empty points) are skipped.
+	 *
+	 * @param buffer
+	 *            byte buffer positioned at the first point
+	 * @param count
+	 *            number of points
+	 * @param hasZ
+	 *            points have z values
+	 * @param hasM
+	 *            points have m values
+	 * @param bounds
+	 *            bounds
+	 */
+	private static void scanPoints(ByteBuffer buffer, int count,
+			boolean hasZ, boolean hasM, Bounds bounds) {
+		for (int i = 0; i < count; i++) {
+			double x = buffer.getDouble();
+			double y = buffer.getDouble();
+			double z = hasZ ? buffer.getDouble() : Double.NaN;
+			double m = hasM ? buffer.getDouble() : Double.NaN;
+			if (!Double.isNaN(x) && !Double.isNaN(y)) {
+				bounds.expand(x, y, z, m);
+			}
+		}
+	}
+
+	/**
+	 * Scanned coordinate bounds
+	 */
+	private static class Bounds {
+
+		/**
+		 * Number of coordinates
+		 */
+		private int count = 0;
+
+		/**
+		 * X and y range
+		 */
+		private double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE,
+				maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+
+		/**
+		 * Z range
+		 */
+		private double minZ = Double.NaN, maxZ = Double.NaN;
+
+		/**
+		 * M range
+		 */
+		private double minM = Double.NaN, maxM = Double.NaN;
+
+		/**
+		 * Expand the bounds by the coordinate
+		 *
+		 * @param x
+		 *            x value
+		 * @param y
+		 *            y value
+		 * @param z
+		 *            z value or NaN
+		 * @param m
+		 *            m value or NaN
+		 */
+		private void expand(double x, double y, double z, double m) {
+			count++;
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+			if (!Double.isNaN(z)) {
+				minZ = Double.isNaN(minZ) ? z : Math.min(minZ, z);
+				maxZ = Double.isNaN(maxZ) ? z : Math.max(maxZ, z);
+			}
+			if (!Double.isNaN(m)) {
+				minM = Double.isNaN(minM) ? m : Math.min(minM, m);
+				maxM = Double.isNaN(maxM) ? m : Math.max(maxM, m);
+			}
+		}
+
+		/**
+		 * Create the envelope of the bounds
+		 *
+		 * @return envelope, null when no coordinates were scanned
+		 */
+		private GeometryEnvelope toEnvelope() {
+			GeometryEnvelope envelope = null;
+			if (count > 0) {
+				envelope = new GeometryEnvelope(minX, minY, maxX, maxY);
+				if (!Double.isNaN(minZ)) {
+					envelope.setHasZ(true);
+					envelope.setMinZ(minZ);
+					envelope.setMaxZ(maxZ);
+				}
+				if (!Double.isNaN(minM)) {
+					envelope.setHasM(true);
+					envelope.setMinM(minM);
+					envelope.setMaxM(maxM);
+				}
+			}
+			return envelope;
+		}
+
+	}
+
+	/**
+	 * Read geometry blob envelope and empty flag
+	 */
+	static class Entry {
+
+		/**
+		 * Null blob entry
+		 */
+		private static final Entry NULL = new Entry(null, true, null);
+
+		/**
+		 * Parsed geometry blob bytes
+		 */
+		private final byte[] bytes;
+
+		/**
+		 * Empty flag
+		 */
+		final boolean empty;
+
+		/**
+		 * Envelope
+		 */
+		final GeometryEnvelope envelope;
+
+		/**
+		 * Constructor
+		 *
+		 * @param bytes
+		 *            parsed geometry blob bytes
+		 * @param empty
+		 *            empty flag
+		 * @param envelope
+		 *            envelope
+		 */
+		private Entry(byte[] bytes, boolean empty, GeometryEnvelope envelope) {
+			this.bytes = bytes;
+			this.empty = empty;
+			this.envelope = envelope;
+		}
+
+	}
+
+}
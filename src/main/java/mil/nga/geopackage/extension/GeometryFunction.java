@@ -23,6 +23,22 @@ public abstract class GeometryFunction extends Function {
 	 */
 	public abstract Object execute(GeoPackageGeometryData geometryData);
 
+	/**
+	 * Execute the function on the geometry column blob
+	 *
+	 * @param bytes
+	 *            geometry blob bytes
+	 * @return function result
+	 * @since 3.4.1
+	 */
+	protected Object execute(byte[] bytes) {
+		GeoPackageGeometryData geometryData = null;
+		if (bytes != null && bytes.length > 0) {
+			geometryData = new GeoPackageGeometryData(bytes);
+		}
+		return execute(geometryData);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -36,12 +52,8 @@ public abstract class GeometryFunction extends Function {
 		}
 
 		byte[] bytes = value_blob(0);
-		GeoPackageGeometryData geometryData = null;
-		if (bytes != null && bytes.length > 0) {
-			geometryData = new GeoPackageGeometryData(bytes);
-		}
 
-		Object response = execute(geometryData);
+		Object response = execute(bytes);
 
 		if (response == null) {
 			result();
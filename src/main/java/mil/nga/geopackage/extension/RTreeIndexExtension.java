@@ -8,8 +8,10 @@ import org.sqlite.Function;
 
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.extension.index.GeometryIndexBuilder;
 import mil.nga.geopackage.features.user.FeatureDao;
-import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.features.user.FeatureTable;
+import mil.nga.geopackage.io.GeoPackageProgress;
 import mil.nga.geopackage.user.custom.UserCustomDao;
 import mil.nga.geopackage.user.custom.UserCustomTable;
 import mil.nga.sf.GeometryEnvelope;
@@ -28,6 +30,11 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 	private static final Logger log = Logger
 			.getLogger(RTreeIndexExtension.class.getName());
 
+	/**
+	 * Envelope reader shared by the geometry functions
+	 */
+	private final GeometryEnvelopeReader envelopeReader = new GeometryEnvelopeReader();
+
 	/**
 	 * Constructor
 	 * 
@@ -38,6 +45,17 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 		super(geoPackage);
 	}
 
+	/**
+	 * Get the envelope reader shared by the geometry functions created by this
+	 * extension
+	 *
+	 * @return envelope reader
+	 * @since 3.4.1
+	 */
+	public GeometryEnvelopeReader getEnvelopeReader() {
+		return envelopeReader;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -76,16 +94,50 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 		return new RTreeIndexTableDao(this, userCustomDao, featureDao);
 	}
 
+	/**
+	 * Create the RTree Index extension for the feature table, loading the
+	 * RTree with a {@link GeometryIndexBuilder} reading, decoding, and writing
+	 * geometry envelopes concurrently
+	 *
+	 * @param featureDao
+	 *            feature dao
+	 * @param threads
+	 *            number of geometry decode threads
+	 * @param progress
+	 *            progress, may be null
+	 * @return extension
+	 * @since 3.4.1
+	 */
+	public Extensions create(FeatureDao featureDao, int threads,
+			GeoPackageProgress progress) {
+
+		FeatureTable table = featureDao.getTable();
+
+		Extensions extension = getOrCreate(table);
+
+		createAllFunctions();
+		createRTreeIndex(table);
+
+		GeometryIndexBuilder builder = new GeometryIndexBuilder(featureDao,
+				threads);
+		builder.setProgress(progress);
+		builder.indexRTree();
+
+		createAllTriggers(table);
+
+		return extension;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void createMinXFunction() {
-		createFunction(MIN_X_FUNCTION, new GeometryFunction() {
+		createFunction(MIN_X_FUNCTION, new GeometryEnvelopeFunction(
+				envelopeReader) {
 			@Override
-			public Object execute(GeoPackageGeometryData data) {
+			public Object execute(boolean empty, GeometryEnvelope envelope) {
 				Object value = null;
-				GeometryEnvelope envelope = getEnvelope(data);
 				if (envelope != null) {
 					value = envelope.getMinX();
 				}
@@ -99,11 +151,11 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 	 */
 	@Override
 	public void createMaxXFunction() {
-		createFunction(MAX_X_FUNCTION, new GeometryFunction() {
+		createFunction(MAX_X_FUNCTION, new GeometryEnvelopeFunction(
+				envelopeReader) {
 			@Override
-			public Object execute(GeoPackageGeometryData data) {
+			public Object execute(boolean empty, GeometryEnvelope envelope) {
 				Object value = null;
-				GeometryEnvelope envelope = getEnvelope(data);
 				if (envelope != null) {
 					value = envelope.getMaxX();
 				}
@@ -117,11 +169,11 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 	 */
 	@Override
 	public void createMinYFunction() {
-		createFunction(MIN_Y_FUNCTION, new GeometryFunction() {
+		createFunction(MIN_Y_FUNCTION, new GeometryEnvelopeFunction(
+				envelopeReader) {
 			@Override
-			public Object execute(GeoPackageGeometryData data) {
+			public Object execute(boolean empty, GeometryEnvelope envelope) {
 				Object value = null;
-				GeometryEnvelope envelope = getEnvelope(data);
 				if (envelope != null) {
 					value = envelope.getMinY();
 				}
@@ -135,11 +187,11 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 	 */
 	@Override
 	public void createMaxYFunction() {
-		createFunction(MAX_Y_FUNCTION, new GeometryFunction() {
+		createFunction(MAX_Y_FUNCTION, new GeometryEnvelopeFunction(
+				envelopeReader) {
 			@Override
-			public Object execute(GeoPackageGeometryData data) {
+			public Object execute(boolean empty, GeometryEnvelope envelope) {
 				Object value = null;
-				GeometryEnvelope envelope = getEnvelope(data);
 				if (envelope != null) {
 					value = envelope.getMaxY();
 				}
@@ -153,11 +205,11 @@ public class RTreeIndexExtension extends RTreeIndexCoreExtension {
 	 */
 	@Override
 	public void createIsEmptyFunction() {
-		createFunction(IS_EMPTY_FUNCTION, new GeometryFunction() {
+		createFunction(IS_EMPTY_FUNCTION, new GeometryEnvelopeFunction(
+				envelopeReader) {
 			@Override
-			public Object execute(GeoPackageGeometryData data) {
-				return data == null || data.isEmpty()
-						|| data.getGeometry() == null;
+			public Object execute(boolean empty, GeometryEnvelope envelope) {
+				return empty;
 			}
 		});
 	}
@@ -45,6 +45,12 @@ public class RTreeIndexTableDao extends UserCustomDao {
 	 */
 	protected double tolerance = .00000000000001;
 
+	/**
+	 * Number of geometry decode threads when creating the extension, loads
+	 * the RTree with a single SQL statement when 1
+	 */
+	protected int threads = 1;
+
 	/**
 	 * Constructor
 	 * 
@@ -92,6 +98,29 @@ public class RTreeIndexTableDao extends UserCustomDao {
 		this.tolerance = tolerance;
 	}
 
+	/**
+	 * Get the number of geometry decode threads when creating the extension
+	 *
+	 * @return threads
+	 * @since 3.4.1
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Set the number of geometry decode threads when creating the extension.
+	 * When greater than 1, the RTree is loaded by a
+	 * {@link mil.nga.geopackage.extension.index.GeometryIndexBuilder}.
+	 *
+	 * @param threads
+	 *            threads
+	 * @since 3.4.1
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
 	/**
 	 * Determine if this feature table has the RTree extension
 	 * 
@@ -109,9 +138,13 @@ public class RTreeIndexTableDao extends UserCustomDao {
 	public Extensions create() {
 		Extensions extension = null;
 		if (!has()) {
-			extension = rTree.create(featureDao.getTable());
-			if (progress != null) {
-				progress.addProgress(count());
+			if (threads > 1) {
+				extension = rTree.create(featureDao, threads, progress);
+			} else {
+				extension = rTree.create(featureDao.getTable());
+				if (progress != null) {
+					progress.addProgress(count());
+				}
 			}
 		}
 		return extension;
@@ -835,7 +868,7 @@ public class RTreeIndexTableDao extends UserCustomDao {
 		validateRTree();
 		String where = buildWhere(minX, minY, maxX, maxY);
 		String[] whereArgs = buildWhereArgs(minX, minY, maxX, maxY);
-		return query(where, whereArgs);
+		return queryCached(where, whereArgs);
 	}
 
 	/**
@@ -22,6 +22,8 @@ import mil.nga.geopackage.tiles.user.TileTable;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionTransform;
 
+import org.locationtech.proj4j.ProjCoordinate;
+
 /**
  * Tiled Gridded Coverage Data, abstract Common Encoding, Extension
  * 
@@ -281,6 +283,20 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 	public abstract byte[] drawTileData(GriddedTile griddedTile,
 			Double[][] values);
 
+	/**
+	 * Draw a coverage data image tile and format as image bytes from the
+	 * coverage data grid
+	 * 
+	 * @param griddedTile
+	 *            gridded tile
+	 * @param grid
+	 *            coverage data grid
+	 * @return coverage data image tile bytes
+	 * @since 3.4.1
+	 */
+	public abstract byte[] drawTileData(GriddedTile griddedTile,
+			CoverageDataGrid grid);
+
 	/**
 	 * Get the tile dao
 	 * 
@@ -296,8 +312,74 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 	@Override
 	public CoverageDataResults getValues(CoverageDataRequest request,
 			Integer width, Integer height) {
-
 		CoverageDataResults coverageDataResults = null;
+		CoverageDataGrid grid = getGrid(request, width, height);
+		if (grid != null) {
+			coverageDataResults = grid.toResults();
+		}
+		return coverageDataResults;
+	}
+
+	/**
+	 * Get the coverage data grid within the bounding box
+	 * 
+	 * @param requestBoundingBox
+	 *            request bounding box
+	 * @return coverage data grid
+	 * @since 3.4.1
+	 */
+	public CoverageDataGrid getGrid(BoundingBox requestBoundingBox) {
+		return getGrid(new CoverageDataRequest(requestBoundingBox));
+	}
+
+	/**
+	 * Get the coverage data grid within the bounding box with the requested
+	 * width and height result size
+	 * 
+	 * @param requestBoundingBox
+	 *            request bounding box
+	 * @param width
+	 *            coverage data request width
+	 * @param height
+	 *            coverage data request height
+	 * @return coverage data grid
+	 * @since 3.4.1
+	 */
+	public CoverageDataGrid getGrid(BoundingBox requestBoundingBox,
+			Integer width, Integer height) {
+		return getGrid(new CoverageDataRequest(requestBoundingBox), width,
+				height);
+	}
+
+	/**
+	 * Get the requested coverage data grid
+	 * 
+	 * @param request
+	 *            coverage data request
+	 * @return coverage data grid
+	 * @since 3.4.1
+	 */
+	public CoverageDataGrid getGrid(CoverageDataRequest request) {
+		return getGrid(request, width, height);
+	}
+
+	/**
+	 * Get the requested coverage data grid with the requested width and height
+	 * result size, storing values in a primitive grid rather than boxed values
+	 * 
+	 * @param request
+	 *            coverage data request
+	 * @param width
+	 *            coverage data request width
+	 * @param height
+	 *            coverage data request height
+	 * @return coverage data grid
+	 * @since 3.4.1
+	 */
+	public CoverageDataGrid getGrid(CoverageDataRequest request,
+			Integer width, Integer height) {
+
+		CoverageDataGrid grid = null;
 
 		// Transform to the projection of the coverage data tiles
 		ProjectionTransform transformRequestToCoverage = null;
@@ -362,12 +444,12 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 				}
 
 				// Retrieve the coverage data from the results
-				Double[][] values = getValues(tileMatrix, tileResults, request,
-						tileWidth, tileHeight, overlappingPixels);
+				grid = getGrid(tileMatrix, tileResults, request, tileWidth,
+						tileHeight, overlappingPixels);
 
 				// Project the coverage data if needed
-				if (values != null && !sameProjection && !request.isPoint()) {
-					values = reprojectCoverageData(values,
+				if (grid != null && !sameProjection && !request.isPoint()) {
+					grid = reprojectCoverageData(grid,
 							requestedCoverageDataWidth,
 							requestedCoverageDataHeight,
 							request.getBoundingBox(),
@@ -375,17 +457,12 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 							requestProjectedBoundingBox);
 				}
 
-				// Create the results
-				if (values != null) {
-					coverageDataResults = new CoverageDataResults(values,
-							tileMatrix);
-				}
 			} finally {
 				tileResults.close();
 			}
 		}
 
-		return coverageDataResults;
+		return grid;
 	}
 
 	/**
@@ -508,7 +585,7 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 		TileResultSet tileResults = retrieveSortedTileResults(
 				paddedBoundingBox, tileMatrix);
 		if (tileResults != null) {
-			if (tileResults.getCount() > 0) {
+			if (!tileResults.isEmpty()) {
 				results = new CoverageDataTileMatrixResults(tileMatrix,
 						tileResults);
 			} else {
@@ -630,13 +707,13 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 	 *            tile height
 	 * @param overlappingPixels
 	 *            overlapping request pixels
-	 * @return coverage data values
+	 * @return coverage data grid
 	 */
-	private Double[][] getValues(TileMatrix tileMatrix,
+	private CoverageDataGrid getGrid(TileMatrix tileMatrix,
 			TileResultSet tileResults, CoverageDataRequest request,
 			int tileWidth, int tileHeight, int overlappingPixels) {
 
-		Double[][] values = null;
+		CoverageDataGrid grid = null;
 
 		// Tiles are ordered by rows and then columns. Track the last column
 		// coverage data of the tile to the left and the last rows of the tiles
@@ -726,8 +803,9 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 				if (src.isValidAllowEmpty() && dest.isValidAllowEmpty()) {
 
 					// Create the coverage data array first time through
-					if (values == null) {
-						values = new Double[tileHeight][tileWidth];
+					if (grid == null) {
+						grid = new CoverageDataGrid(tileWidth, tileHeight,
+								tileMatrix);
 					}
 
 					// Get the destination widths
@@ -782,7 +860,7 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 					for (int y = minDestY; y <= maxDestY; y++) {
 						for (int x = minDestX; x <= maxDestX; x++) {
 
-							if (values[y][x] == null) {
+							if (grid.isNull(x, y)) {
 
 								// Determine the coverage data based upon the
 								// selected algorithm
@@ -822,7 +900,7 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 								}
 
 								if (value != null) {
-									values[y][x] = value;
+									grid.setValue(x, y, value);
 								}
 
 							}
@@ -868,7 +946,7 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 			previousColumn = currentColumn;
 		}
 
-		return values;
+		return grid;
 	}
 
 	/**
@@ -990,6 +1068,103 @@ public abstract class CoverageData<TImage extends CoverageDataImage> extends
 		return values;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Double[][] reprojectCoverageData(Double[][] values,
+			int requestedCoverageDataWidth, int requestedCoverageDataHeight,
+			BoundingBox requestBoundingBox,
+			ProjectionTransform transformRequestToCoverage,
+			BoundingBox coverageBoundingBox) {
+		return reprojectCoverageData(new CoverageDataGrid(values, null),
+				requestedCoverageDataWidth, requestedCoverageDataHeight,
+				requestBoundingBox, transformRequestToCoverage,
+				coverageBoundingBox).toArray();
+	}
+
+	/**
+	 * Reproject the coverage data grid to the requested projection
+	 *
+	 * @param grid
+	 *            coverage data grid
+	 * @param requestedCoverageDataWidth
+	 *            requested coverage data width
+	 * @param requestedCoverageDataHeight
+	 *            requested coverage data height
+	 * @param requestBoundingBox
+	 *            request bounding box in the request projection
+	 * @param transformRequestToCoverage
+	 *            transformation from request to coverage data
+	 * @param coverageBoundingBox
+	 *            coverage data bounding box
+	 * @return projected coverage data grid
+	 * @since 3.4.1
+	 */
+	protected CoverageDataGrid reprojectCoverageData(CoverageDataGrid grid,
+			int requestedCoverageDataWidth, int requestedCoverageDataHeight,
+			BoundingBox requestBoundingBox,
+			ProjectionTransform transformRequestToCoverage,
+			BoundingBox coverageBoundingBox) {
+
+		double requestedWidthUnitsPerPixel = (requestBoundingBox
+				.getMaxLongitude() - requestBoundingBox.getMinLongitude())
+				/ requestedCoverageDataWidth;
+		double requestedHeightUnitsPerPixel = (requestBoundingBox
+				.getMaxLatitude() - requestBoundingBox.getMinLatitude())
+				/ requestedCoverageDataHeight;
+
+		double tilesDistanceWidth = coverageBoundingBox.getMaxLongitude()
+				- coverageBoundingBox.getMinLongitude();
+		double tilesDistanceHeight = coverageBoundingBox.getMaxLatitude()
+				- coverageBoundingBox.getMinLatitude();
+
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+
+		CoverageDataGrid projectedGrid = new CoverageDataGrid(
+				requestedCoverageDataWidth, requestedCoverageDataHeight,
+				grid.getTileMatrix());
+
+		// Retrieve each coverage data value in the unprojected coverage data
+		for (int y = 0; y < requestedCoverageDataHeight; y++) {
+			for (int x = 0; x < requestedCoverageDataWidth; x++) {
+
+				double longitude = requestBoundingBox.getMinLongitude()
+						+ (x * requestedWidthUnitsPerPixel);
+				double latitude = requestBoundingBox.getMaxLatitude()
+						- (y * requestedHeightUnitsPerPixel);
+				ProjCoordinate fromCoord = new ProjCoordinate(longitude,
+						latitude);
+				ProjCoordinate toCoord = transformRequestToCoverage
+						.transform(fromCoord);
+				double projectedLongitude = toCoord.x;
+				double projectedLatitude = toCoord.y;
+
+				int xPixel = (int) Math
+						.round(((projectedLongitude - coverageBoundingBox
+								.getMinLongitude()) / tilesDistanceWidth)
+								* width);
+				int yPixel = (int) Math
+						.round(((coverageBoundingBox.getMaxLatitude() - projectedLatitude) / tilesDistanceHeight)
+								* height);
+
+				xPixel = Math.max(0, xPixel);
+				xPixel = Math.min(width - 1, xPixel);
+
+				yPixel = Math.max(0, yPixel);
+				yPixel = Math.min(height - 1, yPixel);
+
+				if (!grid.isNull(xPixel, yPixel)) {
+					projectedGrid.setValue(x, y,
+							grid.getValues()[grid.getIndex(xPixel, yPixel)]);
+				}
+			}
+		}
+
+		return projectedGrid;
+	}
+
 	/**
 	 * Get the tile matrix for the zoom level as defined by the area of the
 	 * request
@@ -0,0 +1,268 @@
+package mil.nga.geopackage.extension.coverage;
+
+import java.util.BitSet;
+
+import mil.nga.geopackage.tiles.matrix.TileMatrix;
+
+/**
+ * Coverage Data Grid, coverage data results stored as a flat primitive array
+ * of values with a separate null mask. Each value is at: (y * width) + x
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class CoverageDataGrid {
+
+	/**
+	 * Values, of length width * height
+	 */
+	private final double[] values;
+
+	/**
+	 * Null value mask, a set bit indicates a null value
+	 */
+	private final BitSet nulls;
+
+	/**
+	 * Width
+	 */
+	private final int width;
+
+	/**
+	 * Height
+	 */
+	private final int height;
+
+	/**
+	 * Tile matrix used to create the values
+	 */
+	private final TileMatrix tileMatrix;
+
+	/**
+	 * Constructor, all values are initially null
+	 *
+	 * @param width
+	 *            width
+	 * @param height
+	 *            height
+	 * @param tileMatrix
+	 *            tile matrix used to create the values
+	 */
+	public CoverageDataGrid(int width, int height, TileMatrix tileMatrix) {
+		this.width = width;
+		this.height = height;
+		this.tileMatrix = tileMatrix;
+		int size = width * height;
+		values = new double[size];
+		nulls = new BitSet(size);
+		nulls.set(0, size);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param results
+	 *            coverage data results
+	 */
+	public CoverageDataGrid(CoverageDataResults results) {
+		this(results.getValues(), results.getTileMatrix());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param values
+	 *            coverage data values as [row][width]
+	 * @param tileMatrix
+	 *            tile matrix used to create the values
+	 */
+	public CoverageDataGrid(Double[][] values, TileMatrix tileMatrix) {
+		this(values[0].length, values.length, tileMatrix);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				Double value = values[y][x];
+				if (value != null) {
+					setValue(x, y, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the width
+	 *
+	 * @return width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Get the height
+	 *
+	 * @return height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Get the tile matrix used to create the values
+	 *
+	 * @return tile matrix
+	 */
+	public TileMatrix getTileMatrix() {
+		return tileMatrix;
+	}
+
+	/**
+	 * Get the zoom level of the tile matrix used to create the values
+	 *
+	 * @return zoom level
+	 */
+	public long getZoomLevel() {
+		return tileMatrix.getZoomLevel();
+	}
+
+	/**
+	 * Get the flat values array, where each value is at: (y * width) + x.
+	 * Values of null entries are undefined, check {@link #getNulls()}.
+	 *
+	 * @return values
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Get the null value mask, where a set bit at (y * width) + x indicates a
+	 * null value
+	 *
+	 * @return null mask
+	 */
+	public BitSet getNulls() {
+		return nulls;
+	}
+
+	/**
+	 * Get the flat index of the coordinate
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @return index
+	 */
+	public int getIndex(int x, int y) {
+		return (y * width) + x;
+	}
+
+	/**
+	 * Determine if the coordinate value is null
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @return true if null
+	 */
+	public boolean isNull(int x, int y) {
+		return nulls.get(getIndex(x, y));
+	}
+
+	/**
+	 * Determine if any value is not null
+	 *
+	 * @return true if at least one value
+	 */
+	public boolean hasValues() {
+		return nulls.nextClearBit(0) < values.length;
+	}
+
+	/**
+	 * Get the coordinate value
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @return value or null
+	 */
+	public Double getValue(int x, int y) {
+		Double value = null;
+		int index = getIndex(x, y);
+		if (!nulls.get(index)) {
+			value = values[index];
+		}
+		return value;
+	}
+
+	/**
+	 * Get the coordinate value without boxing
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @param nullValue
+	 *            value returned when null
+	 * @return value or null value
+	 */
+	public double getValue(int x, int y, double nullValue) {
+		int index = getIndex(x, y);
+		return nulls.get(index) ? nullValue : values[index];
+	}
+
+	/**
+	 * Set the coordinate value
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @param value
+	 *            value
+	 */
+	public void setValue(int x, int y, double value) {
+		int index = getIndex(x, y);
+		values[index] = value;
+		nulls.clear(index);
+	}
+
+	/**
+	 * Set the coordinate value to null
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 */
+	public void setNull(int x, int y) {
+		nulls.set(getIndex(x, y));
+	}
+
+	/**
+	 * Get the values as a double array formatted as Double[row][width]
+	 *
+	 * @return values
+	 */
+	public Double[][] toArray() {
+		Double[][] array = new Double[height][width];
+		for (int index = nulls.nextClearBit(0); index < values.length; index = nulls
+				.nextClearBit(index + 1)) {
+			array[index / width][index % width] = values[index];
+		}
+		return array;
+	}
+
+	/**
+	 * Get the values as coverage data results backed by this grid, boxing the
+	 * values only when requested as a Double[row][width] array
+	 *
+	 * @return coverage data results
+	 */
+	public CoverageDataGridResults toResults() {
+		return new CoverageDataGridResults(this);
+	}
+
+}
@@ -0,0 +1,91 @@
+package mil.nga.geopackage.extension.coverage;
+
+/**
+ * Coverage Data Grid Results, coverage data results backed by a primitive
+ * {@link CoverageDataGrid}. Individual values are read from the grid and the
+ * Double[row][width] values array is only created when requested.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class CoverageDataGridResults extends CoverageDataResults {
+
+	/**
+	 * Coverage data grid
+	 */
+	private final CoverageDataGrid grid;
+
+	/**
+	 * Boxed values, created when first requested
+	 */
+	private Double[][] values = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param grid
+	 *            coverage data grid
+	 */
+	public CoverageDataGridResults(CoverageDataGrid grid) {
+		// The values are read from the grid, pass a minimal array to satisfy
+		// the results dimension checks
+		super(new Double[][] { new Double[0] }, grid.getTileMatrix());
+		this.grid = grid;
+	}
+
+	/**
+	 * Get the coverage data grid
+	 *
+	 * @return coverage data grid
+	 */
+	public CoverageDataGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Get the primitive values array, where each value is at: (y * width) +
+	 * x. Values of null entries are undefined, check
+	 * {@link CoverageDataGrid#getNulls()}.
+	 *
+	 * @return values
+	 */
+	public double[] getPrimitiveValues() {
+		return grid.getValues();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Double[][] getValues() {
+		if (values == null) {
+			values = grid.toArray();
+		}
+		return values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getHeight() {
+		return grid.getHeight();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getWidth() {
+		return grid.getWidth();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Double getValue(int row, int column) {
+		return grid.getValue(column, row);
+	}
+
+}
@@ -5,6 +5,7 @@ import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferUShort;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
+import java.util.BitSet;
 
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
@@ -614,6 +615,52 @@ public class CoverageDataPng extends CoverageData<CoverageDataPngImage> {
 		return bytes;
 	}
 
+	/**
+	 * Draw a coverage data image tile from the coverage data grid
+	 * 
+	 * @param griddedTile
+	 *            gridded tile
+	 * @param grid
+	 *            coverage data grid
+	 * @return coverage data image tile
+	 * @since 3.4.1
+	 */
+	public BufferedImage drawTile(GriddedTile griddedTile,
+			CoverageDataGrid grid) {
+
+		int tileWidth = grid.getWidth();
+		int tileHeight = grid.getHeight();
+
+		short nullPixelValue = getPixelValue(griddedTile, null);
+
+		double[] values = grid.getValues();
+		BitSet nulls = grid.getNulls();
+		short[] pixelValues = new short[values.length];
+		for (int i = 0; i < values.length; i++) {
+			if (nulls.get(i)) {
+				pixelValues[i] = nullPixelValue;
+			} else {
+				pixelValues[i] = getPixelValue(griddedTile, values[i]);
+			}
+		}
+
+		BufferedImage image = createImage(tileWidth, tileHeight);
+		image.getRaster().setDataElements(0, 0, tileWidth, tileHeight,
+				pixelValues);
+
+		return image;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] drawTileData(GriddedTile griddedTile, CoverageDataGrid grid) {
+		BufferedImage image = drawTile(griddedTile, grid);
+		byte[] bytes = getImageBytes(image);
+		return bytes;
+	}
+
 	/**
 	 * Create a new unsigned 16 bit short grayscale image
 	 * 
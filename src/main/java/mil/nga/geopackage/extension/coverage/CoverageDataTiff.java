@@ -1,5 +1,7 @@
 package mil.nga.geopackage.extension.coverage;
 
+import java.util.BitSet;
+
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.GeoPackageException;
@@ -385,6 +387,45 @@ public class CoverageDataTiff extends CoverageData<CoverageDataTiffImage> {
 		return bytes;
 	}
 
+	/**
+	 * Draw a coverage data image tile from the coverage data grid
+	 *
+	 * @param griddedTile
+	 *            gridded tile
+	 * @param grid
+	 *            coverage data grid
+	 * @return coverage data image tile
+	 * @since 3.4.1
+	 */
+	public CoverageDataTiffImage drawTile(GriddedTile griddedTile,
+			CoverageDataGrid grid) {
+
+		float nullPixelValue = getFloatPixelValue(griddedTile, null);
+
+		double[] values = grid.getValues();
+		BitSet nulls = grid.getNulls();
+		float[] pixelValues = new float[values.length];
+		for (int i = 0; i < values.length; i++) {
+			if (nulls.get(i)) {
+				pixelValues[i] = nullPixelValue;
+			} else {
+				pixelValues[i] = getFloatPixelValue(griddedTile, values[i]);
+			}
+		}
+
+		return drawTile(pixelValues, grid.getWidth(), grid.getHeight());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] drawTileData(GriddedTile griddedTile, CoverageDataGrid grid) {
+		CoverageDataTiffImage image = drawTile(griddedTile, grid);
+		byte[] bytes = image.getImageBytes();
+		return bytes;
+	}
+
 	/**
 	 * Create a new image
 	 *
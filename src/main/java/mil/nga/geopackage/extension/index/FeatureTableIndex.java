@@ -16,6 +16,7 @@ import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.features.user.FeatureResultSet;
 import mil.nga.geopackage.features.user.FeatureRow;
 import mil.nga.geopackage.features.user.FeatureRowSync;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
 import mil.nga.sf.GeometryEnvelope;
 import mil.nga.sf.proj.Projection;
 
@@ -47,6 +48,12 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 	 */
 	private final FeatureRowSync featureRowSync = new FeatureRowSync();
 
+	/**
+	 * Number of geometry decode threads when indexing the table, indexes in
+	 * chunks on the calling thread when 1
+	 */
+	private int threads = 1;
+
 	/**
 	 * Constructor
 	 * 
@@ -69,6 +76,29 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 		return featureDao.getProjection();
 	}
 
+	/**
+	 * Get the number of geometry decode threads when indexing the table
+	 *
+	 * @return threads
+	 * @since 3.4.1
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Set the number of geometry decode threads when indexing the table. When
+	 * greater than 1, a {@link GeometryIndexBuilder} reads, decodes, and
+	 * writes the geometry indices concurrently.
+	 *
+	 * @param threads
+	 *            threads
+	 * @since 3.4.1
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
 	/**
 	 * Close the table index
 	 */
@@ -108,13 +138,24 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 
 		int count = 0;
 
-		long offset = 0;
+		if (threads > 1) {
+			GeometryIndexBuilder builder = new GeometryIndexBuilder(
+					featureDao, threads);
+			builder.setBatchSize(chunkLimit);
+			builder.setProgress(progress);
+			count = builder.indexGeometryIndex(tableIndex);
+			if (progress == null || progress.isActive()) {
+				updateLastIndexed();
+			}
+			return count;
+		}
+
+		// Last indexed row id of each chunk, seek to the next chunk from it
+		final Long[] lastId = new Long[1];
 		int chunkCount = 0;
 
 		while (chunkCount >= 0) {
 
-			final long chunkOffset = offset;
-
 			try {
 				// Iterate through each row and index as a single transaction
 				ConnectionSource connectionSource = getGeoPackage()
@@ -124,8 +165,10 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 							public Integer call() throws Exception {
 
 								FeatureResultSet resultSet = featureDao
-										.queryForChunk(chunkLimit, chunkOffset);
-								int count = indexRows(tableIndex, resultSet);
+										.queryForIdChunk(chunkLimit,
+												lastId[0]);
+								int count = indexRows(tableIndex, resultSet,
+										lastId);
 
 								return count;
 							}
@@ -141,7 +184,6 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 						e);
 			}
 
-			offset += chunkLimit;
 		}
 
 		// Update the last indexed time
@@ -159,9 +201,12 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 	 *            table index
 	 * @param resultSet
 	 *            feature result
+	 * @param lastId
+	 *            single element array set to the last read row id
 	 * @return count, -1 if no results or canceled
 	 */
-	private int indexRows(TableIndex tableIndex, FeatureResultSet resultSet) {
+	private int indexRows(TableIndex tableIndex, FeatureResultSet resultSet,
+			Long[] lastId) {
 
 		int count = -1;
 
@@ -171,10 +216,10 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 				if (count < 0) {
 					count++;
 				}
+				lastId[0] = resultSet.getId();
 				try {
-					FeatureRow row = resultSet.getRow();
-					boolean indexed = index(tableIndex, row.getId(),
-							row.getGeometry());
+					boolean indexed = index(tableIndex, lastId[0],
+							resultSet.getGeometryEnvelope());
 					if (indexed) {
 						count++;
 					}
@@ -196,6 +241,28 @@ public class FeatureTableIndex extends FeatureTableCoreIndex {
 		return count;
 	}
 
+	/**
+	 * Index the geometry envelope, read without building the geometry
+	 * 
+	 * @param tableIndex
+	 *            table index
+	 * @param geomId
+	 *            geometry id
+	 * @param envelope
+	 *            geometry envelope
+	 * @return true if indexed
+	 */
+	private boolean index(TableIndex tableIndex, long geomId,
+			GeometryEnvelope envelope) {
+		GeoPackageGeometryData geometryData = null;
+		if (envelope != null) {
+			geometryData = new GeoPackageGeometryData(
+					featureDao.getGeometryColumns().getSrsId());
+			geometryData.setEnvelope(envelope);
+		}
+		return index(tableIndex, geomId, geometryData);
+	}
+
 	/**
 	 * Delete the index for the feature row
 	 *
@@ -0,0 +1,568 @@
+package mil.nga.geopackage.extension.index;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.extension.RTreeIndexCoreExtension;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.io.GeoPackageProgress;
+import mil.nga.geopackage.user.ContentValues;
+import mil.nga.geopackage.user.UserBatchInserter;
+import mil.nga.geopackage.user.custom.UserCustomColumn;
+import mil.nga.geopackage.user.custom.UserCustomRow;
+import mil.nga.geopackage.user.custom.UserCustomTable;
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * Geometry Index Builder, indexes feature geometries in three stages. A
+ * reader thread pages raw geometry blobs by row id in batches, a pool of
+ * worker threads decodes the blobs and computes the envelopes, and the
+ * calling thread batch inserts the envelopes into the Geometry Index table or
+ * an RTree virtual table. The reader uses a separate read only connection
+ * when the GeoPackage connection is committed. Otherwise the reader and
+ * writer take turns on the GeoPackage connection, one batch at a time.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class GeometryIndexBuilder {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger log = Logger
+			.getLogger(GeometryIndexBuilder.class.getName());
+
+	/**
+	 * Default number of rows read into a single batch
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	/**
+	 * Queue poll timeout in milliseconds, used to check for cancellation
+	 */
+	private static final long QUEUE_POLL_MILLIS = 100;
+
+	/**
+	 * Feature DAO
+	 */
+	private final FeatureDao featureDao;
+
+	/**
+	 * Number of decode worker threads
+	 */
+	private final int threads;
+
+	/**
+	 * Number of rows read into a single batch
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Progress
+	 */
+	private GeoPackageProgress progress;
+
+	/**
+	 * Constructor
+	 *
+	 * @param featureDao
+	 *            feature dao
+	 * @param threads
+	 *            number of decode worker threads
+	 */
+	public GeometryIndexBuilder(FeatureDao featureDao, int threads) {
+		this.featureDao = featureDao;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Get the feature dao
+	 *
+	 * @return feature dao
+	 */
+	public FeatureDao getFeatureDao() {
+		return featureDao;
+	}
+
+	/**
+	 * Get the number of decode worker threads
+	 *
+	 * @return threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Get the number of rows read into a single batch
+	 *
+	 * @return batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Set the number of rows read into a single batch
+	 *
+	 * @param batchSize
+	 *            batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Get the progress
+	 *
+	 * @return progress
+	 */
+	public GeoPackageProgress getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Set the progress, updated as each batch is written
+	 *
+	 * @param progress
+	 *            progress
+	 */
+	public void setProgress(GeoPackageProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Index the feature geometries into the Geometry Index table. The table
+	 * index geometry indices are expected to already be cleared.
+	 *
+	 * @param tableIndex
+	 *            table index
+	 * @return number of indexed geometries
+	 */
+	public int indexGeometryIndex(TableIndex tableIndex) {
+		final String tableName = tableIndex.getTableName();
+		return build(GeometryIndex.TABLE_NAME, false, new EnvelopeValues() {
+			@Override
+			public void populate(ContentValues values, long id,
+					GeometryEnvelope envelope) {
+				values.put(GeometryIndex.COLUMN_TABLE_NAME, tableName);
+				values.put(GeometryIndex.COLUMN_GEOM_ID, id);
+				values.put(GeometryIndex.COLUMN_MIN_X, envelope.getMinX());
+				values.put(GeometryIndex.COLUMN_MAX_X, envelope.getMaxX());
+				values.put(GeometryIndex.COLUMN_MIN_Y, envelope.getMinY());
+				values.put(GeometryIndex.COLUMN_MAX_Y, envelope.getMaxY());
+				values.put(GeometryIndex.COLUMN_MIN_Z, envelope.getMinZ());
+				values.put(GeometryIndex.COLUMN_MAX_Z, envelope.getMaxZ());
+				values.put(GeometryIndex.COLUMN_MIN_M, envelope.getMinM());
+				values.put(GeometryIndex.COLUMN_MAX_M, envelope.getMaxM());
+			}
+		});
+	}
+
+	/**
+	 * Index the feature geometries into the feature table RTree virtual table.
+	 * The RTree table is expected to already be created and empty.
+	 *
+	 * @return number of indexed geometries
+	 */
+	public int indexRTree() {
+		String rTreeTableName = RTreeIndexCoreExtension.RTREE_PREFIX
+				+ featureDao.getTableName() + "_"
+				+ featureDao.getGeometryColumnName();
+		return build(rTreeTableName, true, new EnvelopeValues() {
+			@Override
+			public void populate(ContentValues values, long id,
+					GeometryEnvelope envelope) {
+				values.put(RTreeIndexCoreExtension.COLUMN_ID, id);
+				values.put(RTreeIndexCoreExtension.COLUMN_MIN_X,
+						envelope.getMinX());
+				values.put(RTreeIndexCoreExtension.COLUMN_MAX_X,
+						envelope.getMaxX());
+				values.put(RTreeIndexCoreExtension.COLUMN_MIN_Y,
+						envelope.getMinY());
+				values.put(RTreeIndexCoreExtension.COLUMN_MAX_Y,
+						envelope.getMaxY());
+			}
+		});
+	}
+
+	/**
+	 * Build the index rows
+	 *
+	 * @param indexTableName
+	 *            index table name
+	 * @param skipEmpty
+	 *            true to not index empty geometries
+	 * @param envelopeValues
+	 *            index row content values populator
+	 * @return number of indexed geometries
+	 */
+	private int build(String indexTableName, final boolean skipEmpty,
+			EnvelopeValues envelopeValues) {
+
+		final GeoPackageConnection db = featureDao.getDb();
+		final Connection connection = featureDao.getConnection();
+
+		// Read on a separate connection when it sees the same data, otherwise
+		// take turns with the writer on the GeoPackage connection
+		final boolean separateReader = db.isCommitted();
+		final Object sharedLock = separateReader ? null : new Object();
+
+		final BlockingQueue<Batch> decodeQueue = new ArrayBlockingQueue<>(
+				threads * 2);
+		final BlockingQueue<Batch> writeQueue = new ArrayBlockingQueue<>(
+				threads * 2);
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		final AtomicReference<Exception> readError = new AtomicReference<>();
+		final CountDownLatch finished = new CountDownLatch(threads);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+
+		// Reader, streams batches of raw geometry blobs
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (separateReader) {
+						Connection readConnection = db.openReadConnection();
+						try {
+							read(readConnection, null, decodeQueue, cancelled);
+						} finally {
+							try {
+								readConnection.close();
+							} catch (SQLException e) {
+								log.log(Level.WARNING,
+										"Failed to close read connection", e);
+							}
+						}
+					} else {
+						read(connection, sharedLock, decodeQueue, cancelled);
+					}
+				} catch (Exception e) {
+					readError.set(e);
+					cancelled.set(true);
+				} finally {
+					try {
+						for (int i = 0; i < threads; i++) {
+							decodeQueue.put(Batch.END);
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+
+		// Workers, decode the blobs into envelopes
+		for (int i = 0; i < threads; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Batch batch;
+						while ((batch = decodeQueue.take()) != Batch.END) {
+							if (!cancelled.get()) {
+								batch.decode(skipEmpty);
+								writeQueue.put(batch);
+							}
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						finished.countDown();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+
+		// Writer, batch inserts the envelopes on the calling thread
+		int count = 0;
+		UserBatchInserter<UserCustomColumn, UserCustomTable, UserCustomRow> inserter = new UserBatchInserter<>(
+				connection, indexTableName);
+		inserter.setReturnIds(false);
+		boolean successful = false;
+		try {
+			ContentValues values = new ContentValues();
+			while (true) {
+
+				// Check if the progress has been cancelled
+				if (progress != null && !progress.isActive()) {
+					cancelled.set(true);
+				}
+
+				Batch batch = writeQueue.poll(QUEUE_POLL_MILLIS,
+						TimeUnit.MILLISECONDS);
+				if (batch != null) {
+					if (!cancelled.get()) {
+						if (sharedLock != null) {
+							synchronized (sharedLock) {
+								count += write(batch, inserter, values,
+										envelopeValues);
+							}
+						} else {
+							count += write(batch, inserter, values,
+									envelopeValues);
+						}
+						if (progress != null) {
+							progress.addProgress(batch.size);
+						}
+					}
+				} else if (finished.getCount() == 0 && writeQueue.isEmpty()) {
+					break;
+				}
+			}
+			successful = true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			cancelled.set(true);
+			decodeQueue.clear();
+			writeQueue.clear();
+			executor.shutdownNow();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE,
+						TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			inserter.close(successful && readError.get() == null);
+		}
+
+		if (readError.get() != null) {
+			throw new GeoPackageException(
+					"Failed to read geometries to index. Table: "
+							+ featureDao.getTableName(),
+					readError.get());
+		}
+
+		return count;
+	}
+
+	/**
+	 * Insert the index rows of the decoded batch envelopes
+	 *
+	 * @param batch
+	 *            decoded batch
+	 * @param inserter
+	 *            batch inserter
+	 * @param values
+	 *            reusable content values
+	 * @param envelopeValues
+	 *            index row content values populator
+	 * @return number of inserted rows
+	 */
+	private int write(Batch batch,
+			UserBatchInserter<UserCustomColumn, UserCustomTable, UserCustomRow> inserter,
+			ContentValues values, EnvelopeValues envelopeValues) {
+		int count = 0;
+		for (int i = 0; i < batch.size; i++) {
+			GeometryEnvelope envelope = batch.envelopes[i];
+			if (envelope != null) {
+				envelopeValues.populate(values, batch.ids[i], envelope);
+				inserter.insert(values);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Read the raw geometry blobs by row id into batches, one page query per
+	 * batch so no cursor is held open between batches
+	 *
+	 * @param connection
+	 *            read connection
+	 * @param sharedLock
+	 *            lock held while reading a batch from a connection shared
+	 *            with the writer, null for a separate read connection
+	 * @param decodeQueue
+	 *            batches to decode
+	 * @param cancelled
+	 *            cancelled flag
+	 * @throws SQLException
+	 *             upon failure
+	 * @throws InterruptedException
+	 *             upon interruption
+	 */
+	private void read(Connection connection, Object sharedLock,
+			BlockingQueue<Batch> decodeQueue, AtomicBoolean cancelled)
+			throws SQLException, InterruptedException {
+
+		String idColumn = CoreSQLUtils.quoteWrap(featureDao.getTable()
+				.getPkColumn().getName());
+		String sql = "SELECT " + idColumn + ", "
+				+ CoreSQLUtils.quoteWrap(featureDao.getGeometryColumnName())
+				+ " FROM " + CoreSQLUtils.quoteWrap(featureDao.getTableName())
+				+ " WHERE " + idColumn + " > ? ORDER BY " + idColumn
+				+ " LIMIT " + batchSize;
+
+		long lastId = Long.MIN_VALUE;
+		boolean more = true;
+		while (more && !cancelled.get()) {
+			Batch batch = new Batch(batchSize);
+			if (sharedLock != null) {
+				synchronized (sharedLock) {
+					readBatch(connection, sql, lastId, batch);
+				}
+			} else {
+				readBatch(connection, sql, lastId, batch);
+			}
+			more = batch.size == batchSize;
+			if (batch.size > 0) {
+				lastId = batch.ids[batch.size - 1];
+				if (!cancelled.get()) {
+					decodeQueue.put(batch);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read a batch of raw geometry blobs with row ids after the last id
+	 *
+	 * @param connection
+	 *            read connection
+	 * @param sql
+	 *            page query
+	 * @param lastId
+	 *            last read row id
+	 * @param batch
+	 *            batch to populate
+	 * @throws SQLException
+	 *             upon failure
+	 */
+	private void readBatch(Connection connection, String sql, long lastId,
+			Batch batch) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setLong(1, lastId);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					batch.add(resultSet.getLong(1), resultSet.getBytes(2));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Populates index row content values from a geometry envelope
+	 */
+	private interface EnvelopeValues {
+
+		/**
+		 * Populate the content values
+		 *
+		 * @param values
+		 *            content values
+		 * @param id
+		 *            feature id
+		 * @param envelope
+		 *            geometry envelope
+		 */
+		void populate(ContentValues values, long id, GeometryEnvelope envelope);
+
+	}
+
+	/**
+	 * Batch of feature ids, raw geometry blobs, and decoded envelopes
+	 */
+	private static class Batch {
+
+		/**
+		 * End of batches marker
+		 */
+		private static final Batch END = new Batch(0);
+
+		/**
+		 * Feature ids
+		 */
+		private final long[] ids;
+
+		/**
+		 * Raw geometry blobs, released once decoded
+		 */
+		private byte[][] blobs;
+
+		/**
+		 * Decoded envelopes
+		 */
+		private GeometryEnvelope[] envelopes;
+
+		/**
+		 * Number of rows
+		 */
+		private int size = 0;
+
+		/**
+		 * Constructor
+		 *
+		 * @param capacity
+		 *            max rows
+		 */
+		private Batch(int capacity) {
+			ids = new long[capacity];
+			blobs = new byte[capacity][];
+		}
+
+		/**
+		 * Add a row
+		 *
+		 * @param id
+		 *            feature id
+		 * @param blob
+		 *            raw geometry blob
+		 */
+		private void add(long id, byte[] blob) {
+			ids[size] = id;
+			blobs[size] = blob;
+			size++;
+		}
+
+		/**
+		 * Decode the envelopes of the geometry blobs
+		 *
+		 * @param skipEmpty
+		 *            true to not decode envelopes of empty geometries
+		 */
+		private void decode(boolean skipEmpty) {
+			envelopes = new GeometryEnvelope[size];
+			for (int i = 0; i < size; i++) {
+				byte[] blob = blobs[i];
+				if (blob != null && blob.length > 0) {
+					try {
+						GeoPackageGeometryData geometryData = new GeoPackageGeometryData(
+								blob);
+						if (!skipEmpty || (!geometryData.isEmpty()
+								&& geometryData.getGeometry() != null)) {
+							envelopes[i] = geometryData.getOrBuildEnvelope();
+						}
+					} catch (Exception e) {
+						log.log(Level.SEVERE,
+								"Failed to index feature geometry. Feature Id: "
+										+ ids[i], e);
+					}
+				}
+			}
+			blobs = null;
+		}
+
+	}
+
+}
@@ -96,7 +96,8 @@ public class UserMappingDao extends UserCustomDao {
 	 * @return result set
 	 */
 	public UserCustomResultSet queryByBaseId(long baseId) {
-		return queryForEq(UserMappingTable.COLUMN_BASE_ID, baseId);
+		return queryCached(buildWhere(UserMappingTable.COLUMN_BASE_ID, baseId),
+				buildWhereArgs(baseId));
 	}
 
 	/**
@@ -140,7 +141,8 @@ public class UserMappingDao extends UserCustomDao {
 	 * @return result set
 	 */
 	public UserCustomResultSet queryByRelatedId(long relatedId) {
-		return queryForEq(UserMappingTable.COLUMN_RELATED_ID, relatedId);
+		return queryCached(buildWhere(UserMappingTable.COLUMN_RELATED_ID, relatedId),
+				buildWhereArgs(relatedId));
 	}
 
 	/**
@@ -1,7 +1,12 @@
 package mil.nga.geopackage.extension.style;
 
+import java.sql.Connection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.attributes.AttributesDao;
@@ -18,6 +23,12 @@ import mil.nga.sf.GeometryType;
  */
 public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 
+	/**
+	 * Style mapping, style, and icon table modification versions by
+	 * connection and table name
+	 */
+	private static final Map<Connection, Map<String, AtomicLong>> tableVersions = new WeakHashMap<>();
+
 	/**
 	 * Related Tables extension
 	 */
@@ -1508,6 +1519,7 @@ public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 		row.setGeometryType(geometryType);
 
 		mappingDao.insert(row);
+		mappingChanged(mappingDao);
 	}
 
 	/**
@@ -1742,6 +1754,7 @@ public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 			Long featureContentsId = contentsId.getId(featureTable);
 			if (featureContentsId != null) {
 				mappingDao.deleteByBaseId(featureContentsId);
+				mappingChanged(mappingDao);
 			}
 		}
 	}
@@ -1762,6 +1775,7 @@ public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 			Long featureContentsId = contentsId.getId(featureTable);
 			if (featureContentsId != null) {
 				mappingDao.deleteByBaseId(featureContentsId, geometryType);
+				mappingChanged(mappingDao);
 			}
 		}
 	}
@@ -2002,6 +2016,7 @@ public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 	private void deleteMappings(StyleMappingDao mappingDao) {
 		if (mappingDao != null) {
 			mappingDao.deleteAll();
+			mappingChanged(mappingDao);
 		}
 	}
 
@@ -2016,6 +2031,7 @@ public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 	private void deleteMappings(StyleMappingDao mappingDao, long featureId) {
 		if (mappingDao != null) {
 			mappingDao.deleteByBaseId(featureId);
+			mappingChanged(mappingDao);
 		}
 	}
 
@@ -2033,9 +2049,60 @@ public class FeatureStyleExtension extends FeatureCoreStyleExtension {
 			GeometryType geometryType) {
 		if (mappingDao != null) {
 			mappingDao.deleteByBaseId(featureId, geometryType);
+			mappingChanged(mappingDao);
+		}
+	}
+
+	/**
+	 * Get the modification version of a style mapping, style, or icon table,
+	 * incremented each time rows are inserted, updated, or deleted through a
+	 * style extension or style and icon DAO on the same connection
+	 * 
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            style mapping, style, or icon table name
+	 * @return modification version
+	 */
+	static AtomicLong getTableVersion(Connection connection, String table) {
+		synchronized (tableVersions) {
+			Map<String, AtomicLong> versions = tableVersions.get(connection);
+			if (versions == null) {
+				versions = new HashMap<>();
+				tableVersions.put(connection, versions);
+			}
+			AtomicLong version = versions.get(table);
+			if (version == null) {
+				version = new AtomicLong();
+				versions.put(table, version);
+			}
+			return version;
 		}
 	}
 
+	/**
+	 * Increment the modification version of the style mapping, style, or icon
+	 * table
+	 * 
+	 * @param connection
+	 *            connection
+	 * @param table
+	 *            style mapping, style, or icon table name
+	 */
+	static void tableChanged(Connection connection, String table) {
+		getTableVersion(connection, table).incrementAndGet();
+	}
+
+	/**
+	 * Increment the modification version of the mapping table
+	 * 
+	 * @param mappingDao
+	 *            mapping dao
+	 */
+	private void mappingChanged(StyleMappingDao mappingDao) {
+		tableChanged(mappingDao.getConnection(), mappingDao.getTableName());
+	}
+
 	/**
 	 * Get all the unique style row ids the table maps to
 	 *
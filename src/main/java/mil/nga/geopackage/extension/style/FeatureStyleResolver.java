@@ -0,0 +1,625 @@
+package mil.nga.geopackage.extension.style;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.user.custom.UserCustomResultSet;
+import mil.nga.sf.GeometryType;
+
+/**
+ * Feature Style Resolver, resolves feature styles and icons of an individual
+ * feature table from memory. The feature and table style and icon mappings
+ * are bulk loaded once along with each mapped style and icon row. The styles
+ * and icons are reloaded when mappings are inserted or deleted through a
+ * Feature Style Extension, or when style and icon rows are written through a
+ * {@link StyleDao} or {@link IconDao}, on the same connection. Changes made by
+ * other connections or with raw SQL require a {@link #clear()}. Thread safe.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class FeatureStyleResolver {
+
+	/**
+	 * Feature table styles
+	 */
+	private final FeatureTableStyles featureTableStyles;
+
+	/**
+	 * Style mapping table version
+	 */
+	private final AtomicLong styleVersion;
+
+	/**
+	 * Table style mapping table version
+	 */
+	private final AtomicLong tableStyleVersion;
+
+	/**
+	 * Icon mapping table version
+	 */
+	private final AtomicLong iconVersion;
+
+	/**
+	 * Table icon mapping table version
+	 */
+	private final AtomicLong tableIconVersion;
+
+	/**
+	 * Style table version
+	 */
+	private final AtomicLong styleTableVersion;
+
+	/**
+	 * Icon table version
+	 */
+	private final AtomicLong iconTableVersion;
+
+	/**
+	 * Loaded styles and icons, null when not loaded
+	 */
+	private volatile Resolved resolved = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param featureTableStyles
+	 *            feature table styles
+	 */
+	public FeatureStyleResolver(FeatureTableStyles featureTableStyles) {
+		this.featureTableStyles = featureTableStyles;
+		FeatureStyleExtension featureStyleExtension = featureTableStyles
+				.getFeatureStyleExtension();
+		Connection connection = featureStyleExtension.getGeoPackage()
+				.getConnection().getConnection();
+		String tableName = featureTableStyles.getTableName();
+		styleVersion = FeatureStyleExtension.getTableVersion(connection,
+				FeatureStyleExtension.TABLE_MAPPING_STYLE + tableName);
+		tableStyleVersion = FeatureStyleExtension.getTableVersion(
+				connection,
+				FeatureStyleExtension.TABLE_MAPPING_TABLE_STYLE + tableName);
+		iconVersion = FeatureStyleExtension.getTableVersion(connection,
+				FeatureStyleExtension.TABLE_MAPPING_ICON + tableName);
+		tableIconVersion = FeatureStyleExtension.getTableVersion(
+				connection,
+				FeatureStyleExtension.TABLE_MAPPING_TABLE_ICON + tableName);
+		styleTableVersion = FeatureStyleExtension.getTableVersion(
+				connection, StyleTable.TABLE_NAME);
+		iconTableVersion = FeatureStyleExtension.getTableVersion(connection,
+				IconTable.TABLE_NAME);
+	}
+
+	/**
+	 * Get the feature table styles
+	 *
+	 * @return feature table styles
+	 */
+	public FeatureTableStyles getFeatureTableStyles() {
+		return featureTableStyles;
+	}
+
+	/**
+	 * Get the feature table name
+	 *
+	 * @return table name
+	 */
+	public String getTableName() {
+		return featureTableStyles.getTableName();
+	}
+
+	/**
+	 * Determine if the styles and icons are loaded and current
+	 *
+	 * @return true if loaded
+	 */
+	public boolean isLoaded() {
+		Resolved current = resolved;
+		return current != null && current.isCurrent();
+	}
+
+	/**
+	 * Load the styles and icons if not loaded or if the mappings, styles, or
+	 * icons have changed
+	 */
+	public void load() {
+		getResolved();
+	}
+
+	/**
+	 * Clear the loaded styles and icons, reloading on the next request
+	 */
+	public void clear() {
+		resolved = null;
+	}
+
+	/**
+	 * Get the feature style (style and icon) of the feature row, searching in
+	 * order: feature geometry type style or icon, feature default style or
+	 * icon, table geometry type style or icon, table default style or icon
+	 *
+	 * @param featureRow
+	 *            feature row
+	 * @return feature style
+	 */
+	public FeatureStyle getFeatureStyle(FeatureRow featureRow) {
+		return getFeatureStyle(featureRow, featureRow.getGeometryType());
+	}
+
+	/**
+	 * Get the feature style (style and icon) of the feature row with the
+	 * provided geometry type, searching in order: feature geometry type style
+	 * or icon, feature default style or icon, table geometry type style or
+	 * icon, table default style or icon
+	 *
+	 * @param featureRow
+	 *            feature row
+	 * @param geometryType
+	 *            geometry type
+	 * @return feature style
+	 */
+	public FeatureStyle getFeatureStyle(FeatureRow featureRow,
+			GeometryType geometryType) {
+		return getFeatureStyle(featureRow.getId(), geometryType);
+	}
+
+	/**
+	 * Get the feature style (style and icon) of the feature, searching in
+	 * order: feature geometry type style or icon, feature default style or
+	 * icon, table geometry type style or icon, table default style or icon
+	 *
+	 * @param featureId
+	 *            feature id
+	 * @param geometryType
+	 *            geometry type
+	 * @return feature style
+	 */
+	public FeatureStyle getFeatureStyle(long featureId,
+			GeometryType geometryType) {
+
+		FeatureStyle featureStyle = null;
+
+		Resolved current = getResolved();
+		StyleRow style = current.getStyle(featureId, geometryType);
+		IconRow icon = current.getIcon(featureId, geometryType);
+
+		if (style != null || icon != null) {
+			featureStyle = new FeatureStyle(style, icon);
+		}
+
+		return featureStyle;
+	}
+
+	/**
+	 * Get the styles for the feature id
+	 *
+	 * @param featureId
+	 *            feature id
+	 * @return styles or null
+	 */
+	public Styles getStyles(long featureId) {
+		return getResolved().styles.get(featureId);
+	}
+
+	/**
+	 * Get the style of the feature, searching in order: feature geometry type
+	 * style, feature default style, table geometry type style, table default
+	 * style
+	 *
+	 * @param featureId
+	 *            feature id
+	 * @param geometryType
+	 *            geometry type
+	 * @return style row
+	 */
+	public StyleRow getStyle(long featureId, GeometryType geometryType) {
+		return getResolved().getStyle(featureId, geometryType);
+	}
+
+	/**
+	 * Get the icons for the feature id
+	 *
+	 * @param featureId
+	 *            feature id
+	 * @return icons or null
+	 */
+	public Icons getIcons(long featureId) {
+		return getResolved().icons.get(featureId);
+	}
+
+	/**
+	 * Get the icon of the feature, searching in order: feature geometry type
+	 * icon, feature default icon, table geometry type icon, table default icon
+	 *
+	 * @param featureId
+	 *            feature id
+	 * @param geometryType
+	 *            geometry type
+	 * @return icon row
+	 */
+	public IconRow getIcon(long featureId, GeometryType geometryType) {
+		return getResolved().getIcon(featureId, geometryType);
+	}
+
+	/**
+	 * Get the loaded styles and icons, loading when not loaded or when the
+	 * mappings, styles, or icons have changed
+	 *
+	 * @return resolved styles and icons
+	 */
+	private Resolved getResolved() {
+		Resolved current = resolved;
+		if (current == null || !current.isCurrent()) {
+			synchronized (this) {
+				current = resolved;
+				if (current == null || !current.isCurrent()) {
+					current = new Resolved();
+					resolved = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Load the feature styles from the style mapping table
+	 *
+	 * @return styles by feature id
+	 */
+	private LongObjectMap<Styles> loadStyles() {
+
+		LongObjectMap<Styles> featureStyles = new LongObjectMap<>();
+
+		StyleMappingDao mappingDao = featureTableStyles.getStyleMappingDao();
+		StyleDao styleDao = featureTableStyles.getStyleDao();
+		if (mappingDao != null && styleDao != null) {
+
+			LongObjectMap<StyleRow> styleRows = new LongObjectMap<>();
+			List<Long> styleIds = mappingDao.uniqueRelatedIds();
+			for (long styleId : styleIds) {
+				StyleRow styleRow = styleDao
+						.getRow(styleDao.queryForIdRow(styleId));
+				if (styleRow != null) {
+					styleRows.put(styleId, styleRow);
+				}
+			}
+
+			UserCustomResultSet resultSet = mappingDao.queryForAll();
+			try {
+				while (resultSet.moveToNext()) {
+					StyleMappingRow mappingRow = mappingDao.getRow(resultSet);
+					StyleRow styleRow = styleRows.get(mappingRow
+							.getRelatedId());
+					if (styleRow != null) {
+						Styles styles = featureStyles.get(mappingRow
+								.getBaseId());
+						if (styles == null) {
+							styles = new Styles();
+							featureStyles.put(mappingRow.getBaseId(), styles);
+						}
+						styles.setStyle(styleRow, mappingRow.getGeometryType());
+					}
+				}
+			} finally {
+				resultSet.close();
+			}
+		}
+
+		return featureStyles;
+	}
+
+	/**
+	 * Load the feature icons from the icon mapping table
+	 *
+	 * @return icons by feature id
+	 */
+	private LongObjectMap<Icons> loadIcons() {
+
+		LongObjectMap<Icons> featureIcons = new LongObjectMap<>();
+
+		StyleMappingDao mappingDao = featureTableStyles.getIconMappingDao();
+		IconDao iconDao = featureTableStyles.getIconDao();
+		if (mappingDao != null && iconDao != null) {
+
+			LongObjectMap<IconRow> iconRows = new LongObjectMap<>();
+			List<Long> iconIds = mappingDao.uniqueRelatedIds();
+			for (long iconId : iconIds) {
+				IconRow iconRow = iconDao.getRow(iconDao.queryForIdRow(iconId));
+				if (iconRow != null) {
+					iconRows.put(iconId, iconRow);
+				}
+			}
+
+			UserCustomResultSet resultSet = mappingDao.queryForAll();
+			try {
+				while (resultSet.moveToNext()) {
+					StyleMappingRow mappingRow = mappingDao.getRow(resultSet);
+					IconRow iconRow = iconRows.get(mappingRow.getRelatedId());
+					if (iconRow != null) {
+						Icons icons = featureIcons.get(mappingRow.getBaseId());
+						if (icons == null) {
+							icons = new Icons();
+							featureIcons.put(mappingRow.getBaseId(), icons);
+						}
+						icons.setIcon(iconRow, mappingRow.getGeometryType());
+					}
+				}
+			} finally {
+				resultSet.close();
+			}
+		}
+
+		return featureIcons;
+	}
+
+	/**
+	 * Styles and icons loaded at a set of mapping, style, and icon table
+	 * versions
+	 */
+	private class Resolved {
+
+		/**
+		 * Loaded style mapping table version
+		 */
+		private final long styleVersion;
+
+		/**
+		 * Loaded table style mapping table version
+		 */
+		private final long tableStyleVersion;
+
+		/**
+		 * Loaded icon mapping table version
+		 */
+		private final long iconVersion;
+
+		/**
+		 * Loaded table icon mapping table version
+		 */
+		private final long tableIconVersion;
+
+		/**
+		 * Loaded style table version
+		 */
+		private final long styleTableVersion;
+
+		/**
+		 * Loaded icon table version
+		 */
+		private final long iconTableVersion;
+
+		/**
+		 * Styles by feature id
+		 */
+		private final LongObjectMap<Styles> styles;
+
+		/**
+		 * Icons by feature id
+		 */
+		private final LongObjectMap<Icons> icons;
+
+		/**
+		 * Table styles
+		 */
+		private final Styles tableStyles;
+
+		/**
+		 * Table icons
+		 */
+		private final Icons tableIcons;
+
+		/**
+		 * Constructor, loads the styles and icons
+		 */
+		private Resolved() {
+			// Read the versions before loading so changes made during the
+			// load are reloaded on the next request
+			styleVersion = FeatureStyleResolver.this.styleVersion.get();
+			tableStyleVersion = FeatureStyleResolver.this.tableStyleVersion
+					.get();
+			iconVersion = FeatureStyleResolver.this.iconVersion.get();
+			tableIconVersion = FeatureStyleResolver.this.tableIconVersion
+					.get();
+			styleTableVersion = FeatureStyleResolver.this.styleTableVersion
+					.get();
+			iconTableVersion = FeatureStyleResolver.this.iconTableVersion
+					.get();
+			styles = loadStyles();
+			icons = loadIcons();
+			tableStyles = featureTableStyles.getTableStyles();
+			tableIcons = featureTableStyles.getTableIcons();
+		}
+
+		/**
+		 * Determine if the loaded mapping, style, and icon table versions are
+		 * current
+		 *
+		 * @return true if current
+		 */
+		private boolean isCurrent() {
+			return styleVersion == FeatureStyleResolver.this.styleVersion
+					.get()
+					&& tableStyleVersion == FeatureStyleResolver.this.tableStyleVersion
+							.get()
+					&& iconVersion == FeatureStyleResolver.this.iconVersion
+							.get()
+					&& tableIconVersion == FeatureStyleResolver.this.tableIconVersion
+							.get()
+					&& styleTableVersion == FeatureStyleResolver.this.styleTableVersion
+							.get()
+					&& iconTableVersion == FeatureStyleResolver.this.iconTableVersion
+							.get();
+		}
+
+		/**
+		 * Get the feature style, falling back to the table style
+		 *
+		 * @param featureId
+		 *            feature id
+		 * @param geometryType
+		 *            geometry type
+		 * @return style row
+		 */
+		private StyleRow getStyle(long featureId, GeometryType geometryType) {
+			StyleRow styleRow = null;
+			Styles featureStyles = styles.get(featureId);
+			if (featureStyles != null) {
+				styleRow = featureStyles.getStyle(geometryType);
+			}
+			if (styleRow == null && tableStyles != null) {
+				styleRow = tableStyles.getStyle(geometryType);
+			}
+			return styleRow;
+		}
+
+		/**
+		 * Get the feature icon, falling back to the table icon
+		 *
+		 * @param featureId
+		 *            feature id
+		 * @param geometryType
+		 *            geometry type
+		 * @return icon row
+		 */
+		private IconRow getIcon(long featureId, GeometryType geometryType) {
+			IconRow iconRow = null;
+			Icons featureIcons = icons.get(featureId);
+			if (featureIcons != null) {
+				iconRow = featureIcons.getIcon(geometryType);
+			}
+			if (iconRow == null && tableIcons != null) {
+				iconRow = tableIcons.getIcon(geometryType);
+			}
+			return iconRow;
+		}
+
+	}
+
+	/**
+	 * Compact map of primitive long feature ids to values, using open
+	 * addressing over parallel key and value arrays without boxing the ids.
+	 * Populated while loading and read only once published.
+	 *
+	 * @param <V>
+	 *            value type
+	 */
+	private static class LongObjectMap<V> {
+
+		/**
+		 * Initial capacity, a power of two
+		 */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/**
+		 * Keys
+		 */
+		private long[] keys = new long[INITIAL_CAPACITY];
+
+		/**
+		 * Values, null for empty slots
+		 */
+		private Object[] values = new Object[INITIAL_CAPACITY];
+
+		/**
+		 * Number of entries
+		 */
+		private int size = 0;
+
+		/**
+		 * Get the value of the key
+		 *
+		 * @param key
+		 *            key
+		 * @return value or null
+		 */
+		@SuppressWarnings("unchecked")
+		public V get(long key) {
+			int mask = keys.length - 1;
+			for (int index = index(key, mask); values[index] != null; index = (index + 1)
+					& mask) {
+				if (keys[index] == key) {
+					return (V) values[index];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Put the non null value of the key
+		 *
+		 * @param key
+		 *            key
+		 * @param value
+		 *            value
+		 */
+		public void put(long key, V value) {
+			if ((size + 1) * 2 > keys.length) {
+				resize();
+			}
+			if (insert(keys, values, key, value)) {
+				size++;
+			}
+		}
+
+		/**
+		 * Double the capacity, rehashing the entries
+		 */
+		private void resize() {
+			long[] newKeys = new long[keys.length * 2];
+			Object[] newValues = new Object[values.length * 2];
+			for (int i = 0; i < keys.length; i++) {
+				if (values[i] != null) {
+					insert(newKeys, newValues, keys[i], values[i]);
+				}
+			}
+			keys = newKeys;
+			values = newValues;
+		}
+
+		/**
+		 * Insert or replace the key value
+		 *
+		 * @param keys
+		 *            keys
+		 * @param values
+		 *            values
+		 * @param key
+		 *            key
+		 * @param value
+		 *            value
+		 * @return true if inserted, false if replaced
+		 */
+		private static boolean insert(long[] keys, Object[] values, long key,
+				Object value) {
+			int mask = keys.length - 1;
+			int index = index(key, mask);
+			while (values[index] != null) {
+				if (keys[index] == key) {
+					values[index] = value;
+					return false;
+				}
+				index = (index + 1) & mask;
+			}
+			keys[index] = key;
+			values[index] = value;
+			return true;
+		}
+
+		/**
+		 * Get the starting slot of the key
+		 *
+		 * @param key
+		 *            key
+		 * @param mask
+		 *            capacity mask
+		 * @return slot index
+		 */
+		private static int index(long key, int mask) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+
+	}
+
+}
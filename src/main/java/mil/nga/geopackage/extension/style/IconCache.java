@@ -78,7 +78,7 @@ public class IconCache {
 	 *            icon row id
 	 * @return icon image or null
 	 */
-	public BufferedImage get(long iconRowId) {
+	public synchronized BufferedImage get(long iconRowId) {
 		return iconCache.get(iconRowId);
 	}
 
@@ -104,7 +104,7 @@ public class IconCache {
 	 *            icon image
 	 * @return previous cached icon image or null
 	 */
-	public BufferedImage put(long iconRowId, BufferedImage image) {
+	public synchronized BufferedImage put(long iconRowId, BufferedImage image) {
 		return iconCache.put(iconRowId, image);
 	}
 
@@ -126,14 +126,14 @@ public class IconCache {
 	 *            icon row id
 	 * @return removed icon image or null
 	 */
-	public BufferedImage remove(long iconRowId) {
+	public synchronized BufferedImage remove(long iconRowId) {
 		return iconCache.remove(iconRowId);
 	}
 
 	/**
 	 * Clear the cache
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		iconCache.clear();
 	}
 
@@ -143,7 +143,7 @@ public class IconCache {
 	 * @param maxSize
 	 *            max size
 	 */
-	public void resize(int maxSize) {
+	public synchronized void resize(int maxSize) {
 		cacheSize = maxSize;
 		if (iconCache.size() > maxSize) {
 			int count = 0;
@@ -1,6 +1,7 @@
 package mil.nga.geopackage.extension.style;
 
 import mil.nga.geopackage.extension.related.media.MediaDao;
+import mil.nga.geopackage.user.ContentValues;
 import mil.nga.geopackage.user.custom.UserCustomDao;
 import mil.nga.geopackage.user.custom.UserCustomResultSet;
 import mil.nga.geopackage.user.custom.UserCustomRow;
@@ -80,4 +81,83 @@ public class IconDao extends MediaDao {
 		return iconRow;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(UserCustomRow row) {
+		int updated = super.update(row);
+		changed();
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(ContentValues values, String whereClause,
+			String[] whereArgs) {
+		int updated = super.update(values, whereClause, whereArgs);
+		changed();
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(UserCustomRow row) {
+		long id = super.insert(row);
+		changed();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(ContentValues values) {
+		long id = super.insert(values);
+		changed();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insertOrThrow(ContentValues values) {
+		long id = super.insertOrThrow(values);
+		changed();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int deleteById(long id) {
+		int deleted = super.deleteById(id);
+		changed();
+		return deleted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int delete(String whereClause, String[] whereArgs) {
+		int deleted = super.delete(whereClause, whereArgs);
+		changed();
+		return deleted;
+	}
+
+	/**
+	 * Increment the modification version of the icon table, reloading
+	 * {@link FeatureStyleResolver} styles on the same connection
+	 */
+	private void changed() {
+		FeatureStyleExtension.tableChanged(getConnection(), getTableName());
+	}
+
 }
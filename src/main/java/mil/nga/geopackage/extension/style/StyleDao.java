@@ -3,6 +3,7 @@ package mil.nga.geopackage.extension.style;
 import mil.nga.geopackage.attributes.AttributesDao;
 import mil.nga.geopackage.attributes.AttributesResultSet;
 import mil.nga.geopackage.attributes.AttributesRow;
+import mil.nga.geopackage.user.ContentValues;
 
 /**
  * Style DAO for reading style tables
@@ -79,4 +80,83 @@ public class StyleDao extends AttributesDao {
 		return styleRow;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(AttributesRow row) {
+		int updated = super.update(row);
+		changed();
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(ContentValues values, String whereClause,
+			String[] whereArgs) {
+		int updated = super.update(values, whereClause, whereArgs);
+		changed();
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(AttributesRow row) {
+		long id = super.insert(row);
+		changed();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(ContentValues values) {
+		long id = super.insert(values);
+		changed();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insertOrThrow(ContentValues values) {
+		long id = super.insertOrThrow(values);
+		changed();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int deleteById(long id) {
+		int deleted = super.deleteById(id);
+		changed();
+		return deleted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int delete(String whereClause, String[] whereArgs) {
+		int deleted = super.delete(whereClause, whereArgs);
+		changed();
+		return deleted;
+	}
+
+	/**
+	 * Increment the modification version of the style table, reloading
+	 * {@link FeatureStyleResolver} styles on the same connection
+	 */
+	private void changed() {
+		FeatureStyleExtension.tableChanged(getConnection(), getTableName());
+	}
+
 }
@@ -7,6 +7,9 @@ import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.features.user.FeatureColumn;
 import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.features.user.FeatureTable;
+import mil.nga.geopackage.user.UserBatchInserter;
+import mil.nga.oapi.features.json.FeatureCollection;
 import mil.nga.sf.Geometry;
 
 /**
@@ -21,6 +24,16 @@ public class OAPIFeatureGenerator extends OAPIFeatureCoreGenerator {
 	 */
 	protected FeatureDao featureDao;
 
+	/**
+	 * True when saving features within a feature collection batch
+	 */
+	private boolean batching = false;
+
+	/**
+	 * Batch inserter of the feature collection being created
+	 */
+	private UserBatchInserter<FeatureColumn, FeatureTable, FeatureRow> inserter;
+
 	/**
 	 * Constructor
 	 *
@@ -71,6 +84,30 @@ public class OAPIFeatureGenerator extends OAPIFeatureCoreGenerator {
 		featureDao = getGeoPackage().getFeatureDao(geometryColumns);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected int createFeatures(FeatureCollection featureCollection) {
+		int count = 0;
+		boolean success = false;
+		batching = true;
+		try {
+			count = super.createFeatures(featureCollection);
+			success = true;
+		} finally {
+			batching = false;
+			if (inserter != null) {
+				try {
+					inserter.close(success);
+				} finally {
+					inserter = null;
+				}
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -94,7 +131,18 @@ public class OAPIFeatureGenerator extends OAPIFeatureCoreGenerator {
 	 *            feature row
 	 */
 	protected void saveFeature(FeatureRow featureRow) {
-		featureDao.create(featureRow);
+		if (batching) {
+			if (inserter == null) {
+				inserter = featureDao.newBatchInserter();
+				inserter.setReturnIds(false);
+				if (transactionLimit > 0) {
+					inserter.setBatchSize(transactionLimit);
+				}
+			}
+			inserter.insert(featureRow);
+		} else {
+			featureDao.create(featureRow);
+		}
 	}
 
 }
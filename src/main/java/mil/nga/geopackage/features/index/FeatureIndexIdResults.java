@@ -0,0 +1,360 @@
+package mil.nga.geopackage.features.index;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureResultSet;
+import mil.nga.geopackage.features.user.FeatureRow;
+
+/**
+ * Feature Index Results of feature ids, with feature rows queried in chunks of
+ * ids and optionally filtered by an additional where clause
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class FeatureIndexIdResults implements FeatureIndexResults {
+
+	/**
+	 * Default number of ids per feature row query
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 500;
+
+	/**
+	 * Feature DAO
+	 */
+	private final FeatureDao featureDao;
+
+	/**
+	 * Feature ids
+	 */
+	private final long[] ids;
+
+	/**
+	 * Additional where clause
+	 */
+	private final String where;
+
+	/**
+	 * Additional where arguments
+	 */
+	private final String[] whereArgs;
+
+	/**
+	 * Number of ids per feature row query
+	 */
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * Count of the results, when known
+	 */
+	private Long count;
+
+	/**
+	 * Open chunk result sets of the row iterators
+	 */
+	private final List<FeatureResultSet> resultSets = new ArrayList<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param featureDao
+	 *            feature DAO
+	 * @param ids
+	 *            feature ids
+	 */
+	public FeatureIndexIdResults(FeatureDao featureDao, long[] ids) {
+		this(featureDao, ids, null, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param featureDao
+	 *            feature DAO
+	 * @param ids
+	 *            feature ids
+	 * @param where
+	 *            additional where clause
+	 * @param whereArgs
+	 *            additional where arguments
+	 */
+	public FeatureIndexIdResults(FeatureDao featureDao, long[] ids,
+			String where, String[] whereArgs) {
+		this.featureDao = featureDao;
+		this.ids = ids;
+		this.where = where;
+		this.whereArgs = whereArgs;
+		if (where == null) {
+			count = (long) ids.length;
+		}
+	}
+
+	/**
+	 * Get the feature DAO
+	 *
+	 * @return feature DAO
+	 */
+	public FeatureDao getFeatureDao() {
+		return featureDao;
+	}
+
+	/**
+	 * Get the feature ids, before filtering by the where clause
+	 *
+	 * @return feature ids
+	 */
+	public long[] getIds() {
+		return ids;
+	}
+
+	/**
+	 * Get the number of ids per feature row query
+	 *
+	 * @return chunk size
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Set the number of ids per feature row query
+	 *
+	 * @param chunkSize
+	 *            chunk size
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<FeatureRow> iterator() {
+		return new Iterator<FeatureRow>() {
+
+			/**
+			 * Next chunk start index
+			 */
+			private int index = 0;
+
+			/**
+			 * Current chunk has a next row
+			 */
+			private boolean hasRow = false;
+
+			/**
+			 * Open chunk result set
+			 */
+			private FeatureResultSet resultSet;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public boolean hasNext() {
+				while (!hasRow) {
+					if (resultSet != null && resultSet.moveToNext()) {
+						hasRow = true;
+					} else {
+						closeResultSet(resultSet);
+						resultSet = null;
+						if (index >= ids.length) {
+							break;
+						}
+						int end = Math.min(index + chunkSize, ids.length);
+						resultSet = openResultSet(index, end);
+						index = end;
+					}
+				}
+				return hasRow;
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public FeatureRow next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				hasRow = false;
+				return resultSet.getRow();
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long count() {
+		if (count == null) {
+			long total = 0;
+			for (int index = 0; index < ids.length; index += chunkSize) {
+				int end = Math.min(index + chunkSize, ids.length);
+				total += featureDao.count(buildWhere(index, end), whereArgs);
+			}
+			count = total;
+		}
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+		synchronized (resultSets) {
+			for (FeatureResultSet resultSet : resultSets) {
+				resultSet.close();
+			}
+			resultSets.clear();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterable<Long> ids() {
+
+		Iterable<Long> idIterable = null;
+
+		if (where == null) {
+			idIterable = new Iterable<Long>() {
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public Iterator<Long> iterator() {
+					return new Iterator<Long>() {
+
+						int index = 0;
+
+						/**
+						 * {@inheritDoc}
+						 */
+						@Override
+						public boolean hasNext() {
+							return index < ids.length;
+						}
+
+						/**
+						 * {@inheritDoc}
+						 */
+						@Override
+						public Long next() {
+							return ids[index++];
+						}
+
+					};
+				}
+			};
+		} else {
+			idIterable = new Iterable<Long>() {
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public Iterator<Long> iterator() {
+					return new Iterator<Long>() {
+
+						/**
+						 * Feature row iterator
+						 */
+						private final Iterator<FeatureRow> rows = FeatureIndexIdResults.this
+								.iterator();
+
+						/**
+						 * {@inheritDoc}
+						 */
+						@Override
+						public boolean hasNext() {
+							return rows.hasNext();
+						}
+
+						/**
+						 * {@inheritDoc}
+						 */
+						@Override
+						public Long next() {
+							return rows.next().getId();
+						}
+
+					};
+				}
+			};
+		}
+
+		return idIterable;
+	}
+
+	/**
+	 * Build the where clause for the chunk of ids
+	 *
+	 * @param start
+	 *            first id index, inclusive
+	 * @param end
+	 *            last id index, exclusive
+	 * @return where clause
+	 */
+	private String buildWhere(int start, int end) {
+		StringBuilder whereIds = new StringBuilder();
+		whereIds.append(CoreSQLUtils.quoteWrap(featureDao.getTable()
+				.getPkColumn().getName()));
+		whereIds.append(" IN (");
+		for (int i = start; i < end; i++) {
+			if (i > start) {
+				whereIds.append(",");
+			}
+			whereIds.append(ids[i]);
+		}
+		whereIds.append(")");
+		if (where != null) {
+			whereIds.append(" AND (").append(where).append(")");
+		}
+		return whereIds.toString();
+	}
+
+	/**
+	 * Query and track the chunk result set of the ids
+	 *
+	 * @param start
+	 *            first id index, inclusive
+	 * @param end
+	 *            last id index, exclusive
+	 * @return chunk result set
+	 */
+	private FeatureResultSet openResultSet(int start, int end) {
+		FeatureResultSet resultSet = featureDao.query(buildWhere(start, end),
+				whereArgs);
+		synchronized (resultSets) {
+			resultSets.add(resultSet);
+		}
+		return resultSet;
+	}
+
+	/**
+	 * Close and stop tracking the chunk result set
+	 *
+	 * @param resultSet
+	 *            chunk result set, may be null
+	 */
+	private void closeResultSet(FeatureResultSet resultSet) {
+		if (resultSet != null) {
+			resultSet.close();
+			synchronized (resultSets) {
+				resultSets.remove(resultSet);
+			}
+		}
+	}
+
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.features.user.FeatureRow;
 
 /**
@@ -17,7 +18,7 @@ public class FeatureIndexListResults implements FeatureIndexResults {
 	/**
 	 * List of feature rows
 	 */
-	private final List<FeatureRow> rows = new ArrayList<>();
+	private final ArrayList<FeatureRow> rows = new ArrayList<>();
 
 	/**
 	 * Constructor
@@ -45,6 +46,19 @@ public class FeatureIndexListResults implements FeatureIndexResults {
 		addRows(rows);
 	}
 
+	/**
+	 * Constructor, reading the feature rows of the ids in chunks of ids
+	 *
+	 * @param featureDao
+	 *            feature DAO
+	 * @param ids
+	 *            feature ids
+	 * @since 3.4.1
+	 */
+	public FeatureIndexListResults(FeatureDao featureDao, long[] ids) {
+		addRows(featureDao, ids);
+	}
+
 	/**
 	 * Add a feature row
 	 *
@@ -65,6 +79,29 @@ public class FeatureIndexListResults implements FeatureIndexResults {
 		this.rows.addAll(rows);
 	}
 
+	/**
+	 * Add the feature rows of the ids, read in chunks of ids rather than a
+	 * query per id
+	 *
+	 * @param featureDao
+	 *            feature DAO
+	 * @param ids
+	 *            feature ids
+	 * @since 3.4.1
+	 */
+	public void addRows(FeatureDao featureDao, long[] ids) {
+		rows.ensureCapacity(rows.size() + ids.length);
+		FeatureIndexIdResults results = new FeatureIndexIdResults(featureDao,
+				ids);
+		try {
+			for (FeatureRow row : results) {
+				rows.add(row);
+			}
+		} finally {
+			results.close();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,8 @@
 package mil.nga.geopackage.features.index;
 
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -15,6 +18,8 @@ import java.util.logging.Logger;
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.SQLUtils;
 import mil.nga.geopackage.extension.RTreeIndexExtension;
 import mil.nga.geopackage.extension.RTreeIndexTableDao;
 import mil.nga.geopackage.extension.index.FeatureTableIndex;
@@ -28,7 +33,8 @@ import mil.nga.sf.proj.Projection;
 
 /**
  * Feature Index Manager to manage indexing of feature geometries within a
- * GeoPackage using the Geometry Index Extension and the RTree extension
+ * GeoPackage using the Geometry Index Extension and the RTree extension, or
+ * in memory with a Feature Memory Index
  *
  * @author osbornb
  * @see mil.nga.geopackage.extension.index.FeatureTableIndex
@@ -57,6 +63,17 @@ public class FeatureIndexManager {
 	 */
 	private final RTreeIndexTableDao rTreeIndexTableDao;
 
+	/**
+	 * Feature Memory Index, held by the feature DAO
+	 */
+	private final FeatureMemoryIndex memoryIndex;
+
+	/**
+	 * Feature Index Snapshot file of the memory index, null when not
+	 * snapshotting
+	 */
+	private File snapshotFile;
+
 	/**
 	 * Manual Feature Queries
 	 */
@@ -107,8 +124,15 @@ public class FeatureIndexManager {
 				geoPackage);
 		rTreeIndexTableDao = rTreeExtension.getTableDao(featureDao);
 		manualFeatureQuery = new ManualFeatureQuery(featureDao);
+		memoryIndex = featureDao.getMemoryIndex();
+		String path = geoPackage.getPath();
+		if (path != null) {
+			snapshotFile = new File(path + "." + featureDao.getTableName()
+					+ ".idx");
+		}
 
 		// Set the default indexed check and query order
+		indexLocationQueryOrder.add(FeatureIndexType.MEMORY);
 		indexLocationQueryOrder.add(FeatureIndexType.RTREE);
 		indexLocationQueryOrder.add(FeatureIndexType.GEOPACKAGE);
 	}
@@ -149,6 +173,143 @@ public class FeatureIndexManager {
 		return rTreeIndexTableDao;
 	}
 
+	/**
+	 * Get the Feature Memory Index
+	 *
+	 * @return feature memory index
+	 * @since 3.4.1
+	 */
+	public FeatureMemoryIndex getMemoryIndex() {
+		return memoryIndex;
+	}
+
+	/**
+	 * Get the Feature Index Snapshot file of the memory index. Defaults to a
+	 * sidecar file alongside the GeoPackage: {geopackage path}.{table}.idx
+	 *
+	 * @return snapshot file, null when not snapshotting
+	 * @since 3.4.1
+	 */
+	public File getSnapshotFile() {
+		return snapshotFile;
+	}
+
+	/**
+	 * Set the Feature Index Snapshot file of the memory index
+	 *
+	 * @param snapshotFile
+	 *            snapshot file, null to not snapshot
+	 * @since 3.4.1
+	 */
+	public void setSnapshotFile(File snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
+	/**
+	 * Get the timestamp a memory index snapshot is validated against, the last
+	 * indexed date of the GeoPackage index. Snapshots are only written and
+	 * read when the feature table has a GeoPackage index, as the contents last
+	 * change is not updated by feature DAO writes or RTree triggers.
+	 *
+	 * @return snapshot timestamp, null when not indexed by a GeoPackage index
+	 * @since 3.4.1
+	 */
+	public Date getSnapshotTimestamp() {
+		Date timestamp = null;
+		if (featureTableIndex.isIndexed()) {
+			timestamp = featureTableIndex.getLastIndexed();
+		}
+		return timestamp;
+	}
+
+	/**
+	 * Write the memory index to the snapshot file, indexing the memory index
+	 * first if needed. The snapshot records the {@link #getSnapshotTimestamp()}
+	 * along with the feature table row count and max row id.
+	 *
+	 * @return true if written, false when not indexed by a GeoPackage index
+	 * @since 3.4.1
+	 */
+	public boolean writeSnapshot() {
+		boolean written = false;
+		Date timestamp = getSnapshotTimestamp();
+		if (snapshotFile != null && timestamp != null) {
+			if (!memoryIndex.isIndexed()) {
+				indexMemory(false);
+			}
+			long[] rowState = querySnapshotRowState();
+			FeatureIndexSnapshot.write(memoryIndex.getTree(), timestamp,
+					rowState[0], rowState[1], snapshotFile);
+			written = true;
+		}
+		return written;
+	}
+
+	/**
+	 * Index the memory index from the snapshot file when it exists and is
+	 * valid for the {@link #getSnapshotTimestamp()} and the current feature
+	 * table row count and max row id
+	 *
+	 * @return true if indexed from the snapshot
+	 * @since 3.4.1
+	 */
+	public boolean readSnapshot() {
+		boolean read = false;
+		if (snapshotFile != null && snapshotFile.isFile()) {
+			Date timestamp = getSnapshotTimestamp();
+			if (timestamp != null) {
+				long[] rowState = querySnapshotRowState();
+				PackedRTree tree = FeatureIndexSnapshot.read(snapshotFile,
+						timestamp, rowState[0], rowState[1]);
+				if (tree != null) {
+					memoryIndex.index(tree);
+					read = true;
+				}
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Query the feature table row count and max row id a snapshot is
+	 * validated against, catching row inserts and deletes made without
+	 * updating the GeoPackage index
+	 *
+	 * @return row count and max row id, 0 max row id when empty
+	 */
+	private long[] querySnapshotRowState() {
+		String pkColumn = CoreSQLUtils.quoteWrap(featureDao.getTable()
+				.getPkColumn().getName());
+		String sql = "SELECT COUNT(*), MAX(" + pkColumn + ") FROM "
+				+ CoreSQLUtils.quoteWrap(featureDao.getTableName());
+		long[] rowState = new long[2];
+		ResultSet resultSet = SQLUtils.query(featureDao.getReadConnection(),
+				sql, null);
+		try {
+			if (resultSet.next()) {
+				rowState[0] = resultSet.getLong(1);
+				rowState[1] = resultSet.getLong(2);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to query the feature index snapshot row state. Table: "
+							+ featureDao.getTableName(), e);
+		} finally {
+			SQLUtils.closeResultSetStatement(resultSet, sql);
+		}
+		return rowState;
+	}
+
+	/**
+	 * Delete the snapshot file
+	 *
+	 * @return true if deleted
+	 * @since 3.4.1
+	 */
+	public boolean deleteSnapshot() {
+		return snapshotFile != null && snapshotFile.delete();
+	}
+
 	/**
 	 * Get the ordered set of ordered index query locations
 	 *
@@ -262,6 +423,33 @@ public class FeatureIndexManager {
 		this.indexLocation = indexLocation;
 	}
 
+	/**
+	 * Get the number of geometry decode threads used when indexing
+	 *
+	 * @return threads
+	 * @since 3.4.1
+	 */
+	public int getThreads() {
+		return featureTableIndex.getThreads();
+	}
+
+	/**
+	 * Set the number of geometry decode threads used when indexing. When
+	 * greater than 1, indexing streams geometries from a reader thread to a
+	 * pool of decode threads, with the envelopes batch written by the
+	 * indexing thread. Manual bounding box queries without an index scan id
+	 * ranges of the table with the same number of threads.
+	 *
+	 * @param threads
+	 *            threads
+	 * @since 3.4.1
+	 */
+	public void setThreads(int threads) {
+		featureTableIndex.setThreads(threads);
+		rTreeIndexTableDao.setThreads(threads);
+		manualFeatureQuery.setThreads(threads);
+	}
+
 	/**
 	 * Set the GeoPackage Progress
 	 *
@@ -367,6 +555,11 @@ public class FeatureIndexManager {
 				count = rTreeIndexTableDao.count();
 			}
 			break;
+		case MEMORY:
+			if (!memoryIndex.isIndexed() || force) {
+				count = indexMemory(!force);
+			}
+			break;
 		default:
 			throw new GeoPackageException(
 					"Unsupported FeatureIndexType: " + type);
@@ -432,10 +625,17 @@ public class FeatureIndexManager {
 			// Updated by triggers, ignore for RTree
 			indexed = true;
 			break;
+		case MEMORY:
+			indexed = memoryIndex.index(row);
+			break;
 		default:
 			throw new GeoPackageException(
 					"Unsupported FeatureIndexType: " + type);
 		}
+		if (type != FeatureIndexType.MEMORY) {
+			// Keep the memory index in sync when indexed
+			memoryIndex.index(row);
+		}
 		return indexed;
 	}
 
@@ -495,6 +695,10 @@ public class FeatureIndexManager {
 			rTreeIndexTableDao.delete();
 			deleted = true;
 			break;
+		case MEMORY:
+			deleted = memoryIndex.isIndexed();
+			memoryIndex.clear();
+			break;
 		default:
 			throw new GeoPackageException(
 					"Unsupported FeatureIndexType: " + type);
@@ -598,10 +802,17 @@ public class FeatureIndexManager {
 			// Updated by triggers, ignore for RTree
 			deleted = true;
 			break;
+		case MEMORY:
+			deleted = memoryIndex.delete(geomId);
+			break;
 		default:
 			throw new GeoPackageException(
 					"Unsupported FeatureIndexType: " + type);
 		}
+		if (type != FeatureIndexType.MEMORY) {
+			// Keep the memory index in sync when indexed
+			memoryIndex.delete(geomId);
+		}
 		return deleted;
 	}
 
@@ -666,6 +877,9 @@ public class FeatureIndexManager {
 			case RTREE:
 				indexed = rTreeIndexTableDao.has();
 				break;
+			case MEMORY:
+				indexed = memoryIndex.isIndexed();
+				break;
 			default:
 				throw new GeoPackageException(
 						"Unsupported FeatureIndexType: " + type);
@@ -727,6 +941,9 @@ public class FeatureIndexManager {
 					lastIndexed = new Date();
 				}
 				break;
+			case MEMORY:
+				lastIndexed = memoryIndex.getLastIndexed();
+				break;
 			default:
 				throw new GeoPackageException(
 						"Unsupported FeatureIndexType: " + type);
@@ -756,6 +973,10 @@ public class FeatureIndexManager {
 							.queryFeatures();
 					results = new FeatureIndexFeatureResults(rTreeResultSet);
 					break;
+				case MEMORY:
+					results = new FeatureIndexIdResults(featureDao,
+							memoryIndex.ids());
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -793,6 +1014,9 @@ public class FeatureIndexManager {
 				case RTREE:
 					count = (long) rTreeIndexTableDao.count();
 					break;
+				case MEMORY:
+					count = memoryIndex.count();
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -896,6 +1120,10 @@ public class FeatureIndexManager {
 							.queryFeatures(where, whereArgs);
 					results = new FeatureIndexFeatureResults(rTreeResultSet);
 					break;
+				case MEMORY:
+					results = new FeatureIndexIdResults(featureDao,
+							memoryIndex.ids(), where, whereArgs);
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -942,6 +1170,10 @@ public class FeatureIndexManager {
 					count = (long) rTreeIndexTableDao.countFeatures(where,
 							whereArgs);
 					break;
+				case MEMORY:
+					count = new FeatureIndexIdResults(featureDao,
+							memoryIndex.ids(), where, whereArgs).count();
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -979,6 +1211,9 @@ public class FeatureIndexManager {
 				case RTREE:
 					bounds = rTreeIndexTableDao.getBoundingBox();
 					break;
+				case MEMORY:
+					bounds = memoryIndex.getBoundingBox();
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -1021,6 +1256,9 @@ public class FeatureIndexManager {
 				case RTREE:
 					bounds = rTreeIndexTableDao.getBoundingBox(projection);
 					break;
+				case MEMORY:
+					bounds = memoryIndex.getBoundingBox(projection);
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -1195,6 +1433,9 @@ public class FeatureIndexManager {
 				case RTREE:
 					count = (long) rTreeIndexTableDao.count(envelope);
 					break;
+				case MEMORY:
+					count = memoryIndex.count(envelope);
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -1306,6 +1547,10 @@ public class FeatureIndexManager {
 							.queryFeatures(envelope, where, whereArgs);
 					results = new FeatureIndexFeatureResults(rTreeResultSet);
 					break;
+				case MEMORY:
+					results = new FeatureIndexIdResults(featureDao,
+							memoryIndex.query(envelope), where, whereArgs);
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -1352,6 +1597,12 @@ public class FeatureIndexManager {
 					count = (long) rTreeIndexTableDao.countFeatures(envelope,
 							where, whereArgs);
 					break;
+				case MEMORY:
+					count = where == null ? memoryIndex.count(envelope)
+							: new FeatureIndexIdResults(featureDao,
+									memoryIndex.query(envelope), where,
+									whereArgs).count();
+					break;
 				default:
 					throw new GeoPackageException(
 							"Unsupported feature index type: " + type);
@@ -1556,6 +1807,42 @@ public class FeatureIndexManager {
 		return indexType;
 	}
 
+	/**
+	 * Index the memory index from a valid snapshot, the first indexed table
+	 * location, or from the feature table when not indexed
+	 *
+	 * @param snapshot
+	 *            true to index from a valid snapshot
+	 * @return count
+	 */
+	private int indexMemory(boolean snapshot) {
+		int count = -1;
+		if (snapshot && readSnapshot()) {
+			count = (int) memoryIndex.count();
+		} else {
+			for (FeatureIndexType type : indexLocationQueryOrder) {
+				if (type != FeatureIndexType.MEMORY && isIndexed(type)) {
+					switch (type) {
+					case GEOPACKAGE:
+						count = memoryIndex.index(featureTableIndex);
+						break;
+					case RTREE:
+						count = memoryIndex.index(rTreeIndexTableDao);
+						break;
+					default:
+						throw new GeoPackageException(
+								"Unsupported FeatureIndexType: " + type);
+					}
+					break;
+				}
+			}
+			if (count < 0) {
+				count = memoryIndex.index();
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * Verify the index location is set
 	 *
@@ -0,0 +1,371 @@
+package mil.nga.geopackage.features.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Feature Index Snapshot, a binary file of a {@link PackedRTree} in packed
+ * order, read back with bulk channel reads into off heap direct buffers so
+ * the index is ready without being built or loaded onto the heap. The file is
+ * closed once read, so it can be replaced or deleted while the index is in
+ * use on any platform. The snapshot records a validation timestamp, typically
+ * the last indexed date of the feature table, along with the feature table
+ * row count and max row id, and is only read when they all match.
+ *
+ * File layout, big endian: a 64 byte header of the magic "GPKGIDX1", node
+ * size, leaf size, total entries, top start, timestamp millis, row count, and
+ * max row id, followed by the leaf ids (longs), the entry boxes of all levels
+ * (four doubles each), and the node first and end children (ints).
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class FeatureIndexSnapshot {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(FeatureIndexSnapshot.class.getName());
+
+	/**
+	 * File magic
+	 */
+	private static final byte[] MAGIC = { 'G', 'P', 'K', 'G', 'I', 'D', 'X',
+			'1' };
+
+	/**
+	 * Header length in bytes
+	 */
+	private static final int HEADER_LENGTH = 64;
+
+	/**
+	 * Write buffer size in bytes
+	 */
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Write the packed tree snapshot
+	 *
+	 * @param tree
+	 *            packed tree
+	 * @param timestamp
+	 *            validation timestamp
+	 * @param rowCount
+	 *            validation feature table row count
+	 * @param maxId
+	 *            validation feature table max row id
+	 * @param file
+	 *            snapshot file
+	 */
+	public static void write(PackedRTree tree, Date timestamp, long rowCount,
+			long maxId, File file) {
+
+		int size = tree.size();
+		int total = tree.getTotal();
+
+		File temp = new File(file.getPath() + ".tmp");
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(temp,
+				"rw"); FileChannel channel = randomAccessFile.getChannel()) {
+
+			randomAccessFile.setLength(0);
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+			buffer.put(MAGIC);
+			buffer.putInt(tree.getNodeSize());
+			buffer.putInt(size);
+			buffer.putInt(total);
+			buffer.putInt(tree.getTopStart());
+			buffer.putLong(timestamp.getTime());
+			buffer.putLong(rowCount);
+			buffer.putLong(maxId);
+			while (buffer.position() < HEADER_LENGTH) {
+				buffer.put((byte) 0);
+			}
+
+			LongBuffer ids = tree.getIdBuffer();
+			while (ids.hasRemaining()) {
+				buffer = ensure(channel, buffer, 8);
+				buffer.putLong(ids.get());
+			}
+
+			DoubleBuffer boxes = tree.getBoxBuffer();
+			while (boxes.hasRemaining()) {
+				buffer = ensure(channel, buffer, 8);
+				buffer.putDouble(boxes.get());
+			}
+
+			for (IntBuffer children : new IntBuffer[] {
+					tree.getFirstChildBuffer(), tree.getEndChildBuffer() }) {
+				while (children.hasRemaining()) {
+					buffer = ensure(channel, buffer, 4);
+					buffer.putInt(children.get());
+				}
+			}
+
+			flush(channel, buffer);
+			channel.force(true);
+
+		} catch (IOException e) {
+			temp.delete();
+			throw new GeoPackageException(
+					"Failed to write feature index snapshot: " + file, e);
+		}
+
+		if (file.exists() && !file.delete()) {
+			temp.delete();
+			throw new GeoPackageException(
+					"Failed to replace feature index snapshot: " + file);
+		}
+		if (!temp.renameTo(file)) {
+			temp.delete();
+			throw new GeoPackageException(
+					"Failed to write feature index snapshot: " + file);
+		}
+	}
+
+	/**
+	 * Read the validation timestamp of the snapshot
+	 *
+	 * @param file
+	 *            snapshot file
+	 * @return timestamp, null when the file is not a valid snapshot
+	 */
+	public static Date readTimestamp(File file) {
+		Date timestamp = null;
+		if (file.isFile()) {
+			try (RandomAccessFile randomAccessFile = new RandomAccessFile(file,
+					"r"); FileChannel channel = randomAccessFile.getChannel()) {
+				ByteBuffer header = readHeader(channel);
+				if (header != null) {
+					timestamp = new Date(header.getLong(24));
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING,
+						"Failed to read feature index snapshot: " + file, e);
+			}
+		}
+		return timestamp;
+	}
+
+	/**
+	 * Read the snapshot packed tree when the snapshot timestamp matches,
+	 * without validating the feature table row count and max row id
+	 *
+	 * @param file
+	 *            snapshot file
+	 * @param timestamp
+	 *            expected validation timestamp, null to skip validation
+	 * @return packed tree, null when the file does not exist, is not a valid
+	 *         snapshot, or is stale
+	 */
+	public static PackedRTree read(File file, Date timestamp) {
+		return read(file, timestamp, null, null);
+	}
+
+	/**
+	 * Read the snapshot packed tree when the snapshot timestamp, feature table
+	 * row count, and max row id match
+	 *
+	 * @param file
+	 *            snapshot file
+	 * @param timestamp
+	 *            expected validation timestamp, null to skip validation
+	 * @param rowCount
+	 *            expected feature table row count
+	 * @param maxId
+	 *            expected feature table max row id
+	 * @return packed tree, null when the file does not exist, is not a valid
+	 *         snapshot, or is stale
+	 */
+	public static PackedRTree read(File file, Date timestamp, long rowCount,
+			long maxId) {
+		return read(file, timestamp, Long.valueOf(rowCount),
+				Long.valueOf(maxId));
+	}
+
+	/**
+	 * Read the snapshot packed tree when the provided validation values match
+	 *
+	 * @param file
+	 *            snapshot file
+	 * @param timestamp
+	 *            expected validation timestamp, null to skip validation
+	 * @param rowCount
+	 *            expected feature table row count, null to skip validation
+	 * @param maxId
+	 *            expected feature table max row id, null to skip validation
+	 * @return packed tree, null when the file does not exist, is not a valid
+	 *         snapshot, or is stale
+	 */
+	private static PackedRTree read(File file, Date timestamp, Long rowCount,
+			Long maxId) {
+
+		PackedRTree tree = null;
+
+		if (file.isFile()) {
+			try (RandomAccessFile randomAccessFile = new RandomAccessFile(file,
+					"r"); FileChannel channel = randomAccessFile.getChannel()) {
+
+				ByteBuffer header = readHeader(channel);
+				if (header != null
+						&& (timestamp == null || header.getLong(24) == timestamp
+								.getTime())
+						&& (rowCount == null || header.getLong(32) == rowCount)
+						&& (maxId == null || header.getLong(40) == maxId)) {
+
+					int nodeSize = header.getInt(8);
+					int size = header.getInt(12);
+					int total = header.getInt(16);
+					int topStart = header.getInt(20);
+
+					long idsOffset = HEADER_LENGTH;
+					long boxesOffset = idsOffset + 8L * size;
+					long firstChildOffset = boxesOffset + 32L * total;
+					long endChildOffset = firstChildOffset
+							+ 4L * (total - size);
+					long length = endChildOffset + 4L * (total - size);
+
+					if (size >= 0 && total >= size
+							&& channel.size() == length) {
+						LongBuffer ids = load(channel, idsOffset, 8L * size)
+								.asLongBuffer();
+						DoubleBuffer boxes = load(channel, boxesOffset,
+								32L * total).asDoubleBuffer();
+						IntBuffer firstChild = load(channel, firstChildOffset,
+								4L * (total - size)).asIntBuffer();
+						IntBuffer endChild = load(channel, endChildOffset,
+								4L * (total - size)).asIntBuffer();
+						tree = new PackedRTree(nodeSize, size, ids, boxes,
+								firstChild, endChild, topStart);
+					} else {
+						LOGGER.log(Level.WARNING,
+								"Invalid feature index snapshot length: "
+										+ file);
+					}
+				}
+
+			} catch (IOException | IllegalArgumentException e) {
+				LOGGER.log(Level.WARNING,
+						"Failed to read feature index snapshot: " + file, e);
+			}
+		}
+
+		return tree;
+	}
+
+	/**
+	 * Read and verify the header
+	 *
+	 * @param channel
+	 *            file channel
+	 * @return header, null when not a snapshot
+	 * @throws IOException
+	 *             upon failure
+	 */
+	private static ByteBuffer readHeader(FileChannel channel)
+			throws IOException {
+		ByteBuffer header = null;
+		if (channel.size() >= HEADER_LENGTH) {
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH);
+			int read = 0;
+			while (buffer.hasRemaining() && read >= 0) {
+				read = channel.read(buffer, buffer.position());
+			}
+			boolean valid = !buffer.hasRemaining();
+			for (int i = 0; valid && i < MAGIC.length; i++) {
+				valid = buffer.get(i) == MAGIC[i];
+			}
+			if (valid) {
+				header = buffer;
+			}
+		}
+		return header;
+	}
+
+	/**
+	 * Load a region of the file into a direct buffer. The region is copied
+	 * rather than memory mapped so no mapping holds the file open after it is
+	 * closed.
+	 *
+	 * @param channel
+	 *            file channel
+	 * @param offset
+	 *            region offset
+	 * @param length
+	 *            region length
+	 * @return loaded buffer
+	 * @throws IOException
+	 *             upon failure
+	 */
+	private static ByteBuffer load(FileChannel channel, long offset,
+			long length) throws IOException {
+		if (length > Integer.MAX_VALUE) {
+			throw new GeoPackageException(
+					"Feature index snapshot region too large to load: "
+							+ length);
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, offset + buffer.position());
+			if (read < 0) {
+				throw new IOException(
+						"Unexpected end of feature index snapshot");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Ensure the buffer has the remaining bytes, writing it when full
+	 *
+	 * @param channel
+	 *            file channel
+	 * @param buffer
+	 *            write buffer
+	 * @param bytes
+	 *            bytes needed
+	 * @return write buffer
+	 * @throws IOException
+	 *             upon failure
+	 */
+	private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer,
+			int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush(channel, buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Write and clear the buffer
+	 *
+	 * @param channel
+	 *            file channel
+	 * @param buffer
+	 *            write buffer
+	 * @throws IOException
+	 *             upon failure
+	 */
+	private static void flush(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
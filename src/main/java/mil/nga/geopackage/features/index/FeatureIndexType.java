@@ -18,6 +18,14 @@ public enum FeatureIndexType {
 	 */
 	RTREE,
 
+	/**
+	 * In memory packed RTree held by the feature DAO, built from an index
+	 * table or the feature table
+	 *
+	 * @since 3.4.1
+	 */
+	MEMORY,
+
 	/**
 	 * No index
 	 */
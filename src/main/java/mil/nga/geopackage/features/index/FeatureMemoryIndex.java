@@ -0,0 +1,658 @@
+package mil.nga.geopackage.features.index;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.SQLUtils;
+import mil.nga.geopackage.extension.GeometryEnvelopeReader;
+import mil.nga.geopackage.extension.RTreeIndexExtension;
+import mil.nga.geopackage.extension.RTreeIndexTableDao;
+import mil.nga.geopackage.extension.index.FeatureTableIndex;
+import mil.nga.geopackage.extension.index.GeometryIndex;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.proj.Projection;
+import mil.nga.sf.proj.ProjectionTransform;
+
+/**
+ * Feature Memory Index, an in memory {@link PackedRTree} of the feature table
+ * geometry envelopes held by a {@link FeatureDao}. Built from the GeoPackage
+ * Geometry Index table, the RTree Index table, or the feature table. Changes
+ * to indexed feature rows are kept in a change set queried alongside the
+ * packed tree, which is repacked as the changes grow. Bounding box queries
+ * and counts are answered without querying the database. Thread safe.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class FeatureMemoryIndex {
+
+	/**
+	 * Min number of changes before repacking the tree
+	 */
+	public static final int MIN_REPACK_CHANGES = 1024;
+
+	/**
+	 * Feature DAO
+	 */
+	private final FeatureDao featureDao;
+
+	/**
+	 * Read write lock of the index
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Packed tree, null when not indexed
+	 */
+	private PackedRTree tree;
+
+	/**
+	 * Sorted ids in the packed tree, created on the first change
+	 */
+	private long[] treeIds;
+
+	/**
+	 * Entries inserted or updated since the tree was packed
+	 */
+	private final Map<Long, double[]> added = new HashMap<>();
+
+	/**
+	 * Packed tree ids updated or deleted since the tree was packed
+	 */
+	private final Set<Long> removed = new HashSet<>();
+
+	/**
+	 * Max entries per packed tree node
+	 */
+	private int nodeSize = PackedRTree.DEFAULT_NODE_SIZE;
+
+	/**
+	 * Last indexed date
+	 */
+	private Date lastIndexed;
+
+	/**
+	 * Constructor
+	 *
+	 * @param featureDao
+	 *            feature DAO
+	 */
+	public FeatureMemoryIndex(FeatureDao featureDao) {
+		this.featureDao = featureDao;
+	}
+
+	/**
+	 * Get the feature DAO
+	 *
+	 * @return feature DAO
+	 */
+	public FeatureDao getFeatureDao() {
+		return featureDao;
+	}
+
+	/**
+	 * Get the max entries per packed tree node
+	 *
+	 * @return node size
+	 */
+	public int getNodeSize() {
+		return nodeSize;
+	}
+
+	/**
+	 * Set the max entries per packed tree node, used the next time the tree
+	 * is packed
+	 *
+	 * @param nodeSize
+	 *            node size
+	 */
+	public void setNodeSize(int nodeSize) {
+		this.nodeSize = nodeSize;
+	}
+
+	/**
+	 * Index from the GeoPackage Geometry Index table
+	 *
+	 * @param featureTableIndex
+	 *            feature table index
+	 * @return number of indexed geometries
+	 */
+	public int index(FeatureTableIndex featureTableIndex) {
+		String sql = "SELECT "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.COLUMN_GEOM_ID) + ", "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.COLUMN_MIN_X) + ", "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.COLUMN_MIN_Y) + ", "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.COLUMN_MAX_X) + ", "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.COLUMN_MAX_Y) + " FROM "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.TABLE_NAME) + " WHERE "
+				+ CoreSQLUtils.quoteWrap(GeometryIndex.COLUMN_TABLE_NAME)
+				+ " = ?";
+		return indexEnvelopes(sql,
+				new String[] { featureTableIndex.getTableName() });
+	}
+
+	/**
+	 * Index from the RTree Index table
+	 *
+	 * @param rTreeIndexTableDao
+	 *            RTree index table DAO
+	 * @return number of indexed geometries
+	 */
+	public int index(RTreeIndexTableDao rTreeIndexTableDao) {
+		String sql = "SELECT "
+				+ CoreSQLUtils.quoteWrap(RTreeIndexExtension.COLUMN_ID) + ", "
+				+ CoreSQLUtils.quoteWrap(RTreeIndexExtension.COLUMN_MIN_X)
+				+ ", "
+				+ CoreSQLUtils.quoteWrap(RTreeIndexExtension.COLUMN_MIN_Y)
+				+ ", "
+				+ CoreSQLUtils.quoteWrap(RTreeIndexExtension.COLUMN_MAX_X)
+				+ ", "
+				+ CoreSQLUtils.quoteWrap(RTreeIndexExtension.COLUMN_MAX_Y)
+				+ " FROM "
+				+ CoreSQLUtils.quoteWrap(rTreeIndexTableDao.getTableName());
+		return indexEnvelopes(sql, null);
+	}
+
+	/**
+	 * Index from the feature table geometries, reading envelopes from the
+	 * geometry headers when present
+	 *
+	 * @return number of indexed geometries
+	 */
+	public int index() {
+
+		String sql = "SELECT "
+				+ CoreSQLUtils.quoteWrap(featureDao.getTable().getPkColumn()
+						.getName())
+				+ ", "
+				+ CoreSQLUtils.quoteWrap(featureDao.getGeometryColumnName())
+				+ " FROM " + CoreSQLUtils.quoteWrap(featureDao.getTableName());
+
+		GeometryEnvelopeReader reader = new GeometryEnvelopeReader();
+		long[] ids = new long[16];
+		double[] envelopes = new double[ids.length * 4];
+		int size = 0;
+
+		ResultSet resultSet = SQLUtils.query(featureDao.getReadConnection(),
+				sql, null);
+		try {
+			while (resultSet.next()) {
+				byte[] blob = resultSet.getBytes(2);
+				if (!reader.isEmpty(blob)) {
+					GeometryEnvelope envelope = reader.getEnvelope(blob);
+					if (envelope != null) {
+						if (size == ids.length) {
+							ids = Arrays.copyOf(ids, size * 2);
+							envelopes = Arrays.copyOf(envelopes, size * 8);
+						}
+						ids[size] = resultSet.getLong(1);
+						setEnvelope(envelopes, size++, envelope);
+					}
+				}
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to read geometries to memory index. Table: "
+							+ featureDao.getTableName(),
+					e);
+		} finally {
+			SQLUtils.closeResultSetStatement(resultSet, sql);
+		}
+
+		return index(ids, envelopes, size);
+	}
+
+	/**
+	 * Index the entries, replacing any existing index
+	 *
+	 * @param ids
+	 *            ids
+	 * @param envelopes
+	 *            envelopes, four values per entry: min x, min y, max x, max y
+	 * @param size
+	 *            number of entries
+	 * @return number of indexed geometries
+	 */
+	public int index(long[] ids, double[] envelopes, int size) {
+		return index(PackedRTree.build(ids, envelopes, size, nodeSize));
+	}
+
+	/**
+	 * Index the packed tree, replacing any existing index
+	 *
+	 * @param packed
+	 *            packed tree
+	 * @return number of indexed geometries
+	 */
+	public int index(PackedRTree packed) {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			setTree(packed);
+		} finally {
+			writeLock.unlock();
+		}
+		return packed.size();
+	}
+
+	/**
+	 * Get the packed tree, repacking any changes
+	 *
+	 * @return packed tree, null when not indexed
+	 */
+	public PackedRTree getTree() {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			if (tree != null && (!added.isEmpty() || !removed.isEmpty())) {
+				repack();
+			}
+			return tree;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Index the feature row, removing it from the index when it has no
+	 * geometry or an empty geometry. Has no effect when not indexed.
+	 *
+	 * @param row
+	 *            feature row
+	 * @return true if indexed
+	 */
+	public boolean index(FeatureRow row) {
+		boolean indexed = false;
+		GeoPackageGeometryData geometryData = row.getGeometry();
+		if (geometryData != null && !geometryData.isEmpty()
+				&& geometryData.getGeometry() != null) {
+			indexed = index(row.getId(), geometryData.getOrBuildEnvelope());
+		} else {
+			delete(row.getId());
+		}
+		return indexed;
+	}
+
+	/**
+	 * Index the envelope for the id. Has no effect when not indexed.
+	 *
+	 * @param id
+	 *            feature id
+	 * @param envelope
+	 *            geometry envelope
+	 * @return true if indexed
+	 */
+	public boolean index(long id, GeometryEnvelope envelope) {
+		boolean indexed = false;
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			if (tree != null) {
+				double[] values = new double[4];
+				setEnvelope(values, 0, envelope);
+				if (inTree(id)) {
+					removed.add(id);
+				}
+				added.put(id, values);
+				repackIfNeeded();
+				indexed = true;
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		return indexed;
+	}
+
+	/**
+	 * Delete the id from the index
+	 *
+	 * @param id
+	 *            feature id
+	 * @return true if deleted
+	 */
+	public boolean delete(long id) {
+		boolean deleted = false;
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			if (tree != null) {
+				deleted = added.remove(id) != null;
+				if (inTree(id) && removed.add(id)) {
+					deleted = true;
+				}
+				repackIfNeeded();
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		return deleted;
+	}
+
+	/**
+	 * Clear the index
+	 */
+	public void clear() {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			tree = null;
+			treeIds = null;
+			added.clear();
+			removed.clear();
+			lastIndexed = null;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Determine if indexed
+	 *
+	 * @return true if indexed
+	 */
+	public boolean isIndexed() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return tree != null;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Get the last indexed date
+	 *
+	 * @return last indexed date or null
+	 */
+	public Date getLastIndexed() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return lastIndexed;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Get the number of indexed geometries
+	 *
+	 * @return count
+	 */
+	public long count() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			long count = 0;
+			if (tree != null) {
+				count = tree.size() - removed.size() + added.size();
+			}
+			return count;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Get all indexed ids
+	 *
+	 * @return ids
+	 */
+	public long[] ids() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			long[] ids = new long[0];
+			if (tree != null) {
+				ids = merge(tree.getIds(), null);
+			}
+			return ids;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Query for the ids of geometries intersecting the envelope
+	 *
+	 * @param envelope
+	 *            geometry envelope
+	 * @return ids
+	 */
+	public long[] query(GeometryEnvelope envelope) {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			long[] ids = new long[0];
+			if (tree != null) {
+				ids = merge(tree.query(envelope), envelope);
+			}
+			return ids;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Count the geometries intersecting the envelope
+	 *
+	 * @param envelope
+	 *            geometry envelope
+	 * @return count
+	 */
+	public long count(GeometryEnvelope envelope) {
+		return query(envelope).length;
+	}
+
+	/**
+	 * Get the bounding box of the indexed geometries
+	 *
+	 * @return bounding box, null when empty or not indexed
+	 */
+	public BoundingBox getBoundingBox() {
+		BoundingBox boundingBox = null;
+		PackedRTree packed = getTree();
+		if (packed != null) {
+			GeometryEnvelope bounds = packed.getBounds();
+			if (bounds != null) {
+				boundingBox = new BoundingBox(bounds);
+			}
+		}
+		return boundingBox;
+	}
+
+	/**
+	 * Get the bounding box of the indexed geometries in the projection
+	 *
+	 * @param projection
+	 *            projection
+	 * @return bounding box, null when empty or not indexed
+	 */
+	public BoundingBox getBoundingBox(Projection projection) {
+		BoundingBox boundingBox = getBoundingBox();
+		if (boundingBox != null && projection != null) {
+			ProjectionTransform projectionTransform = featureDao.getProjection()
+					.getTransformation(projection);
+			boundingBox = boundingBox.transform(projectionTransform);
+		}
+		return boundingBox;
+	}
+
+	/**
+	 * Index the envelopes read by the query of id, min x, min y, max x, and
+	 * max y columns
+	 *
+	 * @param sql
+	 *            sql statement
+	 * @param args
+	 *            sql arguments
+	 * @return number of indexed geometries
+	 */
+	private int indexEnvelopes(String sql, String[] args) {
+
+		long[] ids = new long[16];
+		double[] envelopes = new double[ids.length * 4];
+		int size = 0;
+
+		ResultSet resultSet = SQLUtils.query(featureDao.getReadConnection(),
+				sql, args);
+		try {
+			while (resultSet.next()) {
+				if (size == ids.length) {
+					ids = Arrays.copyOf(ids, size * 2);
+					envelopes = Arrays.copyOf(envelopes, size * 8);
+				}
+				ids[size] = resultSet.getLong(1);
+				int offset = size++ * 4;
+				envelopes[offset] = resultSet.getDouble(2);
+				envelopes[offset + 1] = resultSet.getDouble(3);
+				envelopes[offset + 2] = resultSet.getDouble(4);
+				envelopes[offset + 3] = resultSet.getDouble(5);
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to read envelopes to memory index. Table: "
+							+ featureDao.getTableName(),
+					e);
+		} finally {
+			SQLUtils.closeResultSetStatement(resultSet, sql);
+		}
+
+		return index(ids, envelopes, size);
+	}
+
+	/**
+	 * Set the packed tree, clearing the changes. Called within the write lock.
+	 *
+	 * @param packed
+	 *            packed tree
+	 */
+	private void setTree(PackedRTree packed) {
+		tree = packed;
+		treeIds = null;
+		added.clear();
+		removed.clear();
+		lastIndexed = new Date();
+	}
+
+	/**
+	 * Determine if the id is in the packed tree. Called within the write lock.
+	 *
+	 * @param id
+	 *            feature id
+	 * @return true if in the tree
+	 */
+	private boolean inTree(long id) {
+		if (treeIds == null) {
+			treeIds = tree.getIds();
+			Arrays.sort(treeIds);
+		}
+		return Arrays.binarySearch(treeIds, id) >= 0;
+	}
+
+	/**
+	 * Repack the tree when the changes have grown large. Called within the
+	 * write lock.
+	 */
+	private void repackIfNeeded() {
+		int changes = added.size() + removed.size();
+		if (changes >= Math.max(MIN_REPACK_CHANGES, tree.size() / 4)) {
+			repack();
+		}
+	}
+
+	/**
+	 * Repack the tree with the changes. Called within the write lock.
+	 */
+	private void repack() {
+		long[] ids = tree.getIds();
+		double[] envelopes = tree.getEnvelopes();
+		int size = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (!removed.contains(ids[i])) {
+				ids[size] = ids[i];
+				System.arraycopy(envelopes, i * 4, envelopes, size * 4, 4);
+				size++;
+			}
+		}
+		int total = size + added.size();
+		ids = Arrays.copyOf(ids, total);
+		envelopes = Arrays.copyOf(envelopes, total * 4);
+		for (Map.Entry<Long, double[]> entry : added.entrySet()) {
+			ids[size] = entry.getKey();
+			System.arraycopy(entry.getValue(), 0, envelopes, size * 4, 4);
+			size++;
+		}
+		setTree(PackedRTree.build(ids, envelopes, size, nodeSize));
+	}
+
+	/**
+	 * Merge the changes into the packed tree results. Called within the read
+	 * lock.
+	 *
+	 * @param treeResults
+	 *            packed tree result ids
+	 * @param envelope
+	 *            query envelope, null to include all changes
+	 * @return ids
+	 */
+	private long[] merge(long[] treeResults, GeometryEnvelope envelope) {
+		long[] ids = treeResults;
+		if (!added.isEmpty() || !removed.isEmpty()) {
+			int size = 0;
+			ids = new long[treeResults.length + added.size()];
+			for (long id : treeResults) {
+				if (!removed.contains(id)) {
+					ids[size++] = id;
+				}
+			}
+			for (Map.Entry<Long, double[]> entry : added.entrySet()) {
+				double[] values = entry.getValue();
+				if (envelope == null || (values[0] <= envelope.getMaxX()
+						&& values[1] <= envelope.getMaxY()
+						&& values[2] >= envelope.getMinX()
+						&& values[3] >= envelope.getMinY())) {
+					ids[size++] = entry.getKey();
+				}
+			}
+			ids = Arrays.copyOf(ids, size);
+		}
+		return ids;
+	}
+
+	/**
+	 * Set the envelope values at the entry
+	 *
+	 * @param envelopes
+	 *            envelope values
+	 * @param entry
+	 *            entry index
+	 * @param envelope
+	 *            envelope
+	 */
+	private static void setEnvelope(double[] envelopes, int entry,
+			GeometryEnvelope envelope) {
+		int offset = entry * 4;
+		envelopes[offset] = envelope.getMinX();
+		envelopes[offset + 1] = envelope.getMinY();
+		envelopes[offset + 2] = envelope.getMaxX();
+		envelopes[offset + 3] = envelope.getMaxY();
+	}
+
+}
@@ -0,0 +1,596 @@
+package mil.nga.geopackage.features.index;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * Packed RTree, an immutable Sort-Tile-Recursive (STR) bulk loaded RTree of
+ * feature envelopes and ids stored in primitive arrays. Each level is sorted
+ * into vertical slices by x center and each slice by y center before being
+ * packed into full nodes. Entries are stored in a flat array ordered by level,
+ * leaves first, with four doubles per entry: min x, min y, max x, max y. The
+ * arrays are held in primitive buffers, either heap arrays when built or
+ * direct buffers when read from a {@link FeatureIndexSnapshot}.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class PackedRTree {
+
+	/**
+	 * Default max number of entries per node
+	 */
+	public static final int DEFAULT_NODE_SIZE = 16;
+
+	/**
+	 * Empty ids
+	 */
+	private static final long[] EMPTY_IDS = new long[0];
+
+	/**
+	 * Max number of entries per node
+	 */
+	private final int nodeSize;
+
+	/**
+	 * Number of leaf entries
+	 */
+	private final int size;
+
+	/**
+	 * Entry ids of the leaf entries, in packed order
+	 */
+	private final LongBuffer ids;
+
+	/**
+	 * Entry boxes of all levels, four values per entry
+	 */
+	private final DoubleBuffer boxes;
+
+	/**
+	 * Flat index of the first child of each node entry (entries above the
+	 * leaves), indexed by (entry - size)
+	 */
+	private final IntBuffer firstChild;
+
+	/**
+	 * Flat index after the last child of each node entry, indexed by (entry -
+	 * size)
+	 */
+	private final IntBuffer endChild;
+
+	/**
+	 * Flat index of the first top level entry
+	 */
+	private final int topStart;
+
+	/**
+	 * Number of entries of all levels
+	 */
+	private final int total;
+
+	/**
+	 * Bounds of all entries, null when empty
+	 */
+	private final GeometryEnvelope bounds;
+
+	/**
+	 * Build a packed RTree with the {@link #DEFAULT_NODE_SIZE}
+	 *
+	 * @param ids
+	 *            entry ids
+	 * @param envelopes
+	 *            entry envelopes, four values per entry: min x, min y, max x,
+	 *            max y
+	 * @param size
+	 *            number of entries
+	 * @return packed RTree
+	 */
+	public static PackedRTree build(long[] ids, double[] envelopes, int size) {
+		return build(ids, envelopes, size, DEFAULT_NODE_SIZE);
+	}
+
+	/**
+	 * Build a packed RTree
+	 *
+	 * @param ids
+	 *            entry ids
+	 * @param envelopes
+	 *            entry envelopes, four values per entry: min x, min y, max x,
+	 *            max y
+	 * @param size
+	 *            number of entries
+	 * @param nodeSize
+	 *            max number of entries per node
+	 * @return packed RTree
+	 */
+	public static PackedRTree build(long[] ids, double[] envelopes, int size,
+			int nodeSize) {
+
+		if (nodeSize < 2) {
+			throw new IllegalArgumentException(
+					"Node size must be at least 2: " + nodeSize);
+		}
+
+		// Sort the leaves
+		int[] order = sortTileRecursive(envelopes, size, nodeSize);
+		long[] leafIds = new long[size];
+		double[] leafBoxes = new double[size * 4];
+		for (int i = 0; i < size; i++) {
+			int entry = order[i];
+			leafIds[i] = ids[entry];
+			System.arraycopy(envelopes, entry * 4, leafBoxes, i * 4, 4);
+		}
+
+		// Pack the node levels
+		List<double[]> levelBoxes = new ArrayList<>();
+		List<int[]> levelChildren = new ArrayList<>();
+		levelBoxes.add(leafBoxes);
+		int levelCount = size;
+		int total = size;
+		while (levelCount > nodeSize) {
+
+			double[] childBoxes = levelBoxes.get(levelBoxes.size() - 1);
+			int nodeCount = (levelCount + nodeSize - 1) / nodeSize;
+			double[] nodeBoxes = new double[nodeCount * 4];
+			int[] nodeChildren = new int[nodeCount];
+			for (int node = 0; node < nodeCount; node++) {
+				int start = node * nodeSize;
+				int end = Math.min(start + nodeSize, levelCount);
+				union(childBoxes, start, end, nodeBoxes, node);
+				nodeChildren[node] = start;
+			}
+
+			int[] nodeOrder = sortTileRecursive(nodeBoxes, nodeCount,
+					nodeSize);
+			double[] sortedBoxes = new double[nodeCount * 4];
+			int[] sortedChildren = new int[nodeCount];
+			for (int i = 0; i < nodeCount; i++) {
+				int node = nodeOrder[i];
+				System.arraycopy(nodeBoxes, node * 4, sortedBoxes, i * 4, 4);
+				sortedChildren[i] = nodeChildren[node];
+			}
+
+			levelBoxes.add(sortedBoxes);
+			levelChildren.add(sortedChildren);
+			levelCount = nodeCount;
+			total += nodeCount;
+		}
+
+		// Flatten the levels
+		double[] boxes = new double[total * 4];
+		int[] firstChild = new int[total - size];
+		int[] endChild = new int[total - size];
+		int offset = 0;
+		int childOffset = 0;
+		int childCount = 0;
+		for (int level = 0; level < levelBoxes.size(); level++) {
+			double[] values = levelBoxes.get(level);
+			int count = values.length / 4;
+			System.arraycopy(values, 0, boxes, offset * 4, values.length);
+			if (level > 0) {
+				int[] children = levelChildren.get(level - 1);
+				for (int i = 0; i < count; i++) {
+					int start = childOffset + children[i];
+					firstChild[offset - size + i] = start;
+					endChild[offset - size + i] = Math.min(start + nodeSize,
+							childOffset + childCount);
+				}
+			}
+			childOffset = offset;
+			childCount = count;
+			offset += count;
+		}
+
+		return new PackedRTree(nodeSize, size, LongBuffer.wrap(leafIds),
+				DoubleBuffer.wrap(boxes), IntBuffer.wrap(firstChild),
+				IntBuffer.wrap(endChild), total - levelCount);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param nodeSize
+	 *            max number of entries per node
+	 * @param size
+	 *            number of leaf entries
+	 * @param ids
+	 *            leaf entry ids
+	 * @param boxes
+	 *            entry boxes of all levels
+	 * @param firstChild
+	 *            first child of each node entry
+	 * @param endChild
+	 *            end child of each node entry
+	 * @param topStart
+	 *            flat index of the first top level entry
+	 */
+	PackedRTree(int nodeSize, int size, LongBuffer ids, DoubleBuffer boxes,
+			IntBuffer firstChild, IntBuffer endChild, int topStart) {
+		this.nodeSize = nodeSize;
+		this.size = size;
+		this.ids = ids;
+		this.boxes = boxes;
+		this.firstChild = firstChild;
+		this.endChild = endChild;
+		this.topStart = topStart;
+		total = boxes.limit() / 4;
+		if (ids.limit() != size || firstChild.limit() != total - size
+				|| endChild.limit() != total - size || topStart > total) {
+			throw new IllegalArgumentException(
+					"Inconsistent packed RTree arrays. Size: " + size
+							+ ", Entries: " + total);
+		}
+		if (size > 0) {
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int entry = topStart; entry < total; entry++) {
+				int offset = entry * 4;
+				minX = Math.min(minX, boxes.get(offset));
+				minY = Math.min(minY, boxes.get(offset + 1));
+				maxX = Math.max(maxX, boxes.get(offset + 2));
+				maxY = Math.max(maxY, boxes.get(offset + 3));
+			}
+			bounds = new GeometryEnvelope(minX, minY, maxX, maxY);
+		} else {
+			bounds = null;
+		}
+	}
+
+	/**
+	 * Get the max number of entries per node
+	 *
+	 * @return node size
+	 */
+	public int getNodeSize() {
+		return nodeSize;
+	}
+
+	/**
+	 * Get the number of entries
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of entries of all levels, leaves and nodes
+	 *
+	 * @return entries
+	 */
+	int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Get the flat index of the first top level entry
+	 *
+	 * @return top start
+	 */
+	int getTopStart() {
+		return topStart;
+	}
+
+	/**
+	 * Get the leaf entry ids buffer
+	 *
+	 * @return ids
+	 */
+	LongBuffer getIdBuffer() {
+		return ids.duplicate();
+	}
+
+	/**
+	 * Get the entry boxes buffer of all levels
+	 *
+	 * @return boxes
+	 */
+	DoubleBuffer getBoxBuffer() {
+		return boxes.duplicate();
+	}
+
+	/**
+	 * Get the node entry first child buffer
+	 *
+	 * @return first children
+	 */
+	IntBuffer getFirstChildBuffer() {
+		return firstChild.duplicate();
+	}
+
+	/**
+	 * Get the node entry end child buffer
+	 *
+	 * @return end children
+	 */
+	IntBuffer getEndChildBuffer() {
+		return endChild.duplicate();
+	}
+
+	/**
+	 * Get the bounds of all entries
+	 *
+	 * @return bounds, null when empty
+	 */
+	public GeometryEnvelope getBounds() {
+		return bounds != null ? bounds.copy() : null;
+	}
+
+	/**
+	 * Get the entry ids in packed order
+	 *
+	 * @return ids
+	 */
+	public long[] getIds() {
+		long[] values = new long[size];
+		ids.duplicate().get(values);
+		return values;
+	}
+
+	/**
+	 * Get the leaf entry envelopes in packed order, four values per entry: min
+	 * x, min y, max x, max y
+	 *
+	 * @return envelopes
+	 */
+	public double[] getEnvelopes() {
+		double[] values = new double[size * 4];
+		DoubleBuffer leaves = boxes.duplicate();
+		leaves.limit(values.length);
+		leaves.get(values);
+		return values;
+	}
+
+	/**
+	 * Query for the ids of entries intersecting the envelope
+	 *
+	 * @param envelope
+	 *            envelope
+	 * @return ids
+	 */
+	public long[] query(GeometryEnvelope envelope) {
+		return query(envelope.getMinX(), envelope.getMinY(),
+				envelope.getMaxX(), envelope.getMaxY());
+	}
+
+	/**
+	 * Query for the ids of entries intersecting the bounds
+	 *
+	 * @param minX
+	 *            min x
+	 * @param minY
+	 *            min y
+	 * @param maxX
+	 *            max x
+	 * @param maxY
+	 *            max y
+	 * @return ids
+	 */
+	public long[] query(double minX, double minY, double maxX, double maxY) {
+		long[] results = EMPTY_IDS;
+		int count = 0;
+		if (size > 0) {
+			int[] stack = new int[64];
+			int stackSize = 0;
+			for (int entry = topStart; entry < total; entry++) {
+				stack = push(stack, stackSize++, entry);
+			}
+			while (stackSize > 0) {
+				int entry = stack[--stackSize];
+				if (intersects(entry, minX, minY, maxX, maxY)) {
+					if (entry < size) {
+						if (count == results.length) {
+							results = Arrays.copyOf(results,
+									Math.max(16, count * 2));
+						}
+						results[count++] = ids.get(entry);
+					} else {
+						int node = entry - size;
+						int end = endChild.get(node);
+						for (int child = firstChild.get(node); child < end; child++) {
+							stack = push(stack, stackSize++, child);
+						}
+					}
+				}
+			}
+		}
+		return count == results.length ? results
+				: Arrays.copyOf(results, count);
+	}
+
+	/**
+	 * Count the entries intersecting the envelope
+	 *
+	 * @param envelope
+	 *            envelope
+	 * @return count
+	 */
+	public int count(GeometryEnvelope envelope) {
+		return query(envelope).length;
+	}
+
+	/**
+	 * Determine if the entry intersects the bounds
+	 *
+	 * @param entry
+	 *            flat entry index
+	 * @param minX
+	 *            min x
+	 * @param minY
+	 *            min y
+	 * @param maxX
+	 *            max x
+	 * @param maxY
+	 *            max y
+	 * @return true if intersects
+	 */
+	private boolean intersects(int entry, double minX, double minY,
+			double maxX, double maxY) {
+		int index = entry * 4;
+		return boxes.get(index) <= maxX && boxes.get(index + 1) <= maxY
+				&& boxes.get(index + 2) >= minX
+				&& boxes.get(index + 3) >= minY;
+	}
+
+	/**
+	 * Push a value onto the stack, growing when needed
+	 *
+	 * @param stack
+	 *            stack
+	 * @param index
+	 *            index to push to
+	 * @param value
+	 *            value
+	 * @return stack
+	 */
+	private static int[] push(int[] stack, int index, int value) {
+		if (index == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+		stack[index] = value;
+		return stack;
+	}
+
+	/**
+	 * Union the boxes into the target box
+	 *
+	 * @param boxes
+	 *            source boxes
+	 * @param start
+	 *            first source box
+	 * @param end
+	 *            source box end
+	 * @param target
+	 *            target boxes
+	 * @param index
+	 *            target box
+	 */
+	private static void union(double[] boxes, int start, int end,
+			double[] target, int index) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int box = start; box < end; box++) {
+			int offset = box * 4;
+			minX = Math.min(minX, boxes[offset]);
+			minY = Math.min(minY, boxes[offset + 1]);
+			maxX = Math.max(maxX, boxes[offset + 2]);
+			maxY = Math.max(maxY, boxes[offset + 3]);
+		}
+		int offset = index * 4;
+		target[offset] = minX;
+		target[offset + 1] = minY;
+		target[offset + 2] = maxX;
+		target[offset + 3] = maxY;
+	}
+
+	/**
+	 * Sort Tile Recursive order of the boxes. Sorts by x center, splits into
+	 * vertical slices of whole nodes, and sorts each slice by y center.
+	 *
+	 * @param boxes
+	 *            boxes, four values per box
+	 * @param count
+	 *            number of boxes
+	 * @param nodeSize
+	 *            max entries per node
+	 * @return box order
+	 */
+	private static int[] sortTileRecursive(double[] boxes, int count,
+			int nodeSize) {
+
+		int[] order = new int[count];
+		double[] centerX = new double[count];
+		double[] centerY = new double[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+			centerX[i] = (boxes[i * 4] + boxes[i * 4 + 2]) / 2.0;
+			centerY[i] = (boxes[i * 4 + 1] + boxes[i * 4 + 3]) / 2.0;
+		}
+
+		sort(order, 0, count, centerX);
+
+		int nodes = (count + nodeSize - 1) / nodeSize;
+		int slices = (int) Math.ceil(Math.sqrt(nodes));
+		int sliceSize = Math.max(1, slices) * nodeSize;
+		for (int start = 0; start < count; start += sliceSize) {
+			sort(order, start, Math.min(start + sliceSize, count), centerY);
+		}
+
+		return order;
+	}
+
+	/**
+	 * Sort the index range by the keys
+	 *
+	 * @param indices
+	 *            indices into the keys
+	 * @param from
+	 *            first index, inclusive
+	 * @param to
+	 *            last index, exclusive
+	 * @param keys
+	 *            sort keys
+	 */
+	private static void sort(int[] indices, int from, int to, double[] keys) {
+		while (to - from > 16) {
+
+			// Median of three pivot
+			int middle = (from + to) >>> 1;
+			double a = keys[indices[from]];
+			double b = keys[indices[middle]];
+			double c = keys[indices[to - 1]];
+			double pivot = a < b ? (b < c ? b : (a < c ? c : a))
+					: (a < c ? a : (b < c ? c : b));
+
+			int low = from;
+			int high = to - 1;
+			while (low <= high) {
+				while (keys[indices[low]] < pivot) {
+					low++;
+				}
+				while (keys[indices[high]] > pivot) {
+					high--;
+				}
+				if (low <= high) {
+					int temp = indices[low];
+					indices[low++] = indices[high];
+					indices[high--] = temp;
+				}
+			}
+
+			// Recurse into the smaller partition
+			if (high - from < to - low) {
+				sort(indices, from, high + 1, keys);
+				from = low;
+			} else {
+				sort(indices, low, to, keys);
+				to = high + 1;
+			}
+		}
+
+		// Insertion sort the small range
+		for (int i = from + 1; i < to; i++) {
+			int index = indices[i];
+			double key = keys[index];
+			int j = i - 1;
+			while (j >= from && keys[indices[j]] > key) {
+				indices[j + 1] = indices[j];
+				j--;
+			}
+			indices[j + 1] = index;
+		}
+	}
+
+}
@@ -6,7 +6,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 /**
- * Feature Row Cache for a single feature table
+ * Feature Row Cache for a single feature table. Cache access is synchronized
+ * for sharing between threads.
  *
  * @author osbornb
  * @since 3.2.0
@@ -28,6 +29,16 @@ public class FeatureCache {
 	 */
 	private int maxSize;
 
+	/**
+	 * Cache hit count
+	 */
+	private long hits = 0;
+
+	/**
+	 * Cache miss count
+	 */
+	private long misses = 0;
+
 	/**
 	 * Constructor, created with cache max size of
 	 * {@link #DEFAULT_CACHE_MAX_SIZE}
@@ -68,7 +79,7 @@ public class FeatureCache {
 	 *
 	 * @return cache size
 	 */
-	public int getSize() {
+	public synchronized int getSize() {
 		return cache.size();
 	}
 
@@ -79,8 +90,55 @@ public class FeatureCache {
 	 *            feature row id
 	 * @return feature row or null
 	 */
-	public FeatureRow get(long featureId) {
-		return cache.get(featureId);
+	public synchronized FeatureRow get(long featureId) {
+		FeatureRow featureRow = cache.get(featureId);
+		if (featureRow != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return featureRow;
+	}
+
+	/**
+	 * Get the number of cache gets that found a feature row
+	 *
+	 * @return hit count
+	 * @since 3.4.1
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of cache gets that did not find a feature row
+	 *
+	 * @return miss count
+	 * @since 3.4.1
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the ratio of cache gets that found a feature row
+	 *
+	 * @return hit rate between 0.0 and 1.0, 0.0 when no gets
+	 * @since 3.4.1
+	 */
+	public synchronized double getHitRate() {
+		long requests = hits + misses;
+		return requests > 0 ? hits / (double) requests : 0.0;
+	}
+
+	/**
+	 * Reset the hit and miss counts
+	 *
+	 * @since 3.4.1
+	 */
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
 	}
 
 	/**
@@ -90,7 +148,7 @@ public class FeatureCache {
 	 *            feature row
 	 * @return previous cached feature row or null
 	 */
-	public FeatureRow put(FeatureRow featureRow) {
+	public synchronized FeatureRow put(FeatureRow featureRow) {
 		return cache.put(featureRow.getId(), featureRow);
 	}
 
@@ -112,14 +170,14 @@ public class FeatureCache {
 	 *            feature row id
 	 * @return removed feature row or null
 	 */
-	public FeatureRow remove(long featureId) {
+	public synchronized FeatureRow remove(long featureId) {
 		return cache.remove(featureId);
 	}
 
 	/**
 	 * Clear the cache
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		cache.clear();
 	}
 
@@ -129,7 +187,7 @@ public class FeatureCache {
 	 * @param maxSize
 	 *            max size
 	 */
-	public void resize(int maxSize) {
+	public synchronized void resize(int maxSize) {
 		this.maxSize = maxSize;
 		if (cache.size() > maxSize) {
 			int count = 0;
@@ -149,7 +207,7 @@ public class FeatureCache {
 	 * @param maxSize
 	 *            max size of the cache
 	 */
-	public void clearAndResize(int maxSize) {
+	public synchronized void clearAndResize(int maxSize) {
 		clear();
 		resize(maxSize);
 	}
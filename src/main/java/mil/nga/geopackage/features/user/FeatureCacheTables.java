@@ -75,7 +75,7 @@ public class FeatureCacheTables {
 	 *            feature table name
 	 * @return feature row cache
 	 */
-	public FeatureCache getCache(String tableName) {
+	public synchronized FeatureCache getCache(String tableName) {
 		FeatureCache cache = tableCache.get(tableName);
 		if (cache == null) {
 			cache = new FeatureCache(maxCacheSize);
@@ -172,14 +172,14 @@ public class FeatureCacheTables {
 	 * @param tableName
 	 *            feature table name
 	 */
-	public void clear(String tableName) {
+	public synchronized void clear(String tableName) {
 		tableCache.remove(tableName);
 	}
 
 	/**
 	 * Clear all caches
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		tableCache.clear();
 	}
 
@@ -201,7 +201,7 @@ public class FeatureCacheTables {
 	 * @param maxCacheSize
 	 *            max cache size
 	 */
-	public void resize(int maxCacheSize) {
+	public synchronized void resize(int maxCacheSize) {
 		setMaxCacheSize(maxCacheSize);
 		for (FeatureCache cache : tableCache.values()) {
 			cache.resize(maxCacheSize);
@@ -226,7 +226,7 @@ public class FeatureCacheTables {
 	 * @param maxCacheSize
 	 *            max cache size
 	 */
-	public void clearAndResize(int maxCacheSize) {
+	public synchronized void clearAndResize(int maxCacheSize) {
 		setMaxCacheSize(maxCacheSize);
 		for (FeatureCache cache : tableCache.values()) {
 			cache.clearAndResize(maxCacheSize);
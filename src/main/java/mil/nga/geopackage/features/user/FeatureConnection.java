@@ -32,4 +32,14 @@ public class FeatureConnection
 		return new FeatureResultSet(table, resultSet, count);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected FeatureResultSet createResult(ResultSet resultSet, String sql,
+			String[] selectionArgs) {
+		return new FeatureResultSet(table, resultSet,
+				getConnection(resultSet), sql, selectionArgs);
+	}
+
 }
@@ -6,6 +6,8 @@ import mil.nga.geopackage.core.contents.Contents;
 import mil.nga.geopackage.core.srs.SpatialReferenceSystem;
 import mil.nga.geopackage.db.GeoPackageConnection;
 import mil.nga.geopackage.features.columns.GeometryColumns;
+import mil.nga.geopackage.features.index.FeatureMemoryIndex;
+import mil.nga.geopackage.user.ContentValues;
 import mil.nga.geopackage.user.UserDao;
 import mil.nga.sf.GeometryType;
 import mil.nga.sf.proj.Projection;
@@ -28,6 +30,16 @@ public class FeatureDao extends
 	 */
 	private final GeometryColumns geometryColumns;
 
+	/**
+	 * Feature row cache tables, null when not caching feature rows
+	 */
+	private FeatureCacheTables cacheTables;
+
+	/**
+	 * In memory feature index
+	 */
+	private final FeatureMemoryIndex memoryIndex;
+
 	/**
 	 * Constructor
 	 * 
@@ -58,6 +70,7 @@ public class FeatureDao extends
 		}
 
 		projection = geometryColumns.getProjection();
+		memoryIndex = new FeatureMemoryIndex(this);
 	}
 
 	/**
@@ -122,4 +135,211 @@ public class FeatureDao extends
 		return geometryColumns.getGeometryType();
 	}
 
+	/**
+	 * Get the in memory feature index of the table, empty until indexed
+	 * 
+	 * @return memory index
+	 * @since 3.4.1
+	 */
+	public FeatureMemoryIndex getMemoryIndex() {
+		return memoryIndex;
+	}
+
+	/**
+	 * Get the feature row cache tables
+	 * 
+	 * @return feature row cache tables, null when not caching
+	 * @since 3.4.1
+	 */
+	public FeatureCacheTables getCacheTables() {
+		return cacheTables;
+	}
+
+	/**
+	 * Set the feature row cache tables to read through when querying feature
+	 * rows by id. Feature DAOs, feature indices, and feature tiles sharing the
+	 * cache tables share cached feature rows, which are invalidated by
+	 * creates, updates, and deletes through the feature DAOs. Changes made
+	 * outside of the feature DAOs require clearing the cache. Cached feature
+	 * rows are shared instances and should not be modified without updating.
+	 * 
+	 * @param cacheTables
+	 *            feature row cache tables, null to disable caching
+	 * @since 3.4.1
+	 */
+	public void setCacheTables(FeatureCacheTables cacheTables) {
+		this.cacheTables = cacheTables;
+	}
+
+	/**
+	 * Enable feature row caching with a new cache of
+	 * {@link FeatureCache#DEFAULT_CACHE_MAX_SIZE} feature rows
+	 * 
+	 * @since 3.4.1
+	 */
+	public void enableCache() {
+		enableCache(FeatureCache.DEFAULT_CACHE_MAX_SIZE);
+	}
+
+	/**
+	 * Enable feature row caching with a new cache
+	 * 
+	 * @param maxCacheSize
+	 *            max feature rows to retain in the cache
+	 * @since 3.4.1
+	 */
+	public void enableCache(int maxCacheSize) {
+		setCacheTables(new FeatureCacheTables(maxCacheSize));
+	}
+
+	/**
+	 * Disable feature row caching
+	 * 
+	 * @since 3.4.1
+	 */
+	public void disableCache() {
+		setCacheTables(null);
+	}
+
+	/**
+	 * Is feature row caching enabled
+	 * 
+	 * @return true if caching
+	 * @since 3.4.1
+	 */
+	public boolean isCacheEnabled() {
+		return cacheTables != null;
+	}
+
+	/**
+	 * Get the feature row cache of the table
+	 * 
+	 * @return feature row cache, null when not caching
+	 * @since 3.4.1
+	 */
+	public FeatureCache getCache() {
+		FeatureCache cache = null;
+		if (cacheTables != null) {
+			cache = cacheTables.getCache(getTableName());
+		}
+		return cache;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Reads through the feature row cache when enabled.
+	 */
+	@Override
+	public FeatureRow queryForIdRow(long id) {
+		FeatureRow row = null;
+		FeatureCache cache = getCache();
+		if (cache != null) {
+			row = cache.get(id);
+			if (row == null) {
+				row = super.queryForIdRow(id);
+				if (row != null) {
+					cache.put(row);
+				}
+			}
+		} else {
+			row = super.queryForIdRow(id);
+		}
+		return row;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(FeatureRow row) {
+		int updated = super.update(row);
+		uncache(row.getId());
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(ContentValues values, String whereClause,
+			String[] whereArgs) {
+		int updated = super.update(values, whereClause, whereArgs);
+		clearCache();
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(FeatureRow row) {
+		long id = super.insert(row);
+		uncache(id);
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(ContentValues values) {
+		long id = super.insert(values);
+		uncache(id);
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insertOrThrow(ContentValues values) {
+		long id = super.insertOrThrow(values);
+		uncache(id);
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int deleteById(long id) {
+		int deleted = super.deleteById(id);
+		uncache(id);
+		return deleted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int delete(String whereClause, String[] whereArgs) {
+		int deleted = super.delete(whereClause, whereArgs);
+		clearCache();
+		return deleted;
+	}
+
+	/**
+	 * Remove the feature row from the cache
+	 * 
+	 * @param id
+	 *            feature row id
+	 */
+	private void uncache(long id) {
+		FeatureCache cache = getCache();
+		if (cache != null) {
+			cache.remove(id);
+		}
+	}
+
+	/**
+	 * Clear the feature row cache of the table
+	 */
+	private void clearCache() {
+		FeatureCache cache = getCache();
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
 }
@@ -1,9 +1,12 @@
 package mil.nga.geopackage.features.user;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 
+import mil.nga.geopackage.extension.GeometryEnvelopeReader;
 import mil.nga.geopackage.geom.GeoPackageGeometryData;
 import mil.nga.geopackage.user.UserResultSet;
+import mil.nga.sf.GeometryEnvelope;
 
 /**
  * Feature Result Set to wrap a database ResultSet for feature queries
@@ -13,6 +16,11 @@ import mil.nga.geopackage.user.UserResultSet;
 public class FeatureResultSet
 		extends UserResultSet<FeatureColumn, FeatureTable, FeatureRow> {
 
+	/**
+	 * Geometry envelope reader, created when first needed
+	 */
+	private GeometryEnvelopeReader envelopeReader;
+
 	/**
 	 * Constructor
 	 * 
@@ -28,6 +36,26 @@ public class FeatureResultSet
 		super(table, resultSet, count);
 	}
 
+	/**
+	 * Constructor, count is lazily queried when requested
+	 * 
+	 * @param table
+	 *            feature table
+	 * @param resultSet
+	 *            result set
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @since 3.4.1
+	 */
+	public FeatureResultSet(FeatureTable table, ResultSet resultSet,
+			Connection connection, String sql, String[] selectionArgs) {
+		super(table, resultSet, connection, sql, selectionArgs);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -70,4 +98,48 @@ public class FeatureResultSet
 		return geometry;
 	}
 
+	/**
+	 * Get the geometry blob bytes without parsing the geometry
+	 * 
+	 * @return geometry bytes or null
+	 * @since 3.4.1
+	 */
+	public byte[] getGeometryBytes() {
+		return getBlob(getTable().getGeometryColumnIndex());
+	}
+
+	/**
+	 * Get the geometry envelope without building the geometry. The envelope
+	 * is read from the geometry header when present, or from a single pass
+	 * scan of the well-known binary coordinates.
+	 * 
+	 * @return geometry envelope, null for null or empty geometries
+	 * @since 3.4.1
+	 */
+	public GeometryEnvelope getGeometryEnvelope() {
+		return getGeometryEnvelope(getGeometryBytes());
+	}
+
+	/**
+	 * Get the envelope of geometry bytes read from this result set, without
+	 * building the geometry
+	 * 
+	 * @param geometryBytes
+	 *            geometry bytes
+	 * @return geometry envelope, null for null or empty geometries
+	 * @since 3.4.1
+	 */
+	public GeometryEnvelope getGeometryEnvelope(byte[] geometryBytes) {
+		GeometryEnvelope envelope = null;
+		if (geometryBytes != null) {
+			if (envelopeReader == null) {
+				envelopeReader = new GeometryEnvelopeReader();
+			}
+			if (!envelopeReader.isEmpty(geometryBytes)) {
+				envelope = envelopeReader.getEnvelope(geometryBytes);
+			}
+		}
+		return envelope;
+	}
+
 }
@@ -1,7 +1,6 @@
 package mil.nga.geopackage.features.user;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 
 import mil.nga.geopackage.BoundingBox;
@@ -34,6 +33,11 @@ public class ManualFeatureQuery {
 	 */
 	protected double tolerance = .00000000000001;
 
+	/**
+	 * Number of threads scanning id ranges for bounding box queries
+	 */
+	protected int threads = 1;
+
 	/**
 	 * Constructor
 	 *
@@ -91,6 +95,29 @@ public class ManualFeatureQuery {
 		this.tolerance = tolerance;
 	}
 
+	/**
+	 * Get the number of threads scanning id ranges for bounding box queries
+	 * 
+	 * @return threads
+	 * @since 3.4.1
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Set the number of threads scanning id ranges for bounding box queries.
+	 * When greater than 1, bounding box queries split the table id space into
+	 * ranges scanned in parallel on separate read connections.
+	 * 
+	 * @param threads
+	 *            threads
+	 * @since 3.4.1
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
 	/**
 	 * Query for features
 	 * 
@@ -215,21 +242,21 @@ public class ManualFeatureQuery {
 
 		GeometryEnvelope envelope = null;
 
-		long offset = 0;
+		Long lastId = null;
 		boolean hasResults = true;
 
 		while (hasResults) {
 
 			hasResults = false;
 
-			FeatureResultSet resultSet = featureDao.queryForChunk(chunkLimit,
-					offset);
+			FeatureResultSet resultSet = featureDao.queryForIdChunk(chunkLimit,
+					lastId);
 			try {
 				while (resultSet.moveToNext()) {
 					hasResults = true;
 
-					FeatureRow featureRow = resultSet.getRow();
-					GeometryEnvelope featureEnvelope = featureRow
+					lastId = resultSet.getId();
+					GeometryEnvelope featureEnvelope = resultSet
 							.getGeometryEnvelope();
 					if (featureEnvelope != null) {
 
@@ -244,8 +271,6 @@ public class ManualFeatureQuery {
 			} finally {
 				resultSet.close();
 			}
-
-			offset += chunkLimit;
 		}
 
 		BoundingBox boundingBox = null;
@@ -806,9 +831,21 @@ public class ManualFeatureQuery {
 	public ManualFeatureQueryResults query(double minX, double minY,
 			double maxX, double maxY, String where, String[] whereArgs) {
 
-		List<Long> featureIds = new ArrayList<>();
+		if (threads > 1 && featureDao.getDb().isCommitted()) {
+			ManualFeatureQueryStream stream = queryStream(minX, minY, maxX,
+					maxY, where, whereArgs);
+			try {
+				return new ManualFeatureQueryResults(featureDao,
+						stream.readIds());
+			} finally {
+				stream.close();
+			}
+		}
+
+		long[] featureIds = new long[16];
+		int count = 0;
 
-		long offset = 0;
+		Long lastId = null;
 		boolean hasResults = true;
 
 		minX -= tolerance;
@@ -820,14 +857,14 @@ public class ManualFeatureQuery {
 
 			hasResults = false;
 
-			FeatureResultSet resultSet = featureDao.queryForChunk(where,
-					whereArgs, chunkLimit, offset);
+			FeatureResultSet resultSet = featureDao.queryForIdChunk(where,
+					whereArgs, chunkLimit, lastId);
 			try {
 				while (resultSet.moveToNext()) {
 					hasResults = true;
 
-					FeatureRow featureRow = resultSet.getRow();
-					GeometryEnvelope envelope = featureRow
+					lastId = resultSet.getId();
+					GeometryEnvelope envelope = resultSet
 							.getGeometryEnvelope();
 					if (envelope != null) {
 
@@ -837,7 +874,11 @@ public class ManualFeatureQuery {
 						double maxYMin = Math.min(maxY, envelope.getMaxY());
 
 						if (minXMax <= maxXMin && minYMax <= maxYMin) {
-							featureIds.add(featureRow.getId());
+							if (count == featureIds.length) {
+								featureIds = Arrays.copyOf(featureIds,
+										count * 2);
+							}
+							featureIds[count++] = lastId;
 						}
 
 					}
@@ -845,12 +886,10 @@ public class ManualFeatureQuery {
 			} finally {
 				resultSet.close();
 			}
-
-			offset += chunkLimit;
 		}
 
 		ManualFeatureQueryResults results = new ManualFeatureQueryResults(
-				featureDao, featureIds);
+				featureDao, Arrays.copyOf(featureIds, count));
 
 		return results;
 	}
@@ -878,4 +917,63 @@ public class ManualFeatureQuery {
 		return query(minX, minY, maxX, maxY, where, whereArgs).count();
 	}
 
+	/**
+	 * Manually query for rows within the bounding box, streaming the matching
+	 * feature ids as each scanned id range completes
+	 * 
+	 * @param boundingBox
+	 *            bounding box
+	 * @return query stream, closed by the caller
+	 * @since 3.4.1
+	 */
+	public ManualFeatureQueryStream queryStream(BoundingBox boundingBox) {
+		return queryStream(boundingBox, null, null);
+	}
+
+	/**
+	 * Manually query for rows within the bounding box, streaming the matching
+	 * feature ids as each scanned id range completes
+	 * 
+	 * @param boundingBox
+	 *            bounding box
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return query stream, closed by the caller
+	 * @since 3.4.1
+	 */
+	public ManualFeatureQueryStream queryStream(BoundingBox boundingBox,
+			String where, String[] whereArgs) {
+		return queryStream(boundingBox.getMinLongitude(),
+				boundingBox.getMinLatitude(), boundingBox.getMaxLongitude(),
+				boundingBox.getMaxLatitude(), where, whereArgs);
+	}
+
+	/**
+	 * Manually query for rows within the bounds, streaming the matching
+	 * feature ids as each scanned id range completes
+	 * 
+	 * @param minX
+	 *            min x
+	 * @param minY
+	 *            min y
+	 * @param maxX
+	 *            max x
+	 * @param maxY
+	 *            max y
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return query stream, closed by the caller
+	 * @since 3.4.1
+	 */
+	public ManualFeatureQueryStream queryStream(double minX, double minY,
+			double maxX, double maxY, String where, String[] whereArgs) {
+		return new ManualFeatureQueryStream(featureDao, threads,
+				minX - tolerance, minY - tolerance, maxX + tolerance,
+				maxY + tolerance, where, whereArgs);
+	}
+
 }
@@ -1,27 +1,18 @@
 package mil.nga.geopackage.features.user;
 
-import java.util.Iterator;
+import java.util.AbstractList;
 import java.util.List;
 
-import mil.nga.geopackage.features.index.FeatureIndexResults;
+import mil.nga.geopackage.features.index.FeatureIndexIdResults;
 
 /**
- * Manual Feature Query Results which includes the ids used to read each row
+ * Manual Feature Query Results which includes the ids used to read each row.
+ * The ids are held in a primitive array, with rows read in chunks of ids.
  * 
  * @author osbornb
  * @since 3.1.0
  */
-public class ManualFeatureQueryResults implements FeatureIndexResults {
-
-	/**
-	 * Feature DAO
-	 */
-	private final FeatureDao featureDao;
-
-	/**
-	 * Feature ids
-	 */
-	private final List<Long> featureIds;
+public class ManualFeatureQueryResults extends FeatureIndexIdResults {
 
 	/**
 	 * Constructor
@@ -33,17 +24,21 @@ public class ManualFeatureQueryResults implements FeatureIndexResults {
 	 */
 	public ManualFeatureQueryResults(FeatureDao featureDao,
 			List<Long> featureIds) {
-		this.featureDao = featureDao;
-		this.featureIds = featureIds;
+		this(featureDao, toArray(featureIds));
 	}
 
 	/**
-	 * Get the feature DAO
+	 * Constructor
 	 * 
-	 * @return feature DAO
+	 * @param featureDao
+	 *            feature DAO
+	 * @param featureIds
+	 *            feature ids
+	 * @since 3.4.1
 	 */
-	public FeatureDao getFeatureDao() {
-		return featureDao;
+	public ManualFeatureQueryResults(FeatureDao featureDao,
+			long[] featureIds) {
+		super(featureDao, featureIds);
 	}
 
 	/**
@@ -52,68 +47,41 @@ public class ManualFeatureQueryResults implements FeatureIndexResults {
 	 * @return feature ids
 	 */
 	public List<Long> getFeatureIds() {
-		return featureIds;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public Iterator<FeatureRow> iterator() {
-		return new Iterator<FeatureRow>() {
-
-			int index = 0;
+		final long[] featureIds = getIds();
+		return new AbstractList<Long>() {
 
 			/**
 			 * {@inheritDoc}
 			 */
 			@Override
-			public boolean hasNext() {
-				return index < featureIds.size();
+			public Long get(int index) {
+				return featureIds[index];
 			}
 
 			/**
 			 * {@inheritDoc}
 			 */
 			@Override
-			public FeatureRow next() {
-				return featureDao.queryForIdRow(featureIds.get(index++));
+			public int size() {
+				return featureIds.length;
 			}
-		};
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public long count() {
-		return featureIds.size();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void close() {
 
+		};
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Convert the feature id list to an array
+	 * 
+	 * @param featureIds
+	 *            feature ids
+	 * @return feature id array
 	 */
-	@Override
-	public Iterable<Long> ids() {
-
-		return new Iterable<Long>() {
-
-			/**
-			 * {@inheritDoc}
-			 */
-			@Override
-			public Iterator<Long> iterator() {
-				return featureIds.iterator();
-			}
-		};
+	private static long[] toArray(List<Long> featureIds) {
+		long[] ids = new long[featureIds.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = featureIds.get(i);
+		}
+		return ids;
 	}
 
 }
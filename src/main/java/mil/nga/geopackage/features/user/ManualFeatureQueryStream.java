@@ -0,0 +1,481 @@
+package mil.nga.geopackage.features.user;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.db.GeoPackageConnectionPool;
+import mil.nga.geopackage.db.SQLUtils;
+import mil.nga.geopackage.extension.GeometryEnvelopeReader;
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * Manual Feature Query Stream, a brute force bounding box scan of a feature
+ * table split into id ranges of equal row counts. The ranges are scanned by a
+ * pool of worker threads, each on a pooled or additional read connection,
+ * with envelopes filtered by the workers and the matching feature ids
+ * streamed as each range completes. When single threaded, or when the
+ * GeoPackage connection has uncommitted changes not visible to other
+ * connections, the ranges are scanned on the calling thread as ids are
+ * requested.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class ManualFeatureQueryStream implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(ManualFeatureQueryStream.class.getName());
+
+	/**
+	 * Number of id ranges per worker thread, balancing ranges with uneven
+	 * geometry sizes
+	 */
+	public static final int RANGES_PER_THREAD = 4;
+
+	/**
+	 * End of results marker
+	 */
+	private static final long[] END = new long[0];
+
+	/**
+	 * Feature DAO
+	 */
+	private final FeatureDao featureDao;
+
+	/**
+	 * Matching ids of completed ranges
+	 */
+	private final BlockingQueue<long[]> queue = new LinkedBlockingQueue<>();
+
+	/**
+	 * Cancelled flag
+	 */
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+
+	/**
+	 * First worker error
+	 */
+	private final AtomicReference<Exception> error = new AtomicReference<>();
+
+	/**
+	 * Worker executor, null when scanning on the calling thread
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Range queries scanned on the calling thread
+	 */
+	private String[] rangeSql;
+
+	/**
+	 * Next range scanned on the calling thread
+	 */
+	private int nextRange = 0;
+
+	/**
+	 * Envelope reader of ranges scanned on the calling thread
+	 */
+	private GeometryEnvelopeReader reader;
+
+	/**
+	 * Where arguments
+	 */
+	private final String[] whereArgs;
+
+	/**
+	 * Bounds of ranges scanned on the calling thread: min x, min y, max x, max
+	 * y
+	 */
+	private final double[] bounds;
+
+	/**
+	 * Number of worker threads
+	 */
+	private int threads = 0;
+
+	/**
+	 * Finished flag
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Constructor, starts the scan
+	 *
+	 * @param featureDao
+	 *            feature DAO
+	 * @param threads
+	 *            number of worker threads
+	 * @param minX
+	 *            min x
+	 * @param minY
+	 *            min y
+	 * @param maxX
+	 *            max x
+	 * @param maxY
+	 *            max y
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 */
+	ManualFeatureQueryStream(FeatureDao featureDao, int threads,
+			final double minX, final double minY, final double maxX,
+			final double maxY, String where, final String[] whereArgs) {
+		this.featureDao = featureDao;
+		this.whereArgs = whereArgs;
+		this.bounds = new double[] { minX, minY, maxX, maxY };
+
+		final GeoPackageConnection db = featureDao.getDb();
+		final boolean parallel = threads > 1 && db.isCommitted();
+
+		String pkColumn = CoreSQLUtils.quoteWrap(featureDao.getTable()
+				.getPkColumn().getName());
+		String table = CoreSQLUtils.quoteWrap(featureDao.getTableName());
+
+		int workers = parallel ? threads : 1;
+		final long[] rangeEnds = queryRangeEnds(pkColumn, table,
+				parallel ? (int) Math.min(Integer.MAX_VALUE,
+						(long) workers * RANGES_PER_THREAD) : 1);
+		final int ranges = rangeEnds.length;
+		if (ranges == 0) {
+			finished = true;
+			return;
+		}
+
+		String sqlStart = "SELECT " + pkColumn + ", "
+				+ CoreSQLUtils.quoteWrap(featureDao.getGeometryColumnName())
+				+ " FROM " + table + " WHERE ";
+		String sqlEnd = where != null ? " AND (" + where + ")" : "";
+		final String[] sql = new String[ranges];
+		for (int range = 0; range < ranges; range++) {
+			StringBuilder rangeWhere = new StringBuilder();
+			if (range > 0) {
+				rangeWhere.append(pkColumn).append(" > ")
+						.append(rangeEnds[range - 1]).append(" AND ");
+			}
+			rangeWhere.append(pkColumn).append(" <= ")
+					.append(rangeEnds[range]);
+			sql[range] = sqlStart + rangeWhere + sqlEnd;
+		}
+
+		if (!parallel) {
+			// Scan on the calling thread as ids are requested
+			this.threads = 1;
+			rangeSql = sql;
+			reader = new GeometryEnvelopeReader();
+			return;
+		}
+
+		workers = Math.min(workers, ranges);
+		this.threads = workers;
+
+		final AtomicInteger nextRange = new AtomicInteger();
+		final AtomicInteger running = new AtomicInteger(workers);
+
+		executor = Executors.newFixedThreadPool(workers);
+		for (int i = 0; i < workers; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					GeoPackageConnectionPool pool = db.getPool();
+					Connection connection = null;
+					boolean opened = false;
+					try {
+						if (pool != null) {
+							connection = pool.getReadConnection();
+							if (connection == db.getConnection()) {
+								// All pooled readers are assigned
+								connection = null;
+							}
+						}
+						if (connection == null) {
+							connection = db.openReadConnection();
+							opened = true;
+						}
+						GeometryEnvelopeReader reader = new GeometryEnvelopeReader();
+						int range;
+						while (!cancelled.get() && (range = nextRange
+								.getAndIncrement()) < ranges) {
+							long[] ids = scan(connection, reader, sql[range],
+									whereArgs, minX, minY, maxX, maxY);
+							if (ids.length > 0) {
+								queue.add(ids);
+							}
+						}
+					} catch (Exception e) {
+						error.compareAndSet(null, e);
+						cancelled.set(true);
+					} finally {
+						if (opened) {
+							try {
+								connection.close();
+							} catch (SQLException e) {
+								LOGGER.log(Level.WARNING,
+										"Failed to close read connection", e);
+							}
+						} else if (pool != null) {
+							pool.releaseReadConnection();
+						}
+						if (running.decrementAndGet() == 0) {
+							queue.add(END);
+						}
+					}
+				}
+			});
+		}
+		executor.shutdown();
+	}
+
+	/**
+	 * Get the feature DAO
+	 *
+	 * @return feature DAO
+	 */
+	public FeatureDao getFeatureDao() {
+		return featureDao;
+	}
+
+	/**
+	 * Get the number of worker threads scanning the table
+	 *
+	 * @return threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Get the next matching feature ids, waiting for the next scanned range
+	 * with matches. Ids are ascending within each returned array, with arrays
+	 * returned in range completion order.
+	 *
+	 * @return feature ids, null when the scan is finished
+	 */
+	public long[] nextIds() {
+
+		long[] ids = null;
+
+		if (!finished && executor == null) {
+			ids = nextRangeIds();
+		} else if (!finished) {
+			try {
+				ids = queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new GeoPackageException(
+						"Interrupted manual feature query. Table: "
+								+ featureDao.getTableName(),
+						e);
+			}
+			if (ids == END) {
+				ids = null;
+				finished = true;
+				if (error.get() != null) {
+					throw new GeoPackageException(
+							"Failed manual feature query. Table: "
+									+ featureDao.getTableName(),
+							error.get());
+				}
+			}
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Scan ranges on the calling thread until a range has matching ids
+	 *
+	 * @return feature ids, null when the scan is finished
+	 */
+	private long[] nextRangeIds() {
+		long[] ids = null;
+		try {
+			while (ids == null && !cancelled.get()
+					&& nextRange < rangeSql.length) {
+				long[] rangeIds = scan(featureDao.getReadConnection(), reader,
+						rangeSql[nextRange++], whereArgs, bounds[0],
+						bounds[1], bounds[2], bounds[3]);
+				if (rangeIds.length > 0) {
+					ids = rangeIds;
+				}
+			}
+		} catch (SQLException e) {
+			finished = true;
+			throw new GeoPackageException(
+					"Failed manual feature query. Table: "
+							+ featureDao.getTableName(),
+					e);
+		}
+		if (ids == null) {
+			finished = true;
+		}
+		return ids;
+	}
+
+	/**
+	 * Read all remaining matching feature ids
+	 *
+	 * @return sorted feature ids
+	 */
+	public long[] readIds() {
+		long[] allIds = new long[16];
+		int count = 0;
+		long[] ids;
+		while ((ids = nextIds()) != null) {
+			if (count + ids.length > allIds.length) {
+				allIds = Arrays.copyOf(allIds,
+						Math.max(allIds.length * 2, count + ids.length));
+			}
+			System.arraycopy(ids, 0, allIds, count, ids.length);
+			count += ids.length;
+		}
+		allIds = Arrays.copyOf(allIds, count);
+		Arrays.sort(allIds);
+		return allIds;
+	}
+
+	/**
+	 * Determine if the scan is finished and all ids have been returned
+	 *
+	 * @return true if finished
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Cancel the scan of remaining ranges
+	 */
+	@Override
+	public void close() {
+		cancelled.set(true);
+		finished = true;
+		queue.clear();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Query for the max feature id of each range when splitting the rows into
+	 * ranges of equal row counts
+	 *
+	 * @param pkColumn
+	 *            quoted primary key column
+	 * @param table
+	 *            quoted table name
+	 * @param maxRanges
+	 *            max number of ranges
+	 * @return ascending range max ids, empty when the table is empty
+	 */
+	private long[] queryRangeEnds(String pkColumn, String table,
+			int maxRanges) {
+		String sql;
+		if (maxRanges > 1) {
+			sql = "SELECT MAX(" + pkColumn + ") FROM (SELECT " + pkColumn
+					+ ", NTILE(" + maxRanges + ") OVER (ORDER BY " + pkColumn
+					+ ") AS tile FROM " + table
+					+ ") GROUP BY tile ORDER BY tile";
+		} else {
+			sql = "SELECT MAX(" + pkColumn + ") FROM " + table;
+		}
+		List<Long> rangeEnds = new ArrayList<>();
+		ResultSet resultSet = SQLUtils.query(featureDao.getReadConnection(),
+				sql, null);
+		try {
+			while (resultSet.next()) {
+				long rangeEnd = resultSet.getLong(1);
+				if (!resultSet.wasNull()) {
+					rangeEnds.add(rangeEnd);
+				}
+			}
+		} catch (SQLException e) {
+			throw new GeoPackageException(
+					"Failed to query feature id ranges. Table: "
+							+ featureDao.getTableName(),
+					e);
+		} finally {
+			SQLUtils.closeResultSetStatement(resultSet, sql);
+		}
+		long[] ends = new long[rangeEnds.size()];
+		for (int i = 0; i < ends.length; i++) {
+			ends[i] = rangeEnds.get(i);
+		}
+		return ends;
+	}
+
+	/**
+	 * Scan a range of features for envelopes intersecting the bounds
+	 *
+	 * @param connection
+	 *            connection
+	 * @param reader
+	 *            envelope reader
+	 * @param sql
+	 *            range sql
+	 * @param whereArgs
+	 *            where arguments
+	 * @param minX
+	 *            min x
+	 * @param minY
+	 *            min y
+	 * @param maxX
+	 *            max x
+	 * @param maxY
+	 *            max y
+	 * @return matching feature ids
+	 * @throws SQLException
+	 *             upon failure
+	 */
+	private static long[] scan(Connection connection,
+			GeometryEnvelopeReader reader, String sql, String[] whereArgs,
+			double minX, double minY, double maxX, double maxY)
+			throws SQLException {
+		long[] ids = new long[16];
+		int count = 0;
+		ResultSet resultSet = SQLUtils.query(connection, sql, whereArgs);
+		try {
+			while (resultSet.next()) {
+				byte[] blob = resultSet.getBytes(2);
+				if (!reader.isEmpty(blob)) {
+					GeometryEnvelope envelope = reader.getEnvelope(blob);
+					if (envelope != null
+							&& Math.max(minX, envelope.getMinX()) <= Math
+									.min(maxX, envelope.getMaxX())
+							&& Math.max(minY, envelope.getMinY()) <= Math
+									.min(maxY, envelope.getMaxY())) {
+						if (count == ids.length) {
+							ids = Arrays.copyOf(ids, count * 2);
+						}
+						ids[count++] = resultSet.getLong(1);
+					}
+				}
+			}
+		} finally {
+			SQLUtils.closeResultSetStatement(resultSet, sql);
+		}
+		return Arrays.copyOf(ids, count);
+	}
+
+}
@@ -0,0 +1,143 @@
+package mil.nga.geopackage.io;
+
+import org.sqlite.SQLiteConfig.JournalMode;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.manager.GeoPackageOpenOptions;
+
+/**
+ * GeoPackage Open Arguments shared by the command line tools, parsing the open
+ * profile and write-ahead logging arguments into GeoPackage Open Options
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class GeoPackageOpenArguments {
+
+	/**
+	 * Argument prefix
+	 */
+	public static final String ARGUMENT_PREFIX = "-";
+
+	/**
+	 * Open profile argument
+	 */
+	public static final String ARGUMENT_PROFILE = "profile";
+
+	/**
+	 * Write-ahead logging argument
+	 */
+	public static final String ARGUMENT_WAL = "wal";
+
+	/**
+	 * Open options from the profile argument
+	 */
+	private GeoPackageOpenOptions options = null;
+
+	/**
+	 * Write-ahead logging flag
+	 */
+	private boolean writeAheadLogging = false;
+
+	/**
+	 * Constructor
+	 */
+	public GeoPackageOpenArguments() {
+
+	}
+
+	/**
+	 * Parse the profile value of the profile argument
+	 *
+	 * @param arg
+	 *            profile argument
+	 * @param args
+	 *            arguments
+	 * @param index
+	 *            index of the profile value
+	 * @return true if valid
+	 */
+	public boolean parseProfile(String arg, String[] args, int index) {
+		boolean valid = true;
+		if (index < args.length) {
+			String profile = args[index];
+			try {
+				options = GeoPackageOpenOptions.profile(profile);
+			} catch (GeoPackageException e) {
+				valid = false;
+				System.out.println("Error: Profile argument '" + arg
+						+ "' must be followed by a valid profile. Invalid: "
+						+ profile);
+			}
+		} else {
+			valid = false;
+			System.out.println("Error: Profile argument '" + arg
+					+ "' must be followed by a profile");
+		}
+		return valid;
+	}
+
+	/**
+	 * Is write-ahead logging enabled
+	 *
+	 * @return true if write-ahead logging
+	 */
+	public boolean isWriteAheadLogging() {
+		return writeAheadLogging;
+	}
+
+	/**
+	 * Set write-ahead logging, persisted in the GeoPackage file
+	 *
+	 * @param writeAheadLogging
+	 *            true for write-ahead logging
+	 */
+	public void setWriteAheadLogging(boolean writeAheadLogging) {
+		this.writeAheadLogging = writeAheadLogging;
+	}
+
+	/**
+	 * Get the open options of the arguments
+	 *
+	 * @return open options, null for SQLite defaults
+	 */
+	public GeoPackageOpenOptions getOptions() {
+		GeoPackageOpenOptions openOptions = options;
+		if (writeAheadLogging) {
+			if (openOptions == null) {
+				openOptions = GeoPackageOpenOptions.defaults();
+			}
+			openOptions.setJournalMode(JournalMode.WAL);
+		}
+		return openOptions;
+	}
+
+	/**
+	 * Get the usage text of the open arguments
+	 *
+	 * @return usage text
+	 */
+	public static String usage() {
+		return "[" + ARGUMENT_PREFIX + ARGUMENT_PROFILE + " profile] ["
+				+ ARGUMENT_PREFIX + ARGUMENT_WAL + "]";
+	}
+
+	/**
+	 * Print the argument descriptions of the open arguments
+	 */
+	public static void printArguments() {
+		System.out.println("\t" + ARGUMENT_PREFIX + ARGUMENT_PROFILE
+				+ " profile");
+		System.out.println("\t\tGeoPackage open profile of SQLite pragmas: "
+				+ GeoPackageOpenOptions.PROFILE_DEFAULT + ", "
+				+ GeoPackageOpenOptions.PROFILE_READ + ", "
+				+ GeoPackageOpenOptions.PROFILE_BULK + ", "
+				+ GeoPackageOpenOptions.PROFILE_DURABLE + " (Default is "
+				+ GeoPackageOpenOptions.PROFILE_DEFAULT + ")");
+		System.out.println();
+		System.out.println("\t" + ARGUMENT_PREFIX + ARGUMENT_WAL);
+		System.out.println(
+				"\t\tSwitch the GeoPackage to write-ahead logging journal mode, which persists in the file");
+	}
+
+}
@@ -64,6 +64,11 @@ public class Progress implements GeoPackageProgress {
 	 */
 	protected Date localTime = new Date();
 
+	/**
+	 * Start time of the task
+	 */
+	protected Date startTime = new Date();
+
 	/**
 	 * Constructor
 	 * 
@@ -86,6 +91,9 @@ public class Progress implements GeoPackageProgress {
 	@Override
 	public void setMax(int max) {
 		this.max = max;
+		if (progress == 0) {
+			start();
+		}
 	}
 
 	/**
@@ -112,7 +120,9 @@ public class Progress implements GeoPackageProgress {
 				title + " - " + this.progress
 						+ (max != null ? " of " + max + " ("
 								+ getPercentage(this.progress, max) + ")"
-								: ""));
+								: "")
+						+ " - " + decimalFormat.format(getRate())
+						+ " per second");
 	}
 
 	/**
@@ -156,6 +166,28 @@ public class Progress implements GeoPackageProgress {
 		return progress;
 	}
 
+	/**
+	 * Start or restart the task time used by the rate of progress. Called on
+	 * construction and when the max is set before any progress.
+	 *
+	 * @since 3.4.1
+	 */
+	public void start() {
+		startTime = new Date();
+		localTime = startTime;
+	}
+
+	/**
+	 * Get the rate of progress per second since the task start
+	 *
+	 * @return progress per second
+	 * @since 3.4.1
+	 */
+	public double getRate() {
+		long millis = new Date().getTime() - startTime.getTime();
+		return progress * 1000.0 / Math.max(1, millis);
+	}
+
 	/**
 	 * Get the string percentage of the count and total
 	 * 
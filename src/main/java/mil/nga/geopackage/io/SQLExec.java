@@ -211,6 +211,7 @@ public class SQLExec {
 		File sqliteFile = null;
 		Integer maxRows = null;
 		StringBuilder sql = null;
+		GeoPackageOpenArguments openArguments = new GeoPackageOpenArguments();
 
 		for (int i = 0; valid && i < args.length; i++) {
 
@@ -241,6 +242,14 @@ public class SQLExec {
 					}
 					break;
 
+				case GeoPackageOpenArguments.ARGUMENT_PROFILE:
+					valid = openArguments.parseProfile(arg, args, ++i);
+					break;
+
+				case GeoPackageOpenArguments.ARGUMENT_WAL:
+					openArguments.setWriteAheadLogging(true);
+					break;
+
 				default:
 					valid = false;
 					System.out.println("Error: Unsupported arg: '" + arg + "'");
@@ -263,7 +272,9 @@ public class SQLExec {
 			printUsage();
 		} else {
 
-			GeoPackage database = GeoPackageManager.open(sqliteFile, false);
+			GeoPackage database = GeoPackageManager.open(
+					sqliteFile.getName(), sqliteFile, false,
+					openArguments.getOptions());
 			try {
 
 				if (isGeoPackage(database)) {
@@ -1407,7 +1418,8 @@ public class SQLExec {
 		System.out.println("USAGE");
 		System.out.println();
 		System.out.println("\t[" + ARGUMENT_PREFIX + ARGUMENT_MAX_ROWS
-				+ " max_rows] sqlite_file [sql]");
+				+ " max_rows] " + GeoPackageOpenArguments.usage()
+				+ " sqlite_file [sql]");
 		System.out.println();
 		System.out.println("DESCRIPTION");
 		System.out.println();
@@ -1423,6 +1435,8 @@ public class SQLExec {
 		System.out.println("\t\tMax rows to query and display" + " (Default is "
 				+ DEFAULT_MAX_ROWS + ")");
 		System.out.println();
+		GeoPackageOpenArguments.printArguments();
+		System.out.println();
 		System.out.println("\tsqlite_file");
 		System.out.println("\t\tpath to the SQLite database file");
 		System.out.println();
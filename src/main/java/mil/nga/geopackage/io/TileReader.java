@@ -23,11 +23,13 @@ import mil.nga.geopackage.io.TileDirectory.XDirectory;
 import mil.nga.geopackage.io.TileDirectory.YFile;
 import mil.nga.geopackage.io.TileDirectory.ZoomDirectory;
 import mil.nga.geopackage.manager.GeoPackageManager;
+import mil.nga.geopackage.manager.GeoPackageOpenOptions;
 import mil.nga.geopackage.tiles.ImageRectangle;
 import mil.nga.geopackage.tiles.ImageUtils;
 import mil.nga.geopackage.tiles.TileBoundingBoxJavaUtils;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileGrid;
+import mil.nga.geopackage.tiles.TileImageCache;
 import mil.nga.geopackage.tiles.matrix.TileMatrix;
 import mil.nga.geopackage.tiles.matrix.TileMatrixDao;
 import mil.nga.geopackage.tiles.matrixset.TileMatrixSet;
@@ -36,6 +38,7 @@ import mil.nga.geopackage.tiles.user.TileColumn;
 import mil.nga.geopackage.tiles.user.TileDao;
 import mil.nga.geopackage.tiles.user.TileRow;
 import mil.nga.geopackage.tiles.user.TileTable;
+import mil.nga.geopackage.user.UserBatchInserter;
 import mil.nga.sf.proj.ProjectionConstants;
 
 /**
@@ -107,6 +110,7 @@ public class TileReader {
 		TileFormatType tileType = null;
 		File geoPackageFile = null;
 		String tileTable = null;
+		GeoPackageOpenArguments openArguments = new GeoPackageOpenArguments();
 
 		for (int i = 0; valid && i < args.length; i++) {
 
@@ -133,6 +137,14 @@ public class TileReader {
 					rawImage = true;
 					break;
 
+				case GeoPackageOpenArguments.ARGUMENT_PROFILE:
+					valid = openArguments.parseProfile(arg, args, ++i);
+					break;
+
+				case GeoPackageOpenArguments.ARGUMENT_WAL:
+					openArguments.setWriteAheadLogging(true);
+					break;
+
 				default:
 					valid = false;
 					System.out.println("Error: Unsupported arg: '" + arg + "'");
@@ -163,7 +175,8 @@ public class TileReader {
 			// Read the tiles
 			try {
 				readTiles(geoPackageFile, tileTable, inputDirectory,
-						imageFormat, tileType, rawImage);
+						imageFormat, tileType, rawImage,
+						openArguments.getOptions());
 			} catch (Exception e) {
 				printUsage();
 				throw e;
@@ -195,6 +208,38 @@ public class TileReader {
 	public static void readTiles(File geoPackageFile, String tileTable,
 			File directory, String imageFormat, TileFormatType tileType,
 			boolean rawImage) throws IOException, SQLException {
+		readTiles(geoPackageFile, tileTable, directory, imageFormat, tileType,
+				rawImage, null);
+	}
+
+	/**
+	 * Read the tiles in the directory into the GeoPackage file table, opening
+	 * the GeoPackage with the open options
+	 * 
+	 * @param geoPackageFile
+	 *            GeoPackage file
+	 * @param tileTable
+	 *            tile table
+	 * @param directory
+	 *            input directory
+	 * @param imageFormat
+	 *            image format
+	 * @param tileType
+	 *            tile type
+	 * @param rawImage
+	 *            use raw image flag
+	 * @param options
+	 *            open options, null for SQLite defaults
+	 * @throws IOException
+	 *             upon failure
+	 * @throws SQLException
+	 *             upon failure
+	 * @since 3.4.1
+	 */
+	public static void readTiles(File geoPackageFile, String tileTable,
+			File directory, String imageFormat, TileFormatType tileType,
+			boolean rawImage, GeoPackageOpenOptions options)
+			throws IOException, SQLException {
 
 		// If the GeoPackage does not exist create it
 		if (!geoPackageFile.exists()) {
@@ -206,7 +251,8 @@ public class TileReader {
 		}
 
 		// Open the GeoPackage
-		GeoPackage geoPackage = GeoPackageManager.open(geoPackageFile);
+		GeoPackage geoPackage = GeoPackageManager.open(geoPackageFile,
+				options);
 		try {
 			readTiles(geoPackage, tileTable, directory, imageFormat, tileType,
 					rawImage);
@@ -262,19 +308,64 @@ public class TileReader {
 						+ ", Zoom Range: " + tileDirectory.minZoom + " - "
 						+ tileDirectory.maxZoom);
 
+		// Batch insert the tiles, committed per zoom level
+		UserBatchInserter<TileColumn, TileTable, TileRow> inserter = new UserBatchInserter<>(
+				geoPackage.getConnection().getConnection(), tileTable);
+		inserter.setReturnIds(false);
+
+		int totalCount = 0;
+		boolean success = false;
+		try {
+			totalCount = readTiles(geoPackage, tileTable, imageFormat,
+					tileType, rawImage, tileDirectory, inserter);
+			success = true;
+		} finally {
+			try {
+				inserter.close(success);
+			} finally {
+				TileImageCache.tableChanged(
+						geoPackage.getConnection().getDatabaseIdentity(),
+						tileTable);
+			}
+		}
+
+		LOGGER.log(Level.INFO, "Total Tiles: " + totalCount);
+
+	}
+
+	/**
+	 * Read the tiles of the tile directory into the GeoPackage by tile type
+	 * 
+	 * @param geoPackage
+	 * @param tileTable
+	 * @param imageFormat
+	 * @param tileType
+	 * @param rawImage
+	 * @param tileDirectory
+	 * @param inserter
+	 * @return
+	 * @throws IOException
+	 * @throws SQLException
+	 */
+	private static int readTiles(GeoPackage geoPackage, String tileTable,
+			String imageFormat, TileFormatType tileType, boolean rawImage,
+			TileDirectory tileDirectory,
+			UserBatchInserter<TileColumn, TileTable, TileRow> inserter)
+			throws IOException, SQLException {
+
 		int totalCount = 0;
 
 		switch (tileType) {
 
 		case GEOPACKAGE:
 			totalCount = readGeoPackageFormatTiles(geoPackage, tileTable,
-					imageFormat, rawImage, tileDirectory);
+					imageFormat, rawImage, tileDirectory, inserter);
 			break;
 
 		case STANDARD:
 		case TMS:
 			totalCount = readFormatTiles(geoPackage, tileTable, imageFormat,
-					tileType, rawImage, tileDirectory);
+					tileType, rawImage, tileDirectory, inserter);
 			break;
 
 		default:
@@ -282,8 +373,7 @@ public class TileReader {
 					+ tileType);
 		}
 
-		LOGGER.log(Level.INFO, "Total Tiles: " + totalCount);
-
+		return totalCount;
 	}
 
 	/**
@@ -294,13 +384,16 @@ public class TileReader {
 	 * @param imageFormat
 	 * @param rawImage
 	 * @param tileDirectory
+	 * @param inserter
 	 * @return
 	 * @throws SQLException
 	 * @throws IOException
 	 */
 	private static int readGeoPackageFormatTiles(GeoPackage geoPackage,
 			String tileTable, String imageFormat, boolean rawImage,
-			TileDirectory tileDirectory) throws SQLException, IOException {
+			TileDirectory tileDirectory,
+			UserBatchInserter<TileColumn, TileTable, TileRow> inserter)
+			throws SQLException, IOException {
 
 		int created = 0;
 
@@ -455,7 +548,7 @@ public class TileReader {
 						newRow.setTileData(image, imageFormat);
 					}
 
-					tileDao.create(newRow);
+					inserter.insert(newRow);
 
 					zoomCount++;
 
@@ -466,6 +559,9 @@ public class TileReader {
 				}
 			}
 
+			// Commit the zoom level tiles
+			inserter.commit();
+
 			LOGGER.log(Level.INFO, "Zoom " + zoomDirectory.zoom + " Tiles: "
 					+ zoomCount);
 
@@ -504,13 +600,16 @@ public class TileReader {
 	 * @param tileType
 	 * @param rawImage
 	 * @param tileDirectory
+	 * @param inserter
 	 * @return
 	 * @throws IOException
 	 * @throws SQLException
 	 */
 	private static int readFormatTiles(GeoPackage geoPackage, String tileTable,
 			String imageFormat, TileFormatType tileType, boolean rawImage,
-			TileDirectory tileDirectory) throws IOException, SQLException {
+			TileDirectory tileDirectory,
+			UserBatchInserter<TileColumn, TileTable, TileRow> inserter)
+			throws IOException, SQLException {
 
 		int created = 0;
 
@@ -793,7 +892,7 @@ public class TileReader {
 							newRow.setTileData(image, imageFormat);
 						}
 
-						tileDao.create(newRow);
+						inserter.insert(newRow);
 
 						zoomCount++;
 
@@ -806,6 +905,9 @@ public class TileReader {
 
 			}
 
+			// Commit the zoom level tiles
+			inserter.commit();
+
 			LOGGER.log(Level.INFO, "Zoom " + zoomDirectory.zoom + " Tiles: "
 					+ zoomCount);
 
@@ -947,7 +1049,8 @@ public class TileReader {
 		System.out.println();
 		System.out.println("\t[" + ARGUMENT_PREFIX + ARGUMENT_IMAGE_FORMAT
 				+ " image_format] [" + ARGUMENT_PREFIX + ARGUMENT_RAW_IMAGE
-				+ "] input_directory tile_type geopackage_file tile_table");
+				+ "] " + GeoPackageOpenArguments.usage()
+				+ " input_directory tile_type geopackage_file tile_table");
 		System.out.println();
 		System.out.println("DESCRIPTION");
 		System.out.println();
@@ -966,6 +1069,8 @@ public class TileReader {
 		System.out
 				.println("\t\tUse the raw image bytes, only works when combining and cropping is not required. Not compatible with image_format");
 		System.out.println();
+		GeoPackageOpenArguments.printArguments();
+		System.out.println();
 		System.out.println("\tinput_directory");
 		System.out
 				.println("\t\tinput directory containing the tile image set used to create the GeoPakage tiles");
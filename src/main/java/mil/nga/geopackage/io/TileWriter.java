@@ -9,15 +9,16 @@ import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.imageio.ImageIO;
-
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.core.srs.SpatialReferenceSystem;
 import mil.nga.geopackage.manager.GeoPackageManager;
+import mil.nga.geopackage.manager.GeoPackageOpenOptions;
 import mil.nga.geopackage.tiles.GeoPackageTile;
 import mil.nga.geopackage.tiles.GeoPackageTileRetriever;
+import mil.nga.geopackage.tiles.ImageEncodeOptions;
 import mil.nga.geopackage.tiles.ImageUtils;
+import mil.nga.geopackage.tiles.ImageWriterPool;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileGrid;
 import mil.nga.geopackage.tiles.matrix.TileMatrix;
@@ -117,6 +118,7 @@ public class TileWriter {
 		File outputDirectory = null;
 		Integer width = null;
 		Integer height = null;
+		GeoPackageOpenArguments openArguments = new GeoPackageOpenArguments();
 
 		for (int i = 0; valid && i < args.length; i++) {
 
@@ -208,6 +210,14 @@ public class TileWriter {
 					}
 					break;
 
+				case GeoPackageOpenArguments.ARGUMENT_PROFILE:
+					valid = openArguments.parseProfile(arg, args, ++i);
+					break;
+
+				case GeoPackageOpenArguments.ARGUMENT_WAL:
+					openArguments.setWriteAheadLogging(true);
+					break;
+
 				default:
 					valid = false;
 					System.out.println("Error: Unsupported arg: '" + arg + "'");
@@ -236,7 +246,8 @@ public class TileWriter {
 			// Write the tiles
 			try {
 				writeTiles(geoPackageFile, tileTable, outputDirectory,
-						imageFormat, width, height, tileType, rawImage);
+						imageFormat, width, height, tileType, rawImage,
+						openArguments.getOptions());
 			} catch (Exception e) {
 				printUsage();
 				throw e;
@@ -272,8 +283,43 @@ public class TileWriter {
 	public static void writeTiles(File geoPackageFile, String tileTable,
 			File directory, String imageFormat, Integer width, Integer height,
 			TileFormatType tileType, boolean rawImage) throws IOException {
+		writeTiles(geoPackageFile, tileTable, directory, imageFormat, width,
+				height, tileType, rawImage, null);
+	}
+
+	/**
+	 * Write the tile table tile image set within the GeoPackage file to the
+	 * provided directory, opening the GeoPackage with the open options
+	 * 
+	 * @param geoPackageFile
+	 *            GeoPackage file
+	 * @param tileTable
+	 *            tile table
+	 * @param directory
+	 *            output directory
+	 * @param imageFormat
+	 *            image format
+	 * @param width
+	 *            optional image width
+	 * @param height
+	 *            optional image height
+	 * @param tileType
+	 *            tile type
+	 * @param rawImage
+	 *            use raw image flag
+	 * @param options
+	 *            open options, null for SQLite defaults
+	 * @throws IOException
+	 *             upon failure
+	 * @since 3.4.1
+	 */
+	public static void writeTiles(File geoPackageFile, String tileTable,
+			File directory, String imageFormat, Integer width, Integer height,
+			TileFormatType tileType, boolean rawImage,
+			GeoPackageOpenOptions options) throws IOException {
 
-		GeoPackage geoPackage = GeoPackageManager.open(geoPackageFile);
+		GeoPackage geoPackage = GeoPackageManager.open(geoPackageFile,
+				options);
 		try {
 			writeTiles(geoPackage, tileTable, directory, imageFormat, width,
 					height, tileType, rawImage);
@@ -467,7 +513,9 @@ public class TileWriter {
 							graphics.drawImage(drawImage, 0, 0, null);
 
 							// Write the image to the file
-							ImageIO.write(image, imageFormat, imageFile);
+							ImageWriterPool.writeImage(image,
+									new ImageEncodeOptions(imageFormat),
+									imageFile);
 						}
 
 						zoomCount++;
@@ -623,8 +671,10 @@ public class TileWriter {
 
 						if (geoPackageTile.getImage() != null) {
 							// Write the image to the file
-							ImageIO.write(geoPackageTile.getImage(),
-									imageFormat, imageFile);
+							ImageWriterPool.writeImage(
+									geoPackageTile.getImage(),
+									new ImageEncodeOptions(imageFormat),
+									imageFile);
 						} else {
 							// Write the raw image bytes to the file
 							FileOutputStream fos = new FileOutputStream(
@@ -693,7 +743,8 @@ public class TileWriter {
 		System.out.println("\t[" + ARGUMENT_PREFIX + ARGUMENT_TILE_TYPE
 				+ " tile_type] [" + ARGUMENT_PREFIX + ARGUMENT_IMAGE_FORMAT
 				+ " image_format] [" + ARGUMENT_PREFIX + ARGUMENT_RAW_IMAGE
-				+ "] geopackage_file tile_table output_directory");
+				+ "] " + GeoPackageOpenArguments.usage()
+				+ " geopackage_file tile_table output_directory");
 		System.out.println();
 		System.out.println("DESCRIPTION");
 		System.out.println();
@@ -743,6 +794,8 @@ public class TileWriter {
 		System.out
 				.println("\t\tUse the raw image bytes, only works when combining and cropping is not required");
 		System.out.println();
+		GeoPackageOpenArguments.printArguments();
+		System.out.println();
 		System.out.println("\tgeopackage_file");
 		System.out
 				.println("\t\tpath to the GeoPackage file containing the tiles");
@@ -91,6 +91,13 @@ public class URLTileGen {
 	 */
 	public static final String ARGUMENT_TMS = "tms";
 
+	/**
+	 * Download threads argument
+	 * 
+	 * @since 3.4.1
+	 */
+	public static final String ARGUMENT_THREADS = "threads";
+
 	/**
 	 * Tile progress
 	 */
@@ -162,6 +169,11 @@ public class URLTileGen {
 	 */
 	private static boolean tms = false;
 
+	/**
+	 * Download threads
+	 */
+	private static Integer threads = null;
+
 	/**
 	 * Main method to generate tiles in a GeoPackage
 	 * 
@@ -277,6 +289,16 @@ public class URLTileGen {
 					tms = true;
 					break;
 
+				case ARGUMENT_THREADS:
+					if (i < args.length) {
+						threads = Integer.valueOf(args[++i]);
+					} else {
+						valid = false;
+						System.out.println("Error: Threads argument '" + arg
+								+ "' must be followed by a value");
+					}
+					break;
+
 				default:
 					valid = false;
 					System.out.println("Error: Unsupported arg: '" + arg + "'");
@@ -387,6 +409,10 @@ public class URLTileGen {
 			tileGenerator.setTileFormat(TileFormatType.TMS);
 		}
 
+		if (threads != null) {
+			tileGenerator.setThreads(threads);
+		}
+
 		int count = tileGenerator.getTileCount();
 
 		LOGGER.log(
@@ -412,7 +438,9 @@ public class URLTileGen {
 								+ boundingBox.getMaxLongitude() + ", Max Lat: "
 								+ boundingBox.getMaxLatitude() : "")
 						+ (epsg != null ? ", EPSG: " + epsg : "")
-						+ ", URL EPSG: " + urlEpsg + ", Expected Tile Count: "
+						+ ", URL EPSG: " + urlEpsg
+						+ (threads != null ? ", Threads: " + threads : "")
+						+ ", Expected Tile Count: "
 						+ count);
 
 		tileGenerator.setProgress(progress);
@@ -472,8 +500,8 @@ public class URLTileGen {
 				+ " minLon,minLat,maxLon,maxLat] [" + ARGUMENT_PREFIX
 				+ ARGUMENT_EPSG + " epsg] [" + ARGUMENT_PREFIX
 				+ ARGUMENT_URL_EPSG + " url_epsg] [" + ARGUMENT_PREFIX
-				+ ARGUMENT_TMS
-				+ "] geopackage_file tile_table url min_zoom max_zoom");
+				+ ARGUMENT_TMS + "] [" + ARGUMENT_PREFIX + ARGUMENT_THREADS
+				+ " threads] geopackage_file tile_table url min_zoom max_zoom");
 		System.out.println();
 		System.out.println("DESCRIPTION");
 		System.out.println();
@@ -514,6 +542,11 @@ public class URLTileGen {
 		System.out
 				.println("\t\tRequest URL for x,y,z coordinates is in TMS format (default is standard XYZ)");
 		System.out.println();
+		System.out.println("\t" + ARGUMENT_PREFIX + ARGUMENT_THREADS
+				+ " threads");
+		System.out
+				.println("\t\tNumber of concurrent tile download threads (default is 1)");
+		System.out.println();
 		System.out.println("\tgeopackage_file");
 		System.out
 				.println("\t\tpath to the GeoPackage file to create, or existing file to update");
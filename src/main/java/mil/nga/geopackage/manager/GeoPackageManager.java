@@ -123,6 +123,56 @@ public class GeoPackageManager {
 	 * @since 3.3.0
 	 */
 	public static GeoPackage open(String name, File file, boolean validate) {
+		return open(name, file, validate, null);
+	}
+
+	/**
+	 * Open a GeoPackage with open options
+	 * 
+	 * @param file
+	 *            file
+	 * @param options
+	 *            open options
+	 * @return GeoPackage
+	 * @since 3.4.1
+	 */
+	public static GeoPackage open(File file, GeoPackageOpenOptions options) {
+		return open(file.getName(), file, true, options);
+	}
+
+	/**
+	 * Open a GeoPackage with open options
+	 * 
+	 * @param name
+	 *            GeoPackage name
+	 * @param file
+	 *            GeoPackage file
+	 * @param options
+	 *            open options
+	 * @return GeoPackage
+	 * @since 3.4.1
+	 */
+	public static GeoPackage open(String name, File file,
+			GeoPackageOpenOptions options) {
+		return open(name, file, true, options);
+	}
+
+	/**
+	 * Open a GeoPackage with open options
+	 * 
+	 * @param name
+	 *            GeoPackage name
+	 * @param file
+	 *            GeoPackage file
+	 * @param validate
+	 *            validate the GeoPackage
+	 * @param options
+	 *            open options, null for SQLite defaults
+	 * @return GeoPackage
+	 * @since 3.4.1
+	 */
+	public static GeoPackage open(String name, File file, boolean validate,
+			GeoPackageOpenOptions options) {
 
 		// Validate or add the file extension
 		if (validate) {
@@ -135,7 +185,7 @@ public class GeoPackageManager {
 		}
 
 		// Create the GeoPackage Connection and table creator
-		GeoPackageConnection connection = connect(file);
+		GeoPackageConnection connection = connect(file, options);
 		GeoPackageTableCreator tableCreator = new GeoPackageTableCreator(
 				connection);
 
@@ -163,6 +213,20 @@ public class GeoPackageManager {
 	 * @return
 	 */
 	private static GeoPackageConnection connect(File file) {
+		return connect(file, null);
+	}
+
+	/**
+	 * Connect to a GeoPackage file with open options
+	 * 
+	 * @param file
+	 *            GeoPackage file
+	 * @param options
+	 *            open options, null for SQLite defaults
+	 * @return connection
+	 */
+	private static GeoPackageConnection connect(File file,
+			GeoPackageOpenOptions options) {
 
 		String databaseUrl = "jdbc:sqlite:" + file.getPath();
 
@@ -177,7 +241,12 @@ public class GeoPackageManager {
 		// create a database connection
 		Connection databaseConnection;
 		try {
-			databaseConnection = DriverManager.getConnection(databaseUrl);
+			if (options != null) {
+				databaseConnection = DriverManager.getConnection(databaseUrl,
+						options.toConfig().toProperties());
+			} else {
+				databaseConnection = DriverManager.getConnection(databaseUrl);
+			}
 		} catch (SQLException e) {
 			throw new GeoPackageException(
 					"Failed to get connection to the SQLite file: "
@@ -187,7 +256,9 @@ public class GeoPackageManager {
 
 		ConnectionSource connectionSource;
 		try {
-			connectionSource = new JdbcConnectionSource(databaseUrl);
+			connectionSource = new JdbcConnectionSource(options != null
+					? options.toConnectionSourceUrl(databaseUrl)
+					: databaseUrl);
 		} catch (SQLException e) {
 			throw new GeoPackageException(
 					"Failed to get connection source to the SQLite file: "
@@ -197,7 +268,8 @@ public class GeoPackageManager {
 
 		// Create the GeoPackage Connection
 		GeoPackageConnection connection = new GeoPackageConnection(file,
-				databaseConnection, connectionSource);
+				databaseConnection, connectionSource,
+				options != null ? options.toReadConfig() : null);
 		connection.enableForeignKeys();
 
 		return connection;
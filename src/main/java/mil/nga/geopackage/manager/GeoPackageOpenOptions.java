@@ -0,0 +1,396 @@
+package mil.nga.geopackage.manager;
+
+import java.util.Locale;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.LockingMode;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+import org.sqlite.SQLiteOpenMode;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * GeoPackage Open Options, a profile of SQLite connection pragmas applied when
+ * opening a GeoPackage. Unset options keep the SQLite defaults. Presets are
+ * provided for read optimized, bulk load, and durable use.
+ *
+ * The options apply to the GeoPackage JDBC connection used by the user DAOs.
+ * The read only and synchronous options also apply to the separate ORMLite
+ * connection source. The exclusive locking mode is not supported, as the two
+ * connections would block each other.
+ *
+ * Write-ahead logging is opt-in with {@link #setJournalMode(JournalMode)}, as
+ * the journal mode persists in the GeoPackage file after it is closed. The
+ * presets keep the journal mode of the file.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class GeoPackageOpenOptions {
+
+	/**
+	 * Default profile name
+	 */
+	public static final String PROFILE_DEFAULT = "default";
+
+	/**
+	 * Read optimized profile name
+	 */
+	public static final String PROFILE_READ = "read";
+
+	/**
+	 * Bulk load profile name
+	 */
+	public static final String PROFILE_BULK = "bulk";
+
+	/**
+	 * Durable profile name
+	 */
+	public static final String PROFILE_DURABLE = "durable";
+
+	/**
+	 * Journal mode
+	 */
+	private JournalMode journalMode;
+
+	/**
+	 * Synchronous mode
+	 */
+	private SynchronousMode synchronous;
+
+	/**
+	 * Page cache size, pages when positive or kibibytes when negative
+	 */
+	private Integer cacheSize;
+
+	/**
+	 * Memory mapped I/O size in bytes
+	 */
+	private Long mmapSize;
+
+	/**
+	 * Temporary store
+	 */
+	private TempStore tempStore;
+
+	/**
+	 * Locking mode
+	 */
+	private LockingMode lockingMode;
+
+	/**
+	 * Read only flag
+	 */
+	private boolean readOnly = false;
+
+	/**
+	 * Constructor, SQLite defaults
+	 */
+	public GeoPackageOpenOptions() {
+
+	}
+
+	/**
+	 * Create the default options, keeping the SQLite defaults
+	 *
+	 * @return open options
+	 */
+	public static GeoPackageOpenOptions defaults() {
+		return new GeoPackageOpenOptions();
+	}
+
+	/**
+	 * Create read optimized options: normal synchronous, a 64 MiB page cache,
+	 * 256 MiB of memory mapped I/O, and in memory temporary storage
+	 *
+	 * @return open options
+	 */
+	public static GeoPackageOpenOptions readOptimized() {
+		GeoPackageOpenOptions options = new GeoPackageOpenOptions();
+		options.setSynchronous(SynchronousMode.NORMAL);
+		options.setCacheSize(-64 * 1024);
+		options.setMmapSize(256L * 1024 * 1024);
+		options.setTempStore(TempStore.MEMORY);
+		return options;
+	}
+
+	/**
+	 * Create bulk load options: synchronous off, a 256 MiB page cache, and in
+	 * memory temporary storage. Writes are not durable against operating
+	 * system crashes or power loss until the GeoPackage is closed.
+	 *
+	 * @return open options
+	 */
+	public static GeoPackageOpenOptions bulkLoad() {
+		GeoPackageOpenOptions options = new GeoPackageOpenOptions();
+		options.setSynchronous(SynchronousMode.OFF);
+		options.setCacheSize(-256 * 1024);
+		options.setTempStore(TempStore.MEMORY);
+		return options;
+	}
+
+	/**
+	 * Create durable options: full synchronous commits
+	 *
+	 * @return open options
+	 */
+	public static GeoPackageOpenOptions durable() {
+		GeoPackageOpenOptions options = new GeoPackageOpenOptions();
+		options.setSynchronous(SynchronousMode.FULL);
+		return options;
+	}
+
+	/**
+	 * Get the options of a named profile: {@link #PROFILE_DEFAULT},
+	 * {@link #PROFILE_READ}, {@link #PROFILE_BULK}, or
+	 * {@link #PROFILE_DURABLE}
+	 *
+	 * @param profile
+	 *            profile name
+	 * @return open options
+	 */
+	public static GeoPackageOpenOptions profile(String profile) {
+		GeoPackageOpenOptions options = null;
+		switch (profile.toLowerCase(Locale.ENGLISH)) {
+		case PROFILE_DEFAULT:
+			options = defaults();
+			break;
+		case PROFILE_READ:
+			options = readOptimized();
+			break;
+		case PROFILE_BULK:
+			options = bulkLoad();
+			break;
+		case PROFILE_DURABLE:
+			options = durable();
+			break;
+		default:
+			throw new GeoPackageException(
+					"Unsupported GeoPackage open profile: " + profile
+							+ ", Expected: " + PROFILE_DEFAULT + ", "
+							+ PROFILE_READ + ", " + PROFILE_BULK + ", or "
+							+ PROFILE_DURABLE);
+		}
+		return options;
+	}
+
+	/**
+	 * Get the journal mode
+	 *
+	 * @return journal mode or null
+	 */
+	public JournalMode getJournalMode() {
+		return journalMode;
+	}
+
+	/**
+	 * Set the journal mode, persisted in the GeoPackage file
+	 *
+	 * @param journalMode
+	 *            journal mode or null
+	 */
+	public void setJournalMode(JournalMode journalMode) {
+		this.journalMode = journalMode;
+	}
+
+	/**
+	 * Get the synchronous mode
+	 *
+	 * @return synchronous mode or null
+	 */
+	public SynchronousMode getSynchronous() {
+		return synchronous;
+	}
+
+	/**
+	 * Set the synchronous mode
+	 *
+	 * @param synchronous
+	 *            synchronous mode or null
+	 */
+	public void setSynchronous(SynchronousMode synchronous) {
+		this.synchronous = synchronous;
+	}
+
+	/**
+	 * Get the page cache size
+	 *
+	 * @return pages when positive, kibibytes when negative, or null
+	 */
+	public Integer getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Set the page cache size
+	 *
+	 * @param cacheSize
+	 *            pages when positive, kibibytes when negative, or null
+	 */
+	public void setCacheSize(Integer cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Get the memory mapped I/O size
+	 *
+	 * @return bytes or null
+	 */
+	public Long getMmapSize() {
+		return mmapSize;
+	}
+
+	/**
+	 * Set the memory mapped I/O size
+	 *
+	 * @param mmapSize
+	 *            bytes, 0 to disable, or null
+	 */
+	public void setMmapSize(Long mmapSize) {
+		this.mmapSize = mmapSize;
+	}
+
+	/**
+	 * Get the temporary store
+	 *
+	 * @return temporary store or null
+	 */
+	public TempStore getTempStore() {
+		return tempStore;
+	}
+
+	/**
+	 * Set the temporary store
+	 *
+	 * @param tempStore
+	 *            temporary store or null
+	 */
+	public void setTempStore(TempStore tempStore) {
+		this.tempStore = tempStore;
+	}
+
+	/**
+	 * Get the locking mode
+	 *
+	 * @return locking mode or null
+	 */
+	public LockingMode getLockingMode() {
+		return lockingMode;
+	}
+
+	/**
+	 * Set the locking mode. The exclusive locking mode is not supported, as
+	 * the GeoPackage JDBC connection and ORMLite connection source would
+	 * block each other.
+	 *
+	 * @param lockingMode
+	 *            normal locking mode or null
+	 */
+	public void setLockingMode(LockingMode lockingMode) {
+		if (lockingMode == LockingMode.EXCLUSIVE) {
+			throw new GeoPackageException(
+					"Exclusive locking mode is not supported, GeoPackages are opened with multiple connections");
+		}
+		this.lockingMode = lockingMode;
+	}
+
+	/**
+	 * Is the GeoPackage opened read only
+	 *
+	 * @return true if read only
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Set the GeoPackage to be opened read only
+	 *
+	 * @param readOnly
+	 *            true if read only
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Build the SQLite JDBC configuration of the options
+	 *
+	 * @return SQLite configuration
+	 */
+	public SQLiteConfig toConfig() {
+		SQLiteConfig config = new SQLiteConfig();
+		// Read only connections can not change the journal mode
+		if (journalMode != null && !readOnly) {
+			config.setJournalMode(journalMode);
+		}
+		if (synchronous != null) {
+			config.setSynchronous(synchronous);
+		}
+		if (cacheSize != null) {
+			config.setCacheSize(cacheSize);
+		}
+		if (mmapSize != null) {
+			config.setPragma(Pragma.MMAP_SIZE, mmapSize.toString());
+		}
+		if (tempStore != null) {
+			config.setTempStore(tempStore);
+		}
+		if (lockingMode != null) {
+			config.setLockingMode(lockingMode);
+		}
+		if (readOnly) {
+			config.setReadOnly(true);
+		}
+		return config;
+	}
+
+	/**
+	 * Build the JDBC URL of the ORMLite connection source, applying the read
+	 * only and synchronous options
+	 *
+	 * @param databaseUrl
+	 *            SQLite JDBC database URL
+	 * @return connection source URL
+	 */
+	public String toConnectionSourceUrl(String databaseUrl) {
+		StringBuilder url = new StringBuilder(databaseUrl);
+		char separator = '?';
+		if (readOnly) {
+			url.append(separator).append(Pragma.OPEN_MODE.pragmaName)
+					.append('=').append(SQLiteOpenMode.READONLY.flag);
+			separator = '&';
+		}
+		if (synchronous != null) {
+			url.append(separator).append(Pragma.SYNCHRONOUS.pragmaName)
+					.append('=').append(synchronous.getValue());
+		}
+		return url.toString();
+	}
+
+	/**
+	 * Build the SQLite JDBC configuration of additional read only connections,
+	 * such as pooled read connections, applying the page cache, memory mapped
+	 * I/O, and temporary store options
+	 *
+	 * @return SQLite configuration
+	 */
+	public SQLiteConfig toReadConfig() {
+		SQLiteConfig config = new SQLiteConfig();
+		if (cacheSize != null) {
+			config.setCacheSize(cacheSize);
+		}
+		if (mmapSize != null) {
+			config.setPragma(Pragma.MMAP_SIZE, mmapSize.toString());
+		}
+		if (tempStore != null) {
+			config.setTempStore(tempStore);
+		}
+		config.setReadOnly(true);
+		return config;
+	}
+
+}
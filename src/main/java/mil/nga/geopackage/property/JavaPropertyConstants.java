@@ -42,6 +42,12 @@ public class JavaPropertyConstants {
 
 	public static final String TILE_GENERATOR_DOWNLOAD_ATTEMPTS = "downloadAttempts";
 
+	public static final String TILE_GENERATOR_DOWNLOAD_RETRY_DELAY = "downloadRetryDelay";
+
+	public static final String TILE_GENERATOR_DOWNLOAD_RETRY_BACKOFF = "downloadRetryBackoff";
+
+	public static final String TILE_GENERATOR_DOWNLOAD_HOST_RATE_LIMIT = "downloadHostRateLimit";
+
 	public static final String COLOR_RED = "red";
 
 	public static final String COLOR_GREEN = "green";
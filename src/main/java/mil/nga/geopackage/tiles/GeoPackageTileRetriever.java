@@ -2,7 +2,9 @@ package mil.nga.geopackage.tiles;
 
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.extension.scale.TileScaling;
+import mil.nga.geopackage.tiles.matrix.TileMatrix;
 import mil.nga.geopackage.tiles.user.TileDao;
+import mil.nga.geopackage.tiles.user.TileRow;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionConstants;
 import mil.nga.sf.proj.ProjectionFactory;
@@ -21,6 +23,38 @@ public class GeoPackageTileRetriever implements TileRetriever {
 	 */
 	private final TileCreator tileCreator;
 
+	/**
+	 * Tile DAO
+	 */
+	private final TileDao tileDao;
+
+	/**
+	 * Requested tile width
+	 */
+	private final Integer width;
+
+	/**
+	 * Requested tile height
+	 */
+	private final Integer height;
+
+	/**
+	 * Requested image format
+	 */
+	private final String imageFormat;
+
+	/**
+	 * True when the GeoPackage tiles are web mercator Google format tiles,
+	 * aligned with XYZ tile coordinates
+	 */
+	private final boolean aligned;
+
+	/**
+	 * Return stored tile bytes as is when the request aligns with a stored
+	 * tile, disabled by default
+	 */
+	private boolean passthrough = false;
+
 	/**
 	 * Constructor using GeoPackage tile sizes
 	 *
@@ -58,6 +92,11 @@ public class GeoPackageTileRetriever implements TileRetriever {
 	public GeoPackageTileRetriever(TileDao tileDao, Integer width,
 			Integer height, String imageFormat) {
 
+		this.tileDao = tileDao;
+		this.width = width;
+		this.height = height;
+		this.imageFormat = imageFormat;
+
 		tileDao.adjustTileMatrixLengths();
 
 		Projection webMercator = ProjectionFactory
@@ -65,6 +104,34 @@ public class GeoPackageTileRetriever implements TileRetriever {
 
 		tileCreator = new TileCreator(tileDao, width, height, webMercator,
 				imageFormat);
+		tileCreator.setReprojection(new TileReprojection());
+
+		aligned = isWebMercatorWorld(tileDao) && tileDao.isGoogleTiles();
+	}
+
+	/**
+	 * Determine if the tiles are in web mercator with a tile matrix set
+	 * covering the web mercator world
+	 *
+	 * @param tileDao
+	 *            tile dao
+	 * @return true if web mercator world tiles
+	 */
+	private static boolean isWebMercatorWorld(TileDao tileDao) {
+		boolean world = tileDao.getProjection().equals(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+		if (world) {
+			BoundingBox boundingBox = tileDao.getTileMatrixSet()
+					.getBoundingBox();
+			double halfWorld = ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH;
+			double tolerance = halfWorld * 1e-9;
+			world = Math.abs(boundingBox.getMinLongitude() + halfWorld) <= tolerance
+					&& Math.abs(boundingBox.getMinLatitude() + halfWorld) <= tolerance
+					&& Math.abs(boundingBox.getMaxLongitude() - halfWorld) <= tolerance
+					&& Math.abs(boundingBox.getMaxLatitude() - halfWorld) <= tolerance;
+		}
+		return world;
 	}
 
 	/**
@@ -88,6 +155,19 @@ public class GeoPackageTileRetriever implements TileRetriever {
 	@Override
 	public GeoPackageTile getTile(int x, int y, int zoom) {
 
+		// Return the stored tile as is when aligned with the request
+		TileMatrix tileMatrix = getPassthroughTileMatrix(zoom);
+		if (tileMatrix != null) {
+			TileRow tileRow = tileDao.queryForTile(x, y, zoom);
+			if (tileRow != null) {
+				return new GeoPackageTile((int) tileMatrix.getTileWidth(),
+						(int) tileMatrix.getTileHeight(),
+						tileRow.getTileData());
+			} else if (getScaling() == null) {
+				return null;
+			}
+		}
+
 		// Get the bounding box of the requested tile
 		BoundingBox webMercatorBoundingBox = TileBoundingBoxUtils
 				.getWebMercatorBoundingBox(x, y, zoom);
@@ -97,6 +177,56 @@ public class GeoPackageTileRetriever implements TileRetriever {
 		return tile;
 	}
 
+	/**
+	 * Get the tile matrix of the zoom level when a request can pass through
+	 * the stored tile bytes: passthrough enabled, Google format web mercator
+	 * tiles, no requested image format, and requested dimensions matching the
+	 * stored tile dimensions
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @return tile matrix or null
+	 */
+	private TileMatrix getPassthroughTileMatrix(int zoom) {
+		TileMatrix tileMatrix = null;
+		if (passthrough && aligned && imageFormat == null) {
+			tileMatrix = tileDao.getTileMatrix(zoom);
+			if (tileMatrix != null
+					&& ((width != null && width != tileMatrix.getTileWidth())
+							|| (height != null && height != tileMatrix
+									.getTileHeight()))) {
+				tileMatrix = null;
+			}
+		}
+		return tileMatrix;
+	}
+
+	/**
+	 * Is passthrough of stored tile bytes enabled. When enabled, requests
+	 * aligned with a stored Google format web mercator tile, without an image
+	 * format or with matching tile dimensions, return the stored tile bytes
+	 * without decoding or drawing. Unlike drawn tiles, stored tiles are
+	 * returned even when fully transparent. Default is false.
+	 *
+	 * @return true if passthrough is enabled
+	 * @since 3.4.1
+	 */
+	public boolean isPassthrough() {
+		return passthrough;
+	}
+
+	/**
+	 * Set the passthrough of stored tile bytes, returning stored tiles without
+	 * the fully transparent check of drawn tiles
+	 *
+	 * @param passthrough
+	 *            true to return aligned stored tiles as is
+	 * @since 3.4.1
+	 */
+	public void setPassthrough(boolean passthrough) {
+		this.passthrough = passthrough;
+	}
+
 	/**
 	 * Get the Tile Scaling options
 	 *
@@ -118,4 +248,27 @@ public class GeoPackageTileRetriever implements TileRetriever {
 		tileCreator.setScaling(scaling);
 	}
 
+	/**
+	 * Get the tile reprojection used when the GeoPackage tiles are not in web
+	 * mercator
+	 *
+	 * @return tile reprojection
+	 * @since 3.4.1
+	 */
+	public TileReprojection getReprojection() {
+		return tileCreator.getReprojection();
+	}
+
+	/**
+	 * Set the tile reprojection used when the GeoPackage tiles are not in web
+	 * mercator
+	 *
+	 * @param reprojection
+	 *            tile reprojection
+	 * @since 3.4.1
+	 */
+	public void setReprojection(TileReprojection reprojection) {
+		tileCreator.setReprojection(reprojection);
+	}
+
 }
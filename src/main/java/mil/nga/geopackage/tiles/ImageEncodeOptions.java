@@ -0,0 +1,219 @@
+package mil.nga.geopackage.tiles;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+
+import mil.nga.geopackage.GeoPackageException;
+
+/**
+ * Image Encode Options of the image format, compression quality, and PNG
+ * compression level used when writing images with the
+ * {@link ImageWriterPool}. Compression settings require an image writer that
+ * supports explicit compression. The PNG writer supports it from Java 9, so
+ * PNG compression levels are ignored with a logged warning on Java 8.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class ImageEncodeOptions {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(ImageEncodeOptions.class.getName());
+
+	/**
+	 * Image writer classes warned as ignoring compression settings
+	 */
+	private static final Set<String> uncompressedWriters = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Minimum PNG compression level, no compression
+	 */
+	public static final int MIN_COMPRESSION_LEVEL = 0;
+
+	/**
+	 * Maximum PNG compression level, best compression
+	 */
+	public static final int MAX_COMPRESSION_LEVEL = 9;
+
+	/**
+	 * Image format name
+	 */
+	private final String formatName;
+
+	/**
+	 * Compression quality between 0.0 and 1.0
+	 */
+	private Float quality;
+
+	/**
+	 * PNG deflate compression level between 0 and 9
+	 */
+	private Integer compressionLevel;
+
+	/**
+	 * Constructor
+	 *
+	 * @param formatName
+	 *            image format name
+	 */
+	public ImageEncodeOptions(String formatName) {
+		this(formatName, null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param formatName
+	 *            image format name
+	 * @param quality
+	 *            null or compression quality between 0.0 and 1.0
+	 */
+	public ImageEncodeOptions(String formatName, Float quality) {
+		this.formatName = formatName;
+		setQuality(quality);
+	}
+
+	/**
+	 * Create PNG options with the compression level
+	 *
+	 * @param compressionLevel
+	 *            deflate compression level between 0 and 9
+	 * @return encode options
+	 */
+	public static ImageEncodeOptions png(int compressionLevel) {
+		ImageEncodeOptions options = new ImageEncodeOptions(
+				ImageUtils.IMAGE_FORMAT_PNG);
+		options.setCompressionLevel(compressionLevel);
+		return options;
+	}
+
+	/**
+	 * Get the image format name
+	 *
+	 * @return format name
+	 */
+	public String getFormatName() {
+		return formatName;
+	}
+
+	/**
+	 * Get the compression quality
+	 *
+	 * @return compression quality or null
+	 */
+	public Float getQuality() {
+		return quality;
+	}
+
+	/**
+	 * Set the compression quality
+	 *
+	 * @param quality
+	 *            null or compression quality between 0.0 and 1.0
+	 */
+	public void setQuality(Float quality) {
+		if (quality != null && (quality < 0.0 || quality > 1.0)) {
+			throw new GeoPackageException(
+					"Compress quality must be between 0.0 and 1.0, not: "
+							+ quality);
+		}
+		this.quality = quality;
+	}
+
+	/**
+	 * Get the PNG compression level
+	 *
+	 * @return compression level or null
+	 */
+	public Integer getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/**
+	 * Set the PNG deflate compression level, taking precedence over the
+	 * compression quality when writing PNG images. Lower levels encode faster
+	 * with larger images. Requires Java 9 or later, the Java 8 PNG writer does
+	 * not support explicit compression and ignores the level.
+	 *
+	 * @param compressionLevel
+	 *            null or compression level between 0 and 9
+	 */
+	public void setCompressionLevel(Integer compressionLevel) {
+		validateCompressionLevel(compressionLevel);
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Validate the PNG compression level
+	 *
+	 * @param compressionLevel
+	 *            null or compression level between 0 and 9
+	 */
+	public static void validateCompressionLevel(Integer compressionLevel) {
+		if (compressionLevel != null
+				&& (compressionLevel < MIN_COMPRESSION_LEVEL || compressionLevel > MAX_COMPRESSION_LEVEL)) {
+			throw new GeoPackageException("Compression level must be between "
+					+ MIN_COMPRESSION_LEVEL + " and " + MAX_COMPRESSION_LEVEL
+					+ ", not: " + compressionLevel);
+		}
+	}
+
+	/**
+	 * Is the format PNG
+	 *
+	 * @return true if PNG
+	 */
+	public boolean isPng() {
+		return ImageUtils.IMAGE_FORMAT_PNG.equals(formatName
+				.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Create the write parameters of the options for the image writer. When
+	 * the writer does not support explicit compression, the compression
+	 * settings are ignored and a warning is logged once per writer.
+	 *
+	 * @param writer
+	 *            image writer
+	 * @return write parameters, or null for the writer defaults
+	 */
+	public ImageWriteParam createWriteParam(ImageWriter writer) {
+
+		Float compressionQuality = quality;
+		if (compressionLevel != null && isPng()) {
+			// The PNG writer deflate level is 9 - round(9 * quality)
+			compressionQuality = (MAX_COMPRESSION_LEVEL - compressionLevel)
+					/ (float) MAX_COMPRESSION_LEVEL;
+		}
+
+		ImageWriteParam writeParam = null;
+		if (compressionQuality != null) {
+			writeParam = writer.getDefaultWriteParam();
+			if (writeParam.canWriteCompressed()) {
+				writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				writeParam.setCompressionQuality(compressionQuality);
+			} else if (uncompressedWriters.add(writer.getClass().getName())) {
+				LOGGER.log(Level.WARNING, "Image writer does not support"
+						+ " explicit compression, ignoring the "
+						+ (compressionLevel != null ? "compression level: "
+								+ compressionLevel : "compression quality: "
+								+ quality) + ". Format: " + formatName
+						+ ", Writer: " + writer.getClass().getName());
+			}
+		}
+
+		return writeParam;
+	}
+
+}
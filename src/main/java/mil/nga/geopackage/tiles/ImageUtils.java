@@ -1,17 +1,16 @@
 package mil.nga.geopackage.tiles;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.Iterator;
 
-import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
 
 import mil.nga.geopackage.GeoPackageException;
 
@@ -76,25 +75,84 @@ public class ImageUtils {
 
 	/**
 	 * Check if the image is fully transparent, meaning it contains only
-	 * transparent pixels as an empty image
+	 * transparent pixels as an empty image. Images without alpha are not
+	 * transparent, and packed integer pixels are scanned in bulk.
 	 * 
 	 * @param image
 	 *            image
 	 * @return true if fully transparent
 	 */
 	public static boolean isFullyTransparent(BufferedImage image) {
+
 		boolean transparent = true;
-		for (int x = 0; x < image.getWidth(); x++) {
-			for (int y = 0; y < image.getHeight(); y++) {
-				transparent = isTransparent(image, x, y);
-				if (!transparent) {
-					break;
+
+		WritableRaster raster = image.getRaster();
+		DataBuffer dataBuffer = raster.getDataBuffer();
+		SampleModel sampleModel = raster.getSampleModel();
+		int width = raster.getWidth();
+		int height = raster.getHeight();
+		int imageType = image.getType();
+
+		if (!image.getColorModel().hasAlpha()) {
+
+			// Images without alpha are opaque
+			transparent = false;
+
+		} else if ((imageType == BufferedImage.TYPE_INT_ARGB
+				|| imageType == BufferedImage.TYPE_INT_ARGB_PRE)
+				&& dataBuffer instanceof DataBufferInt
+				&& sampleModel instanceof SinglePixelPackedSampleModel) {
+
+			// Scan the packed pixels for a non zero alpha
+			int[] pixels = ((DataBufferInt) dataBuffer).getData();
+			int scanlineStride = ((SinglePixelPackedSampleModel) sampleModel)
+					.getScanlineStride();
+			int offset = dataBuffer.getOffset()
+					+ (raster.getMinY() - raster.getSampleModelTranslateY())
+							* scanlineStride
+					+ (raster.getMinX() - raster.getSampleModelTranslateX());
+			for (int y = 0; transparent && y < height; y++) {
+				int rowEnd = offset + width;
+				for (int i = offset; i < rowEnd; i++) {
+					if ((pixels[i] & 0xFF000000) != 0) {
+						transparent = false;
+						break;
+					}
 				}
+				offset += scanlineStride;
 			}
-			if (!transparent) {
-				break;
+
+		} else {
+
+			WritableRaster alphaRaster = image.getAlphaRaster();
+			if (alphaRaster != null) {
+
+				// Read the alpha samples a row at a time
+				int minX = alphaRaster.getMinX();
+				int minY = alphaRaster.getMinY();
+				int[] alphas = new int[width];
+				for (int y = 0; transparent && y < height; y++) {
+					alphaRaster.getSamples(minX, minY + y, width, 1, 0, alphas);
+					for (int alpha : alphas) {
+						if (alpha != 0) {
+							transparent = false;
+							break;
+						}
+					}
+				}
+
+			} else {
+				for (int x = 0; transparent && x < image.getWidth(); x++) {
+					for (int y = 0; y < image.getHeight(); y++) {
+						transparent = isTransparent(image, x, y);
+						if (!transparent) {
+							break;
+						}
+					}
+				}
 			}
 		}
+
 		return transparent;
 	}
 
@@ -177,12 +235,8 @@ public class ImageUtils {
 	 */
 	public static byte[] writeImageToBytes(BufferedImage image,
 			String formatName) throws IOException {
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		ImageIO.write(image, formatName, stream);
-		stream.flush();
-		byte[] bytes = stream.toByteArray();
-		stream.close();
-		return bytes;
+		return ImageWriterPool.writeImageToBytes(image,
+				new ImageEncodeOptions(formatName));
 	}
 
 	/**
@@ -200,36 +254,19 @@ public class ImageUtils {
 	public static byte[] compressAndWriteImageToBytes(BufferedImage image,
 			String formatName, float quality) {
 
-		byte[] bytes = null;
-
-		Iterator<ImageWriter> writers = ImageIO
-				.getImageWritersByFormatName(formatName);
-		if (writers == null || !writers.hasNext()) {
+		if (!ImageWriterPool.hasWriter(formatName)) {
 			throw new GeoPackageException(
 					"No Image Writer to compress format: " + formatName);
 		}
-		ImageWriter writer = writers.next();
-		ImageWriteParam writeParam = writer.getDefaultWriteParam();
-		writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-		writeParam.setCompressionQuality(quality);
 
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		ImageOutputStream ios = null;
+		byte[] bytes = null;
 		try {
-			ios = ImageIO.createImageOutputStream(baos);
-			writer.setOutput(ios);
-			writer.write(null, new IIOImage(image, null, null), writeParam);
-			writer.dispose();
-
-			bytes = baos.toByteArray();
-
+			bytes = ImageWriterPool.writeImageToBytes(image,
+					new ImageEncodeOptions(formatName, quality));
 		} catch (IOException e) {
 			throw new GeoPackageException(
 					"Failed to compress image to format: " + formatName
 							+ ", with quality: " + quality, e);
-		} finally {
-			closeQuietly(ios);
-			closeQuietly(baos);
 		}
 
 		return bytes;
@@ -0,0 +1,247 @@
+package mil.nga.geopackage.tiles;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Image Writer Pool of per thread image writers by format, reused across
+ * writes along with an output buffer. Images are written through an in memory
+ * image output stream, avoiding the image writer service registry lookup and
+ * the ImageIO file cache of each {@link ImageIO#write} call.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class ImageWriterPool {
+
+	/**
+	 * Initial output buffer bytes
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Max output buffer bytes retained between writes
+	 */
+	public static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Per thread pools
+	 */
+	private static final ThreadLocal<ImageWriterPool> POOLS = new ThreadLocal<ImageWriterPool>() {
+		@Override
+		protected ImageWriterPool initialValue() {
+			return new ImageWriterPool();
+		}
+	};
+
+	/**
+	 * Image writers by lower case format name
+	 */
+	private final Map<String, ImageWriter> writers = new HashMap<>();
+
+	/**
+	 * Reusable output buffer
+	 */
+	private ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+			DEFAULT_BUFFER_SIZE);
+
+	/**
+	 * Constructor
+	 */
+	private ImageWriterPool() {
+
+	}
+
+	/**
+	 * Write the image to bytes using the image writers of the current thread
+	 *
+	 * @param image
+	 *            image
+	 * @param options
+	 *            encode options
+	 * @return image bytes
+	 * @throws IOException
+	 *             upon failure to write
+	 */
+	public static byte[] writeImageToBytes(BufferedImage image,
+			ImageEncodeOptions options) throws IOException {
+		return POOLS.get().writeToBytes(image, options);
+	}
+
+	/**
+	 * Write the image to the output stream using the image writers of the
+	 * current thread
+	 *
+	 * @param image
+	 *            image
+	 * @param options
+	 *            encode options
+	 * @param stream
+	 *            output stream, left open
+	 * @throws IOException
+	 *             upon failure to write
+	 */
+	public static void writeImage(BufferedImage image,
+			ImageEncodeOptions options, OutputStream stream)
+			throws IOException {
+		POOLS.get().write(image, options, stream);
+	}
+
+	/**
+	 * Write the image to the file using the image writers of the current
+	 * thread
+	 *
+	 * @param image
+	 *            image
+	 * @param options
+	 *            encode options
+	 * @param file
+	 *            image file
+	 * @throws IOException
+	 *             upon failure to write
+	 */
+	public static void writeImage(BufferedImage image,
+			ImageEncodeOptions options, File file) throws IOException {
+		OutputStream stream = new BufferedOutputStream(new FileOutputStream(
+				file));
+		try {
+			writeImage(image, options, stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Determine if an image writer exists for the format
+	 *
+	 * @param formatName
+	 *            image format name
+	 * @return true if a writer exists
+	 */
+	public static boolean hasWriter(String formatName) {
+		return POOLS.get().getWriter(formatName) != null;
+	}
+
+	/**
+	 * Dispose of the image writers of the current thread
+	 */
+	public static void clear() {
+		ImageWriterPool pool = POOLS.get();
+		for (ImageWriter writer : pool.writers.values()) {
+			writer.dispose();
+		}
+		pool.writers.clear();
+		POOLS.remove();
+	}
+
+	/**
+	 * Write the image to bytes
+	 *
+	 * @param image
+	 *            image
+	 * @param options
+	 *            encode options
+	 * @return image bytes
+	 * @throws IOException
+	 *             upon failure to write
+	 */
+	private byte[] writeToBytes(BufferedImage image,
+			ImageEncodeOptions options) throws IOException {
+		ByteArrayOutputStream stream = buffer;
+		byte[] bytes;
+		try {
+			write(image, options, stream);
+			bytes = stream.toByteArray();
+		} finally {
+			if (stream.size() > MAX_RETAINED_BUFFER_SIZE) {
+				buffer = new ByteArrayOutputStream(DEFAULT_BUFFER_SIZE);
+			} else {
+				stream.reset();
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Write the image to the output stream
+	 *
+	 * @param image
+	 *            image
+	 * @param options
+	 *            encode options
+	 * @param stream
+	 *            output stream, left open
+	 * @throws IOException
+	 *             upon failure to write
+	 */
+	private void write(BufferedImage image, ImageEncodeOptions options,
+			OutputStream stream) throws IOException {
+
+		String formatName = options.getFormatName();
+		ImageWriter writer = getWriter(formatName);
+
+		if (writer == null
+				|| !writer.getOriginatingProvider().canEncodeImage(image)) {
+			// Let ImageIO find a writer capable of the image type
+			ImageIO.write(image, formatName, stream);
+		} else {
+			ImageWriteParam writeParam = options.createWriteParam(writer);
+			ImageOutputStream ios = new MemoryCacheImageOutputStream(stream);
+			boolean written = false;
+			try {
+				writer.setOutput(ios);
+				writer.write(null, new IIOImage(image, null, null),
+						writeParam);
+				written = true;
+			} finally {
+				if (written) {
+					writer.reset();
+				} else {
+					// Discard writers left in an unknown state
+					writers.remove(formatName.toLowerCase(Locale.ENGLISH));
+					writer.dispose();
+				}
+				ios.close();
+			}
+			stream.flush();
+		}
+	}
+
+	/**
+	 * Get the pooled image writer of the format, creating it on first use
+	 *
+	 * @param formatName
+	 *            image format name
+	 * @return image writer or null if no writer exists
+	 */
+	private ImageWriter getWriter(String formatName) {
+		String key = formatName.toLowerCase(Locale.ENGLISH);
+		ImageWriter writer = writers.get(key);
+		if (writer == null) {
+			Iterator<ImageWriter> formatWriters = ImageIO
+					.getImageWritersByFormatName(formatName);
+			if (formatWriters != null && formatWriters.hasNext()) {
+				writer = formatWriters.next();
+				writers.put(key, writer);
+			}
+		}
+		return writer;
+	}
+
+}
@@ -18,8 +18,6 @@ import mil.nga.geopackage.tiles.user.TileRow;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionTransform;
 
-import org.locationtech.proj4j.ProjCoordinate;
-
 /**
  * Tile Creator, creates a tile from a tile matrix to the desired projection
  * 
@@ -78,6 +76,12 @@ public class TileCreator {
 	 */
 	private final String imageFormat;
 
+	/**
+	 * Tile reprojection used when the request and tile projections differ,
+	 * transforms every pixel by default
+	 */
+	private TileReprojection reprojection = TileReprojection.createExact();
+
 	/**
 	 * Constructor
 	 *
@@ -251,6 +255,29 @@ public class TileCreator {
 		this.scaling = scaling;
 	}
 
+	/**
+	 * Get the tile reprojection used when the request and tile projections
+	 * differ
+	 *
+	 * @return tile reprojection
+	 * @since 3.4.1
+	 */
+	public TileReprojection getReprojection() {
+		return reprojection;
+	}
+
+	/**
+	 * Set the tile reprojection used when the request and tile projections
+	 * differ
+	 *
+	 * @param reprojection
+	 *            tile reprojection
+	 * @since 3.4.1
+	 */
+	public void setReprojection(TileReprojection reprojection) {
+		this.reprojection = reprojection;
+	}
+
 	/**
 	 * Get the requested image format
 	 * 
@@ -288,7 +315,7 @@ public class TileCreator {
 			if (tileResults != null) {
 
 				try {
-					hasTile = tileResults.getCount() > 0;
+					hasTile = !tileResults.isEmpty();
 				} finally {
 					tileResults.close();
 				}
@@ -327,7 +354,7 @@ public class TileCreator {
 
 				try {
 
-					if (tileResults.getCount() > 0) {
+					if (!tileResults.isEmpty()) {
 
 						BoundingBox requestProjectedBoundingBox = requestBoundingBox
 								.transform(transformRequestToTiles);
@@ -408,17 +435,11 @@ public class TileCreator {
 		// Draw the resulting bitmap with the matching tiles
 		GeoPackageTile geoPackageTile = null;
 		Graphics graphics = null;
+		boolean opaque = false;
 		while (tileResults.moveToNext()) {
 
 			// Get the next tile
 			TileRow tileRow = tileResults.getRow();
-			BufferedImage tileDataImage;
-			try {
-				tileDataImage = tileRow.getTileDataImage();
-			} catch (IOException e) {
-				throw new GeoPackageException(
-						"Failed to read the tile row image data", e);
-			}
 
 			// Get the bounding box of the tile
 			BoundingBox tileBoundingBox = TileBoundingBoxUtils.getBoundingBox(
@@ -459,10 +480,16 @@ public class TileCreator {
 						}
 
 						// Draw the tile to the image
+						BufferedImage tileDataImage = getTileDataImage(tileRow);
 						graphics.drawImage(tileDataImage, dest.getLeft(),
 								dest.getTop(), dest.getRight(),
 								dest.getBottom(), src.getLeft(), src.getTop(),
 								src.getRight(), src.getBottom(), null);
+
+						// Drawing an image without alpha leaves opaque pixels
+						if (!opaque && tileDataImage != null) {
+							opaque = !tileDataImage.getColorModel().hasAlpha();
+						}
 					} else {
 
 						// Verify only one image was found and
@@ -481,6 +508,7 @@ public class TileCreator {
 
 		// Check if the entire image is transparent
 		if (geoPackageTile != null && geoPackageTile.getImage() != null
+				&& !opaque
 				&& ImageUtils.isFullyTransparent(geoPackageTile.getImage())) {
 			geoPackageTile = null;
 		}
@@ -488,6 +516,24 @@ public class TileCreator {
 		return geoPackageTile;
 	}
 
+	/**
+	 * Get the decoded tile image, from the tile DAO image cache when enabled
+	 *
+	 * @param tileRow
+	 *            tile row
+	 * @return tile image
+	 */
+	private BufferedImage getTileDataImage(TileRow tileRow) {
+		BufferedImage tileDataImage;
+		try {
+			tileDataImage = tileDao.getTileDataImage(tileRow);
+		} catch (IOException e) {
+			throw new GeoPackageException(
+					"Failed to read the tile row image data", e);
+		}
+		return tileDataImage;
+	}
+
 	/**
 	 * Reproject the tile to the requested projection
 	 *
@@ -511,70 +557,9 @@ public class TileCreator {
 			ProjectionTransform transformRequestToTiles,
 			BoundingBox tilesBoundingBox) {
 
-		final double requestedWidthUnitsPerPixel = (requestBoundingBox
-				.getMaxLongitude() - requestBoundingBox.getMinLongitude())
-				/ requestedTileWidth;
-		final double requestedHeightUnitsPerPixel = (requestBoundingBox
-				.getMaxLatitude() - requestBoundingBox.getMinLatitude())
-				/ requestedTileHeight;
-
-		final double tilesDistanceWidth = tilesBoundingBox.getMaxLongitude()
-				- tilesBoundingBox.getMinLongitude();
-		final double tilesDistanceHeight = tilesBoundingBox.getMaxLatitude()
-				- tilesBoundingBox.getMinLatitude();
-
-		final int width = tile.getWidth();
-		final int height = tile.getHeight();
-
-		// Tile pixels of the tile matrix tiles
-		int[] pixels = new int[width * height];
-		tile.getRGB(0, 0, width, height, pixels, 0, width);
-
-		// Projected tile pixels to draw the reprojected tile
-		int[] projectedPixels = new int[requestedTileWidth
-				* requestedTileHeight];
-
-		// Retrieve each pixel in the new tile from the unprojected tile
-		for (int y = 0; y < requestedTileHeight; y++) {
-			for (int x = 0; x < requestedTileWidth; x++) {
-
-				double longitude = requestBoundingBox.getMinLongitude()
-						+ (x * requestedWidthUnitsPerPixel);
-				double latitude = requestBoundingBox.getMaxLatitude()
-						- (y * requestedHeightUnitsPerPixel);
-				ProjCoordinate fromCoord = new ProjCoordinate(longitude,
-						latitude);
-				ProjCoordinate toCoord = transformRequestToTiles
-						.transform(fromCoord);
-				double projectedLongitude = toCoord.x;
-				double projectedLatitude = toCoord.y;
-
-				int xPixel = (int) Math
-						.round(((projectedLongitude - tilesBoundingBox
-								.getMinLongitude()) / tilesDistanceWidth)
-								* width);
-				int yPixel = (int) Math
-						.round(((tilesBoundingBox.getMaxLatitude() - projectedLatitude) / tilesDistanceHeight)
-								* height);
-
-				xPixel = Math.max(0, xPixel);
-				xPixel = Math.min(width - 1, xPixel);
-
-				yPixel = Math.max(0, yPixel);
-				yPixel = Math.min(height - 1, yPixel);
-
-				int color = pixels[(yPixel * width) + xPixel];
-				projectedPixels[(y * requestedTileWidth) + x] = color;
-			}
-		}
-
-		// Draw the new image
-		BufferedImage projectedTileImage = new BufferedImage(
-				requestedTileWidth, requestedTileHeight, tile.getType());
-		projectedTileImage.setRGB(0, 0, requestedTileWidth,
-				requestedTileHeight, projectedPixels, 0, requestedTileWidth);
-
-		return projectedTileImage;
+		return reprojection.reproject(tile, tilesBoundingBox,
+				requestedTileWidth, requestedTileHeight, requestBoundingBox,
+				transformRequestToTiles);
 	}
 
 	/**
@@ -6,6 +6,14 @@ import java.sql.SQLException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,10 +32,12 @@ import mil.nga.geopackage.tiles.matrix.TileMatrixDao;
 import mil.nga.geopackage.tiles.matrix.TileMatrixKey;
 import mil.nga.geopackage.tiles.matrixset.TileMatrixSet;
 import mil.nga.geopackage.tiles.matrixset.TileMatrixSetDao;
+import mil.nga.geopackage.tiles.user.TileColumn;
 import mil.nga.geopackage.tiles.user.TileDao;
 import mil.nga.geopackage.tiles.user.TileResultSet;
 import mil.nga.geopackage.tiles.user.TileRow;
 import mil.nga.geopackage.tiles.user.TileTable;
+import mil.nga.geopackage.user.UserBatchInserter;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionConstants;
 import mil.nga.sf.proj.ProjectionFactory;
@@ -43,6 +53,20 @@ import org.locationtech.proj4j.units.Units;
  */
 public abstract class TileGenerator {
 
+	/**
+	 * Default max number of created tiles queued for writing when creating
+	 * tiles on multiple threads
+	 *
+	 * @since 3.4.1
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 100;
+
+	/**
+	 * Writer wait time in milliseconds for a queued tile before checking for
+	 * cancellation and completion
+	 */
+	private static final long QUEUE_POLL_MILLIS = 100;
+
 	/**
 	 * Logger
 	 */
@@ -104,6 +128,11 @@ public abstract class TileGenerator {
 	 */
 	private Float compressQuality = null;
 
+	/**
+	 * PNG compression level
+	 */
+	private Integer compressionLevel = null;
+
 	/**
 	 * GeoPackage zoom level progress
 	 */
@@ -136,6 +165,18 @@ public abstract class TileGenerator {
 	 */
 	private TileScaling scaling = null;
 
+	/**
+	 * Number of threads creating tiles, 1 to create tiles on the writing
+	 * thread
+	 */
+	private int threads = 1;
+
+	/**
+	 * Max number of created tiles queued for writing when creating tiles on
+	 * multiple threads
+	 */
+	private int queueSize = DEFAULT_QUEUE_SIZE;
+
 	/**
 	 * Constructor
 	 *
@@ -268,6 +309,31 @@ public abstract class TileGenerator {
 		return compressQuality;
 	}
 
+	/**
+	 * Set the PNG compression level (0 to 9). The Compress format must be set
+	 * to png for this to be used, taking precedence over the compress quality.
+	 * Lower levels compress faster with larger tiles. Requires Java 9 or
+	 * later, see {@link ImageEncodeOptions#setCompressionLevel(Integer)}.
+	 *
+	 * @param compressionLevel
+	 *            compression level or null for the writer default
+	 * @since 3.4.1
+	 */
+	public void setCompressionLevel(Integer compressionLevel) {
+		ImageEncodeOptions.validateCompressionLevel(compressionLevel);
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Get the PNG compression level
+	 *
+	 * @return compression level or null
+	 * @since 3.4.1
+	 */
+	public Integer getCompressionLevel() {
+		return compressionLevel;
+	}
+
 	/**
 	 * Set the progress tracker
 	 *
@@ -328,6 +394,69 @@ public abstract class TileGenerator {
 		this.scaling = scaling;
 	}
 
+	/**
+	 * Get the number of threads creating tiles
+	 *
+	 * @return threads
+	 * @since 3.4.1
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Set the number of threads creating tiles. When greater than 1 and
+	 * supported by the generator (see {@link #supportsThreads()}), tiles are
+	 * created and compressed by a pool of threads and written by the
+	 * generating thread. Otherwise a warning is logged and tiles are created
+	 * on the generating thread. Default is 1.
+	 *
+	 * @param threads
+	 *            threads
+	 * @since 3.4.1
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Determine if tiles can be created on multiple threads. The GeoPackage
+	 * connection is shared with the tile writes on the generating thread, so
+	 * only generators with a thread safe {@link #createTile(int, long, long)}
+	 * implementation that does not read from the GeoPackage, or reads through
+	 * per thread read connections, support threads. Called after
+	 * {@link #preTileGeneration()}. Default is false.
+	 *
+	 * @return true if tiles can be created on multiple threads
+	 * @since 3.4.1
+	 */
+	protected boolean supportsThreads() {
+		return false;
+	}
+
+	/**
+	 * Get the max number of created tiles queued for writing when creating
+	 * tiles on multiple threads
+	 *
+	 * @return queue size
+	 * @since 3.4.1
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * Set the max number of created tiles queued for writing when creating
+	 * tiles on multiple threads
+	 *
+	 * @param queueSize
+	 *            queue size
+	 * @since 3.4.1
+	 */
+	public void setQueueSize(int queueSize) {
+		this.queueSize = Math.max(1, queueSize);
+	}
+
 	/**
 	 * Get the tile count of tiles to be generated
 	 *
@@ -424,6 +553,12 @@ public abstract class TileGenerator {
 
 		preTileGeneration();
 
+		if (threads > 1 && !supportsThreads()) {
+			LOGGER.log(Level.WARNING, getClass().getSimpleName()
+					+ " does not support threads, creating tiles on the"
+					+ " generating thread. Threads: " + threads);
+		}
+
 		// If tile scaling is set, create the tile scaling extension entry
 		if (scaling != null) {
 			TileTableScaling tileTableScaling = new TileTableScaling(
@@ -793,99 +928,28 @@ public abstract class TileGenerator {
 			TileGrid localTileGrid, long matrixWidth, long matrixHeight,
 			boolean update) throws SQLException, IOException {
 
-		int count = 0;
-
-		Integer tileWidth = null;
-		Integer tileHeight = null;
-
-		// Download and create the tile and each coordinate
-		for (long x = tileGrid.getMinX(); x <= tileGrid.getMaxX(); x++) {
-
-			// Check if the progress has been cancelled
-			if (progress != null && !progress.isActive()) {
-				break;
-			}
-
-			for (long y = tileGrid.getMinY(); y <= tileGrid.getMaxY(); y++) {
-
-				// Check if the progress has been cancelled
-				if (progress != null && !progress.isActive()) {
-					break;
-				}
-
-				try {
-
-					// Create the tile
-					byte[] tileBytes = createTile(zoomLevel, x, y);
-
-					if (tileBytes != null) {
-
-						BufferedImage image = null;
-
-						// Compress the image
-						if (compressFormat != null) {
-							image = ImageUtils.getImage(tileBytes);
-							if (image != null) {
-								tileBytes = ImageUtils.writeImageToBytes(image,
-										compressFormat, compressQuality);
-							}
-						}
-
-						// Create a new tile row
-						TileRow newRow = tileDao.newRow();
-						newRow.setZoomLevel(zoomLevel);
-
-						long tileColumn = x;
-						long tileRow = y;
-
-						// Update the column and row to the local tile grid
-						// location
-						if (localTileGrid != null) {
-							tileColumn = (x - tileGrid.getMinX())
-									+ localTileGrid.getMinX();
-							tileRow = (y - tileGrid.getMinY())
-									+ localTileGrid.getMinY();
-						}
-
-						// If an update, delete an existing row
-						if (update) {
-							tileDao.deleteTile(tileColumn, tileRow, zoomLevel);
-						}
-
-						newRow.setTileColumn(tileColumn);
-						newRow.setTileRow(tileRow);
-						newRow.setTileData(tileBytes);
-						tileDao.create(newRow);
-
-						count++;
-
-						// Determine the tile width and height
-						if (tileWidth == null) {
-							if (image == null) {
-								image = ImageUtils.getImage(tileBytes);
-							}
-							if (image != null) {
-								tileWidth = image.getWidth();
-								tileHeight = image.getHeight();
-							}
-						}
-					}
-				} catch (Exception e) {
-					LOGGER.log(Level.WARNING, "Failed to create tile. Zoom: "
-							+ zoomLevel + ", x: " + x + ", y: " + y, e);
-					// Skip this tile, don't increase count
-				}
-
-				// Update the progress count, even on failures
-				if (progress != null) {
-					progress.addZoomLevelProgress(zoomLevel, 1);
-					progress.addProgress(1);
-				}
-
+		// Batch insert the zoom level tiles
+		UserBatchInserter<TileColumn, TileTable, TileRow> inserter = tileDao
+				.newBatchInserter();
+		inserter.setReturnIds(false);
+		ZoomLevelWriter writer = new ZoomLevelWriter(tileDao, inserter, zoomLevel,
+				tileGrid, localTileGrid, update);
+		boolean success = false;
+		try {
+			if (threads > 1 && supportsThreads()) {
+				generateTilesConcurrently(zoomLevel, tileGrid, writer);
+			} else {
+				generateTilesSequentially(zoomLevel, tileGrid, writer);
 			}
-
+			success = true;
+		} finally {
+			inserter.close(success);
 		}
 
+		int count = writer.count;
+		Integer tileWidth = writer.tileWidth;
+		Integer tileHeight = writer.tileHeight;
+
 		// If none of the tiles were translated into a bitmap with dimensions,
 		// delete them
 		if (tileWidth == null || tileHeight == null) {
@@ -953,6 +1017,375 @@ public abstract class TileGenerator {
 		return count;
 	}
 
+	/**
+	 * Generate the zoom level tiles on the calling thread
+	 *
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param tileGrid
+	 *            tile grid
+	 * @param writer
+	 *            tile writer
+	 */
+	private void generateTilesSequentially(int zoomLevel, TileGrid tileGrid,
+			ZoomLevelWriter writer) {
+
+		// Download and create the tile and each coordinate
+		for (long x = tileGrid.getMinX(); x <= tileGrid.getMaxX(); x++) {
+
+			// Check if the progress has been cancelled
+			if (progress != null && !progress.isActive()) {
+				break;
+			}
+
+			for (long y = tileGrid.getMinY(); y <= tileGrid.getMaxY(); y++) {
+
+				// Check if the progress has been cancelled
+				if (progress != null && !progress.isActive()) {
+					break;
+				}
+
+				writer.write(renderTile(zoomLevel, x, y));
+			}
+
+		}
+
+	}
+
+	/**
+	 * Generate the zoom level tiles with a pool of render threads creating
+	 * tiles into a bounded queue, written by the calling thread
+	 *
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param tileGrid
+	 *            tile grid
+	 * @param writer
+	 *            tile writer
+	 */
+	private void generateTilesConcurrently(final int zoomLevel,
+			final TileGrid tileGrid, ZoomLevelWriter writer) {
+
+		final long height = tileGrid.getMaxY() - tileGrid.getMinY() + 1;
+		final long total = (tileGrid.getMaxX() - tileGrid.getMinX() + 1)
+				* height;
+		if (total <= 0) {
+			return;
+		}
+
+		final AtomicLong next = new AtomicLong();
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		final BlockingQueue<RenderedTile> queue = new ArrayBlockingQueue<>(
+				queueSize);
+		int workers = (int) Math.min(threads, total);
+		final CountDownLatch finished = new CountDownLatch(workers);
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		for (int i = 0; i < workers; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						long index;
+						while (!cancelled.get()
+								&& (index = next.getAndIncrement()) < total) {
+							long x = tileGrid.getMinX() + index / height;
+							long y = tileGrid.getMinY() + index % height;
+							queue.put(renderTile(zoomLevel, x, y));
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						postThreadTileCreation();
+						finished.countDown();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+
+		try {
+			while (true) {
+
+				// Check if the progress has been cancelled
+				if (progress != null && !progress.isActive()) {
+					cancelled.set(true);
+				}
+
+				RenderedTile tile = queue.poll(QUEUE_POLL_MILLIS,
+						TimeUnit.MILLISECONDS);
+				if (tile != null) {
+					if (!cancelled.get()) {
+						writer.write(tile);
+					}
+				} else if (finished.getCount() == 0 && queue.isEmpty()) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			cancelled.set(true);
+			queue.clear();
+			executor.shutdownNow();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE,
+						TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	/**
+	 * Create the tile and compress when configured
+	 *
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @return rendered tile
+	 */
+	private RenderedTile renderTile(int zoomLevel, long x, long y) {
+
+		RenderedTile tile = new RenderedTile(x, y);
+
+		try {
+
+			// Create the tile
+			tile.bytes = createTile(zoomLevel, x, y);
+
+			// Compress the image
+			if (tile.bytes != null && compressFormat != null) {
+				tile.image = ImageUtils.getImage(tile.bytes);
+				if (tile.image != null) {
+					ImageEncodeOptions options = new ImageEncodeOptions(
+							compressFormat, compressQuality);
+					options.setCompressionLevel(compressionLevel);
+					tile.bytes = ImageWriterPool.writeImageToBytes(
+							tile.image, options);
+				}
+			}
+
+		} catch (Exception e) {
+			tile.error = e;
+		}
+
+		return tile;
+	}
+
+	/**
+	 * Created tile of a zoom level coordinate
+	 */
+	private static class RenderedTile {
+
+		/**
+		 * X coordinate
+		 */
+		private final long x;
+
+		/**
+		 * Y coordinate
+		 */
+		private final long y;
+
+		/**
+		 * Tile bytes, null when no tile was created
+		 */
+		private byte[] bytes;
+
+		/**
+		 * Tile image when read during compression
+		 */
+		private BufferedImage image;
+
+		/**
+		 * Tile creation error
+		 */
+		private Exception error;
+
+		/**
+		 * Constructor
+		 *
+		 * @param x
+		 *            x coordinate
+		 * @param y
+		 *            y coordinate
+		 */
+		private RenderedTile(long x, long y) {
+			this.x = x;
+			this.y = y;
+		}
+
+	}
+
+	/**
+	 * Writes created tiles of a zoom level, updating the progress
+	 */
+	private class ZoomLevelWriter {
+
+		/**
+		 * Tile DAO
+		 */
+		private final TileDao tileDao;
+
+		/**
+		 * Tile batch inserter
+		 */
+		private final UserBatchInserter<TileColumn, TileTable, TileRow> inserter;
+
+		/**
+		 * Zoom level
+		 */
+		private final int zoomLevel;
+
+		/**
+		 * Tile grid
+		 */
+		private final TileGrid tileGrid;
+
+		/**
+		 * Local tile grid
+		 */
+		private final TileGrid localTileGrid;
+
+		/**
+		 * True when updating existing tiles
+		 */
+		private final boolean update;
+
+		/**
+		 * Written tile count
+		 */
+		private int count = 0;
+
+		/**
+		 * Tile width
+		 */
+		private Integer tileWidth = null;
+
+		/**
+		 * Tile height
+		 */
+		private Integer tileHeight = null;
+
+		/**
+		 * Constructor
+		 *
+		 * @param tileDao
+		 *            tile DAO
+		 * @param inserter
+		 *            tile batch inserter
+		 * @param zoomLevel
+		 *            zoom level
+		 * @param tileGrid
+		 *            tile grid
+		 * @param localTileGrid
+		 *            local tile grid
+		 * @param update
+		 *            true when updating existing tiles
+		 */
+		private ZoomLevelWriter(TileDao tileDao,
+				UserBatchInserter<TileColumn, TileTable, TileRow> inserter,
+				int zoomLevel, TileGrid tileGrid, TileGrid localTileGrid,
+				boolean update) {
+			this.tileDao = tileDao;
+			this.inserter = inserter;
+			this.zoomLevel = zoomLevel;
+			this.tileGrid = tileGrid;
+			this.localTileGrid = localTileGrid;
+			this.update = update;
+		}
+
+		/**
+		 * Write the created tile. Tiles that failed to be created are skipped,
+		 * while batch insert failures are thrown as the failed batch rows are
+		 * discarded.
+		 *
+		 * @param tile
+		 *            rendered tile
+		 */
+		private void write(RenderedTile tile) {
+
+			long x = tile.x;
+			long y = tile.y;
+
+			TileRow insertRow = null;
+
+			try {
+
+				if (tile.error != null) {
+					throw tile.error;
+				}
+
+				byte[] tileBytes = tile.bytes;
+
+				if (tileBytes != null) {
+
+					BufferedImage image = tile.image;
+
+					// Create a new tile row
+					TileRow newRow = tileDao.newRow();
+					newRow.setZoomLevel(zoomLevel);
+
+					long tileColumn = x;
+					long tileRow = y;
+
+					// Update the column and row to the local tile grid
+					// location
+					if (localTileGrid != null) {
+						tileColumn = (x - tileGrid.getMinX())
+								+ localTileGrid.getMinX();
+						tileRow = (y - tileGrid.getMinY())
+								+ localTileGrid.getMinY();
+					}
+
+					// If an update, delete an existing row
+					if (update) {
+						tileDao.deleteTile(tileColumn, tileRow, zoomLevel);
+					}
+
+					newRow.setTileColumn(tileColumn);
+					newRow.setTileRow(tileRow);
+					newRow.setTileData(tileBytes);
+
+					// Determine the tile width and height
+					if (tileWidth == null) {
+						if (image == null) {
+							image = ImageUtils.getImage(tileBytes);
+						}
+						if (image != null) {
+							tileWidth = image.getWidth();
+							tileHeight = image.getHeight();
+						}
+					}
+
+					insertRow = newRow;
+				}
+			} catch (Exception e) {
+				LOGGER.log(Level.WARNING, "Failed to create tile. Zoom: "
+						+ zoomLevel + ", x: " + x + ", y: " + y, e);
+				// Skip this tile, don't increase count
+			}
+
+			if (insertRow != null) {
+				inserter.insert(insertRow);
+				count++;
+			}
+
+			// Update the progress count, even on failures
+			if (progress != null) {
+				progress.addZoomLevelProgress(zoomLevel, 1);
+				progress.addProgress(1);
+			}
+
+		}
+
+	}
+
 	/**
 	 * Called after set up and right before tile generation starts for the first
 	 * zoom level
@@ -960,7 +1393,19 @@ public abstract class TileGenerator {
 	protected abstract void preTileGeneration();
 
 	/**
-	 * Create the tile
+	 * Called on each tile creation thread after it creates its last tile of a
+	 * zoom level, to release thread resources such as read connections.
+	 * Default does nothing.
+	 *
+	 * @since 3.4.1
+	 */
+	protected void postThreadTileCreation() {
+
+	}
+
+	/**
+	 * Create the tile. Called from multiple threads when {@link #getThreads()}
+	 * is greater than 1 and {@link #supportsThreads()} is true.
 	 *
 	 * @param z
 	 *            zoom level
@@ -0,0 +1,523 @@
+package mil.nga.geopackage.tiles;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import mil.nga.geopackage.tiles.user.TileRow;
+
+/**
+ * Tile Image Cache of decoded tile images keyed by database identity, table
+ * name, zoom level, tile column, and tile row. The cache is bounded by the
+ * pixel bytes of the retained images, evicting the least recently used. All
+ * methods are thread safe, allowing a single cache to be shared by tile DAOs,
+ * tile creators, and tile retrievers of multiple GeoPackages serving
+ * overlapping requests from multiple threads.
+ *
+ * Tile changes through any tile DAO or tile DAO batch inserter invalidate the
+ * changed tiles in all caches. Changes made with raw SQL or through other
+ * connections require a {@link #tableChanged(String, String)} call.
+ *
+ * Cached images are shared instances and must not be drawn into.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class TileImageCache {
+
+	/**
+	 * Default max pixel bytes of images to retain
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+	/**
+	 * Approximate bytes of a cache entry, excluding the image pixels
+	 */
+	public static final int ENTRY_WEIGHT = 256;
+
+	/**
+	 * Live caches, invalidated by tile changes
+	 */
+	private static final Set<TileImageCache> caches = Collections
+			.newSetFromMap(new WeakHashMap<TileImageCache, Boolean>());
+
+	/**
+	 * Cached images and weights, in access order
+	 */
+	private final Map<Key, Value> cache = new LinkedHashMap<>(16, .75f, true);
+
+	/**
+	 * Max pixel bytes
+	 */
+	private long maxBytes;
+
+	/**
+	 * Current pixel bytes
+	 */
+	private long bytes = 0;
+
+	/**
+	 * Cache hits
+	 */
+	private long hits = 0;
+
+	/**
+	 * Cache misses
+	 */
+	private long misses = 0;
+
+	/**
+	 * Evicted images
+	 */
+	private long evictions = 0;
+
+	/**
+	 * Constructor
+	 */
+	public TileImageCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxBytes
+	 *            max pixel bytes of images to retain
+	 */
+	public TileImageCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		synchronized (caches) {
+			caches.add(this);
+		}
+	}
+
+	/**
+	 * Invalidate the cached image of a changed tile in all caches
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 */
+	public static void tileChanged(String database, String table,
+			long zoomLevel, long column, long row) {
+		for (TileImageCache cache : getCaches()) {
+			cache.remove(database, table, zoomLevel, column, row);
+		}
+	}
+
+	/**
+	 * Invalidate the cached images of a changed table in all caches
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 */
+	public static void tableChanged(String database, String table) {
+		for (TileImageCache cache : getCaches()) {
+			cache.clear(database, table);
+		}
+	}
+
+	/**
+	 * Get a snapshot of the live caches
+	 *
+	 * @return caches
+	 */
+	private static List<TileImageCache> getCaches() {
+		synchronized (caches) {
+			return caches.isEmpty() ? Collections.<TileImageCache> emptyList()
+					: new ArrayList<>(caches);
+		}
+	}
+
+	/**
+	 * Get the byte weight of an image, measured from the raster data buffer
+	 *
+	 * @param image
+	 *            image
+	 * @return bytes
+	 */
+	public static long weigh(BufferedImage image) {
+		DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+		long pixelBytes = (long) dataBuffer.getSize()
+				* dataBuffer.getNumBanks()
+				* DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8;
+		return ENTRY_WEIGHT + pixelBytes;
+	}
+
+	/**
+	 * Get the max pixel bytes of images to retain
+	 *
+	 * @return max bytes
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Get the current pixel bytes of retained images
+	 *
+	 * @return bytes
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Get the number of retained images
+	 *
+	 * @return image count
+	 */
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Get the cached image of the table tile
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @return image or null
+	 */
+	public synchronized BufferedImage get(String database, String table,
+			long zoomLevel, long column, long row) {
+		Value value = cache
+				.get(new Key(database, table, zoomLevel, column, row));
+		BufferedImage image = null;
+		if (value != null) {
+			image = value.image;
+			hits++;
+		} else {
+			misses++;
+		}
+		return image;
+	}
+
+	/**
+	 * Get the cached image of the table tile row, decoding and caching the
+	 * tile data when not cached
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param tileRow
+	 *            tile row
+	 * @return image or null when the tile data is not an image
+	 * @throws IOException
+	 *             upon failure to decode the tile data
+	 */
+	public BufferedImage getImage(String database, String table,
+			TileRow tileRow) throws IOException {
+		long zoomLevel = tileRow.getZoomLevel();
+		long column = tileRow.getTileColumn();
+		long row = tileRow.getTileRow();
+		BufferedImage image = get(database, table, zoomLevel, column, row);
+		if (image == null) {
+			image = tileRow.getTileDataImage();
+			if (image != null) {
+				put(database, table, zoomLevel, column, row, image);
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Cache the image of the table tile
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @param image
+	 *            image
+	 * @return true if cached, false if heavier than the max bytes
+	 */
+	public synchronized boolean put(String database, String table,
+			long zoomLevel, long column, long row, BufferedImage image) {
+		Key key = new Key(database, table, zoomLevel, column, row);
+		Value previous = cache.remove(key);
+		if (previous != null) {
+			bytes -= previous.weight;
+		}
+		long weight = weigh(image);
+		boolean cached = weight <= maxBytes;
+		if (cached) {
+			cache.put(key, new Value(image, weight));
+			bytes += weight;
+			evict();
+		}
+		return cached;
+	}
+
+	/**
+	 * Remove the cached image of the table tile
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @return removed image or null
+	 */
+	public synchronized BufferedImage remove(String database, String table,
+			long zoomLevel, long column, long row) {
+		Value value = cache
+				.remove(new Key(database, table, zoomLevel, column, row));
+		BufferedImage image = null;
+		if (value != null) {
+			bytes -= value.weight;
+			image = value.image;
+		}
+		return image;
+	}
+
+	/**
+	 * Clear the cache
+	 */
+	public synchronized void clear() {
+		cache.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Clear the cached images of the table
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 */
+	public synchronized void clear(String database, String table) {
+		Iterator<Map.Entry<Key, Value>> entries = cache.entrySet()
+				.iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Key, Value> entry = entries.next();
+			Key key = entry.getKey();
+			if (key.table.equals(table) && key.database.equals(database)) {
+				bytes -= entry.getValue().weight;
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Resize the cache
+	 *
+	 * @param maxBytes
+	 *            max pixel bytes of images to retain
+	 */
+	public synchronized void resize(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/**
+	 * Get the number of cache hits
+	 *
+	 * @return hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of cache misses
+	 *
+	 * @return misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of images evicted to stay within the max bytes
+	 *
+	 * @return evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Get the cache hit rate
+	 *
+	 * @return hit rate between 0.0 and 1.0, 0.0 when no requests
+	 */
+	public synchronized double getHitRate() {
+		long requests = hits + misses;
+		return requests > 0 ? (double) hits / requests : 0.0;
+	}
+
+	/**
+	 * Reset the hit, miss, and eviction statistics
+	 */
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	/**
+	 * Evict the least recently used images until within the max bytes
+	 */
+	private void evict() {
+		Iterator<Value> values = cache.values().iterator();
+		while (bytes > maxBytes && values.hasNext()) {
+			bytes -= values.next().weight;
+			values.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Table tile key
+	 */
+	private static class Key {
+
+		/**
+		 * Database identity
+		 */
+		private final String database;
+
+		/**
+		 * Table name
+		 */
+		private final String table;
+
+		/**
+		 * Zoom level
+		 */
+		private final long zoomLevel;
+
+		/**
+		 * Tile column
+		 */
+		private final long column;
+
+		/**
+		 * Tile row
+		 */
+		private final long row;
+
+		/**
+		 * Constructor
+		 *
+		 * @param database
+		 *            database identity
+		 * @param table
+		 *            table name
+		 * @param zoomLevel
+		 *            zoom level
+		 * @param column
+		 *            tile column
+		 * @param row
+		 *            tile row
+		 */
+		private Key(String database, String table, long zoomLevel,
+				long column, long row) {
+			this.database = database;
+			this.table = table;
+			this.zoomLevel = zoomLevel;
+			this.column = column;
+			this.row = row;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			int hash = database.hashCode();
+			hash = 31 * hash + table.hashCode();
+			hash = 31 * hash + Long.hashCode(zoomLevel);
+			hash = 31 * hash + Long.hashCode(column);
+			hash = 31 * hash + Long.hashCode(row);
+			return hash;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return zoomLevel == other.zoomLevel && column == other.column
+					&& row == other.row && table.equals(other.table)
+					&& database.equals(other.database);
+		}
+
+	}
+
+	/**
+	 * Cached image and weight
+	 */
+	private static class Value {
+
+		/**
+		 * Image
+		 */
+		private final BufferedImage image;
+
+		/**
+		 * Pixel bytes
+		 */
+		private final long weight;
+
+		/**
+		 * Constructor
+		 *
+		 * @param image
+		 *            image
+		 * @param weight
+		 *            pixel bytes
+		 */
+		private Value(BufferedImage image, long weight) {
+			this.image = image;
+			this.weight = weight;
+		}
+
+	}
+
+}
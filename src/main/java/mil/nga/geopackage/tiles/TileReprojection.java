@@ -0,0 +1,917 @@
+package mil.nga.geopackage.tiles;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.sf.proj.ProjectionTransform;
+
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.ProjCoordinate;
+
+/**
+ * Tile Reprojection, reprojects a tile image into a requested projection.
+ * Instead of transforming every pixel, a sparse grid of control points is
+ * transformed and source pixel locations between control points are
+ * bilinearly interpolated. The control point grid is refined until the
+ * interpolation is within the max pixel error. Rows of the reprojected image
+ * are sampled in parallel on a fork join pool.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class TileReprojection {
+
+	/**
+	 * Default pixel spacing between transformed control points
+	 */
+	public static final int DEFAULT_CONTROL_POINT_SPACING = 16;
+
+	/**
+	 * Default max interpolation error in source tile pixels
+	 */
+	public static final double DEFAULT_MAX_ERROR = 0.125;
+
+	/**
+	 * Default max rows sampled by a single fork join task
+	 */
+	public static final int DEFAULT_TASK_ROWS = 32;
+
+	/**
+	 * Resampling type
+	 */
+	private TileResamplingType resampling = TileResamplingType.NEAREST_NEIGHBOR;
+
+	/**
+	 * Pixel spacing between transformed control points
+	 */
+	private int controlPointSpacing = DEFAULT_CONTROL_POINT_SPACING;
+
+	/**
+	 * Max interpolation error in source tile pixels
+	 */
+	private double maxError = DEFAULT_MAX_ERROR;
+
+	/**
+	 * Parallel sampling flag
+	 */
+	private boolean parallel = true;
+
+	/**
+	 * Max rows sampled by a single fork join task
+	 */
+	private int taskRows = DEFAULT_TASK_ROWS;
+
+	/**
+	 * Fork join pool, null to use the common pool
+	 */
+	private ForkJoinPool pool = null;
+
+	/**
+	 * Constructor
+	 */
+	public TileReprojection() {
+
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param resampling
+	 *            resampling type
+	 */
+	public TileReprojection(TileResamplingType resampling) {
+		setResampling(resampling);
+	}
+
+	/**
+	 * Create a tile reprojection transforming every pixel
+	 *
+	 * @return tile reprojection
+	 */
+	public static TileReprojection createExact() {
+		TileReprojection reprojection = new TileReprojection();
+		reprojection.setControlPointSpacing(1);
+		return reprojection;
+	}
+
+	/**
+	 * Get the resampling type
+	 *
+	 * @return resampling type
+	 */
+	public TileResamplingType getResampling() {
+		return resampling;
+	}
+
+	/**
+	 * Set the resampling type
+	 *
+	 * @param resampling
+	 *            resampling type, null for nearest neighbor
+	 */
+	public void setResampling(TileResamplingType resampling) {
+		this.resampling = resampling != null ? resampling
+				: TileResamplingType.NEAREST_NEIGHBOR;
+	}
+
+	/**
+	 * Get the pixel spacing between transformed control points
+	 *
+	 * @return control point spacing
+	 */
+	public int getControlPointSpacing() {
+		return controlPointSpacing;
+	}
+
+	/**
+	 * Set the pixel spacing between transformed control points, 1 to
+	 * transform every pixel
+	 *
+	 * @param controlPointSpacing
+	 *            control point spacing
+	 */
+	public void setControlPointSpacing(int controlPointSpacing) {
+		this.controlPointSpacing = Math.max(1, controlPointSpacing);
+	}
+
+	/**
+	 * Get the max interpolation error in source tile pixels
+	 *
+	 * @return max error
+	 */
+	public double getMaxError() {
+		return maxError;
+	}
+
+	/**
+	 * Set the max interpolation error in source tile pixels. Control point
+	 * grids exceeding the error are refined, down to transforming every pixel.
+	 *
+	 * @param maxError
+	 *            max error
+	 */
+	public void setMaxError(double maxError) {
+		this.maxError = maxError;
+	}
+
+	/**
+	 * Is sampling done in parallel
+	 *
+	 * @return true if parallel
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Set whether sampling is done in parallel
+	 *
+	 * @param parallel
+	 *            true for parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Get the max rows sampled by a single fork join task
+	 *
+	 * @return task rows
+	 */
+	public int getTaskRows() {
+		return taskRows;
+	}
+
+	/**
+	 * Set the max rows sampled by a single fork join task
+	 *
+	 * @param taskRows
+	 *            task rows
+	 */
+	public void setTaskRows(int taskRows) {
+		this.taskRows = Math.max(1, taskRows);
+	}
+
+	/**
+	 * Get the fork join pool
+	 *
+	 * @return fork join pool, the common pool when not set
+	 */
+	public ForkJoinPool getPool() {
+		return pool != null ? pool : ForkJoinPool.commonPool();
+	}
+
+	/**
+	 * Set the fork join pool
+	 *
+	 * @param pool
+	 *            fork join pool, null to use the common pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Reproject the tile to the requested projection. The transform is only
+	 * used on the calling thread.
+	 *
+	 * @param tile
+	 *            tile in the tile matrix projection
+	 * @param tilesBoundingBox
+	 *            tile bounding box in the tile matrix projection
+	 * @param requestedTileWidth
+	 *            requested tile width
+	 * @param requestedTileHeight
+	 *            requested tile height
+	 * @param requestBoundingBox
+	 *            request bounding box in the request projection
+	 * @param transformRequestToTiles
+	 *            transformation from request to tiles
+	 * @return projected tile
+	 */
+	public BufferedImage reproject(BufferedImage tile,
+			BoundingBox tilesBoundingBox, int requestedTileWidth,
+			int requestedTileHeight, BoundingBox requestBoundingBox,
+			ProjectionTransform transformRequestToTiles) {
+
+		final int width = tile.getWidth();
+		final int height = tile.getHeight();
+
+		// Tile pixels of the tile matrix tiles
+		int[] pixels = new int[width * height];
+		tile.getRGB(0, 0, width, height, pixels, 0, width);
+
+		PixelTransform pixelTransform = new PixelTransform(
+				transformRequestToTiles.getTransform(), requestBoundingBox,
+				requestedTileWidth, requestedTileHeight, tilesBoundingBox,
+				width, height);
+		ControlGrid grid = createControlGrid(pixelTransform,
+				requestedTileWidth, requestedTileHeight);
+
+		// Projected tile pixels to draw the reprojected tile
+		int[] projectedPixels = new int[requestedTileWidth
+				* requestedTileHeight];
+
+		Sampler sampler = new Sampler(grid, resampling, pixels, width, height,
+				projectedPixels, requestedTileWidth);
+		if (parallel && requestedTileHeight > taskRows) {
+			getPool().invoke(
+					new SampleTask(sampler, 0, requestedTileHeight, taskRows));
+		} else {
+			sampler.sample(0, requestedTileHeight);
+		}
+
+		// Draw the new image
+		BufferedImage projectedTileImage = new BufferedImage(
+				requestedTileWidth, requestedTileHeight, tile.getType());
+		projectedTileImage.setRGB(0, 0, requestedTileWidth,
+				requestedTileHeight, projectedPixels, 0, requestedTileWidth);
+
+		return projectedTileImage;
+	}
+
+	/**
+	 * Create a control point grid within the max error, halving the control
+	 * point spacing until within the error or every pixel is transformed
+	 *
+	 * @param pixelTransform
+	 *            pixel transform
+	 * @param width
+	 *            requested tile width
+	 * @param height
+	 *            requested tile height
+	 * @return control grid
+	 */
+	private ControlGrid createControlGrid(PixelTransform pixelTransform,
+			int width, int height) {
+		int spacing = controlPointSpacing;
+		ControlGrid grid = new ControlGrid(pixelTransform, width, height,
+				spacing);
+		while (spacing > 1 && !grid.isWithinError(pixelTransform, maxError)) {
+			spacing = Math.max(1, spacing / 2);
+			grid = new ControlGrid(pixelTransform, width, height, spacing);
+		}
+		return grid;
+	}
+
+	/**
+	 * Transforms requested tile pixels to source tile pixel locations, reusing
+	 * the coordinates between transformations
+	 */
+	private static class PixelTransform {
+
+		/**
+		 * Coordinate transform from request to tiles
+		 */
+		private final CoordinateTransform transform;
+
+		/**
+		 * Request coordinate
+		 */
+		private final ProjCoordinate from = new ProjCoordinate(0, 0);
+
+		/**
+		 * Tiles coordinate
+		 */
+		private final ProjCoordinate to = new ProjCoordinate(0, 0);
+
+		/**
+		 * Request min longitude
+		 */
+		private final double requestMinLongitude;
+
+		/**
+		 * Request max latitude
+		 */
+		private final double requestMaxLatitude;
+
+		/**
+		 * Request width units per pixel
+		 */
+		private final double requestWidthUnitsPerPixel;
+
+		/**
+		 * Request height units per pixel
+		 */
+		private final double requestHeightUnitsPerPixel;
+
+		/**
+		 * Tiles min longitude
+		 */
+		private final double tilesMinLongitude;
+
+		/**
+		 * Tiles max latitude
+		 */
+		private final double tilesMaxLatitude;
+
+		/**
+		 * Source pixels per tiles width unit
+		 */
+		private final double tilesWidthPixelsPerUnit;
+
+		/**
+		 * Source pixels per tiles height unit
+		 */
+		private final double tilesHeightPixelsPerUnit;
+
+		/**
+		 * Transformed source x pixel location
+		 */
+		private double x;
+
+		/**
+		 * Transformed source y pixel location
+		 */
+		private double y;
+
+		/**
+		 * Constructor
+		 *
+		 * @param transform
+		 *            coordinate transform
+		 * @param requestBoundingBox
+		 *            request bounding box
+		 * @param requestedTileWidth
+		 *            requested tile width
+		 * @param requestedTileHeight
+		 *            requested tile height
+		 * @param tilesBoundingBox
+		 *            tiles bounding box
+		 * @param width
+		 *            source tile width
+		 * @param height
+		 *            source tile height
+		 */
+		private PixelTransform(CoordinateTransform transform,
+				BoundingBox requestBoundingBox, int requestedTileWidth,
+				int requestedTileHeight, BoundingBox tilesBoundingBox,
+				int width, int height) {
+			this.transform = transform;
+			requestMinLongitude = requestBoundingBox.getMinLongitude();
+			requestMaxLatitude = requestBoundingBox.getMaxLatitude();
+			requestWidthUnitsPerPixel = (requestBoundingBox.getMaxLongitude() - requestMinLongitude)
+					/ requestedTileWidth;
+			requestHeightUnitsPerPixel = (requestMaxLatitude - requestBoundingBox
+					.getMinLatitude()) / requestedTileHeight;
+			tilesMinLongitude = tilesBoundingBox.getMinLongitude();
+			tilesMaxLatitude = tilesBoundingBox.getMaxLatitude();
+			tilesWidthPixelsPerUnit = width
+					/ (tilesBoundingBox.getMaxLongitude() - tilesMinLongitude);
+			tilesHeightPixelsPerUnit = height
+					/ (tilesMaxLatitude - tilesBoundingBox.getMinLatitude());
+		}
+
+		/**
+		 * Transform the requested tile pixel to a source tile pixel location
+		 *
+		 * @param requestX
+		 *            requested tile x pixel
+		 * @param requestY
+		 *            requested tile y pixel
+		 */
+		private void transform(int requestX, int requestY) {
+			from.x = requestMinLongitude
+					+ (requestX * requestWidthUnitsPerPixel);
+			from.y = requestMaxLatitude
+					- (requestY * requestHeightUnitsPerPixel);
+			transform.transform(from, to);
+			x = (to.x - tilesMinLongitude) * tilesWidthPixelsPerUnit;
+			y = (tilesMaxLatitude - to.y) * tilesHeightPixelsPerUnit;
+		}
+
+	}
+
+	/**
+	 * Grid of transformed control points in source tile pixel locations
+	 */
+	private static class ControlGrid {
+
+		/**
+		 * Pixel spacing between control points
+		 */
+		private final int spacing;
+
+		/**
+		 * Requested tile width
+		 */
+		private final int width;
+
+		/**
+		 * Requested tile height
+		 */
+		private final int height;
+
+		/**
+		 * Control point columns
+		 */
+		private final int columns;
+
+		/**
+		 * Control point rows
+		 */
+		private final int rows;
+
+		/**
+		 * Source x pixel locations, at: (row * columns) + column
+		 */
+		private final double[] x;
+
+		/**
+		 * Source y pixel locations, at: (row * columns) + column
+		 */
+		private final double[] y;
+
+		/**
+		 * Constructor, transforms the control points
+		 *
+		 * @param pixelTransform
+		 *            pixel transform
+		 * @param width
+		 *            requested tile width
+		 * @param height
+		 *            requested tile height
+		 * @param spacing
+		 *            pixel spacing between control points
+		 */
+		private ControlGrid(PixelTransform pixelTransform, int width,
+				int height, int spacing) {
+			this.spacing = spacing;
+			this.width = width;
+			this.height = height;
+			columns = Math.max(2, (width - 1 + spacing - 1) / spacing + 1);
+			rows = Math.max(2, (height - 1 + spacing - 1) / spacing + 1);
+			x = new double[columns * rows];
+			y = new double[columns * rows];
+			for (int row = 0; row < rows; row++) {
+				int pixelY = getPixel(row, height);
+				for (int column = 0; column < columns; column++) {
+					pixelTransform.transform(getPixel(column, width), pixelY);
+					int index = (row * columns) + column;
+					x[index] = pixelTransform.x;
+					y[index] = pixelTransform.y;
+				}
+			}
+		}
+
+		/**
+		 * Get the requested tile pixel of a control point column or row
+		 *
+		 * @param point
+		 *            control point column or row
+		 * @param length
+		 *            requested tile width or height
+		 * @return pixel
+		 */
+		private int getPixel(int point, int length) {
+			return Math.min(point * spacing, length - 1);
+		}
+
+		/**
+		 * Get the control point column or row cell containing the pixel
+		 *
+		 * @param pixel
+		 *            requested tile pixel
+		 * @param points
+		 *            control point columns or rows
+		 * @return cell column or row
+		 */
+		private int getCell(int pixel, int points) {
+			return Math.min(pixel / spacing, points - 2);
+		}
+
+		/**
+		 * Get the interpolation weight of the pixel within the cell
+		 *
+		 * @param pixel
+		 *            requested tile pixel
+		 * @param cell
+		 *            cell column or row
+		 * @param length
+		 *            requested tile width or height
+		 * @return weight between 0.0 and 1.0
+		 */
+		private double getWeight(int pixel, int cell, int length) {
+			int start = getPixel(cell, length);
+			int end = getPixel(cell + 1, length);
+			return end > start ? (double) (pixel - start) / (end - start)
+					: 0.0;
+		}
+
+		/**
+		 * Bilinearly interpolate the control point values
+		 *
+		 * @param values
+		 *            control point values
+		 * @param column
+		 *            cell column
+		 * @param row
+		 *            cell row
+		 * @param weightX
+		 *            x weight
+		 * @param weightY
+		 *            y weight
+		 * @return interpolated value
+		 */
+		private double interpolate(double[] values, int column, int row,
+				double weightX, double weightY) {
+			int index = (row * columns) + column;
+			double top = values[index] * (1.0 - weightX)
+					+ values[index + 1] * weightX;
+			double bottom = values[index + columns] * (1.0 - weightX)
+					+ values[index + columns + 1] * weightX;
+			return top * (1.0 - weightY) + bottom * weightY;
+		}
+
+		/**
+		 * Check the interpolation error at the center of each cell
+		 *
+		 * @param pixelTransform
+		 *            pixel transform
+		 * @param maxError
+		 *            max error in source tile pixels
+		 * @return true if every cell is within the error
+		 */
+		private boolean isWithinError(PixelTransform pixelTransform,
+				double maxError) {
+			for (int row = 0; row < rows - 1; row++) {
+				int top = getPixel(row, height);
+				int bottom = getPixel(row + 1, height);
+				int pixelY = (top + bottom) / 2;
+				double weightY = getWeight(pixelY, row, height);
+				for (int column = 0; column < columns - 1; column++) {
+					int left = getPixel(column, width);
+					int right = getPixel(column + 1, width);
+					if (right - left <= 1 && bottom - top <= 1) {
+						continue;
+					}
+					int pixelX = (left + right) / 2;
+					double weightX = getWeight(pixelX, column, width);
+					pixelTransform.transform(pixelX, pixelY);
+					double errorX = Math.abs(interpolate(x, column, row,
+							weightX, weightY) - pixelTransform.x);
+					double errorY = Math.abs(interpolate(y, column, row,
+							weightX, weightY) - pixelTransform.y);
+					if (!(errorX <= maxError && errorY <= maxError)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * Samples rows of the reprojected tile from the source tile pixels
+	 */
+	private static class Sampler {
+
+		/**
+		 * Control grid
+		 */
+		private final ControlGrid grid;
+
+		/**
+		 * Resampling type
+		 */
+		private final TileResamplingType resampling;
+
+		/**
+		 * Source tile pixels
+		 */
+		private final int[] pixels;
+
+		/**
+		 * Source tile width
+		 */
+		private final int width;
+
+		/**
+		 * Source tile height
+		 */
+		private final int height;
+
+		/**
+		 * Reprojected tile pixels
+		 */
+		private final int[] projectedPixels;
+
+		/**
+		 * Reprojected tile width
+		 */
+		private final int projectedWidth;
+
+		/**
+		 * Constructor
+		 *
+		 * @param grid
+		 *            control grid
+		 * @param resampling
+		 *            resampling type
+		 * @param pixels
+		 *            source tile pixels
+		 * @param width
+		 *            source tile width
+		 * @param height
+		 *            source tile height
+		 * @param projectedPixels
+		 *            reprojected tile pixels
+		 * @param projectedWidth
+		 *            reprojected tile width
+		 */
+		private Sampler(ControlGrid grid, TileResamplingType resampling,
+				int[] pixels, int width, int height, int[] projectedPixels,
+				int projectedWidth) {
+			this.grid = grid;
+			this.resampling = resampling;
+			this.pixels = pixels;
+			this.width = width;
+			this.height = height;
+			this.projectedPixels = projectedPixels;
+			this.projectedWidth = projectedWidth;
+		}
+
+		/**
+		 * Sample the reprojected tile rows
+		 *
+		 * @param startRow
+		 *            start row, inclusive
+		 * @param endRow
+		 *            end row, exclusive
+		 */
+		private void sample(int startRow, int endRow) {
+
+			int columns = grid.columns;
+			double[] rowX = new double[columns];
+			double[] rowY = new double[columns];
+
+			for (int y = startRow; y < endRow; y++) {
+
+				// Interpolate the control point columns to the row
+				int row = grid.getCell(y, grid.rows);
+				double weightY = grid.getWeight(y, row, grid.height);
+				int top = row * columns;
+				int bottom = top + columns;
+				for (int column = 0; column < columns; column++) {
+					rowX[column] = grid.x[top + column] * (1.0 - weightY)
+							+ grid.x[bottom + column] * weightY;
+					rowY[column] = grid.y[top + column] * (1.0 - weightY)
+							+ grid.y[bottom + column] * weightY;
+				}
+
+				int offset = y * projectedWidth;
+				for (int x = 0; x < projectedWidth; x++) {
+					int column = grid.getCell(x, columns);
+					double weightX = grid.getWeight(x, column, grid.width);
+					double sourceX = rowX[column] * (1.0 - weightX)
+							+ rowX[column + 1] * weightX;
+					double sourceY = rowY[column] * (1.0 - weightX)
+							+ rowY[column + 1] * weightX;
+					int color;
+					if (resampling == TileResamplingType.BILINEAR) {
+						color = sampleBilinear(sourceX, sourceY);
+					} else {
+						color = sampleNearest(sourceX, sourceY);
+					}
+					projectedPixels[offset + x] = color;
+				}
+			}
+		}
+
+		/**
+		 * Sample the nearest source pixel
+		 *
+		 * @param sourceX
+		 *            source x pixel location
+		 * @param sourceY
+		 *            source y pixel location
+		 * @return color
+		 */
+		private int sampleNearest(double sourceX, double sourceY) {
+			int xPixel = clamp((int) Math.round(sourceX), width);
+			int yPixel = clamp((int) Math.round(sourceY), height);
+			return pixels[(yPixel * width) + xPixel];
+		}
+
+		/**
+		 * Sample the bilinear interpolation of the four nearest source pixels,
+		 * weighting colors by alpha
+		 *
+		 * @param sourceX
+		 *            source x pixel location
+		 * @param sourceY
+		 *            source y pixel location
+		 * @return color
+		 */
+		private int sampleBilinear(double sourceX, double sourceY) {
+
+			double floorX = Math.floor(sourceX);
+			double floorY = Math.floor(sourceY);
+			double weightX = sourceX - floorX;
+			double weightY = sourceY - floorY;
+			if (Double.isNaN(weightX)) {
+				weightX = 0.0;
+			}
+			if (Double.isNaN(weightY)) {
+				weightY = 0.0;
+			}
+
+			int left = clamp((int) floorX, width);
+			int right = clamp((int) floorX + 1, width);
+			int top = clamp((int) floorY, height) * width;
+			int bottom = clamp((int) floorY + 1, height) * width;
+
+			double topLeft = (1.0 - weightX) * (1.0 - weightY);
+			double topRight = weightX * (1.0 - weightY);
+			double bottomLeft = (1.0 - weightX) * weightY;
+			double bottomRight = weightX * weightY;
+
+			int topLeftColor = pixels[top + left];
+			int topRightColor = pixels[top + right];
+			int bottomLeftColor = pixels[bottom + left];
+			int bottomRightColor = pixels[bottom + right];
+
+			// Alpha weighted to avoid bleeding transparent pixel colors
+			double topLeftAlpha = (topLeftColor >>> 24) * topLeft;
+			double topRightAlpha = (topRightColor >>> 24) * topRight;
+			double bottomLeftAlpha = (bottomLeftColor >>> 24) * bottomLeft;
+			double bottomRightAlpha = (bottomRightColor >>> 24) * bottomRight;
+
+			double alpha = topLeftAlpha + topRightAlpha + bottomLeftAlpha
+					+ bottomRightAlpha;
+			double red = weigh(topLeftColor, 16, topLeftAlpha)
+					+ weigh(topRightColor, 16, topRightAlpha)
+					+ weigh(bottomLeftColor, 16, bottomLeftAlpha)
+					+ weigh(bottomRightColor, 16, bottomRightAlpha);
+			double green = weigh(topLeftColor, 8, topLeftAlpha)
+					+ weigh(topRightColor, 8, topRightAlpha)
+					+ weigh(bottomLeftColor, 8, bottomLeftAlpha)
+					+ weigh(bottomRightColor, 8, bottomRightAlpha);
+			double blue = weigh(topLeftColor, 0, topLeftAlpha)
+					+ weigh(topRightColor, 0, topRightAlpha)
+					+ weigh(bottomLeftColor, 0, bottomLeftAlpha)
+					+ weigh(bottomRightColor, 0, bottomRightAlpha);
+
+			int color = 0;
+			if (alpha > 0) {
+				color = (channel(alpha) << 24)
+						| (channel(red / alpha) << 16)
+						| (channel(green / alpha) << 8)
+						| channel(blue / alpha);
+			}
+			return color;
+		}
+
+		/**
+		 * Weigh a color channel
+		 *
+		 * @param color
+		 *            color
+		 * @param shift
+		 *            channel bit shift
+		 * @param weight
+		 *            weight
+		 * @return weighted channel value
+		 */
+		private static double weigh(int color, int shift, double weight) {
+			return ((color >> shift) & 0xFF) * weight;
+		}
+
+		/**
+		 * Clamp the pixel within the length
+		 *
+		 * @param pixel
+		 *            pixel
+		 * @param length
+		 *            width or height
+		 * @return clamped pixel
+		 */
+		private static int clamp(int pixel, int length) {
+			return Math.min(length - 1, Math.max(0, pixel));
+		}
+
+		/**
+		 * Round and clamp a color channel value
+		 *
+		 * @param value
+		 *            channel value
+		 * @return channel between 0 and 255
+		 */
+		private static int channel(double value) {
+			return Math.min(255, Math.max(0, (int) Math.round(value)));
+		}
+
+	}
+
+	/**
+	 * Fork join task sampling a range of rows, split in half until within the
+	 * max task rows
+	 */
+	private static class SampleTask extends RecursiveAction {
+
+		/**
+		 * Serial version id
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Sampler
+		 */
+		private final transient Sampler sampler;
+
+		/**
+		 * Start row, inclusive
+		 */
+		private final int startRow;
+
+		/**
+		 * End row, exclusive
+		 */
+		private final int endRow;
+
+		/**
+		 * Max rows sampled by a single task
+		 */
+		private final int taskRows;
+
+		/**
+		 * Constructor
+		 *
+		 * @param sampler
+		 *            sampler
+		 * @param startRow
+		 *            start row, inclusive
+		 * @param endRow
+		 *            end row, exclusive
+		 * @param taskRows
+		 *            max rows sampled by a single task
+		 */
+		private SampleTask(Sampler sampler, int startRow, int endRow,
+				int taskRows) {
+			this.sampler = sampler;
+			this.startRow = startRow;
+			this.endRow = endRow;
+			this.taskRows = taskRows;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute() {
+			if (endRow - startRow <= taskRows) {
+				sampler.sample(startRow, endRow);
+			} else {
+				int middleRow = (startRow + endRow) >>> 1;
+				invokeAll(new SampleTask(sampler, startRow, middleRow,
+						taskRows), new SampleTask(sampler, middleRow, endRow,
+						taskRows));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,22 @@
+package mil.nga.geopackage.tiles;
+
+/**
+ * Tile resampling type enumeration of how reprojected tile pixels are sampled
+ * from the source tile image
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public enum TileResamplingType {
+
+	/**
+	 * Nearest source pixel
+	 */
+	NEAREST_NEIGHBOR,
+
+	/**
+	 * Bilinear interpolation of the four nearest source pixels
+	 */
+	BILINEAR;
+
+}
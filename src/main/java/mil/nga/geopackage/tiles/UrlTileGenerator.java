@@ -7,6 +7,9 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -110,6 +113,38 @@ public class UrlTileGenerator extends TileGenerator {
 			JavaPropertyConstants.TILE_GENERATOR,
 			JavaPropertyConstants.TILE_GENERATOR_DOWNLOAD_ATTEMPTS);
 
+	/**
+	 * Delay in milliseconds before each download retry of a tile, 0 to retry
+	 * immediately
+	 */
+	private int downloadRetryDelay = GeoPackageJavaProperties
+			.getIntegerProperty(JavaPropertyConstants.TILE_GENERATOR,
+					JavaPropertyConstants.TILE_GENERATOR_DOWNLOAD_RETRY_DELAY);
+
+	/**
+	 * True to double the retry delay for each following retry of a tile
+	 */
+	private boolean downloadRetryBackoff = GeoPackageJavaProperties
+			.getBooleanProperty(JavaPropertyConstants.TILE_GENERATOR,
+					JavaPropertyConstants.TILE_GENERATOR_DOWNLOAD_RETRY_BACKOFF);
+
+	/**
+	 * Max download requests per second to a single host, 0 for no limit
+	 */
+	private int downloadHostRateLimit = GeoPackageJavaProperties
+			.getIntegerProperty(JavaPropertyConstants.TILE_GENERATOR,
+					JavaPropertyConstants.TILE_GENERATOR_DOWNLOAD_HOST_RATE_LIMIT);
+
+	/**
+	 * True to reuse keep-alive connections between downloads
+	 */
+	private boolean keepAlive = true;
+
+	/**
+	 * Next permitted request time in nanoseconds by host when rate limiting
+	 */
+	private final Map<String, Long> hostRequestTimes = new HashMap<>();
+
 	/**
 	 * Constructor
 	 * 
@@ -202,6 +237,96 @@ public class UrlTileGenerator extends TileGenerator {
 		this.downloadAttempts = downloadAttempts;
 	}
 
+	/**
+	 * Get the delay in milliseconds before each download retry of a tile
+	 * 
+	 * @return retry delay in milliseconds
+	 * @since 3.4.1
+	 */
+	public int getDownloadRetryDelay() {
+		return downloadRetryDelay;
+	}
+
+	/**
+	 * Set the delay in milliseconds before each download retry of a tile.
+	 * Default is 0, retrying immediately. Only the retrying thread waits,
+	 * other threads continue downloading.
+	 * 
+	 * @param downloadRetryDelay
+	 *            retry delay in milliseconds
+	 * @since 3.4.1
+	 */
+	public void setDownloadRetryDelay(int downloadRetryDelay) {
+		this.downloadRetryDelay = downloadRetryDelay;
+	}
+
+	/**
+	 * Is the retry delay doubled for each following retry of a tile
+	 * 
+	 * @return true if backing off
+	 * @since 3.4.1
+	 */
+	public boolean isDownloadRetryBackoff() {
+		return downloadRetryBackoff;
+	}
+
+	/**
+	 * Set whether the retry delay is doubled for each following retry of a
+	 * tile. Default is false, waiting the retry delay before each retry.
+	 * 
+	 * @param downloadRetryBackoff
+	 *            true to back off
+	 * @since 3.4.1
+	 */
+	public void setDownloadRetryBackoff(boolean downloadRetryBackoff) {
+		this.downloadRetryBackoff = downloadRetryBackoff;
+	}
+
+	/**
+	 * Get the max download requests per second to a single host
+	 * 
+	 * @return requests per second, 0 for no limit
+	 * @since 3.4.1
+	 */
+	public int getDownloadHostRateLimit() {
+		return downloadHostRateLimit;
+	}
+
+	/**
+	 * Set the max download requests per second to a single host, shared by
+	 * all download threads
+	 * 
+	 * @param downloadHostRateLimit
+	 *            requests per second, 0 for no limit
+	 * @since 3.4.1
+	 */
+	public void setDownloadHostRateLimit(int downloadHostRateLimit) {
+		this.downloadHostRateLimit = downloadHostRateLimit;
+	}
+
+	/**
+	 * Are keep-alive connections reused between downloads
+	 * 
+	 * @return true if reused
+	 * @since 3.4.1
+	 */
+	public boolean isKeepAlive() {
+		return keepAlive;
+	}
+
+	/**
+	 * Set whether keep-alive connections are reused between downloads.
+	 * Default is true. The number of idle connections kept per host is set by
+	 * the "http.maxConnections" system property.
+	 * 
+	 * @param keepAlive
+	 *            true to reuse connections
+	 * @since 3.4.1
+	 */
+	public void setKeepAlive(boolean keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
 	/**
 	 * Determine if the url has bounding box variables
 	 * 
@@ -295,6 +420,17 @@ public class UrlTileGenerator extends TileGenerator {
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * URL tiles are downloaded without GeoPackage reads and support creation
+	 * on multiple threads.
+	 */
+	@Override
+	protected boolean supportsThreads() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -343,6 +479,7 @@ public class UrlTileGenerator extends TileGenerator {
 									+ " of " + downloadAttempts + ". URL: "
 									+ zoomUrl + ", z=" + z + ", x=" + x
 									+ ", y=" + y, e);
+					backoff(attempt);
 					attempt++;
 				} else {
 					throw new GeoPackageException(
@@ -356,6 +493,126 @@ public class UrlTileGenerator extends TileGenerator {
 		return bytes;
 	}
 
+	/**
+	 * Wait before retrying a failed download, doubling the retry delay for
+	 * each attempt when backing off
+	 * 
+	 * @param attempt
+	 *            failed attempt number
+	 */
+	private void backoff(int attempt) {
+		if (downloadRetryDelay > 0) {
+			long delay = downloadRetryDelay;
+			if (downloadRetryBackoff) {
+				delay <<= Math.min(attempt - 1, 16);
+			}
+			try {
+				sleep(TimeUnit.MILLISECONDS.toNanos(delay));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new GeoPackageException(
+						"Interrupted while waiting to retry tile download", e);
+			}
+		}
+	}
+
+	/**
+	 * Wait as needed to stay within the per host request rate limit
+	 * 
+	 * @param url
+	 *            request url
+	 */
+	private void throttle(URL url) {
+		if (downloadHostRateLimit > 0) {
+			long interval = TimeUnit.SECONDS.toNanos(1)
+					/ downloadHostRateLimit;
+			long wait;
+			synchronized (hostRequestTimes) {
+				long now = nanoTime();
+				Long next = hostRequestTimes.get(url.getHost());
+				long time = next != null ? Math.max(now, next) : now;
+				hostRequestTimes.put(url.getHost(), time + interval);
+				wait = time - now;
+			}
+			if (wait > 0) {
+				try {
+					sleep(wait);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new GeoPackageException(
+							"Interrupted while waiting to download tile", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the current time in nanoseconds used to rate limit downloads
+	 * 
+	 * @return time in nanoseconds
+	 * @since 3.4.1
+	 */
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Sleep the current thread, waiting to retry or rate limit a download
+	 * 
+	 * @param nanos
+	 *            nanoseconds to sleep
+	 * @throws InterruptedException
+	 *             upon interruption
+	 * @since 3.4.1
+	 */
+	protected void sleep(long nanos) throws InterruptedException {
+		TimeUnit.NANOSECONDS.sleep(nanos);
+	}
+
+	/**
+	 * Open and connect to the URL
+	 * 
+	 * @param url
+	 *            url
+	 * @return connection
+	 * @throws IOException
+	 *             upon failure
+	 */
+	private HttpURLConnection connect(URL url) throws IOException {
+		throttle(url);
+		HttpURLConnection connection = (HttpURLConnection) url
+				.openConnection();
+		if (!keepAlive) {
+			connection.setRequestProperty("Connection", "close");
+		}
+		connection.connect();
+		return connection;
+	}
+
+	/**
+	 * Finish a connection with an unread response, reading the response so a
+	 * keep-alive connection can be reused or disconnecting when not reusing
+	 * connections
+	 * 
+	 * @param connection
+	 *            connection
+	 */
+	private void release(HttpURLConnection connection) {
+		if (keepAlive) {
+			try {
+				InputStream stream = connection.getErrorStream();
+				if (stream == null) {
+					stream = connection.getInputStream();
+				}
+				GeoPackageIOUtils.streamBytes(stream);
+			} catch (IOException e) {
+				connection.disconnect();
+			}
+		} else {
+			connection.disconnect();
+		}
+	}
+
 	/**
 	 * Download the tile from the URL
 	 * 
@@ -372,36 +629,39 @@ public class UrlTileGenerator extends TileGenerator {
 
 		HttpURLConnection connection = null;
 		try {
-			connection = (HttpURLConnection) url.openConnection();
-			connection.connect();
+			connection = connect(url);
 
 			int responseCode = connection.getResponseCode();
 			if (responseCode == HttpURLConnection.HTTP_MOVED_PERM
 					|| responseCode == HttpURLConnection.HTTP_MOVED_TEMP
 					|| responseCode == HttpURLConnection.HTTP_SEE_OTHER) {
 				String redirect = connection.getHeaderField("Location");
-				connection.disconnect();
+				release(connection);
 				url = new URL(redirect);
-				connection = (HttpURLConnection) url.openConnection();
-				connection.connect();
+				connection = connect(url);
 			}
 
 			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-				throw new GeoPackageException("Failed to download tile. URL: "
-						+ zoomUrl + ", z=" + z + ", x=" + x + ", y=" + y
+				String message = "Failed to download tile. URL: " + zoomUrl
+						+ ", z=" + z + ", x=" + x + ", y=" + y
 						+ ", Response Code: " + connection.getResponseCode()
 						+ ", Response Message: "
-						+ connection.getResponseMessage());
+						+ connection.getResponseMessage();
+				release(connection);
+				throw new GeoPackageException(message);
 			}
 
 			InputStream geoPackageStream = connection.getInputStream();
 			bytes = GeoPackageIOUtils.streamBytes(geoPackageStream);
 
 		} catch (IOException e) {
+			if (connection != null) {
+				connection.disconnect();
+			}
 			throw new GeoPackageException("Failed to download tile. URL: "
 					+ zoomUrl + ", z=" + z + ", x=" + x + ", y=" + y, e);
 		} finally {
-			if (connection != null) {
+			if (connection != null && !keepAlive) {
 				connection.disconnect();
 			}
 		}
@@ -5,11 +5,12 @@ import java.awt.geom.Area;
 import java.awt.geom.Path2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -58,31 +59,70 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	private static final Logger log = Logger
 			.getLogger(DefaultFeatureTiles.class.getName());
 
+	/**
+	 * All layers, drawing geometries as encountered
+	 */
+	private static final int ALL_LAYERS = -1;
+
+	/**
+	 * Polygon layer
+	 */
+	private static final int POLYGON_LAYER = 0;
+
+	/**
+	 * Line layer
+	 */
+	private static final int LINE_LAYER = 1;
+
+	/**
+	 * Point layer
+	 */
+	private static final int POINT_LAYER = 2;
+
+	/**
+	 * Icon layer
+	 */
+	private static final int ICON_LAYER = 3;
+
 	/**
 	 * Default max number of feature geometries to retain in cache
 	 *
 	 * @since 3.3.0
+	 * @deprecated the geometry cache is bounded by approximate bytes, see
+	 *             {@link FeatureGeometryCache#DEFAULT_MAX_BYTES}
 	 */
+	@Deprecated
 	public static final int DEFAULT_GEOMETRY_CACHE_SIZE = 1000;
 
 	/**
-	 * Max geometry cache size
+	 * Geometry cache max number of feature geometries
+	 *
+	 * @since 3.3.0
+	 * @deprecated the geometry cache is bounded by approximate bytes, see
+	 *             {@link #getGeometryCache()}
 	 */
+	@Deprecated
 	protected int geometryCacheSize = DEFAULT_GEOMETRY_CACHE_SIZE;
 
 	/**
-	 * Geometry cache
+	 * Geometry cache by feature id, a view of the feature table geometries in
+	 * the {@link #getGeometryCache()} cache
+	 *
+	 * @since 3.3.0
+	 * @deprecated use {@link #getGeometryCache()}
+	 */
+	@Deprecated
+	protected final Map<Long, GeoPackageGeometryData> geometryCache = new GeometryCacheView();
+
+	/**
+	 * Feature geometry cache, may be shared with other feature tiles
 	 */
-	protected final Map<Long, GeoPackageGeometryData> geometryCache = new LinkedHashMap<Long, GeoPackageGeometryData>(
-			geometryCacheSize, .75f, true) {
-		private static final long serialVersionUID = 1L;
+	private FeatureGeometryCache featureGeometryCache = new FeatureGeometryCache();
 
-		@Override
-		protected boolean removeEldestEntry(
-				Entry<Long, GeoPackageGeometryData> eldest) {
-			return size() > geometryCacheSize;
-		}
-	};
+	/**
+	 * Database identity of the feature DAO, keying the geometry cache
+	 */
+	private String database;
 
 	/**
 	 * When true, geometries are cached. Default is true
@@ -229,12 +269,12 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	}
 
 	/**
-	 * Clear the geometry cache
+	 * Clear the cached geometries of the feature table
 	 *
 	 * @since 3.3.0
 	 */
 	public void clearGeometryCache() {
-		geometryCache.clear();
+		featureGeometryCache.clear(getDatabase(), featureDao.getTableName());
 	}
 
 	/**
@@ -243,19 +283,50 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	 * @param size
 	 *            new size
 	 * @since 3.3.0
+	 * @deprecated the geometry cache is bounded by approximate bytes, use
+	 *             {@link #getGeometryCache()} and
+	 *             {@link FeatureGeometryCache#resize(long)}
 	 */
+	@Deprecated
 	public void setGeometryCacheSize(int size) {
 		geometryCacheSize = size;
-		if (geometryCache.size() > size) {
-			int count = 0;
-			Iterator<Long> rowIds = geometryCache.keySet().iterator();
-			while (rowIds.hasNext()) {
-				rowIds.next();
-				if (++count > size) {
-					rowIds.remove();
-				}
-			}
+		featureGeometryCache.resize((long) size
+				* (FeatureGeometryCache.ENTRY_WEIGHT
+						+ FeatureGeometryCache.DEFAULT_GEOMETRY_WEIGHT));
+	}
+
+	/**
+	 * Get the geometry cache
+	 *
+	 * @return geometry cache
+	 * @since 3.4.1
+	 */
+	public FeatureGeometryCache getGeometryCache() {
+		return featureGeometryCache;
+	}
+
+	/**
+	 * Set the geometry cache, allowing a single cache to be shared between
+	 * feature tiles of one or more GeoPackages
+	 *
+	 * @param geometryCache
+	 *            geometry cache
+	 * @since 3.4.1
+	 */
+	public void setGeometryCache(FeatureGeometryCache geometryCache) {
+		this.featureGeometryCache = geometryCache;
+	}
+
+	/**
+	 * Get the database identity of the feature DAO keying the geometry cache
+	 *
+	 * @return database identity
+	 */
+	private String getDatabase() {
+		if (database == null) {
+			database = featureDao.getDb().getDatabaseIdentity();
 		}
+		return database;
 	}
 
 	/**
@@ -266,7 +337,8 @@ public class DefaultFeatureTiles extends FeatureTiles {
 			CloseableIterator<GeometryIndex> results) {
 
 		FeatureTileGraphics graphics = new FeatureTileGraphics(tileWidth,
-				tileHeight);
+				tileHeight, singleLayer);
+		FeatureLayers layers = singleLayer ? new FeatureLayers() : null;
 
 		// WGS84 to web mercator projection and google shape converter
 		ProjectionTransform webMercatorTransform = getWebMercatorTransform();
@@ -278,7 +350,7 @@ public class DefaultFeatureTiles extends FeatureTiles {
 			FeatureRow featureRow = getFeatureIndex().getFeatureRow(
 					geometryIndex);
 			if (drawFeature(zoom, boundingBox, expandedBoundingBox,
-					webMercatorTransform, graphics, featureRow)) {
+					webMercatorTransform, graphics, layers, featureRow)) {
 				drawn = true;
 			}
 		}
@@ -288,6 +360,11 @@ public class DefaultFeatureTiles extends FeatureTiles {
 			log.log(Level.WARNING, "Failed to close geometry index results", e);
 		}
 
+		if (layers != null) {
+			drawn = drawLayers(zoom, boundingBox, webMercatorTransform,
+					graphics, layers);
+		}
+
 		BufferedImage image = null;
 		if (drawn) {
 			image = graphics.createImage();
@@ -307,21 +384,30 @@ public class DefaultFeatureTiles extends FeatureTiles {
 			FeatureResultSet resultSet) {
 
 		FeatureTileGraphics graphics = new FeatureTileGraphics(tileWidth,
-				tileHeight);
+				tileHeight, singleLayer);
+		FeatureLayers layers = singleLayer ? new FeatureLayers() : null;
 
 		ProjectionTransform webMercatorTransform = getWebMercatorTransform();
 		BoundingBox expandedBoundingBox = expandBoundingBox(boundingBox);
 
 		boolean drawn = false;
 		while (resultSet.moveToNext()) {
-			FeatureRow row = resultSet.getRow();
-			if (drawFeature(zoom, boundingBox, expandedBoundingBox,
-					webMercatorTransform, graphics, row)) {
-				drawn = true;
+			if (intersects(expandedBoundingBox, webMercatorTransform,
+					resultSet)) {
+				FeatureRow row = resultSet.getRow();
+				if (drawFeature(zoom, boundingBox, expandedBoundingBox,
+						webMercatorTransform, graphics, layers, row)) {
+					drawn = true;
+				}
 			}
 		}
 		resultSet.close();
 
+		if (layers != null) {
+			drawn = drawLayers(zoom, boundingBox, webMercatorTransform,
+					graphics, layers);
+		}
+
 		BufferedImage image = null;
 		if (drawn) {
 			image = graphics.createImage();
@@ -341,7 +427,8 @@ public class DefaultFeatureTiles extends FeatureTiles {
 			List<FeatureRow> featureRow) {
 
 		FeatureTileGraphics graphics = new FeatureTileGraphics(tileWidth,
-				tileHeight);
+				tileHeight, singleLayer);
+		FeatureLayers layers = singleLayer ? new FeatureLayers() : null;
 
 		ProjectionTransform webMercatorTransform = getWebMercatorTransform();
 		BoundingBox expandedBoundingBox = expandBoundingBox(boundingBox);
@@ -349,11 +436,16 @@ public class DefaultFeatureTiles extends FeatureTiles {
 		boolean drawn = false;
 		for (FeatureRow row : featureRow) {
 			if (drawFeature(zoom, boundingBox, expandedBoundingBox,
-					webMercatorTransform, graphics, row)) {
+					webMercatorTransform, graphics, layers, row)) {
 				drawn = true;
 			}
 		}
 
+		if (layers != null) {
+			drawn = drawLayers(zoom, boundingBox, webMercatorTransform,
+					graphics, layers);
+		}
+
 		BufferedImage image = null;
 		if (drawn) {
 			image = graphics.createImage();
@@ -365,6 +457,39 @@ public class DefaultFeatureTiles extends FeatureTiles {
 		return image;
 	}
 
+	/**
+	 * Determine if the current result set feature may intersect the expanded
+	 * bounding box, checking the geometry envelope without reading the row or
+	 * building the geometry
+	 *
+	 * @param expandedBoundingBox
+	 *            expanded bounding box
+	 * @param transform
+	 *            projection transform
+	 * @param resultSet
+	 *            feature result set positioned at the feature
+	 * @return true if the feature should be drawn
+	 */
+	private boolean intersects(BoundingBox expandedBoundingBox,
+			ProjectionTransform transform, FeatureResultSet resultSet) {
+
+		boolean intersects = true;
+
+		if (!cacheGeometries || !featureGeometryCache.contains(getDatabase(),
+				featureDao.getTableName(), resultSet.getId())) {
+			try {
+				GeometryEnvelope envelope = resultSet.getGeometryEnvelope();
+				intersects = envelope != null
+						&& expandedBoundingBox.intersects(new BoundingBox(
+								envelope).transform(transform), true);
+			} catch (Exception e) {
+				// Leave the feature to be read and drawn
+			}
+		}
+
+		return intersects;
+	}
+
 	/**
 	 * Draw the feature
 	 *
@@ -378,13 +503,17 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	 *            projection transform
 	 * @param graphics
 	 *            graphics to draw on
+	 * @param layers
+	 *            feature layers to add the feature to for drawing in layer
+	 *            order, or null to draw the feature
 	 * @param row
 	 *            feature row
-	 * @return true if at least one feature was drawn
+	 * @return true if at least one feature was drawn or added to the layers
 	 */
 	private boolean drawFeature(int zoom, BoundingBox boundingBox,
 			BoundingBox expandedBoundingBox, ProjectionTransform transform,
-			FeatureTileGraphics graphics, FeatureRow row) {
+			FeatureTileGraphics graphics, FeatureLayers layers,
+			FeatureRow row) {
 
 		boolean drawn = false;
 
@@ -397,7 +526,8 @@ public class DefaultFeatureTiles extends FeatureTiles {
 			// Check the cache for the geometry data
 			if (cacheGeometries) {
 				rowId = row.getId();
-				geomData = geometryCache.get(rowId);
+				geomData = featureGeometryCache.get(getDatabase(),
+						featureDao.getTableName(), rowId);
 				if (geomData != null) {
 					transformedBoundingBox = new BoundingBox(
 							geomData.getEnvelope());
@@ -422,25 +552,41 @@ public class DefaultFeatureTiles extends FeatureTiles {
 								.transform(transform);
 
 						if (cacheGeometries) {
+							long weight = FeatureGeometryCache
+									.weigh(geomData);
+							// Copy geometry data shared with the feature row
+							// cache before replacing the envelope
+							if (featureDao.isCacheEnabled()) {
+								GeoPackageGeometryData cacheGeomData = new GeoPackageGeometryData(
+										geomData.getSrsId());
+								cacheGeomData.setGeometry(geometry);
+								geomData = cacheGeomData;
+							}
 							// Set the geometry envelope to the transformed
 							// bounding box
 							geomData.setEnvelope(transformedBoundingBox
 									.buildEnvelope());
+							// Cache the geometry
+							featureGeometryCache.put(getDatabase(),
+									featureDao.getTableName(), rowId, geomData,
+									weight);
 						}
 					}
 
-					if (cacheGeometries) {
-						// Cache the geometry
-						geometryCache.put(rowId, geomData);
-					}
-
 					if (expandedBoundingBox.intersects(transformedBoundingBox,
 							true)) {
 
-						double simplifyTolerance = TileBoundingBoxUtils
-								.toleranceDistance(zoom, tileWidth, tileHeight);
-						drawn = drawGeometry(simplifyTolerance, boundingBox,
-								transform, graphics, row, geometry);
+						if (layers != null) {
+							layers.add(row, geometry);
+							drawn = true;
+						} else {
+							double simplifyTolerance = TileBoundingBoxUtils
+									.toleranceDistance(zoom, tileWidth,
+											tileHeight);
+							drawn = drawGeometry(simplifyTolerance,
+									boundingBox, transform, graphics, row,
+									geometry, ALL_LAYERS);
+						}
 
 					}
 				}
@@ -453,6 +599,47 @@ public class DefaultFeatureTiles extends FeatureTiles {
 		return drawn;
 	}
 
+	/**
+	 * Draw the features added to the layers, in layer order
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @param boundingBox
+	 *            bounding box
+	 * @param transform
+	 *            projection transform
+	 * @param graphics
+	 *            feature tile graphics
+	 * @param layers
+	 *            feature layers
+	 * @return true if at least one feature was drawn
+	 */
+	private boolean drawLayers(int zoom, BoundingBox boundingBox,
+			ProjectionTransform transform, FeatureTileGraphics graphics,
+			FeatureLayers layers) {
+
+		boolean drawn = false;
+
+		double simplifyTolerance = TileBoundingBoxUtils.toleranceDistance(
+				zoom, tileWidth, tileHeight);
+
+		for (int layer = POLYGON_LAYER; layer <= ICON_LAYER; layer++) {
+			for (LayerFeature feature : layers.get(layer)) {
+				try {
+					drawn = drawGeometry(simplifyTolerance, boundingBox,
+							transform, graphics, feature.row,
+							feature.geometry, layer) || drawn;
+				} catch (Exception e) {
+					log.log(Level.SEVERE,
+							"Failed to draw feature in tile. Table: "
+									+ featureDao.getTableName(), e);
+				}
+			}
+		}
+
+		return drawn;
+	}
+
 	/**
 	 * Draw the geometry
 	 *
@@ -468,12 +655,14 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	 *            feature row
 	 * @param geometry
 	 *            geometry
+	 * @param layer
+	 *            layer to draw, or all layers
 	 * @return true if drawn
 	 */
 	private boolean drawGeometry(double simplifyTolerance,
 			BoundingBox boundingBox, ProjectionTransform transform,
 			FeatureTileGraphics graphics, FeatureRow featureRow,
-			Geometry geometry) {
+			Geometry geometry, int layer) {
 
 		boolean drawn = false;
 
@@ -485,76 +674,76 @@ public class DefaultFeatureTiles extends FeatureTiles {
 		case POINT:
 			Point point = (Point) geometry;
 			drawn = drawPoint(boundingBox, transform, graphics, point,
-					featureStyle);
+					featureStyle, layer);
 			break;
 		case LINESTRING:
 			LineString lineString = (LineString) geometry;
 			drawn = drawLineString(simplifyTolerance, boundingBox, transform,
-					graphics, lineString, featureStyle);
+					graphics, lineString, featureStyle, layer);
 			break;
 		case POLYGON:
 			Polygon polygon = (Polygon) geometry;
 			drawn = drawPolygon(simplifyTolerance, boundingBox, transform,
-					graphics, polygon, featureStyle);
+					graphics, polygon, featureStyle, layer);
 			break;
 		case MULTIPOINT:
 			MultiPoint multiPoint = (MultiPoint) geometry;
 			for (Point p : multiPoint.getPoints()) {
 				drawn = drawPoint(boundingBox, transform, graphics, p,
-						featureStyle) || drawn;
+						featureStyle, layer) || drawn;
 			}
 			break;
 		case MULTILINESTRING:
 			MultiLineString multiLineString = (MultiLineString) geometry;
 			for (LineString ls : multiLineString.getLineStrings()) {
 				drawn = drawLineString(simplifyTolerance, boundingBox,
-						transform, graphics, ls, featureStyle) || drawn;
+						transform, graphics, ls, featureStyle, layer) || drawn;
 			}
 			break;
 		case MULTIPOLYGON:
 			MultiPolygon multiPolygon = (MultiPolygon) geometry;
 			for (Polygon p : multiPolygon.getPolygons()) {
 				drawn = drawPolygon(simplifyTolerance, boundingBox, transform,
-						graphics, p, featureStyle) || drawn;
+						graphics, p, featureStyle, layer) || drawn;
 			}
 			break;
 		case CIRCULARSTRING:
 			CircularString circularString = (CircularString) geometry;
 			drawn = drawLineString(simplifyTolerance, boundingBox, transform,
-					graphics, circularString, featureStyle);
+					graphics, circularString, featureStyle, layer);
 			break;
 		case COMPOUNDCURVE:
 			CompoundCurve compoundCurve = (CompoundCurve) geometry;
 			for (LineString ls : compoundCurve.getLineStrings()) {
 				drawn = drawLineString(simplifyTolerance, boundingBox,
-						transform, graphics, ls, featureStyle) || drawn;
+						transform, graphics, ls, featureStyle, layer) || drawn;
 			}
 			break;
 		case POLYHEDRALSURFACE:
 			PolyhedralSurface polyhedralSurface = (PolyhedralSurface) geometry;
 			for (Polygon p : polyhedralSurface.getPolygons()) {
 				drawn = drawPolygon(simplifyTolerance, boundingBox, transform,
-						graphics, p, featureStyle) || drawn;
+						graphics, p, featureStyle, layer) || drawn;
 			}
 			break;
 		case TIN:
 			TIN tin = (TIN) geometry;
 			for (Polygon p : tin.getPolygons()) {
 				drawn = drawPolygon(simplifyTolerance, boundingBox, transform,
-						graphics, p, featureStyle) || drawn;
+						graphics, p, featureStyle, layer) || drawn;
 			}
 			break;
 		case TRIANGLE:
 			Triangle triangle = (Triangle) geometry;
 			drawn = drawPolygon(simplifyTolerance, boundingBox, transform,
-					graphics, triangle, featureStyle);
+					graphics, triangle, featureStyle, layer);
 			break;
 		case GEOMETRYCOLLECTION:
 			@SuppressWarnings("unchecked")
 			GeometryCollection<Geometry> geometryCollection = (GeometryCollection<Geometry>) geometry;
 			for (Geometry g : geometryCollection.getGeometries()) {
 				drawn = drawGeometry(simplifyTolerance, boundingBox, transform,
-						graphics, featureRow, g) || drawn;
+						graphics, featureRow, g, layer) || drawn;
 			}
 			break;
 		default:
@@ -580,15 +769,21 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	 *            line string
 	 * @param featureStyle
 	 *            feature style
+	 * @param layer
+	 *            layer to draw, or all layers
 	 * @return true if drawn
 	 */
 	private boolean drawLineString(double simplifyTolerance,
 			BoundingBox boundingBox, ProjectionTransform transform,
 			FeatureTileGraphics graphics, LineString lineString,
-			FeatureStyle featureStyle) {
-		Path2D path = getPath(simplifyTolerance, boundingBox, transform,
-				lineString);
-		return drawLine(graphics, path, featureStyle);
+			FeatureStyle featureStyle, int layer) {
+		boolean drawn = false;
+		if (layer == ALL_LAYERS || layer == LINE_LAYER) {
+			Path2D path = getPath(simplifyTolerance, boundingBox, transform,
+					lineString);
+			drawn = drawLine(graphics, path, featureStyle);
+		}
+		return drawn;
 	}
 
 	/**
@@ -606,15 +801,21 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	 *            polygon
 	 * @param featureStyle
 	 *            feature style
+	 * @param layer
+	 *            layer to draw, or all layers
 	 * @return true if drawn
 	 */
 	private boolean drawPolygon(double simplifyTolerance,
 			BoundingBox boundingBox, ProjectionTransform transform,
 			FeatureTileGraphics graphics, Polygon polygon,
-			FeatureStyle featureStyle) {
-		Area polygonArea = getArea(simplifyTolerance, boundingBox, transform,
-				polygon);
-		return drawPolygon(graphics, polygonArea, featureStyle);
+			FeatureStyle featureStyle, int layer) {
+		boolean drawn = false;
+		if (layer == ALL_LAYERS || layer == POLYGON_LAYER) {
+			Area polygonArea = getArea(simplifyTolerance, boundingBox,
+					transform, polygon);
+			drawn = drawPolygon(graphics, polygonArea, featureStyle);
+		}
+		return drawn;
 	}
 
 	/**
@@ -732,11 +933,17 @@ public class DefaultFeatureTiles extends FeatureTiles {
 
 		Graphics2D polygonGraphics = graphics.getPolygonGraphics();
 
+		java.awt.Rectangle tileBounds = new java.awt.Rectangle(tileWidth,
+				tileHeight);
+
+		boolean drawn = false;
+
 		Paint fillPaint = getPolygonFillPaint(featureStyle);
-		if (fillPaint != null) {
+		if (fillPaint != null && polygon.intersects(tileBounds)) {
 
 			polygonGraphics.setColor(fillPaint.getColor());
 			polygonGraphics.fill(polygon);
+			drawn = true;
 
 		}
 
@@ -744,10 +951,9 @@ public class DefaultFeatureTiles extends FeatureTiles {
 		polygonGraphics.setColor(paint.getColor());
 		polygonGraphics.setStroke(paint.getStroke());
 
-		boolean drawn = polygonGraphics.hit(new java.awt.Rectangle(tileWidth,
-				tileHeight), polygon, true);
-		if (drawn) {
+		if (polygonGraphics.hit(tileBounds, polygon, true)) {
 			polygonGraphics.draw(polygon);
+			drawn = true;
 		}
 
 		return drawn;
@@ -766,14 +972,24 @@ public class DefaultFeatureTiles extends FeatureTiles {
 	 *            point
 	 * @param featureStyle
 	 *            feature style
+	 * @param layer
+	 *            layer to draw, or all layers
 	 * @return true if drawn
 	 */
 	private boolean drawPoint(BoundingBox boundingBox,
 			ProjectionTransform transform, FeatureTileGraphics graphics,
-			Point point, FeatureStyle featureStyle) {
+			Point point, FeatureStyle featureStyle, int layer) {
 
 		boolean drawn = false;
 
+		if (layer != ALL_LAYERS) {
+			boolean icon = (featureStyle != null && featureStyle.hasIcon())
+					|| pointIcon != null;
+			if (layer != (icon ? ICON_LAYER : POINT_LAYER)) {
+				return drawn;
+			}
+		}
+
 		Point projectedPoint = transform.transform(point);
 
 		float x = TileBoundingBoxUtils.getXPixel(tileWidth, boundingBox,
@@ -849,4 +1065,189 @@ public class DefaultFeatureTiles extends FeatureTiles {
 		return drawn;
 	}
 
+	/**
+	 * Features of a tile grouped by the layers they draw to, in feature order
+	 */
+	private static class FeatureLayers {
+
+		/**
+		 * Polygon layer features
+		 */
+		private final List<LayerFeature> polygons = new ArrayList<>();
+
+		/**
+		 * Line layer features
+		 */
+		private final List<LayerFeature> lines = new ArrayList<>();
+
+		/**
+		 * Point and icon layer features
+		 */
+		private final List<LayerFeature> points = new ArrayList<>();
+
+		/**
+		 * Add a feature geometry to the layers it draws to
+		 *
+		 * @param row
+		 *            feature row
+		 * @param geometry
+		 *            geometry
+		 */
+		private void add(FeatureRow row, Geometry geometry) {
+			LayerFeature feature = new LayerFeature(row, geometry);
+			switch (geometry.getGeometryType()) {
+			case POINT:
+			case MULTIPOINT:
+				points.add(feature);
+				break;
+			case LINESTRING:
+			case MULTILINESTRING:
+			case CIRCULARSTRING:
+			case COMPOUNDCURVE:
+				lines.add(feature);
+				break;
+			case POLYGON:
+			case MULTIPOLYGON:
+			case POLYHEDRALSURFACE:
+			case TIN:
+			case TRIANGLE:
+				polygons.add(feature);
+				break;
+			default:
+				polygons.add(feature);
+				lines.add(feature);
+				points.add(feature);
+			}
+		}
+
+		/**
+		 * Get the features drawing to the layer
+		 *
+		 * @param layer
+		 *            layer
+		 * @return layer features
+		 */
+		private List<LayerFeature> get(int layer) {
+			List<LayerFeature> features;
+			switch (layer) {
+			case POLYGON_LAYER:
+				features = polygons;
+				break;
+			case LINE_LAYER:
+				features = lines;
+				break;
+			default:
+				features = points;
+			}
+			return features;
+		}
+
+	}
+
+	/**
+	 * Feature row and geometry to draw
+	 */
+	private static class LayerFeature {
+
+		/**
+		 * Feature row
+		 */
+		private final FeatureRow row;
+
+		/**
+		 * Geometry
+		 */
+		private final Geometry geometry;
+
+		/**
+		 * Constructor
+		 *
+		 * @param row
+		 *            feature row
+		 * @param geometry
+		 *            geometry
+		 */
+		private LayerFeature(FeatureRow row, Geometry geometry) {
+			this.row = row;
+			this.geometry = geometry;
+		}
+
+	}
+
+	/**
+	 * Deprecated geometry cache map view of the feature table geometries in
+	 * the feature geometry cache
+	 */
+	private class GeometryCacheView extends
+			AbstractMap<Long, GeoPackageGeometryData> {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public GeoPackageGeometryData get(Object key) {
+			GeoPackageGeometryData geometryData = null;
+			if (key instanceof Long) {
+				geometryData = featureGeometryCache.get(getDatabase(),
+						featureDao.getTableName(), (Long) key);
+			}
+			return geometryData;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean containsKey(Object key) {
+			return key instanceof Long
+					&& featureGeometryCache.contains(getDatabase(),
+							featureDao.getTableName(), (Long) key);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public GeoPackageGeometryData put(Long key,
+				GeoPackageGeometryData value) {
+			GeoPackageGeometryData previous = featureGeometryCache.remove(
+					getDatabase(), featureDao.getTableName(), key);
+			featureGeometryCache.put(getDatabase(), featureDao.getTableName(),
+					key, value);
+			return previous;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public GeoPackageGeometryData remove(Object key) {
+			GeoPackageGeometryData geometryData = null;
+			if (key instanceof Long) {
+				geometryData = featureGeometryCache.remove(getDatabase(),
+						featureDao.getTableName(), (Long) key);
+			}
+			return geometryData;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void clear() {
+			clearGeometryCache();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Set<Map.Entry<Long, GeoPackageGeometryData>> entrySet() {
+			return Collections.unmodifiableSet(featureGeometryCache
+					.getGeometries(getDatabase(), featureDao.getTableName())
+					.entrySet());
+		}
+
+	}
+
 }
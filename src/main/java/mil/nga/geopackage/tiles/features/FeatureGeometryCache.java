@@ -0,0 +1,477 @@
+package mil.nga.geopackage.tiles.features;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+
+/**
+ * Feature Geometry Cache of drawn feature geometries keyed by database, table
+ * name, and feature id. The database is the GeoPackage database identity (see
+ * {@link GeoPackageConnection#getDatabaseIdentity()}), keeping features of
+ * the same table name and id in different GeoPackages apart. The cache is
+ * bounded by an approximate byte weight of the retained geometries, evicting
+ * the least recently used. All methods are thread safe, allowing a single
+ * cache to be shared by multiple feature tile renderers and threads drawing
+ * features from one or more GeoPackages.
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class FeatureGeometryCache {
+
+	/**
+	 * Default max approximate bytes of geometries to retain
+	 */
+	public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+	/**
+	 * Approximate bytes of a cache entry, excluding the geometry
+	 */
+	public static final int ENTRY_WEIGHT = 128;
+
+	/**
+	 * Approximate bytes of a geometry without encoded bytes to measure
+	 */
+	public static final int DEFAULT_GEOMETRY_WEIGHT = 1024;
+
+	/**
+	 * Approximate factor of parsed geometry bytes to encoded geometry bytes
+	 */
+	private static final int GEOMETRY_BYTES_FACTOR = 3;
+
+	/**
+	 * Cached geometries and weights, in access order
+	 */
+	private final Map<Key, Value> cache = new LinkedHashMap<>(16, .75f, true);
+
+	/**
+	 * Max approximate bytes
+	 */
+	private long maxBytes;
+
+	/**
+	 * Current approximate bytes
+	 */
+	private long bytes = 0;
+
+	/**
+	 * Cache hits
+	 */
+	private long hits = 0;
+
+	/**
+	 * Cache misses
+	 */
+	private long misses = 0;
+
+	/**
+	 * Evicted geometries
+	 */
+	private long evictions = 0;
+
+	/**
+	 * Constructor
+	 */
+	public FeatureGeometryCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxBytes
+	 *            max approximate bytes of geometries to retain
+	 */
+	public FeatureGeometryCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Get the approximate byte weight of geometry data, measured from the
+	 * encoded geometry bytes when available
+	 *
+	 * @param geometryData
+	 *            geometry data
+	 * @return approximate bytes
+	 */
+	public static long weigh(GeoPackageGeometryData geometryData) {
+		long weight = ENTRY_WEIGHT;
+		byte[] geometryBytes = geometryData.getBytes();
+		if (geometryBytes != null) {
+			weight += (long) geometryBytes.length * GEOMETRY_BYTES_FACTOR;
+		} else {
+			weight += DEFAULT_GEOMETRY_WEIGHT;
+		}
+		return weight;
+	}
+
+	/**
+	 * Get the max approximate bytes of geometries to retain
+	 *
+	 * @return max bytes
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Get the current approximate bytes of retained geometries
+	 *
+	 * @return bytes
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Get the number of retained geometries
+	 *
+	 * @return geometry count
+	 */
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Get the cached geometry data for the table feature
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param featureId
+	 *            feature id
+	 * @return geometry data or null
+	 */
+	public synchronized GeoPackageGeometryData get(String database,
+			String table, long featureId) {
+		Value value = cache.get(new Key(database, table, featureId));
+		GeoPackageGeometryData geometryData = null;
+		if (value != null) {
+			geometryData = value.geometryData;
+			hits++;
+		} else {
+			misses++;
+		}
+		return geometryData;
+	}
+
+	/**
+	 * Determine if the table feature is cached, without counting a hit or
+	 * miss
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param featureId
+	 *            feature id
+	 * @return true if cached
+	 */
+	public synchronized boolean contains(String database, String table,
+			long featureId) {
+		return cache.containsKey(new Key(database, table, featureId));
+	}
+
+	/**
+	 * Cache the geometry data for the table feature, weighed from the
+	 * geometry data
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param featureId
+	 *            feature id
+	 * @param geometryData
+	 *            geometry data
+	 * @return true if cached, false if heavier than the max bytes
+	 */
+	public boolean put(String database, String table, long featureId,
+			GeoPackageGeometryData geometryData) {
+		return put(database, table, featureId, geometryData,
+				weigh(geometryData));
+	}
+
+	/**
+	 * Cache the geometry data for the table feature
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param featureId
+	 *            feature id
+	 * @param geometryData
+	 *            geometry data
+	 * @param weight
+	 *            approximate bytes, see {@link #weigh(GeoPackageGeometryData)}
+	 * @return true if cached, false if heavier than the max bytes
+	 */
+	public synchronized boolean put(String database, String table,
+			long featureId, GeoPackageGeometryData geometryData, long weight) {
+		Key key = new Key(database, table, featureId);
+		Value previous = cache.remove(key);
+		if (previous != null) {
+			bytes -= previous.weight;
+		}
+		boolean cached = weight <= maxBytes;
+		if (cached) {
+			cache.put(key, new Value(geometryData, weight));
+			bytes += weight;
+			evict();
+		}
+		return cached;
+	}
+
+	/**
+	 * Remove the cached geometry data for the table feature
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @param featureId
+	 *            feature id
+	 * @return removed geometry data or null
+	 */
+	public synchronized GeoPackageGeometryData remove(String database,
+			String table, long featureId) {
+		Value value = cache.remove(new Key(database, table, featureId));
+		GeoPackageGeometryData geometryData = null;
+		if (value != null) {
+			bytes -= value.weight;
+			geometryData = value.geometryData;
+		}
+		return geometryData;
+	}
+
+	/**
+	 * Clear the cache
+	 */
+	public synchronized void clear() {
+		cache.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Clear the cached geometries of the database table
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 */
+	public synchronized void clear(String database, String table) {
+		Iterator<Map.Entry<Key, Value>> entries = cache.entrySet()
+				.iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Key, Value> entry = entries.next();
+			if (entry.getKey().matches(database, table)) {
+				bytes -= entry.getValue().weight;
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Get a snapshot of the cached geometries of the database table by
+	 * feature id, without counting hits or changing the access order
+	 *
+	 * @param database
+	 *            database identity
+	 * @param table
+	 *            table name
+	 * @return geometry data by feature id
+	 */
+	public synchronized Map<Long, GeoPackageGeometryData> getGeometries(
+			String database, String table) {
+		Map<Long, GeoPackageGeometryData> geometries = new LinkedHashMap<>();
+		for (Map.Entry<Key, Value> entry : cache.entrySet()) {
+			Key key = entry.getKey();
+			if (key.matches(database, table)) {
+				geometries.put(key.featureId, entry.getValue().geometryData);
+			}
+		}
+		return geometries;
+	}
+
+	/**
+	 * Resize the cache
+	 *
+	 * @param maxBytes
+	 *            max approximate bytes of geometries to retain
+	 */
+	public synchronized void resize(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/**
+	 * Get the number of cache hits
+	 *
+	 * @return hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of cache misses
+	 *
+	 * @return misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the number of geometries evicted to stay within the max bytes
+	 *
+	 * @return evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Get the cache hit rate
+	 *
+	 * @return hit rate between 0.0 and 1.0, 0.0 when no requests
+	 */
+	public synchronized double getHitRate() {
+		long requests = hits + misses;
+		return requests > 0 ? (double) hits / requests : 0.0;
+	}
+
+	/**
+	 * Reset the hit, miss, and eviction statistics
+	 */
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	/**
+	 * Evict the least recently used geometries until within the max bytes
+	 */
+	private void evict() {
+		Iterator<Value> values = cache.values().iterator();
+		while (bytes > maxBytes && values.hasNext()) {
+			bytes -= values.next().weight;
+			values.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Database table feature key
+	 */
+	private static class Key {
+
+		/**
+		 * Database identity
+		 */
+		private final String database;
+
+		/**
+		 * Table name
+		 */
+		private final String table;
+
+		/**
+		 * Feature id
+		 */
+		private final long featureId;
+
+		/**
+		 * Constructor
+		 *
+		 * @param database
+		 *            database identity
+		 * @param table
+		 *            table name
+		 * @param featureId
+		 *            feature id
+		 */
+		private Key(String database, String table, long featureId) {
+			this.database = database;
+			this.table = table;
+			this.featureId = featureId;
+		}
+
+		/**
+		 * Determine if the key is of the database table
+		 *
+		 * @param database
+		 *            database identity
+		 * @param table
+		 *            table name
+		 * @return true if a match
+		 */
+		private boolean matches(String database, String table) {
+			return this.database.equals(database) && this.table.equals(table);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			int hash = 31 * database.hashCode() + table.hashCode();
+			return 31 * hash + Long.hashCode(featureId);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return featureId == other.featureId && table.equals(other.table)
+					&& database.equals(other.database);
+		}
+
+	}
+
+	/**
+	 * Cached geometry data and weight
+	 */
+	private static class Value {
+
+		/**
+		 * Geometry data
+		 */
+		private final GeoPackageGeometryData geometryData;
+
+		/**
+		 * Approximate bytes
+		 */
+		private final long weight;
+
+		/**
+		 * Constructor
+		 *
+		 * @param geometryData
+		 *            geometry data
+		 * @param weight
+		 *            approximate bytes
+		 */
+		private Value(GeoPackageGeometryData geometryData, long weight) {
+			this.geometryData = geometryData;
+			this.weight = weight;
+		}
+
+	}
+
+}
@@ -59,7 +59,7 @@ public class FeaturePaintCache {
 	/**
 	 * Clear the cache
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		paintCache.clear();
 	}
 
@@ -69,7 +69,7 @@ public class FeaturePaintCache {
 	 * @param maxSize
 	 *            max size
 	 */
-	public void resize(int maxSize) {
+	public synchronized void resize(int maxSize) {
 		cacheSize = maxSize;
 		if (paintCache.size() > maxSize) {
 			int count = 0;
@@ -101,7 +101,7 @@ public class FeaturePaintCache {
 	 *            style row id
 	 * @return feature paint
 	 */
-	public FeaturePaint getFeaturePaint(long styleId) {
+	public synchronized FeaturePaint getFeaturePaint(long styleId) {
 		return paintCache.get(styleId);
 	}
 
@@ -127,7 +127,7 @@ public class FeaturePaintCache {
 	 *            feature draw type
 	 * @return paint
 	 */
-	public Paint getPaint(long styleId, FeatureDrawType type) {
+	public synchronized Paint getPaint(long styleId, FeatureDrawType type) {
 		Paint paint = null;
 		FeaturePaint featurePaint = getFeaturePaint(styleId);
 		if (featurePaint != null) {
@@ -160,7 +160,8 @@ public class FeaturePaintCache {
 	 * @param paint
 	 *            paint
 	 */
-	public void setPaint(long styleId, FeatureDrawType type, Paint paint) {
+	public synchronized void setPaint(long styleId, FeatureDrawType type,
+			Paint paint) {
 		FeaturePaint featurePaint = getFeaturePaint(styleId);
 		if (featurePaint == null) {
 			featurePaint = new FeaturePaint();
@@ -1,7 +1,15 @@
 package mil.nga.geopackage.tiles.features;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.db.GeoPackageConnectionPool;
 import mil.nga.geopackage.extension.link.FeatureTileTableLinker;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileGenerator;
@@ -11,13 +19,21 @@ import mil.nga.sf.proj.ProjectionConstants;
 import mil.nga.sf.proj.ProjectionTransform;
 
 /**
- * Creates a set of tiles within a GeoPackage by generating tiles from features
+ * Creates a set of tiles within a GeoPackage by generating tiles from features.
+ * When generating on multiple threads, each thread queries features through
+ * its own read connection of the feature GeoPackage connection pool.
  *
  * @author osbornb
  * @since 1.1.2
  */
 public class FeatureTileGenerator extends TileGenerator {
 
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(FeatureTileGenerator.class.getName());
+
 	/**
 	 * Feature tiles
 	 */
@@ -221,6 +237,69 @@ public class FeatureTileGenerator extends TileGenerator {
 		this.linkTables = linkTables;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * When generating on multiple threads and the feature GeoPackage is not
+	 * already pooled, a read connection pool with a reader per thread, plus
+	 * one for the generating thread, is enabled for the generation and then
+	 * disabled. An already enabled pool is used as is, with threads beyond its
+	 * readers reading through the writer connection. Features are queried
+	 * through the per thread read connections while tiles are written on the
+	 * generating thread. Geometry index queries of the GeoPackage index
+	 * extension share the connection source connection.
+	 */
+	@Override
+	public int generateTiles() throws SQLException, IOException {
+
+		GeoPackageConnection db = featureTiles.getFeatureDao().getDb();
+		boolean enabled = false;
+		if (getThreads() > 1 && !db.isPooled() && db.getFile() != null) {
+			try {
+				db.enablePool(getThreads() + 1);
+				enabled = true;
+			} catch (GeoPackageException e) {
+				LOGGER.log(Level.WARNING,
+						"Failed to enable the read connection pool for tile creation threads. Feature Table: "
+								+ featureTiles.getFeatureDao().getTableName(),
+						e);
+			}
+		}
+
+		try {
+			return super.generateTiles();
+		} finally {
+			if (enabled) {
+				db.disablePool();
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Supported when the feature GeoPackage reads through a read connection
+	 * pool
+	 */
+	@Override
+	protected boolean supportsThreads() {
+		return featureTiles.getFeatureDao().getDb().isPooled();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Releases the read connection of the thread back to the pool
+	 */
+	@Override
+	protected void postThreadTileCreation() {
+		GeoPackageConnectionPool pool = featureTiles.getFeatureDao().getDb()
+				.getPool();
+		if (pool != null) {
+			pool.releaseReadConnection();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,6 @@
 package mil.nga.geopackage.tiles.features;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
@@ -8,6 +9,11 @@ import java.awt.image.BufferedImage;
  * Feature Tile Graphics for creating layered tiles to draw ordered features.
  * Draw Order: polygons, lines, points, icons
  *
+ * In single layer mode, all layers share one image taken from a per thread
+ * pool, and features must be drawn in layer order. The created image may be
+ * returned to the pool with {@link #recycle(BufferedImage)} once no longer
+ * used.
+ *
  * @author osbornb
  * @since 3.2.0
  */
@@ -33,6 +39,16 @@ public class FeatureTileGraphics {
 	 */
 	private static final int ICON_LAYER = 3;
 
+	/**
+	 * Per thread pool of a single layer image
+	 */
+	private static final ThreadLocal<ImagePool> IMAGE_POOL = new ThreadLocal<ImagePool>() {
+		@Override
+		protected ImagePool initialValue() {
+			return new ImagePool();
+		}
+	};
+
 	/**
 	 * Tile width
 	 */
@@ -53,6 +69,11 @@ public class FeatureTileGraphics {
 	 */
 	private final Graphics2D[] layeredGraphics = new Graphics2D[4];
 
+	/**
+	 * Single layer flag
+	 */
+	private final boolean singleLayer;
+
 	/**
 	 * Constructor
 	 *
@@ -62,8 +83,54 @@ public class FeatureTileGraphics {
 	 *            tile height
 	 */
 	public FeatureTileGraphics(int tileWidth, int tileHeight) {
+		this(tileWidth, tileHeight, false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tileWidth
+	 *            tile width
+	 * @param tileHeight
+	 *            tile height
+	 * @param singleLayer
+	 *            true to draw all layers into a single pooled image
+	 * @since 3.4.1
+	 */
+	public FeatureTileGraphics(int tileWidth, int tileHeight,
+			boolean singleLayer) {
 		this.tileWidth = tileWidth;
 		this.tileHeight = tileHeight;
+		this.singleLayer = singleLayer;
+	}
+
+	/**
+	 * Return an image created in single layer mode to the pool of the current
+	 * thread. Images not created in single layer mode on the current thread
+	 * are ignored. The image must no longer be used once recycled.
+	 *
+	 * @param image
+	 *            image
+	 * @since 3.4.1
+	 */
+	public static void recycle(BufferedImage image) {
+		if (image != null) {
+			ImagePool pool = IMAGE_POOL.get();
+			if (pool.created == image) {
+				pool.created = null;
+				pool.image = image;
+			}
+		}
+	}
+
+	/**
+	 * Is single layer mode, drawing all layers into one image
+	 *
+	 * @return true if single layer
+	 * @since 3.4.1
+	 */
+	public boolean isSingleLayer() {
+		return singleLayer;
 	}
 
 	/**
@@ -145,6 +212,10 @@ public class FeatureTileGraphics {
 	 */
 	public BufferedImage createImage() {
 
+		if (singleLayer) {
+			return createSingleLayerImage();
+		}
+
 		BufferedImage image = null;
 		Graphics2D graphics = null;
 
@@ -175,10 +246,29 @@ public class FeatureTileGraphics {
 		return image;
 	}
 
+	/**
+	 * Create the final image of a single layer, resets the layer
+	 *
+	 * @return image
+	 */
+	private BufferedImage createSingleLayerImage() {
+		BufferedImage image = layeredImage[0];
+		if (image != null) {
+			layeredGraphics[0].dispose();
+			layeredImage[0] = null;
+			layeredGraphics[0] = null;
+			IMAGE_POOL.get().created = image;
+		}
+		return image;
+	}
+
 	/**
 	 * Dispose of the layered graphics and images
 	 */
 	public void dispose() {
+		if (singleLayer && layeredImage[0] != null) {
+			recycle(createSingleLayerImage());
+		}
 		for (int layer = 0; layer < 4; layer++) {
 			Graphics2D graphics = layeredGraphics[layer];
 			if (graphics != null) {
@@ -201,6 +291,9 @@ public class FeatureTileGraphics {
 	 * @return bitmap
 	 */
 	private BufferedImage getImage(int layer) {
+		if (singleLayer) {
+			layer = 0;
+		}
 		BufferedImage image = layeredImage[layer];
 		if (image == null) {
 			createImageAndGraphics(layer);
@@ -217,6 +310,9 @@ public class FeatureTileGraphics {
 	 * @return graphics
 	 */
 	private Graphics2D getGraphics(int layer) {
+		if (singleLayer) {
+			layer = 0;
+		}
 		Graphics2D graphics = layeredGraphics[layer];
 		if (graphics == null) {
 			createImageAndGraphics(layer);
@@ -232,12 +328,47 @@ public class FeatureTileGraphics {
 	 *            layer index
 	 */
 	private void createImageAndGraphics(int layer) {
-		layeredImage[layer] = new BufferedImage(tileWidth, tileHeight,
-				BufferedImage.TYPE_INT_ARGB);
-		layeredGraphics[layer] = layeredImage[layer].createGraphics();
+		BufferedImage pooledImage = null;
+		if (singleLayer) {
+			ImagePool pool = IMAGE_POOL.get();
+			pooledImage = pool.image;
+			pool.image = null;
+			if (pooledImage != null && (pooledImage.getWidth() != tileWidth
+					|| pooledImage.getHeight() != tileHeight)) {
+				pooledImage = null;
+			}
+		}
+		if (pooledImage != null) {
+			layeredImage[layer] = pooledImage;
+			layeredGraphics[layer] = pooledImage.createGraphics();
+			layeredGraphics[layer].setComposite(AlphaComposite.Clear);
+			layeredGraphics[layer].fillRect(0, 0, tileWidth, tileHeight);
+			layeredGraphics[layer].setComposite(AlphaComposite.SrcOver);
+		} else {
+			layeredImage[layer] = new BufferedImage(tileWidth, tileHeight,
+					BufferedImage.TYPE_INT_ARGB);
+			layeredGraphics[layer] = layeredImage[layer].createGraphics();
+		}
 		layeredGraphics[layer].setRenderingHint(
 				RenderingHints.KEY_ANTIALIASING,
 				RenderingHints.VALUE_ANTIALIAS_ON);
 	}
 
+	/**
+	 * Per thread pool of a single layer image
+	 */
+	private static class ImagePool {
+
+		/**
+		 * Idle image available for drawing
+		 */
+		private BufferedImage image;
+
+		/**
+		 * Image most recently created from the pool, accepted when recycled
+		 */
+		private BufferedImage created;
+
+	}
+
 }
@@ -4,7 +4,6 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
@@ -18,6 +17,7 @@ import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.extension.index.FeatureTableIndex;
 import mil.nga.geopackage.extension.index.GeometryIndex;
 import mil.nga.geopackage.extension.style.FeatureStyle;
+import mil.nga.geopackage.extension.style.FeatureStyleResolver;
 import mil.nga.geopackage.extension.style.FeatureTableStyles;
 import mil.nga.geopackage.extension.style.IconCache;
 import mil.nga.geopackage.extension.style.IconDao;
@@ -29,7 +29,9 @@ import mil.nga.geopackage.features.user.FeatureResultSet;
 import mil.nga.geopackage.features.user.FeatureRow;
 import mil.nga.geopackage.property.GeoPackageJavaProperties;
 import mil.nga.geopackage.property.JavaPropertyConstants;
+import mil.nga.geopackage.tiles.ImageEncodeOptions;
 import mil.nga.geopackage.tiles.ImageUtils;
+import mil.nga.geopackage.tiles.ImageWriterPool;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileUtils;
 import mil.nga.sf.GeometryType;
@@ -90,6 +92,12 @@ public abstract class FeatureTiles {
 	 */
 	protected FeatureTableStyles featureTableStyles;
 
+	/**
+	 * Feature style resolver of the feature table styles, resolving feature
+	 * styles from bulk loaded style mappings
+	 */
+	protected FeatureStyleResolver featureStyleResolver;
+
 	/**
 	 * Tile height
 	 */
@@ -105,6 +113,11 @@ public abstract class FeatureTiles {
 	 */
 	protected String compressFormat;
 
+	/**
+	 * PNG compression level
+	 */
+	protected Integer compressionLevel;
+
 	/**
 	 * Point radius
 	 */
@@ -197,6 +210,12 @@ public abstract class FeatureTiles {
 	 */
 	protected float scale = 1.0f;
 
+	/**
+	 * When true, features are drawn in layer order into a single pooled image
+	 * instead of separate layer images. Default is false
+	 */
+	protected boolean singleLayer = false;
+
 	/**
 	 * Constructor
 	 *
@@ -362,6 +381,9 @@ public abstract class FeatureTiles {
 					featureDao.getTable());
 			if (!featureTableStyles.has()) {
 				featureTableStyles = null;
+			} else {
+				featureStyleResolver = new FeatureStyleResolver(
+						featureTableStyles);
 			}
 
 		}
@@ -571,6 +593,18 @@ public abstract class FeatureTiles {
 	 */
 	public void setFeatureTableStyles(FeatureTableStyles featureTableStyles) {
 		this.featureTableStyles = featureTableStyles;
+		featureStyleResolver = featureTableStyles != null ? new FeatureStyleResolver(
+				featureTableStyles) : null;
+	}
+
+	/**
+	 * Get the feature style resolver of the feature table styles
+	 *
+	 * @return feature style resolver
+	 * @since 3.4.1
+	 */
+	public FeatureStyleResolver getFeatureStyleResolver() {
+		return featureStyleResolver;
 	}
 
 	/**
@@ -591,6 +625,9 @@ public abstract class FeatureTiles {
 	public void clearCache() {
 		clearStylePaintCache();
 		clearIconCache();
+		if (featureStyleResolver != null) {
+			featureStyleResolver.clear();
+		}
 	}
 
 	/**
@@ -690,6 +727,30 @@ public abstract class FeatureTiles {
 		this.compressFormat = compressFormat;
 	}
 
+	/**
+	 * Get the PNG compression level
+	 *
+	 * @return compression level or null
+	 * @since 3.4.1
+	 */
+	public Integer getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/**
+	 * Set the PNG compression level (0 to 9) used when the compress format is
+	 * png. Lower levels compress faster with larger tiles. Requires Java 9 or
+	 * later, see {@link ImageEncodeOptions#setCompressionLevel(Integer)}.
+	 *
+	 * @param compressionLevel
+	 *            compression level or null for the writer default
+	 * @since 3.4.1
+	 */
+	public void setCompressionLevel(Integer compressionLevel) {
+		ImageEncodeOptions.validateCompressionLevel(compressionLevel);
+		this.compressionLevel = compressionLevel;
+	}
+
 	/**
 	 * Get the point radius
 	 *
@@ -931,6 +992,31 @@ public abstract class FeatureTiles {
 		this.simplifyGeometries = simplifyGeometries;
 	}
 
+	/**
+	 * Is the single layer flag set? Default is false
+	 *
+	 * @return single layer flag
+	 * @since 3.4.1
+	 */
+	public boolean isSingleLayer() {
+		return singleLayer;
+	}
+
+	/**
+	 * Set the single layer flag. When true, features are drawn in layer order
+	 * (polygons, lines, points, icons) into a single image reused per thread,
+	 * instead of compositing an image per layer. Images returned by the draw
+	 * tile methods are owned by the caller, while tile bytes drawn by
+	 * {@link #drawTileBytes(int, int, int)} return the image for reuse.
+	 *
+	 * @param singleLayer
+	 *            single layer flag
+	 * @since 3.4.1
+	 */
+	public void setSingleLayer(boolean singleLayer) {
+		this.singleLayer = singleLayer;
+	}
+
 	/**
 	 * Draw the tile and get the bytes from the x, y, and zoom level
 	 *
@@ -951,11 +1037,15 @@ public abstract class FeatureTiles {
 		// Convert the image to bytes
 		if (image != null) {
 			try {
-				tileData = ImageUtils.writeImageToBytes(image, compressFormat);
+				ImageEncodeOptions options = new ImageEncodeOptions(
+						compressFormat);
+				options.setCompressionLevel(compressionLevel);
+				tileData = ImageWriterPool.writeImageToBytes(image, options);
 			} catch (IOException e) {
 				LOGGER.log(Level.SEVERE, "Failed to create tile. x: " + x
 						+ ", y: " + y + ", zoom: " + zoom, e);
 			}
+			FeatureTileGraphics.recycle(image);
 		}
 
 		return tileData;
@@ -1252,10 +1342,18 @@ public abstract class FeatureTiles {
 
 		try {
 
-			int totalCount = resultSet.getCount();
-
 			// Draw if at least one geometry exists
-			if (totalCount > 0) {
+			if (!resultSet.isEmpty()) {
+
+				// Only count when limited, counting even when the result
+				// count mode is disabled
+				int totalCount = -1;
+				if (maxFeaturesPerTile != null) {
+					totalCount = resultSet.getCount();
+					if (totalCount < 0) {
+						totalCount = featureDao.count();
+					}
+				}
 
 				if (maxFeaturesPerTile == null
 						|| totalCount <= maxFeaturesPerTile) {
@@ -1363,8 +1461,8 @@ public abstract class FeatureTiles {
 	 */
 	protected FeatureStyle getFeatureStyle(FeatureRow featureRow) {
 		FeatureStyle featureStyle = null;
-		if (featureTableStyles != null) {
-			featureStyle = featureTableStyles.getFeatureStyle(featureRow);
+		if (featureStyleResolver != null) {
+			featureStyle = featureStyleResolver.getFeatureStyle(featureRow);
 		}
 		return featureStyle;
 	}
@@ -1381,8 +1479,8 @@ public abstract class FeatureTiles {
 	protected FeatureStyle getFeatureStyle(FeatureRow featureRow,
 			GeometryType geometryType) {
 		FeatureStyle featureStyle = null;
-		if (featureTableStyles != null) {
-			featureStyle = featureTableStyles.getFeatureStyle(featureRow,
+		if (featureStyleResolver != null) {
+			featureStyle = featureStyleResolver.getFeatureStyle(featureRow,
 					geometryType);
 		}
 		return featureStyle;
@@ -1582,22 +1680,7 @@ public abstract class FeatureTiles {
 	 * @return true if transparent
 	 */
 	protected boolean isTransparent(BufferedImage image) {
-		boolean transparent = false;
-		if (image != null) {
-			WritableRaster raster = image.getAlphaRaster();
-			if (raster != null) {
-				transparent = true;
-				done: for (int x = 0; x < image.getWidth(); x++) {
-					for (int y = 0; y < image.getHeight(); y++) {
-						if (raster.getSample(x, y, 0) > 0) {
-							transparent = false;
-							break done;
-						}
-					}
-				}
-			}
-		}
-		return transparent;
+		return image != null && ImageUtils.isFullyTransparent(image);
 	}
 
 	/**
@@ -1610,6 +1693,7 @@ public abstract class FeatureTiles {
 	 */
 	protected BufferedImage checkIfDrawn(BufferedImage image) {
 		if (isTransparent(image)) {
+			FeatureTileGraphics.recycle(image);
 			image = null;
 		}
 		return image;
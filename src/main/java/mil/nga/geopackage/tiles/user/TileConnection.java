@@ -31,4 +31,14 @@ public class TileConnection extends
 		return new TileResultSet(table, resultSet, count);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected TileResultSet createResult(ResultSet resultSet, String sql,
+			String[] selectionArgs) {
+		return new TileResultSet(table, resultSet,
+				getConnection(resultSet), sql, selectionArgs);
+	}
+
 }
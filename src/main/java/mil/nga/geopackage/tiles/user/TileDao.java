@@ -1,5 +1,7 @@
 package mil.nga.geopackage.tiles.user;
 
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,8 +13,11 @@ import mil.nga.geopackage.core.srs.SpatialReferenceSystem;
 import mil.nga.geopackage.db.GeoPackageConnection;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileGrid;
+import mil.nga.geopackage.tiles.TileImageCache;
 import mil.nga.geopackage.tiles.matrix.TileMatrix;
 import mil.nga.geopackage.tiles.matrixset.TileMatrixSet;
+import mil.nga.geopackage.user.ContentValues;
+import mil.nga.geopackage.user.UserBatchInserter;
 import mil.nga.geopackage.user.UserDao;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionConstants;
@@ -65,6 +70,16 @@ public class TileDao
 	 */
 	private final double[] heights;
 
+	/**
+	 * Decoded tile image cache
+	 */
+	private TileImageCache imageCache;
+
+	/**
+	 * Database identity of the tile image cache keys
+	 */
+	private final String databaseIdentity;
+
 	/**
 	 * Constructor
 	 * 
@@ -85,6 +100,7 @@ public class TileDao
 		super(database, db, new TileConnection(db), table);
 
 		this.tileDb = (TileConnection) getUserDb();
+		this.databaseIdentity = db.getDatabaseIdentity();
 		this.tileMatrixSet = tileMatrixSet;
 		this.tileMatrices = tileMatrices;
 		this.widths = new double[tileMatrices.size()];
@@ -199,6 +215,99 @@ public class TileDao
 		return new TileRow(getTable());
 	}
 
+	/**
+	 * Get the decoded tile image cache
+	 * 
+	 * @return tile image cache, null when not caching
+	 * @since 3.4.1
+	 */
+	public TileImageCache getImageCache() {
+		return imageCache;
+	}
+
+	/**
+	 * Set the decoded tile image cache used by tile creators and retrievers
+	 * of this DAO. Tile DAOs sharing the cache share decoded images, keyed by
+	 * the GeoPackage database identity and table. Images are invalidated in
+	 * all caches by inserts, updates, and deletes through any tile DAO or tile
+	 * DAO batch inserter. Changes made with raw SQL require
+	 * {@link TileImageCache#tableChanged(String, String)}.
+	 * 
+	 * @param imageCache
+	 *            tile image cache, null to disable caching
+	 * @since 3.4.1
+	 */
+	public void setImageCache(TileImageCache imageCache) {
+		this.imageCache = imageCache;
+	}
+
+	/**
+	 * Enable decoded tile image caching with a new cache of
+	 * {@link TileImageCache#DEFAULT_MAX_BYTES} pixel bytes
+	 * 
+	 * @since 3.4.1
+	 */
+	public void enableImageCache() {
+		setImageCache(new TileImageCache());
+	}
+
+	/**
+	 * Disable decoded tile image caching
+	 * 
+	 * @since 3.4.1
+	 */
+	public void disableImageCache() {
+		setImageCache(null);
+	}
+
+	/**
+	 * Get the database identity of the tile image cache keys
+	 * 
+	 * @return database identity
+	 * @since 3.4.1
+	 */
+	public String getDatabaseIdentity() {
+		return databaseIdentity;
+	}
+
+	/**
+	 * Get the decoded tile image of the tile row, from the image cache when
+	 * enabled
+	 * 
+	 * @param tileRow
+	 *            tile row
+	 * @return tile image or null when the tile data is not an image
+	 * @throws IOException
+	 *             upon failure to decode the tile data
+	 * @since 3.4.1
+	 */
+	public BufferedImage getTileDataImage(TileRow tileRow) throws IOException {
+		BufferedImage image;
+		TileImageCache cache = imageCache;
+		if (cache != null) {
+			image = cache.getImage(databaseIdentity, getTableName(), tileRow);
+		} else {
+			image = tileRow.getTileDataImage();
+		}
+		return image;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Executed rows invalidate the table images in all tile image caches.
+	 */
+	@Override
+	public UserBatchInserter<TileColumn, TileTable, TileRow> newBatchInserter() {
+		return new UserBatchInserter<TileColumn, TileTable, TileRow>(
+				getConnection(), getTableName()) {
+			@Override
+			protected void rowsExecuted(int rows) {
+				clearImageCache();
+			}
+		};
+	}
+
 	/**
 	 * Get the Tile connection
 	 * 
@@ -268,12 +377,13 @@ public class TileDao
 	 */
 	public TileRow queryForTile(long column, long row, long zoomLevel) {
 
-		Map<String, Object> fieldValues = new HashMap<String, Object>();
-		fieldValues.put(TileTable.COLUMN_TILE_COLUMN, column);
-		fieldValues.put(TileTable.COLUMN_TILE_ROW, row);
-		fieldValues.put(TileTable.COLUMN_ZOOM_LEVEL, zoomLevel);
+		String where = buildWhere(TileTable.COLUMN_ZOOM_LEVEL, zoomLevel)
+				+ " AND " + buildWhere(TileTable.COLUMN_TILE_COLUMN, column)
+				+ " AND " + buildWhere(TileTable.COLUMN_TILE_ROW, row);
+		String[] whereArgs = buildWhereArgs(
+				new Object[] { zoomLevel, column, row });
 
-		TileResultSet cursor = queryForFieldValues(fieldValues);
+		TileResultSet cursor = queryCached(where, whereArgs);
 		TileRow tileRow = null;
 		try {
 			if (cursor.moveToNext()) {
@@ -586,7 +696,8 @@ public class TileDao
 		String[] whereArgs = buildWhereArgs(
 				new Object[] { zoomLevel, column, row });
 
-		int deleted = delete(where.toString(), whereArgs);
+		int deleted = super.delete(where.toString(), whereArgs);
+		uncache(zoomLevel, column, row);
 
 		return deleted;
 	}
@@ -647,4 +758,106 @@ public class TileDao
 		return googleTiles;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(TileRow row) {
+		int updated = super.update(row);
+		uncache(row.getZoomLevel(), row.getTileColumn(), row.getTileRow());
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int update(ContentValues values, String whereClause,
+			String[] whereArgs) {
+		int updated = super.update(values, whereClause, whereArgs);
+		clearImageCache();
+		return updated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(TileRow row) {
+		long id = super.insert(row);
+		uncache(row.getZoomLevel(), row.getTileColumn(), row.getTileRow());
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insert(ContentValues values) {
+		long id = super.insert(values);
+		clearImageCache();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long insertOrThrow(ContentValues values) {
+		long id = super.insertOrThrow(values);
+		clearImageCache();
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int deleteById(long id) {
+		int deleted = super.deleteById(id);
+		clearImageCache();
+		return deleted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int delete(String whereClause, String[] whereArgs) {
+		int deleted = super.delete(whereClause, whereArgs);
+		clearImageCache();
+		return deleted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dropTable() {
+		super.dropTable();
+		clearImageCache();
+	}
+
+	/**
+	 * Remove the tile image from all image caches
+	 * 
+	 * @param zoomLevel
+	 *            zoom level
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 */
+	private void uncache(long zoomLevel, long column, long row) {
+		TileImageCache.tileChanged(databaseIdentity, getTableName(), zoomLevel,
+				column, row);
+	}
+
+	/**
+	 * Clear the tile images of the table from all image caches
+	 */
+	private void clearImageCache() {
+		TileImageCache.tableChanged(databaseIdentity, getTableName());
+	}
+
 }
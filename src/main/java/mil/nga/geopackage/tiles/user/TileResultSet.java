@@ -1,5 +1,6 @@
 package mil.nga.geopackage.tiles.user;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 
 import mil.nga.geopackage.user.UserResultSet;
@@ -26,6 +27,26 @@ public class TileResultSet extends
 		super(table, resultSet, count);
 	}
 
+	/**
+	 * Constructor, count is lazily queried when requested
+	 * 
+	 * @param table
+	 *            tile table
+	 * @param resultSet
+	 *            result set
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @since 3.4.1
+	 */
+	public TileResultSet(TileTable table, ResultSet resultSet,
+			Connection connection, String sql, String[] selectionArgs) {
+		super(table, resultSet, connection, sql, selectionArgs);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
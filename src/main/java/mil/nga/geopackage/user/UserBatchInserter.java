@@ -0,0 +1,524 @@
+package mil.nga.geopackage.user;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
+import mil.nga.geopackage.db.SQLUtils;
+
+/**
+ * User Batch Inserter for inserting many rows into a user table. A single
+ * prepared statement is cached and reused per inserted column set. When ids
+ * are not returned, rows are added to JDBC statement batches and executed
+ * every batch size rows. When not already within a transaction, the inserter
+ * begins one and commits every commit limit rows. Close when done to execute
+ * remaining rows, commit, and release the statements.
+ *
+ * @param <TColumn>
+ *            column type
+ * @param <TTable>
+ *            table type
+ * @param <TRow>
+ *            row type
+ *
+ * @author osbornb
+ * @since 3.4.1
+ */
+public class UserBatchInserter<TColumn extends UserColumn, TTable extends UserTable<TColumn>, TRow extends UserRow<TColumn, TTable>> {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger log = Logger
+			.getLogger(UserBatchInserter.class.getName());
+
+	/**
+	 * Default number of rows added to a statement batch before executing
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 250;
+
+	/**
+	 * Default number of rows inserted between commits of an inserter started
+	 * transaction
+	 */
+	public static final int DEFAULT_COMMIT_LIMIT = 5000;
+
+	/**
+	 * Connection
+	 */
+	private final Connection connection;
+
+	/**
+	 * Table name
+	 */
+	private final String tableName;
+
+	/**
+	 * Cached insert statements by inserted column names
+	 */
+	private final Map<List<String>, InsertStatement> statements = new HashMap<>();
+
+	/**
+	 * Insert statement of the last inserted row
+	 */
+	private InsertStatement current;
+
+	/**
+	 * Number of rows added to a statement batch before executing
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Number of rows inserted between commits of an inserter started
+	 * transaction
+	 */
+	private int commitLimit = DEFAULT_COMMIT_LIMIT;
+
+	/**
+	 * True to execute each insert immediately and retrieve the inserted row
+	 * id
+	 */
+	private boolean returnIds = true;
+
+	/**
+	 * Pre-transaction auto commit value of an inserter started transaction,
+	 * null when not started by the inserter
+	 */
+	private Boolean autoCommit = null;
+
+	/**
+	 * Total inserted row count
+	 */
+	private long count = 0;
+
+	/**
+	 * Rows executed since the last commit
+	 */
+	private int uncommitted = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param connection
+	 *            connection
+	 * @param tableName
+	 *            table name
+	 */
+	public UserBatchInserter(Connection connection, String tableName) {
+		this.connection = connection;
+		this.tableName = tableName;
+	}
+
+	/**
+	 * Get the table name
+	 *
+	 * @return table name
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * Get the number of rows added to a statement batch before executing
+	 *
+	 * @return batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Set the number of rows added to a statement batch before executing
+	 *
+	 * @param batchSize
+	 *            batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Get the number of rows inserted between commits of an inserter started
+	 * transaction
+	 *
+	 * @return commit limit
+	 */
+	public int getCommitLimit() {
+		return commitLimit;
+	}
+
+	/**
+	 * Set the number of rows inserted between commits of an inserter started
+	 * transaction, 0 or less to only commit on close
+	 *
+	 * @param commitLimit
+	 *            commit limit
+	 */
+	public void setCommitLimit(int commitLimit) {
+		this.commitLimit = commitLimit;
+	}
+
+	/**
+	 * Is each insert executed immediately returning the inserted row id
+	 *
+	 * @return true if returning ids
+	 */
+	public boolean isReturnIds() {
+		return returnIds;
+	}
+
+	/**
+	 * Set whether each insert is executed immediately returning the inserted
+	 * row id. When false, inserts are batched and return -1.
+	 *
+	 * @param returnIds
+	 *            true to return ids
+	 */
+	public void setReturnIds(boolean returnIds) {
+		this.returnIds = returnIds;
+	}
+
+	/**
+	 * Get the number of inserted rows, including batched rows not yet executed
+	 *
+	 * @return count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Insert the row
+	 *
+	 * @param row
+	 *            row
+	 * @return row id when returning ids, -1 when batched
+	 */
+	public long insert(TRow row) {
+		long id = insert(row.toContentValues());
+		if (returnIds && row.hasIdColumn()) {
+			row.setId(id);
+		}
+		return id;
+	}
+
+	/**
+	 * Insert the content values
+	 *
+	 * @param values
+	 *            content values
+	 * @return row id when returning ids, -1 when batched
+	 */
+	public long insert(ContentValues values) {
+
+		List<String> columns = new ArrayList<>(values.keySet());
+		InsertStatement insertStatement = statements.get(columns);
+		if (insertStatement == null) {
+			insertStatement = new InsertStatement(columns);
+			statements.put(columns, insertStatement);
+		}
+
+		// Execute any batch of a different column set to keep insert order
+		if (current != null && current != insertStatement) {
+			current.executeBatch();
+		}
+		current = insertStatement;
+
+		long id = -1;
+		if (returnIds) {
+			insertStatement.executeBatch();
+			id = insertStatement.execute(values);
+		} else {
+			insertStatement.addBatch(values);
+			if (insertStatement.pending >= batchSize) {
+				insertStatement.executeBatch();
+			}
+		}
+		count++;
+
+		return id;
+	}
+
+	/**
+	 * Execute all batched rows
+	 */
+	public void flush() {
+		for (InsertStatement insertStatement : statements.values()) {
+			insertStatement.executeBatch();
+		}
+	}
+
+	/**
+	 * Execute all batched rows and commit an inserter started transaction. A
+	 * transaction started by the caller is left for the caller to end.
+	 */
+	public void commit() {
+		flush();
+		if (autoCommit != null) {
+			try {
+				connection.commit();
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to commit batch inserts. Table: " + tableName,
+						e);
+			}
+			uncommitted = 0;
+		}
+	}
+
+	/**
+	 * Execute remaining batched rows, commit an inserter started transaction,
+	 * and close the statements
+	 */
+	public void close() {
+		close(true);
+	}
+
+	/**
+	 * Close the inserter. When successful, remaining batched rows are executed
+	 * and an inserter started transaction is committed. When not successful,
+	 * batched rows are discarded and an inserter started transaction is rolled
+	 * back.
+	 *
+	 * @param successful
+	 *            true to execute and commit, false to discard and rollback
+	 */
+	public void close(boolean successful) {
+		try {
+			if (successful) {
+				flush();
+			}
+		} finally {
+			try {
+				if (autoCommit != null) {
+					SQLUtils.endTransaction(connection, successful, autoCommit);
+				}
+			} finally {
+				autoCommit = null;
+				uncommitted = 0;
+				current = null;
+				for (InsertStatement insertStatement : statements.values()) {
+					SQLUtils.closeStatement(insertStatement.statement,
+							insertStatement.sql);
+				}
+				statements.clear();
+			}
+		}
+	}
+
+	/**
+	 * Begin a transaction when the connection is not within one
+	 */
+	private void beginTransaction() {
+		if (autoCommit == null) {
+			try {
+				if (connection.getAutoCommit()) {
+					autoCommit = SQLUtils.beginTransaction(connection);
+				}
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to begin batch insert transaction. Table: "
+								+ tableName,
+						e);
+			}
+		}
+	}
+
+	/**
+	 * Called after rows are executed against the table, before any commit at
+	 * the commit limit. Override to invalidate caches of the table rows.
+	 *
+	 * @param rows
+	 *            executed row count
+	 */
+	protected void rowsExecuted(int rows) {
+
+	}
+
+	/**
+	 * Track executed rows and commit an inserter started transaction at the
+	 * commit limit
+	 *
+	 * @param executed
+	 *            executed row count
+	 */
+	private void executed(int executed) {
+		rowsExecuted(executed);
+		uncommitted += executed;
+		if (autoCommit != null && commitLimit > 0
+				&& uncommitted >= commitLimit) {
+			try {
+				connection.commit();
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to commit batch inserts. Table: " + tableName,
+						e);
+			}
+			uncommitted = 0;
+		}
+	}
+
+	/**
+	 * Cached insert statement for a column set
+	 */
+	private class InsertStatement {
+
+		/**
+		 * Inserted column names
+		 */
+		private final List<String> columns;
+
+		/**
+		 * Insert SQL
+		 */
+		private final String sql;
+
+		/**
+		 * Prepared statement
+		 */
+		private final PreparedStatement statement;
+
+		/**
+		 * Rows added to the batch and not executed
+		 */
+		private int pending = 0;
+
+		/**
+		 * Constructor
+		 *
+		 * @param columns
+		 *            inserted column names
+		 */
+		private InsertStatement(List<String> columns) {
+			this.columns = columns;
+
+			StringBuilder insert = new StringBuilder();
+			insert.append("insert into ")
+					.append(CoreSQLUtils.quoteWrap(tableName)).append("(");
+			for (int i = 0; i < columns.size(); i++) {
+				insert.append((i > 0) ? "," : "");
+				insert.append(CoreSQLUtils.quoteWrap(columns.get(i)));
+			}
+			insert.append(')');
+			insert.append(" values (");
+			for (int i = 0; i < columns.size(); i++) {
+				insert.append((i > 0) ? ",?" : "?");
+			}
+			insert.append(')');
+			sql = insert.toString();
+
+			try {
+				statement = connection.prepareStatement(sql);
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to prepare SQL insert statement: " + sql, e);
+			}
+		}
+
+		/**
+		 * Set the statement arguments from the content values
+		 *
+		 * @param values
+		 *            content values
+		 * @throws SQLException
+		 *             upon failure
+		 */
+		private void setArguments(ContentValues values) throws SQLException {
+			for (int i = 0; i < columns.size(); i++) {
+				statement.setObject(i + 1, values.get(columns.get(i)));
+			}
+		}
+
+		/**
+		 * Execute a single insert
+		 *
+		 * @param values
+		 *            content values
+		 * @return row id
+		 */
+		private long execute(ContentValues values) {
+			beginTransaction();
+			long id;
+			try {
+				setArguments(values);
+				int count = statement.executeUpdate();
+				if (count == 0) {
+					throw new GeoPackageException(
+							"Failed to execute SQL insert statement: " + sql
+									+ ". No rows added from execution.");
+				}
+				try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+					if (generatedKeys.next()) {
+						id = generatedKeys.getLong(1);
+					} else {
+						throw new GeoPackageException(
+								"Failed to execute SQL insert statement: "
+										+ sql + ". No row id was found.");
+					}
+				}
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to execute SQL insert statement: " + sql, e);
+			}
+			executed(1);
+			return id;
+		}
+
+		/**
+		 * Add an insert to the batch
+		 *
+		 * @param values
+		 *            content values
+		 */
+		private void addBatch(ContentValues values) {
+			try {
+				setArguments(values);
+				statement.addBatch();
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to add SQL insert statement to batch: " + sql,
+						e);
+			}
+			pending++;
+		}
+
+		/**
+		 * Execute the pending batch
+		 */
+		private void executeBatch() {
+			if (pending > 0) {
+				beginTransaction();
+				int executed = pending;
+				pending = 0;
+				try {
+					statement.executeBatch();
+				} catch (SQLException e) {
+					try {
+						statement.clearBatch();
+					} catch (SQLException clearException) {
+						log.log(Level.WARNING,
+								"Failed to clear SQL insert statement batch: "
+										+ sql,
+								clearException);
+					}
+					throw new GeoPackageException(
+							"Failed to execute SQL insert statement batch of "
+									+ executed + " rows: " + sql,
+							e);
+				}
+				executed(executed);
+			}
+		}
+
+	}
+
+}
@@ -2,8 +2,12 @@ package mil.nga.geopackage.user;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 
+import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.db.PreparedStatementCache;
+import mil.nga.geopackage.db.ResultCountMode;
 import mil.nga.geopackage.db.SQLUtils;
 import mil.nga.geopackage.db.SQLiteQueryBuilder;
 
@@ -30,11 +34,21 @@ public abstract class UserConnection<TColumn extends UserColumn, TTable extends
 	 */
 	protected final Connection connection;
 
+	/**
+	 * GeoPackage connection
+	 */
+	private final GeoPackageConnection database;
+
 	/**
 	 * Table
 	 */
 	protected TTable table;
 
+	/**
+	 * Result count mode for queries
+	 */
+	private ResultCountMode countMode = ResultCountMode.LAZY;
+
 	/**
 	 * Constructor
 	 * 
@@ -43,6 +57,7 @@ public abstract class UserConnection<TColumn extends UserColumn, TTable extends
 	 */
 	protected UserConnection(GeoPackageConnection database) {
 		this.connection = database.getConnection();
+		this.database = database;
 	}
 
 	/**
@@ -64,6 +79,46 @@ public abstract class UserConnection<TColumn extends UserColumn, TTable extends
 		this.table = table;
 	}
 
+	/**
+	 * Get the result count mode used for queries
+	 * 
+	 * @return result count mode
+	 * @since 3.4.1
+	 */
+	public ResultCountMode getCountMode() {
+		return countMode;
+	}
+
+	/**
+	 * Set the result count mode used for queries
+	 * 
+	 * @param countMode
+	 *            result count mode
+	 * @since 3.4.1
+	 */
+	public void setCountMode(ResultCountMode countMode) {
+		this.countMode = countMode;
+	}
+
+	/**
+	 * Get the connection of the query result set, used to lazily count the
+	 * results with the same connection
+	 * 
+	 * @param resultSet
+	 *            result set
+	 * @return connection
+	 * @since 3.4.1
+	 */
+	protected Connection getConnection(ResultSet resultSet) {
+		Connection resultConnection = connection;
+		try {
+			resultConnection = resultSet.getStatement().getConnection();
+		} catch (SQLException e) {
+			// Fall back to the writer connection
+		}
+		return resultConnection;
+	}
+
 	/**
 	 * Create a result by wrapping the ResultSet
 	 * 
@@ -75,16 +130,45 @@ public abstract class UserConnection<TColumn extends UserColumn, TTable extends
 	 */
 	protected abstract TResult createResult(ResultSet resultSet, int count);
 
+	/**
+	 * Create a result by wrapping the ResultSet, lazily counting the results
+	 * with the query when requested
+	 * 
+	 * @param resultSet
+	 *            result set
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @return result
+	 * @since 3.4.1
+	 */
+	protected abstract TResult createResult(ResultSet resultSet, String sql,
+			String[] selectionArgs);
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public TResult rawQuery(String sql, String[] selectionArgs) {
+		return rawQuery(sql, selectionArgs, countMode);
+	}
 
-		ResultSet resultSet = SQLUtils.query(connection, sql, selectionArgs);
-		int count = SQLUtils.count(connection, sql, selectionArgs);
-
-		return createResult(resultSet, count);
+	/**
+	 * Raw query with the result count mode
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @param countMode
+	 *            result count mode
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult rawQuery(String sql, String[] selectionArgs,
+			ResultCountMode countMode) {
+		return wrapQuery(sql, selectionArgs, countMode);
 	}
 
 	/**
@@ -128,13 +212,143 @@ public abstract class UserConnection<TColumn extends UserColumn, TTable extends
 			String selection, String[] selectionArgs, String groupBy,
 			String having, String orderBy, String limit) {
 
+		return query(table, columns, columnsAs, selection, selectionArgs,
+				groupBy, having, orderBy, limit, countMode);
+	}
+
+	/**
+	 * Query with the result count mode
+	 * 
+	 * @param table
+	 *            table name
+	 * @param columns
+	 *            columns
+	 * @param columnsAs
+	 *            columns as values
+	 * @param selection
+	 *            selection
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @param groupBy
+	 *            group by
+	 * @param having
+	 *            having
+	 * @param orderBy
+	 *            order by
+	 * @param limit
+	 *            limit
+	 * @param countMode
+	 *            result count mode
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult query(String table, String[] columns, String[] columnsAs,
+			String selection, String[] selectionArgs, String groupBy,
+			String having, String orderBy, String limit,
+			ResultCountMode countMode) {
+
 		String sql = querySQL(table, columns, columnsAs, selection, groupBy,
 				having, orderBy, limit);
 
-		ResultSet resultSet = SQLUtils.query(connection, sql, selectionArgs);
-		int count = SQLUtils.count(connection, sql, selectionArgs);
+		return wrapQuery(sql, selectionArgs, countMode);
+	}
+
+	/**
+	 * Query through the prepared statement cache of the GeoPackage
+	 * connection, reusing the prepared statement of repeated lookups. The
+	 * statement is released back to the cache when the result is closed.
+	 * 
+	 * @param table
+	 *            table name
+	 * @param columns
+	 *            columns
+	 * @param selection
+	 *            selection
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult queryCached(String table, String[] columns,
+			String selection, String[] selectionArgs) {
+
+		String sql = querySQL(table, columns, selection, null, null, null);
+
+		return wrapQuery(sql, selectionArgs, countMode, true);
+	}
+
+	/**
+	 * Perform the query and wrap as a result, counting per the result count
+	 * mode
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @param countMode
+	 *            result count mode
+	 * @return result
+	 */
+	private TResult wrapQuery(String sql, String[] selectionArgs,
+			ResultCountMode countMode) {
+		return wrapQuery(sql, selectionArgs, countMode, false);
+	}
+
+	/**
+	 * Perform the query and wrap as a result, counting per the result count
+	 * mode
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @param countMode
+	 *            result count mode
+	 * @param cached
+	 *            true to prepare the statement through the statement cache
+	 * @return result
+	 */
+	private TResult wrapQuery(String sql, String[] selectionArgs,
+			ResultCountMode countMode, boolean cached) {
+
+		Connection readConnection = database.getReadConnection();
+		PreparedStatementCache statementCache = null;
+		ResultSet resultSet;
+		if (cached) {
+			statementCache = database.getStatementCache();
+			resultSet = statementCache.query(readConnection, sql,
+					selectionArgs);
+		} else {
+			resultSet = SQLUtils.query(readConnection, sql, selectionArgs);
+		}
+
+		TResult result;
+		switch (countMode) {
+		case LAZY:
+			result = createResult(resultSet, sql, selectionArgs);
+			break;
+		case EAGER:
+			result = createResult(resultSet,
+					SQLUtils.count(readConnection, sql, selectionArgs));
+			break;
+		case DISABLED:
+			result = createResult(resultSet, -1);
+			break;
+		default:
+			if (statementCache != null) {
+				statementCache.release(resultSet);
+			} else {
+				SQLUtils.closeResultSetStatement(resultSet, sql);
+			}
+			throw new GeoPackageException(
+					"Unsupported result count mode: " + countMode);
+		}
+
+		if (statementCache != null) {
+			result.setStatementCache(statementCache);
+		}
 
-		return createResult(resultSet, count);
+		return result;
 	}
 
 	/**
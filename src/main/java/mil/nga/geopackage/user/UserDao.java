@@ -4,7 +4,9 @@ import java.sql.Connection;
 import java.sql.SQLException;
 
 import mil.nga.geopackage.GeoPackageException;
+import mil.nga.geopackage.db.CoreSQLUtils;
 import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.db.ResultCountMode;
 import mil.nga.geopackage.db.SQLUtils;
 
 /**
@@ -62,6 +64,16 @@ public abstract class UserDao<TColumn extends UserColumn, TTable extends UserTab
 		return (GeoPackageConnection) super.getDb();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public UserConnection<TColumn, TTable, TRow, TResult> getUserDb() {
+		return (UserConnection<TColumn, TTable, TRow, TResult>) super
+				.getUserDb();
+	}
+
 	/**
 	 * Get the database connection
 	 * 
@@ -71,6 +83,17 @@ public abstract class UserDao<TColumn extends UserColumn, TTable extends UserTab
 		return connection;
 	}
 
+	/**
+	 * Get the database connection for reads by the current thread, a pooled
+	 * read connection when the GeoPackage connection is pooled
+	 * 
+	 * @return read connection
+	 * @since 3.4.1
+	 */
+	public Connection getReadConnection() {
+		return getDb().getReadConnection();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -79,6 +102,187 @@ public abstract class UserDao<TColumn extends UserColumn, TTable extends UserTab
 		return result;
 	}
 
+	/**
+	 * Get the result count mode used by queries
+	 * 
+	 * @return result count mode
+	 * @since 3.4.1
+	 */
+	public ResultCountMode getCountMode() {
+		return getUserDb().getCountMode();
+	}
+
+	/**
+	 * Set the result count mode used by queries. Lazy (default) counting only
+	 * queries the count when requested from the result.
+	 * 
+	 * @param countMode
+	 *            result count mode
+	 * @since 3.4.1
+	 */
+	public void setCountMode(ResultCountMode countMode) {
+		getUserDb().setCountMode(countMode);
+	}
+
+	/**
+	 * Query for all rows with the result count mode
+	 * 
+	 * @param countMode
+	 *            result count mode
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult queryForAll(ResultCountMode countMode) {
+		return query(null, null, countMode);
+	}
+
+	/**
+	 * Query for rows with the result count mode
+	 * 
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param countMode
+	 *            result count mode
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult query(String where, String[] whereArgs,
+			ResultCountMode countMode) {
+		TResult result = getUserDb().query(getTableName(),
+				getTable().getColumnNames(), null, where, whereArgs, null,
+				null, null, null, countMode);
+		return prepareResult(result);
+	}
+
+	/**
+	 * Query for rows through the prepared statement cache of the GeoPackage
+	 * connection, for repeated lookups differing only by where arguments
+	 * 
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult queryCached(String where, String[] whereArgs) {
+		TResult result = getUserDb().queryCached(getTableName(),
+				getTable().getColumnNames(), where, whereArgs);
+		return prepareResult(result);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Queries through the prepared statement cache.
+	 */
+	@Override
+	public TResult queryForId(long id) {
+		return queryCached(getPkWhere(id), getPkWhereArgs(id));
+	}
+
+	/**
+	 * Raw query with the result count mode
+	 * 
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @param countMode
+	 *            result count mode
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult rawQuery(String sql, String[] selectionArgs,
+			ResultCountMode countMode) {
+		TResult result = getUserDb().rawQuery(sql, selectionArgs, countMode);
+		return prepareResult(result);
+	}
+
+	/**
+	 * Query for a chunk of rows ordered by id with ids greater than the last
+	 * id. Unlike offset chunk queries, each chunk seeks directly to the last
+	 * id, making a full table pass linear.
+	 * 
+	 * @param limit
+	 *            chunk limit
+	 * @param lastId
+	 *            last id of the previous chunk, null for the first chunk
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult queryForIdChunk(int limit, Long lastId) {
+		return queryForIdChunk(null, null, limit, lastId);
+	}
+
+	/**
+	 * Query for a chunk of rows ordered by id with ids greater than the last
+	 * id. Unlike offset chunk queries, each chunk seeks directly to the last
+	 * id, making a full table pass linear.
+	 * 
+	 * @param where
+	 *            where clause
+	 * @param limit
+	 *            chunk limit
+	 * @param lastId
+	 *            last id of the previous chunk, null for the first chunk
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult queryForIdChunk(String where, int limit, Long lastId) {
+		return queryForIdChunk(where, null, limit, lastId);
+	}
+
+	/**
+	 * Query for a chunk of rows ordered by id with ids greater than the last
+	 * id. Unlike offset chunk queries, each chunk seeks directly to the last
+	 * id, making a full table pass linear.
+	 * 
+	 * @param where
+	 *            where clause
+	 * @param whereArgs
+	 *            where arguments
+	 * @param limit
+	 *            chunk limit
+	 * @param lastId
+	 *            last id of the previous chunk, null for the first chunk
+	 * @return result
+	 * @since 3.4.1
+	 */
+	public TResult queryForIdChunk(String where, String[] whereArgs, int limit,
+			Long lastId) {
+
+		TColumn pkColumn = getTable().getPkColumn();
+		if (pkColumn == null) {
+			throw new GeoPackageException(
+					"No primary key column for table: " + getTableName());
+		}
+		String pkName = CoreSQLUtils.quoteWrap(pkColumn.getName());
+
+		if (lastId != null) {
+			String idWhere = pkName + " > ?";
+			if (where != null) {
+				where = "(" + where + ") AND " + idWhere;
+			} else {
+				where = idWhere;
+			}
+			String idArg = String.valueOf(lastId);
+			if (whereArgs != null) {
+				String[] args = new String[whereArgs.length + 1];
+				System.arraycopy(whereArgs, 0, args, 0, whereArgs.length);
+				args[whereArgs.length] = idArg;
+				whereArgs = args;
+			} else {
+				whereArgs = new String[] { idArg };
+			}
+		}
+
+		return query(where, whereArgs, null, null, pkName,
+				String.valueOf(limit));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -164,6 +368,18 @@ public abstract class UserDao<TColumn extends UserColumn, TTable extends UserTab
 		return id;
 	}
 
+	/**
+	 * Create a batch inserter for inserting many rows into the table with
+	 * cached prepared statements and batched execution. Close the inserter
+	 * when done.
+	 * 
+	 * @return batch inserter
+	 * @since 3.4.1
+	 */
+	public UserBatchInserter<TColumn, TTable, TRow> newBatchInserter() {
+		return new UserBatchInserter<>(connection, getTableName());
+	}
+
 	/**
 	 * Inserts a new row
 	 * 
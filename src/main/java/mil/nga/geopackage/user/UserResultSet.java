@@ -1,5 +1,6 @@
 package mil.nga.geopackage.user;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -7,6 +8,7 @@ import java.sql.SQLException;
 import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.db.ResultSetResult;
 import mil.nga.geopackage.db.ResultUtils;
+import mil.nga.geopackage.db.SQLUtils;
 
 /**
  * Abstract User Result Set. The column index of the GeoPackage core is 0
@@ -31,9 +33,24 @@ public abstract class UserResultSet<TColumn extends UserColumn, TTable extends U
 	private final TTable table;
 
 	/**
-	 * Result count
+	 * Result count, null until lazily counted
 	 */
-	private int count;
+	private Integer count;
+
+	/**
+	 * Connection for lazily counting the results
+	 */
+	private final Connection connection;
+
+	/**
+	 * SQL statement for lazily counting the results
+	 */
+	private final String sql;
+
+	/**
+	 * Selection arguments for lazily counting the results
+	 */
+	private final String[] selectionArgs;
 
 	/**
 	 * Constructor
@@ -49,6 +66,35 @@ public abstract class UserResultSet<TColumn extends UserColumn, TTable extends U
 		super(resultSet);
 		this.table = table;
 		this.count = count;
+		this.connection = null;
+		this.sql = null;
+		this.selectionArgs = null;
+	}
+
+	/**
+	 * Constructor, count is lazily queried on the first call to
+	 * {@link #getCount()}
+	 * 
+	 * @param table
+	 *            table
+	 * @param resultSet
+	 *            result set
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @since 3.4.1
+	 */
+	protected UserResultSet(TTable table, ResultSet resultSet,
+			Connection connection, String sql, String[] selectionArgs) {
+		super(resultSet);
+		this.table = table;
+		this.count = null;
+		this.connection = connection;
+		this.sql = sql;
+		this.selectionArgs = selectionArgs;
 	}
 
 	/**
@@ -160,7 +206,44 @@ public abstract class UserResultSet<TColumn extends UserColumn, TTable extends U
 	 */
 	@Override
 	public int getCount() {
+		if (count == null) {
+			count = SQLUtils.count(connection, sql, selectionArgs);
+		}
 		return count;
 	}
 
+	/**
+	 * Determine if the count is known without executing a count query
+	 * 
+	 * @return true if counted or count disabled
+	 * @since 3.4.1
+	 */
+	public boolean isCounted() {
+		return count != null;
+	}
+
+	/**
+	 * Determine if the result is empty without executing a count query, when
+	 * not already counted. Must be called before moving to the first result.
+	 * Unlike checking {@link #getCount()}, this works with every
+	 * {@link mil.nga.geopackage.db.ResultCountMode}.
+	 * 
+	 * @return true if no results
+	 * @since 3.4.1
+	 */
+	public boolean isEmpty() {
+		boolean empty;
+		if (count != null && count >= 0) {
+			empty = count == 0;
+		} else {
+			try {
+				empty = !resultSet.isBeforeFirst() && resultSet.getRow() == 0;
+			} catch (SQLException e) {
+				throw new GeoPackageException(
+						"Failed to determine if the ResultSet is empty", e);
+			}
+		}
+		return empty;
+	}
+
 }
@@ -33,4 +33,14 @@ public class UserCustomConnection
 		return new UserCustomResultSet(table, resultSet, count);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected UserCustomResultSet createResult(ResultSet resultSet, String sql,
+			String[] selectionArgs) {
+		return new UserCustomResultSet(table, resultSet,
+				getConnection(resultSet), sql, selectionArgs);
+	}
+
 }
@@ -34,7 +34,7 @@ public class UserCustomDao extends
 			UserCustomTable table) {
 		super(database, db, new UserCustomConnection(db), table);
 
-		this.userDb = (UserCustomConnection) getUserDb();
+		this.userDb = (UserCustomConnection) super.getUserDb();
 	}
 
 	/**
@@ -105,6 +105,13 @@ public class UserCustomDao extends
 		int count = 0;
 		try {
 			count = resultSet.getCount();
+			if (count < 0) {
+				// Count disabled, count by iterating the results
+				count = 0;
+				while (resultSet.moveToNext()) {
+					count++;
+				}
+			}
 		} finally {
 			resultSet.close();
 		}
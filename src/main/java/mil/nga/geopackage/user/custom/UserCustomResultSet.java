@@ -1,5 +1,6 @@
 package mil.nga.geopackage.user.custom;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 
 import mil.nga.geopackage.user.UserResultSet;
@@ -28,6 +29,26 @@ public class UserCustomResultSet extends
 		super(table, resultSet, count);
 	}
 
+	/**
+	 * Constructor, count is lazily queried when requested
+	 * 
+	 * @param table
+	 *            user custom table
+	 * @param resultSet
+	 *            result set
+	 * @param connection
+	 *            connection
+	 * @param sql
+	 *            sql statement
+	 * @param selectionArgs
+	 *            selection arguments
+	 * @since 3.4.1
+	 */
+	public UserCustomResultSet(UserCustomTable table, ResultSet resultSet,
+			Connection connection, String sql, String[] selectionArgs) {
+		super(table, resultSet, connection, sql, selectionArgs);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -10,6 +10,7 @@ import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.core.srs.SpatialReferenceSystem;
 import mil.nga.geopackage.core.srs.SpatialReferenceSystemDao;
+import mil.nga.geopackage.extension.coverage.CoverageDataGrid;
 import mil.nga.geopackage.extension.coverage.CoverageDataPng;
 import mil.nga.geopackage.extension.coverage.GriddedCoverage;
 import mil.nga.geopackage.extension.coverage.GriddedCoverageDao;
@@ -409,6 +410,19 @@ public abstract class CreateCoverageDataGeoPackageTestCase extends
 				.drawTileData(griddedTile, coverageDataValues.coverageDataFlat,
 						tileWidth, tileHeight));
 
+		CoverageDataGrid grid = new CoverageDataGrid(tileWidth, tileHeight,
+				null);
+		for (int y = 0; y < tileHeight; y++) {
+			for (int x = 0; x < tileWidth; x++) {
+				Double value = coverageDataValues.coverageData[y][x];
+				if (value != null) {
+					grid.setValue(x, y, value);
+				}
+			}
+		}
+		GeoPackageGeometryDataUtils.compareByteArrays(imageData,
+				coverageData.drawTileData(griddedTile, grid));
+
 		return imageData;
 	}
 
@@ -0,0 +1,285 @@
+package mil.nga.geopackage.test.db;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.db.GeoPackageConnectionPool;
+import mil.nga.geopackage.db.SQLUtils;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.geopackage.test.CreateGeoPackageTestCase;
+import mil.nga.sf.Point;
+
+import org.junit.Test;
+
+/**
+ * Test the pool of read connections with a single writer connection
+ *
+ * @author osbornb
+ */
+public class ConnectionPoolTest extends CreateGeoPackageTestCase {
+
+	/**
+	 * Test concurrent pooled reads
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testReads() throws Exception {
+
+		GeoPackageConnection connection = geoPackage.getConnection();
+		TestCase.assertFalse(connection.isPooled());
+		TestCase.assertSame(connection.getConnection(),
+				connection.getReadConnection());
+
+		List<String> featureTables = geoPackage.getFeatureTables();
+		final List<Integer> counts = new ArrayList<>();
+		for (String featureTable : featureTables) {
+			counts.add(geoPackage.getFeatureDao(featureTable).count());
+		}
+
+		final GeoPackageConnectionPool pool = connection.enablePool(2);
+		TestCase.assertTrue(connection.isPooled());
+		TestCase.assertSame(pool, connection.enablePool(2));
+		TestCase.assertEquals(2, pool.getReaders());
+
+		Connection readConnection = connection.getReadConnection();
+		TestCase.assertNotSame(connection.getConnection(), readConnection);
+		TestCase.assertSame(readConnection, connection.getReadConnection());
+		TestCase.assertEquals(1, pool.getOpenReaders());
+
+		final List<FeatureDao> featureDaos = new ArrayList<>();
+		for (int i = 0; i < featureTables.size(); i++) {
+			FeatureDao featureDao = geoPackage
+					.getFeatureDao(featureTables.get(i));
+			featureDaos.add(featureDao);
+			TestCase.assertEquals(counts.get(i).intValue(), featureDao.count());
+			TestCase.assertEquals(counts.get(i).intValue(),
+					featureDao.queryForAll().getCount());
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						boolean matches = true;
+						for (int j = 0; j < featureDaos.size(); j++) {
+							matches = matches && counts.get(j)
+									.intValue() == featureDaos.get(j).count();
+						}
+						pool.releaseReadConnection();
+						return matches;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				TestCase.assertTrue(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		TestCase.assertTrue(pool.getOpenReaders() <= 2);
+
+		pool.releaseReadConnection();
+		connection.disablePool();
+		TestCase.assertFalse(connection.isPooled());
+		TestCase.assertSame(connection.getConnection(),
+				connection.getReadConnection());
+
+	}
+
+	/**
+	 * Test reads within a writer transaction
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testTransaction() throws Exception {
+
+		GeoPackageConnection connection = geoPackage.getConnection();
+		connection.enablePool(2);
+
+		for (String featureTable : geoPackage.getFeatureTables()) {
+
+			final FeatureDao featureDao = geoPackage
+					.getFeatureDao(featureTable);
+			int countBefore = featureDao.count();
+
+			Callable<Integer> otherThreadCount = new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return featureDao.count();
+				}
+			};
+
+			featureDao.beginTransaction();
+			try {
+				TestCase.assertSame(connection.getConnection(),
+						connection.getReadConnection());
+				insertRow(featureDao);
+				TestCase.assertEquals(countBefore + 1, featureDao.count());
+				TestCase.assertEquals(countBefore,
+						count(otherThreadCount));
+			} finally {
+				featureDao.endTransaction(true);
+			}
+
+			TestCase.assertNotSame(connection.getConnection(),
+					connection.getReadConnection());
+			TestCase.assertEquals(countBefore + 1, featureDao.count());
+			TestCase.assertEquals(countBefore + 1, count(otherThreadCount));
+		}
+
+		connection.disablePool();
+	}
+
+	/**
+	 * Test the prior journal mode is restored when the pool is disabled
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testJournalMode() throws Exception {
+
+		GeoPackageConnection connection = geoPackage.getConnection();
+		String journalMode = journalMode(connection);
+		TestCase.assertFalse("wal".equalsIgnoreCase(journalMode));
+
+		GeoPackageConnectionPool pool = connection.enablePool(2);
+		TestCase.assertEquals(journalMode, pool.getPriorJournalMode());
+		TestCase.assertEquals("wal", journalMode(connection));
+		TestCase.assertSame(pool,
+				GeoPackageConnectionPool.getPool(connection.getConnection()));
+		for (String featureTable : geoPackage.getFeatureTables()) {
+			geoPackage.getFeatureDao(featureTable).count();
+		}
+
+		connection.disablePool();
+		TestCase.assertEquals(journalMode, journalMode(connection));
+		TestCase.assertNull(
+				GeoPackageConnectionPool.getPool(connection.getConnection()));
+	}
+
+	/**
+	 * Test reads within a transaction begun outside of the GeoPackage
+	 * connection
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testExternalTransaction() throws Exception {
+
+		GeoPackageConnection connection = geoPackage.getConnection();
+		Connection writer = connection.getConnection();
+		GeoPackageConnectionPool pool = connection.enablePool(2);
+
+		final FeatureDao featureDao = geoPackage
+				.getFeatureDao(geoPackage.getFeatureTables().get(0));
+		int countBefore = featureDao.count();
+
+		Callable<Integer> otherThreadCount = new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				return featureDao.count();
+			}
+		};
+
+		// Known transaction thread, the external transaction joins it
+		connection.beginTransaction();
+		boolean autoCommit = SQLUtils.beginTransaction(writer);
+		TestCase.assertFalse(autoCommit);
+		insertRow(featureDao);
+		SQLUtils.endTransaction(writer, true, autoCommit);
+		TestCase.assertSame(writer, connection.getReadConnection());
+		TestCase.assertEquals(countBefore + 1, featureDao.count());
+		connection.endTransaction(true);
+
+		TestCase.assertNotSame(writer, connection.getReadConnection());
+		TestCase.assertEquals(countBefore + 1, count(otherThreadCount));
+
+		// External transaction on another thread
+		Callable<Integer> externalCount = new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				Connection writer = featureDao.getConnection();
+				boolean autoCommit = SQLUtils.beginTransaction(writer);
+				try {
+					insertRow(featureDao);
+					TestCase.assertSame(writer,
+							featureDao.getReadConnection());
+					return featureDao.count();
+				} finally {
+					SQLUtils.endTransaction(writer, false, autoCommit);
+				}
+			}
+		};
+		TestCase.assertEquals(countBefore + 2, count(externalCount));
+		TestCase.assertEquals(countBefore + 1, featureDao.count());
+
+		pool.releaseReadConnection();
+		connection.disablePool();
+	}
+
+	/**
+	 * Query the journal mode
+	 *
+	 * @param connection
+	 *            GeoPackage connection
+	 * @return journal mode
+	 */
+	private String journalMode(GeoPackageConnection connection) {
+		return connection.querySingleResult("PRAGMA journal_mode", null)
+				.toString().toLowerCase();
+	}
+
+	/**
+	 * Count on another thread
+	 *
+	 * @param count
+	 *            count callable
+	 * @return count
+	 * @throws Exception
+	 *             upon error
+	 */
+	private int count(Callable<Integer> count) throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			return executor.submit(count).get();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Insert a row into the feature table
+	 *
+	 * @param featureDao
+	 *            feature dao
+	 */
+	private void insertRow(FeatureDao featureDao) {
+
+		FeatureRow row = featureDao.newRow();
+		GeoPackageGeometryData geometry = new GeoPackageGeometryData(featureDao
+				.getGeometryColumns().getSrsId());
+		geometry.setGeometry(new Point(0, 0));
+		row.setGeometry(geometry);
+		featureDao.insert(row);
+
+	}
+
+}
@@ -0,0 +1,172 @@
+package mil.nga.geopackage.test.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.db.PreparedStatementCache;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureResultSet;
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.test.CreateGeoPackageTestCase;
+import mil.nga.geopackage.tiles.user.TileDao;
+import mil.nga.geopackage.tiles.user.TileResultSet;
+import mil.nga.geopackage.tiles.user.TileRow;
+
+import org.junit.Test;
+
+/**
+ * Test the prepared statement cache of a GeoPackage connection
+ *
+ * @author osbornb
+ */
+public class PreparedStatementCacheTest extends CreateGeoPackageTestCase {
+
+	/**
+	 * Test repeated tile lookups reuse a cached statement
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testTileLookups() throws Exception {
+
+		PreparedStatementCache cache = geoPackage.getConnection()
+				.getStatementCache();
+
+		for (String tileTable : geoPackage.getTileTables()) {
+
+			TileDao tileDao = geoPackage.getTileDao(tileTable);
+
+			List<TileRow> tileRows = new ArrayList<>();
+			TileResultSet resultSet = tileDao.queryForAll();
+			try {
+				while (resultSet.moveToNext()) {
+					tileRows.add(resultSet.getRow());
+				}
+			} finally {
+				resultSet.close();
+			}
+			TestCase.assertFalse(tileRows.isEmpty());
+
+			long misses = cache.getMisses();
+			long hits = cache.getHits();
+
+			for (int i = 0; i < 2; i++) {
+				for (TileRow tileRow : tileRows) {
+					TileRow queryRow = tileDao.queryForTile(
+							tileRow.getTileColumn(), tileRow.getTileRow(),
+							tileRow.getZoomLevel());
+					TestCase.assertNotNull(queryRow);
+					TestCase.assertEquals(tileRow.getId(), queryRow.getId());
+				}
+			}
+			TestCase.assertNull(tileDao.queryForTile(-1, -1, -1));
+
+			TestCase.assertTrue(cache.getMisses() - misses <= 1);
+			TestCase.assertTrue(
+					cache.getHits() - hits >= 2 * tileRows.size());
+			TestCase.assertEquals(0, cache.getInUse());
+		}
+
+	}
+
+	/**
+	 * Test id lookups reuse a cached statement while results are open
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testIdLookups() throws Exception {
+
+		PreparedStatementCache cache = geoPackage.getConnection()
+				.getStatementCache();
+
+		for (String featureTable : geoPackage.getFeatureTables()) {
+
+			FeatureDao featureDao = geoPackage.getFeatureDao(featureTable);
+
+			FeatureResultSet resultSet = featureDao.queryForAll();
+			try {
+				while (resultSet.moveToNext()) {
+					long id = resultSet.getId();
+					FeatureRow row = featureDao.queryForIdRow(id);
+					TestCase.assertNotNull(row);
+					TestCase.assertEquals(id, row.getId());
+
+					// Nested lookup while the id result is open
+					FeatureResultSet idResultSet = featureDao.queryForId(id);
+					try {
+						TestCase.assertTrue(idResultSet.moveToNext());
+						TestCase.assertEquals(id,
+								featureDao.queryForIdRow(id).getId());
+						TestCase.assertEquals(1, cache.getInUse());
+					} finally {
+						idResultSet.close();
+					}
+				}
+			} finally {
+				resultSet.close();
+			}
+
+			TestCase.assertEquals(0, cache.getInUse());
+		}
+
+	}
+
+	/**
+	 * Test the cache bounds and in use statements
+	 *
+	 * @throws Exception
+	 *             upon error
+	 */
+	@Test
+	public void testCache() throws Exception {
+
+		Connection connection = geoPackage.getConnection().getConnection();
+		PreparedStatementCache cache = new PreparedStatementCache(2);
+
+		String sql1 = "SELECT 1";
+		String sql2 = "SELECT 2";
+		String sql3 = "SELECT 3";
+
+		// Concurrent acquires of the same SQL use separate statements
+		PreparedStatement statement1 = cache.acquire(connection, sql1);
+		PreparedStatement statement2 = cache.acquire(connection, sql1);
+		TestCase.assertNotSame(statement1, statement2);
+		TestCase.assertEquals(2, cache.getInUse());
+		cache.release(statement1);
+		cache.release(statement2);
+		TestCase.assertEquals(0, cache.getInUse());
+		TestCase.assertEquals(1, cache.size());
+		TestCase.assertFalse(statement1.isClosed());
+		TestCase.assertTrue(statement2.isClosed());
+		TestCase.assertSame(statement1, cache.acquire(connection, sql1));
+		cache.release(statement1);
+
+		// Least recently used statements are evicted
+		cache.release(cache.acquire(connection, sql2));
+		cache.release(cache.acquire(connection, sql1));
+		cache.release(cache.acquire(connection, sql3));
+		TestCase.assertEquals(2, cache.size());
+		long misses = cache.getMisses();
+		cache.release(cache.acquire(connection, sql1));
+		cache.release(cache.acquire(connection, sql3));
+		TestCase.assertEquals(misses, cache.getMisses());
+		cache.release(cache.acquire(connection, sql2));
+		TestCase.assertEquals(misses + 1, cache.getMisses());
+
+		// Statements in use when cleared are closed on release
+		PreparedStatement statement = cache.acquire(connection, sql1);
+		cache.clear();
+		TestCase.assertEquals(0, cache.size());
+		cache.release(statement);
+		TestCase.assertTrue(statement.isClosed());
+		TestCase.assertEquals(0, cache.size());
+
+	}
+
+}
@@ -1,5 +1,6 @@
 package mil.nga.geopackage.test.extension;
 
+import java.io.IOException;
 import java.sql.SQLException;
 
 import mil.nga.geopackage.test.CreateGeoPackageTestCase;
@@ -33,6 +34,21 @@ public class RTreeIndexExtensionCreateTest extends CreateGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test RTree geometry function envelope reader
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testEnvelopeReader() throws SQLException, IOException {
+
+		RTreeIndexExtensionUtils.testEnvelopeReader(geoPackage);
+
+	}
+
 	@Override
 	public boolean allowEmptyFeatures() {
 		return false;
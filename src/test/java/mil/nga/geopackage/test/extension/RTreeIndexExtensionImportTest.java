@@ -1,5 +1,6 @@
 package mil.nga.geopackage.test.extension;
 
+import java.io.IOException;
 import java.sql.SQLException;
 
 import mil.nga.geopackage.test.ImportGeoPackageTestCase;
@@ -33,4 +34,19 @@ public class RTreeIndexExtensionImportTest extends ImportGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test RTree geometry function envelope reader
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testEnvelopeReader() throws SQLException, IOException {
+
+		RTreeIndexExtensionUtils.testEnvelopeReader(geoPackage);
+
+	}
+
 }
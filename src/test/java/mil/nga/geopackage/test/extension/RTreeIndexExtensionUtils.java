@@ -1,5 +1,6 @@
 package mil.nga.geopackage.test.extension;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -7,12 +8,15 @@ import junit.framework.TestCase;
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.extension.Extensions;
+import mil.nga.geopackage.extension.GeometryEnvelopeReader;
 import mil.nga.geopackage.extension.RTreeIndexExtension;
 import mil.nga.geopackage.extension.RTreeIndexTableDao;
 import mil.nga.geopackage.extension.RTreeIndexTableRow;
 import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureResultSet;
 import mil.nga.geopackage.features.user.FeatureRow;
 import mil.nga.geopackage.features.user.FeatureTable;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
 import mil.nga.geopackage.user.custom.UserCustomResultSet;
 import mil.nga.sf.GeometryEnvelope;
 import mil.nga.sf.proj.Projection;
@@ -153,4 +157,111 @@ public class RTreeIndexExtensionUtils {
 
 	}
 
+	/**
+	 * Test the RTree geometry function envelope reader
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	public static void testEnvelopeReader(GeoPackage geoPackage)
+			throws SQLException, IOException {
+
+		RTreeIndexExtension extension = new RTreeIndexExtension(geoPackage);
+		GeometryEnvelopeReader reader = extension.getEnvelopeReader();
+		TestCase.assertTrue(reader.isEmpty(null));
+		TestCase.assertNull(reader.getEnvelope(new byte[0]));
+
+		List<String> featureTables = geoPackage.getFeatureTables();
+		for (String featureTable : featureTables) {
+
+			FeatureDao featureDao = geoPackage.getFeatureDao(featureTable);
+
+			FeatureResultSet resultSet = featureDao.queryForAll();
+			while (resultSet.moveToNext()) {
+
+				GeoPackageGeometryData geometryData = resultSet.getGeometry();
+				if (geometryData == null) {
+					continue;
+				}
+				byte[] bytes = geometryData.getBytes();
+
+				GeoPackageGeometryData expected = new GeoPackageGeometryData(
+						bytes);
+				validateEnvelopeReader(reader, bytes, expected);
+
+				// The result set envelope is read without the geometry
+				GeometryEnvelope resultSetEnvelope = resultSet
+						.getGeometryEnvelope();
+				if (reader.isEmpty(bytes)) {
+					TestCase.assertNull(resultSetEnvelope);
+				} else {
+					validateEnvelope(reader.getEnvelope(bytes),
+							resultSetEnvelope);
+				}
+
+				// Without a header envelope, the well-known binary is scanned
+				// without a geometry parse
+				GeoPackageGeometryData noEnvelope = new GeoPackageGeometryData(
+						bytes);
+				noEnvelope.setEnvelope(null);
+				byte[] noEnvelopeBytes = noEnvelope.toBytes();
+				long parses = reader.getParseCount();
+				for (int i = 0; i < 5; i++) {
+					validateEnvelopeReader(reader, noEnvelopeBytes,
+							new GeoPackageGeometryData(noEnvelopeBytes));
+				}
+				TestCase.assertEquals(parses, reader.getParseCount());
+			}
+			resultSet.close();
+		}
+
+	}
+
+	/**
+	 * Validate the envelope reader against the parsed geometry data
+	 *
+	 * @param reader
+	 *            envelope reader
+	 * @param bytes
+	 *            geometry bytes
+	 * @param expected
+	 *            expected geometry data
+	 */
+	private static void validateEnvelopeReader(GeometryEnvelopeReader reader,
+			byte[] bytes, GeoPackageGeometryData expected) {
+
+		TestCase.assertEquals(
+				expected.isEmpty() || expected.getGeometry() == null,
+				reader.isEmpty(bytes));
+
+		GeometryEnvelope expectedEnvelope = expected.getOrBuildEnvelope();
+		GeometryEnvelope envelope = reader.getEnvelope(bytes);
+		if (expectedEnvelope == null) {
+			TestCase.assertNull(envelope);
+		} else {
+			validateEnvelope(expectedEnvelope, envelope);
+		}
+	}
+
+	/**
+	 * Validate the envelope x and y values
+	 *
+	 * @param expectedEnvelope
+	 *            expected envelope
+	 * @param envelope
+	 *            envelope
+	 */
+	private static void validateEnvelope(GeometryEnvelope expectedEnvelope,
+			GeometryEnvelope envelope) {
+		TestCase.assertNotNull(envelope);
+		TestCase.assertEquals(expectedEnvelope.getMinX(), envelope.getMinX());
+		TestCase.assertEquals(expectedEnvelope.getMaxX(), envelope.getMaxX());
+		TestCase.assertEquals(expectedEnvelope.getMinY(), envelope.getMinY());
+		TestCase.assertEquals(expectedEnvelope.getMaxY(), envelope.getMaxY());
+	}
+
 }
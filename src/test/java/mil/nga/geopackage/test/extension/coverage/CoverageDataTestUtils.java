@@ -10,6 +10,8 @@ import mil.nga.geopackage.core.srs.SpatialReferenceSystem;
 import mil.nga.geopackage.core.srs.SpatialReferenceSystemDao;
 import mil.nga.geopackage.extension.coverage.CoverageData;
 import mil.nga.geopackage.extension.coverage.CoverageDataAlgorithm;
+import mil.nga.geopackage.extension.coverage.CoverageDataGrid;
+import mil.nga.geopackage.extension.coverage.CoverageDataGridResults;
 import mil.nga.geopackage.extension.coverage.CoverageDataResults;
 import mil.nga.geopackage.extension.coverage.GriddedCoverage;
 import mil.nga.geopackage.extension.coverage.GriddedCoverageEncodingType;
@@ -122,6 +124,7 @@ public class CoverageDataTestUtils {
 						values.getValue(y, x));
 			}
 		}
+		compareGrid(values, coverageData2.getGrid(requestBoundingBox));
 
 		int specifiedWidth = 50;
 		int specifiedHeight = 100;
@@ -145,6 +148,7 @@ public class CoverageDataTestUtils {
 						values.getValue(y, x));
 			}
 		}
+		compareGrid(values, coverageData2.getGrid(requestBoundingBox));
 
 		values = coverageData2.getValuesUnbounded(requestBoundingBox);
 		TestCase.assertNotNull(values);
@@ -474,4 +478,43 @@ public class CoverageDataTestUtils {
 
 	}
 
+	/**
+	 * Compare coverage data results to a coverage data grid
+	 *
+	 * @param results
+	 *            coverage data results
+	 * @param grid
+	 *            coverage data grid
+	 */
+	private static void compareGrid(CoverageDataResults results,
+			CoverageDataGrid grid) {
+		TestCase.assertNotNull(grid);
+		TestCase.assertEquals(results.getWidth(), grid.getWidth());
+		TestCase.assertEquals(results.getHeight(), grid.getHeight());
+		TestCase.assertEquals(results.getZoomLevel(), grid.getZoomLevel());
+		TestCase.assertEquals(grid.getWidth() * grid.getHeight(),
+				grid.getValues().length);
+		TestCase.assertTrue(results instanceof CoverageDataGridResults);
+		double[] primitiveValues = ((CoverageDataGridResults) results)
+				.getPrimitiveValues();
+		TestCase.assertEquals(grid.getValues().length, primitiveValues.length);
+		for (int y = 0; y < grid.getHeight(); y++) {
+			for (int x = 0; x < grid.getWidth(); x++) {
+				Double value = results.getValues()[y][x];
+				TestCase.assertEquals(value == null, grid.isNull(x, y));
+				TestCase.assertEquals(value, grid.getValue(x, y));
+				if (value != null) {
+					TestCase.assertEquals(value.doubleValue(),
+							primitiveValues[grid.getIndex(x, y)]);
+				}
+			}
+		}
+		Double[][] array = grid.toArray();
+		for (int y = 0; y < grid.getHeight(); y++) {
+			for (int x = 0; x < grid.getWidth(); x++) {
+				TestCase.assertEquals(results.getValues()[y][x], array[y][x]);
+			}
+		}
+	}
+
 }
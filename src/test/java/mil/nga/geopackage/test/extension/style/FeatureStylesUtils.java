@@ -15,7 +15,9 @@ import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.extension.GeoPackageExtensions;
 import mil.nga.geopackage.extension.contents.ContentsId;
 import mil.nga.geopackage.extension.contents.ContentsIdExtension;
+import mil.nga.geopackage.extension.style.FeatureStyle;
 import mil.nga.geopackage.extension.style.FeatureStyleExtension;
+import mil.nga.geopackage.extension.style.FeatureStyleResolver;
 import mil.nga.geopackage.extension.style.FeatureStyles;
 import mil.nga.geopackage.extension.style.FeatureTableStyles;
 import mil.nga.geopackage.extension.style.IconDao;
@@ -58,6 +60,8 @@ public class FeatureStylesUtils {
 
 		List<String> featureTables = geoPackage.getFeatureTables();
 
+		Map<String, FeatureStyleResolver> featureStyleResolvers = new HashMap<>();
+
 		if (!featureTables.isEmpty()) {
 
 			TestCase.assertFalse(geoPackage.isTable(StyleTable.TABLE_NAME));
@@ -302,6 +306,12 @@ public class FeatureStylesUtils {
 				Map<Long, Map<GeometryType, StyleRow>> featureResultsStyles = new HashMap<>();
 				Map<Long, Map<GeometryType, IconRow>> featureResultsIcons = new HashMap<>();
 
+				FeatureStyleResolver featureStyleResolver = new FeatureStyleResolver(
+						featureTableStyles);
+				featureStyleResolver.load();
+				TestCase.assertTrue(featureStyleResolver.isLoaded());
+				featureStyleResolvers.put(tableName, featureStyleResolver);
+
 				featureResultSet = featureDao.queryForAll();
 				while (featureResultSet.moveToNext()) {
 
@@ -372,6 +382,11 @@ public class FeatureStylesUtils {
 				}
 				featureResultSet.close();
 
+				if (!featureResultsStyles.isEmpty()
+						|| !featureResultsIcons.isEmpty()) {
+					TestCase.assertFalse(featureStyleResolver.isLoaded());
+				}
+
 				featureResultSet = featureDao.queryForAll();
 				while (featureResultSet.moveToNext()) {
 
@@ -385,9 +400,29 @@ public class FeatureStylesUtils {
 							tableIconDefault, geometryTypeTableIcons,
 							featureResultsIcons);
 
+					validateResolver(featureTableStyles, featureStyleResolver,
+							featureRow);
+
 				}
 				featureResultSet.close();
 
+				// Style and icon row updates reload the resolver
+				String styleName = "updated_style_" + tableName;
+				tableStyleDefault.setName(styleName);
+				featureTableStyles.getStyleDao().update(tableStyleDefault);
+				TestCase.assertFalse(featureStyleResolver.isLoaded());
+				TestCase.assertEquals(styleName,
+						featureStyleResolver.getStyle(-1, null).getName());
+				TestCase.assertTrue(featureStyleResolver.isLoaded());
+
+				String iconName = "updated_icon_" + tableName;
+				tableIconDefault.setName(iconName);
+				featureTableStyles.getIconDao().update(tableIconDefault);
+				TestCase.assertFalse(featureStyleResolver.isLoaded());
+				TestCase.assertEquals(iconName,
+						featureStyleResolver.getIcon(-1, null).getName());
+				TestCase.assertTrue(featureStyleResolver.isLoaded());
+
 			}
 
 			List<String> tables = featureStyleExtension.getTables();
@@ -404,6 +439,10 @@ public class FeatureStylesUtils {
 
 				featureStyleExtension.deleteAllFeatureStyles(tableName);
 
+				FeatureStyleResolver featureStyleResolver = featureStyleResolvers
+						.get(tableName);
+				TestCase.assertFalse(featureStyleResolver.isLoaded());
+
 				TestCase.assertNull(featureStyleExtension
 						.getTableStyles(tableName));
 				TestCase.assertNull(featureStyleExtension
@@ -419,6 +458,8 @@ public class FeatureStylesUtils {
 							.getStyles(featureRow));
 					TestCase.assertNull(featureStyleExtension
 							.getIcons(featureRow));
+					TestCase.assertNull(featureStyleResolver
+							.getFeatureStyle(featureRow));
 
 				}
 				featureResultSet.close();
@@ -453,6 +494,49 @@ public class FeatureStylesUtils {
 
 	}
 
+	private static void validateResolver(
+			FeatureTableStyles featureTableStyles,
+			FeatureStyleResolver featureStyleResolver, FeatureRow featureRow) {
+
+		List<GeometryType> geometryTypes = new ArrayList<>();
+		geometryTypes.add(null);
+		geometryTypes.add(featureRow.getGeometryType());
+
+		for (GeometryType geometryType : geometryTypes) {
+
+			StyleRow expectedStyle = featureTableStyles.getStyle(
+					featureRow.getId(), geometryType);
+			StyleRow style = featureStyleResolver.getStyle(featureRow.getId(),
+					geometryType);
+			if (expectedStyle == null) {
+				TestCase.assertNull(style);
+			} else {
+				TestCase.assertNotNull(style);
+				TestCase.assertEquals(expectedStyle.getId(), style.getId());
+			}
+
+			IconRow expectedIcon = featureTableStyles.getIcon(
+					featureRow.getId(), geometryType);
+			IconRow icon = featureStyleResolver.getIcon(featureRow.getId(),
+					geometryType);
+			if (expectedIcon == null) {
+				TestCase.assertNull(icon);
+			} else {
+				TestCase.assertNotNull(icon);
+				TestCase.assertEquals(expectedIcon.getId(), icon.getId());
+			}
+
+			FeatureStyle expectedFeatureStyle = featureTableStyles
+					.getFeatureStyle(featureRow.getId(), geometryType);
+			FeatureStyle featureStyle = featureStyleResolver.getFeatureStyle(
+					featureRow.getId(), geometryType);
+			TestCase.assertEquals(expectedFeatureStyle == null,
+					featureStyle == null);
+		}
+
+		TestCase.assertTrue(featureStyleResolver.isLoaded());
+	}
+
 	private static void validateTableStyles(
 			FeatureTableStyles featureTableStyles, StyleRow styleRow,
 			Map<GeometryType, StyleRow> geometryTypeStyles,
@@ -1,5 +1,6 @@
 package mil.nga.geopackage.test.features.index;
 
+import java.io.IOException;
 import java.sql.SQLException;
 
 import mil.nga.geopackage.test.ImportGeoPackageTestCase;
@@ -33,6 +34,60 @@ public class FeatureIndexManagerImportTest extends ImportGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test memory index
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testMemoryIndex() throws SQLException {
+
+		FeatureIndexManagerUtils.testMemoryIndex(geoPackage);
+
+	}
+
+	/**
+	 * Test memory index snapshot
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testSnapshot() throws SQLException, IOException {
+
+		FeatureIndexManagerUtils.testSnapshot(geoPackage);
+
+	}
+
+	/**
+	 * Test threaded index
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testThreadedIndex() throws SQLException {
+
+		FeatureIndexManagerUtils.testThreadedIndex(geoPackage);
+
+	}
+
+	/**
+	 * Test parallel manual query
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testParallelManualQuery() throws SQLException {
+
+		FeatureIndexManagerUtils.testParallelManualQuery(geoPackage);
+
+	}
+
 	/**
 	 * Test large index
 	 *
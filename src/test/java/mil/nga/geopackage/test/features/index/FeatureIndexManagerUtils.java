@@ -1,11 +1,15 @@
 package mil.nga.geopackage.test.features.index;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -14,16 +18,24 @@ import junit.framework.TestCase;
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.core.srs.SpatialReferenceSystem;
+import mil.nga.geopackage.db.CoreSQLUtils;
 import mil.nga.geopackage.db.GeoPackageDataType;
 import mil.nga.geopackage.features.columns.GeometryColumns;
+import mil.nga.geopackage.features.index.FeatureIndexIdResults;
+import mil.nga.geopackage.features.index.FeatureIndexListResults;
 import mil.nga.geopackage.features.index.FeatureIndexManager;
 import mil.nga.geopackage.features.index.FeatureIndexResults;
+import mil.nga.geopackage.features.index.FeatureIndexSnapshot;
 import mil.nga.geopackage.features.index.FeatureIndexType;
+import mil.nga.geopackage.features.index.PackedRTree;
 import mil.nga.geopackage.features.user.FeatureColumn;
 import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.features.user.FeatureResultSet;
 import mil.nga.geopackage.features.user.FeatureRow;
 import mil.nga.geopackage.features.user.FeatureTable;
+import mil.nga.geopackage.features.user.ManualFeatureQuery;
+import mil.nga.geopackage.features.user.ManualFeatureQueryResults;
+import mil.nga.geopackage.features.user.ManualFeatureQueryStream;
 import mil.nga.geopackage.geom.GeoPackageGeometryData;
 import mil.nga.geopackage.manager.GeoPackageManager;
 import mil.nga.geopackage.schema.TableColumnKey;
@@ -466,6 +478,564 @@ public class FeatureIndexManagerUtils {
 		}
 	}
 
+	/**
+	 * Test the memory index against the GeoPackage index
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testMemoryIndex(GeoPackage geoPackage)
+			throws SQLException {
+
+		for (String featureTable : geoPackage.getFeatureTables()) {
+
+			FeatureDao featureDao = geoPackage.getFeatureDao(featureTable);
+			FeatureIndexManager featureIndexManager = new FeatureIndexManager(
+					geoPackage, featureDao);
+			featureIndexManager.setContinueOnError(false);
+			featureIndexManager.deleteAllIndexes();
+			TestCase.assertFalse(
+					featureIndexManager.isIndexed(FeatureIndexType.MEMORY));
+			TestCase.assertNull(featureIndexManager
+					.getLastIndexed(FeatureIndexType.MEMORY));
+
+			// Index from the feature table
+			int tableCount = featureIndexManager
+					.index(FeatureIndexType.MEMORY);
+			TestCase.assertTrue(
+					featureIndexManager.isIndexed(FeatureIndexType.MEMORY));
+			TestCase.assertSame(featureDao.getMemoryIndex(),
+					featureIndexManager.getMemoryIndex());
+			TestCase.assertEquals(0,
+					featureIndexManager.index(FeatureIndexType.MEMORY));
+
+			// Index from the GeoPackage index
+			featureIndexManager.index(FeatureIndexType.GEOPACKAGE);
+			featureIndexManager.prioritizeQueryLocation(
+					FeatureIndexType.GEOPACKAGE);
+			long expectedCount = featureIndexManager.count();
+			TestCase.assertEquals(tableCount, featureIndexManager
+					.index(FeatureIndexType.MEMORY, true));
+			TestCase.assertEquals(expectedCount, tableCount);
+			TestCase.assertNotNull(featureIndexManager
+					.getLastIndexed(FeatureIndexType.MEMORY));
+
+			BoundingBox boundingBox = featureIndexManager.getBoundingBox();
+			FeatureRow testFeatureRow = null;
+			if (boundingBox != null) {
+				List<FeatureIndexTestEnvelope> envelopes = createEnvelopes(
+						boundingBox.buildEnvelope());
+				for (FeatureIndexTestEnvelope testEnvelope : envelopes) {
+					featureIndexManager.prioritizeQueryLocation(
+							FeatureIndexType.GEOPACKAGE);
+					List<Long> expectedIds = new ArrayList<>();
+					FeatureIndexResults results = featureIndexManager
+							.query(testEnvelope.envelope);
+					for (long id : results.ids()) {
+						expectedIds.add(id);
+					}
+					results.close();
+
+					featureIndexManager
+							.prioritizeQueryLocation(FeatureIndexType.MEMORY);
+					TestCase.assertEquals(expectedIds.size(),
+							featureIndexManager.count(testEnvelope.envelope));
+					results = featureIndexManager.query(testEnvelope.envelope);
+					TestCase.assertEquals(expectedIds.size(), results.count());
+					int count = 0;
+					for (FeatureRow featureRow : results) {
+						TestCase.assertTrue(
+								expectedIds.contains(featureRow.getId()));
+						testFeatureRow = featureRow;
+						count++;
+					}
+					results.close();
+					TestCase.assertEquals(expectedIds.size(), count);
+				}
+				featureIndexManager
+						.prioritizeQueryLocation(FeatureIndexType.MEMORY);
+				TestCase.assertEquals(boundingBox,
+						featureIndexManager.getBoundingBox());
+
+				// A second iterator does not disturb an open iterator
+				FeatureIndexResults results = featureIndexManager
+						.query(boundingBox.buildEnvelope());
+				TestCase.assertTrue(results instanceof FeatureIndexIdResults);
+				((FeatureIndexIdResults) results).setChunkSize(2);
+				Iterator<FeatureRow> first = results.iterator();
+				TestCase.assertTrue(first.hasNext());
+				List<Long> firstIds = new ArrayList<>();
+				firstIds.add(first.next().getId());
+				List<Long> secondIds = new ArrayList<>();
+				for (FeatureRow featureRow : results) {
+					secondIds.add(featureRow.getId());
+				}
+				while (first.hasNext()) {
+					firstIds.add(first.next().getId());
+				}
+				results.close();
+				TestCase.assertEquals(secondIds, firstIds);
+				TestCase.assertEquals(featureIndexManager.count(boundingBox
+						.buildEnvelope()), firstIds.size());
+			}
+
+			featureIndexManager.prioritizeQueryLocation(FeatureIndexType.MEMORY);
+			TestCase.assertEquals(expectedCount, featureIndexManager.count());
+
+			if (testFeatureRow != null) {
+
+				// Query with an additional where clause
+				String idWhere = featureDao.buildWhere(
+						featureDao.getTable().getPkColumn().getName(),
+						testFeatureRow.getId());
+				String[] idWhereArgs = featureDao
+						.buildWhereArgs(testFeatureRow.getId());
+				TestCase.assertEquals(1,
+						featureIndexManager.count(idWhere, idWhereArgs));
+				FeatureIndexResults results = featureIndexManager
+						.query(idWhere, idWhereArgs);
+				TestCase.assertEquals(1, results.count());
+				for (FeatureRow featureRow : results) {
+					TestCase.assertEquals(testFeatureRow.getId(),
+							featureRow.getId());
+				}
+				results.close();
+
+				// Sync deleted and indexed rows
+				GeometryEnvelope envelope = testFeatureRow
+						.getGeometryEnvelope();
+				long envelopeCount = featureIndexManager.count(envelope);
+				TestCase.assertTrue(featureIndexManager.deleteIndex(
+						FeatureIndexType.GEOPACKAGE, testFeatureRow));
+				TestCase.assertEquals(expectedCount - 1,
+						featureIndexManager.count());
+				TestCase.assertEquals(envelopeCount - 1,
+						featureIndexManager.count(envelope));
+				TestCase.assertTrue(featureIndexManager
+						.index(FeatureIndexType.MEMORY, testFeatureRow));
+				TestCase.assertEquals(expectedCount,
+						featureIndexManager.count());
+				TestCase.assertEquals(envelopeCount,
+						featureIndexManager.count(envelope));
+				TestCase.assertTrue(featureIndexManager
+						.index(FeatureIndexType.MEMORY, testFeatureRow));
+				TestCase.assertEquals(expectedCount,
+						featureIndexManager.count());
+			}
+
+			// Index from the RTree index
+			featureIndexManager.index(FeatureIndexType.RTREE);
+			featureIndexManager.prioritizeQueryLocation(FeatureIndexType.RTREE);
+			long rTreeCount = featureIndexManager.count();
+			featureIndexManager.deleteIndex(FeatureIndexType.GEOPACKAGE);
+			TestCase.assertEquals(rTreeCount, featureIndexManager
+					.index(FeatureIndexType.MEMORY, true));
+
+			TestCase.assertTrue(
+					featureIndexManager.deleteIndex(FeatureIndexType.MEMORY));
+			TestCase.assertFalse(
+					featureIndexManager.isIndexed(FeatureIndexType.MEMORY));
+
+			featureIndexManager.deleteAllIndexes();
+			featureIndexManager.close();
+		}
+
+	}
+
+	/**
+	 * Test writing and reading memory index snapshots
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	public static void testSnapshot(GeoPackage geoPackage)
+			throws SQLException, IOException {
+
+		for (String featureTable : geoPackage.getFeatureTables()) {
+
+			FeatureDao featureDao = geoPackage.getFeatureDao(featureTable);
+			FeatureIndexManager featureIndexManager = new FeatureIndexManager(
+					geoPackage, featureDao);
+			featureIndexManager.setContinueOnError(false);
+			featureIndexManager.deleteAllIndexes();
+
+			TestCase.assertEquals(
+					new File(geoPackage.getPath() + "." + featureTable + ".idx"),
+					featureIndexManager.getSnapshotFile());
+			File snapshotFile = File.createTempFile("snapshot", ".idx");
+			snapshotFile.delete();
+			featureIndexManager.setSnapshotFile(snapshotFile);
+			TestCase.assertFalse(featureIndexManager.readSnapshot());
+
+			try {
+
+				// Snapshots require a GeoPackage index
+				TestCase.assertNull(featureIndexManager.getSnapshotTimestamp());
+				TestCase.assertFalse(featureIndexManager.writeSnapshot());
+				TestCase.assertFalse(snapshotFile.exists());
+
+				featureIndexManager.index(FeatureIndexType.GEOPACKAGE);
+				Date timestamp = featureIndexManager.getSnapshotTimestamp();
+				TestCase.assertEquals(featureIndexManager
+						.getLastIndexed(FeatureIndexType.GEOPACKAGE), timestamp);
+
+				TestCase.assertTrue(featureIndexManager.writeSnapshot());
+				TestCase.assertTrue(snapshotFile.isFile());
+				TestCase.assertEquals(timestamp,
+						FeatureIndexSnapshot.readTimestamp(snapshotFile));
+				PackedRTree tree = featureIndexManager.getMemoryIndex()
+						.getTree();
+
+				// Read the snapshot into the memory index
+				featureIndexManager.deleteIndex(FeatureIndexType.MEMORY);
+				TestCase.assertTrue(featureIndexManager.readSnapshot());
+				TestCase.assertTrue(featureIndexManager
+						.isIndexed(FeatureIndexType.MEMORY));
+				PackedRTree snapshotTree = featureIndexManager.getMemoryIndex()
+						.getTree();
+				TestCase.assertNotSame(tree, snapshotTree);
+				TestCase.assertEquals(tree.size(), snapshotTree.size());
+				TestCase.assertTrue(
+						Arrays.equals(tree.getIds(), snapshotTree.getIds()));
+				TestCase.assertTrue(Arrays.equals(tree.getEnvelopes(),
+						snapshotTree.getEnvelopes()));
+
+				featureIndexManager.prioritizeQueryLocation(
+						FeatureIndexType.GEOPACKAGE);
+				long count = featureIndexManager.count();
+				BoundingBox boundingBox = featureIndexManager.getBoundingBox();
+				featureIndexManager
+						.prioritizeQueryLocation(FeatureIndexType.MEMORY);
+				TestCase.assertEquals(count, featureIndexManager.count());
+				if (boundingBox != null) {
+					TestCase.assertEquals(boundingBox,
+							featureIndexManager.getBoundingBox());
+					for (FeatureIndexTestEnvelope testEnvelope : createEnvelopes(
+							boundingBox.buildEnvelope())) {
+						TestCase.assertEquals(
+								tree.count(testEnvelope.envelope),
+								featureIndexManager
+										.count(testEnvelope.envelope));
+					}
+				}
+
+				// Index from a valid snapshot
+				featureIndexManager.deleteIndex(FeatureIndexType.MEMORY);
+				TestCase.assertEquals(count,
+						featureIndexManager.index(FeatureIndexType.MEMORY));
+
+				// Stale snapshot after rows change without re-indexing
+				FeatureResultSet featureResultSet = featureDao.queryForAll();
+				FeatureRow featureRow = null;
+				try {
+					if (featureResultSet.moveToNext()) {
+						featureRow = featureResultSet.getRow();
+					}
+				} finally {
+					featureResultSet.close();
+				}
+				if (featureRow != null) {
+					FeatureRow copyRow = featureRow.copy();
+					copyRow.resetId();
+					long copyId = featureDao.insert(copyRow);
+					TestCase.assertEquals(timestamp,
+							featureIndexManager.getSnapshotTimestamp());
+					TestCase.assertFalse(featureIndexManager.readSnapshot());
+					TestCase.assertEquals(1, featureDao.deleteById(copyId));
+					TestCase.assertTrue(featureIndexManager.readSnapshot());
+				}
+
+				// Replace the snapshot file while its tree is in use
+				TestCase.assertTrue(featureIndexManager.writeSnapshot());
+				TestCase.assertTrue(featureIndexManager.readSnapshot());
+				TestCase.assertTrue(featureIndexManager.writeSnapshot());
+
+				// Stale snapshot after the table is re-indexed
+				featureIndexManager.index(FeatureIndexType.GEOPACKAGE, true);
+				TestCase.assertFalse(timestamp
+						.equals(featureIndexManager.getSnapshotTimestamp()));
+				TestCase.assertFalse(featureIndexManager.readSnapshot());
+				TestCase.assertNull(
+						FeatureIndexSnapshot.read(snapshotFile, new Date(0)));
+				TestCase.assertNotNull(
+						FeatureIndexSnapshot.read(snapshotFile, null));
+
+				TestCase.assertTrue(featureIndexManager.writeSnapshot());
+				TestCase.assertTrue(featureIndexManager.readSnapshot());
+
+			} finally {
+				featureIndexManager.deleteAllIndexes();
+				featureIndexManager.close();
+				featureIndexManager.deleteSnapshot();
+			}
+			TestCase.assertFalse(snapshotFile.exists());
+		}
+
+	}
+
+	/**
+	 * Test indexing with multiple geometry decode threads against single
+	 * threaded indexing
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testThreadedIndex(GeoPackage geoPackage)
+			throws SQLException {
+		testThreadedIndex(geoPackage, FeatureIndexType.GEOPACKAGE);
+		testThreadedIndex(geoPackage, FeatureIndexType.RTREE);
+	}
+
+	/**
+	 * Test indexing with multiple geometry decode threads against single
+	 * threaded indexing
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @param type
+	 *            feature index type
+	 * @throws SQLException
+	 *             upon error
+	 */
+	private static void testThreadedIndex(GeoPackage geoPackage,
+			FeatureIndexType type) throws SQLException {
+
+		for (String featureTable : geoPackage.getFeatureTables()) {
+
+			FeatureIndexManager featureIndexManager = new FeatureIndexManager(
+					geoPackage, featureTable);
+			featureIndexManager.setIndexLocation(type);
+			featureIndexManager.prioritizeQueryLocation(type);
+			featureIndexManager.deleteAllIndexes();
+			TestCase.assertEquals(1, featureIndexManager.getThreads());
+
+			int indexCount = featureIndexManager.index();
+			long count = featureIndexManager.count();
+			BoundingBox boundingBox = featureIndexManager.getBoundingBox();
+			long boundedCount = boundingBox != null
+					? featureIndexManager.count(halfBoundingBox(boundingBox))
+					: 0;
+
+			featureIndexManager.deleteAllIndexes();
+			TestCase.assertFalse(featureIndexManager.isIndexed());
+
+			featureIndexManager.setThreads(4);
+			TestCase.assertEquals(4, featureIndexManager.getThreads());
+			TestCase.assertEquals(4, featureIndexManager.getFeatureTableIndex()
+					.getThreads());
+			TestCase.assertEquals(4, featureIndexManager
+					.getRTreeIndexTableDao().getThreads());
+
+			TestGeoPackageProgress progress = new TestGeoPackageProgress();
+			featureIndexManager.setProgress(progress);
+
+			TestCase.assertEquals(indexCount, featureIndexManager.index());
+			TestCase.assertTrue(featureIndexManager.isIndexed(type));
+			TestCase.assertEquals(indexCount, progress.getProgress());
+			TestCase.assertEquals(count, featureIndexManager.count());
+			BoundingBox threadedBoundingBox = featureIndexManager
+					.getBoundingBox();
+			if (boundingBox == null) {
+				TestCase.assertNull(threadedBoundingBox);
+			} else {
+				TestCase.assertEquals(boundingBox, threadedBoundingBox);
+				TestCase.assertEquals(boundedCount, featureIndexManager
+						.count(halfBoundingBox(boundingBox)));
+			}
+
+			// Index within a caller transaction, sharing the connection. The
+			// GeoPackage index metadata is written through the separate ORMLite
+			// connection, so only the RTree index is indexed in a transaction.
+			if (type == FeatureIndexType.RTREE) {
+				featureIndexManager.deleteAllIndexes();
+				geoPackage.beginTransaction();
+				try {
+					TestCase.assertEquals(indexCount,
+							featureIndexManager.index());
+				} finally {
+					geoPackage.endTransaction(true);
+				}
+				TestCase.assertTrue(featureIndexManager.isIndexed(type));
+				TestCase.assertEquals(count, featureIndexManager.count());
+			}
+
+			featureIndexManager.close();
+		}
+
+	}
+
+	/**
+	 * Test parallel manual feature queries and query streams against serial
+	 * manual queries
+	 *
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testParallelManualQuery(GeoPackage geoPackage)
+			throws SQLException {
+
+		for (String featureTable : geoPackage.getFeatureTables()) {
+
+			FeatureDao featureDao = geoPackage.getFeatureDao(featureTable);
+			ManualFeatureQuery serialQuery = new ManualFeatureQuery(
+					featureDao);
+			ManualFeatureQuery parallelQuery = new ManualFeatureQuery(
+					featureDao);
+			parallelQuery.setThreads(4);
+			TestCase.assertEquals(4, parallelQuery.getThreads());
+
+			BoundingBox boundingBox = serialQuery.getBoundingBox();
+			if (boundingBox == null) {
+				continue;
+			}
+
+			String where = CoreSQLUtils.quoteWrap(featureDao.getTable()
+					.getPkColumn().getName()) + " % 2 = 0";
+
+			for (BoundingBox queryBoundingBox : new BoundingBox[] {
+					boundingBox, halfBoundingBox(boundingBox) }) {
+				for (String queryWhere : new String[] { null, where }) {
+
+					List<Long> expected = new ArrayList<>();
+					for (long id : serialQuery
+							.query(queryBoundingBox, queryWhere, null).ids()) {
+						expected.add(id);
+					}
+					Collections.sort(expected);
+
+					ManualFeatureQueryResults results = parallelQuery
+							.query(queryBoundingBox, queryWhere, null);
+					List<Long> parallel = new ArrayList<>();
+					for (long id : results.ids()) {
+						parallel.add(id);
+					}
+					TestCase.assertEquals(expected, parallel);
+					TestCase.assertEquals(expected, results.getFeatureIds());
+
+					// Rows are read in chunks of ids
+					results.setChunkSize(7);
+					List<Long> rowIds = new ArrayList<>();
+					for (FeatureRow row : results) {
+						rowIds.add(row.getId());
+					}
+					results.close();
+					TestCase.assertEquals(expected, rowIds);
+
+					FeatureIndexListResults listResults = new FeatureIndexListResults(
+							featureDao, results.getIds());
+					TestCase.assertEquals(expected.size(), listResults.count());
+					List<Long> listIds = new ArrayList<>();
+					for (long id : listResults.ids()) {
+						listIds.add(id);
+					}
+					TestCase.assertEquals(expected, listIds);
+
+					List<Long> streamed = new ArrayList<>();
+					ManualFeatureQueryStream stream = parallelQuery
+							.queryStream(queryBoundingBox, queryWhere, null);
+					try {
+						TestCase.assertTrue(stream.getThreads() <= 4);
+						long[] ids;
+						while ((ids = stream.nextIds()) != null) {
+							for (long id : ids) {
+								streamed.add(id);
+							}
+						}
+						TestCase.assertTrue(stream.isFinished());
+					} finally {
+						stream.close();
+					}
+					Collections.sort(streamed);
+					TestCase.assertEquals(expected, streamed);
+
+					// Single threaded streams scan on the calling thread
+					stream = serialQuery.queryStream(queryBoundingBox,
+							queryWhere, null);
+					try {
+						TestCase.assertEquals(1, stream.getThreads());
+						TestCase.assertEquals(expected,
+								toList(stream.readIds()));
+					} finally {
+						stream.close();
+					}
+
+					// Uncommitted changes are scanned on the calling thread
+					geoPackage.beginTransaction();
+					try {
+						stream = parallelQuery.queryStream(queryBoundingBox,
+								queryWhere, null);
+						try {
+							TestCase.assertEquals(1, stream.getThreads());
+							TestCase.assertEquals(expected,
+									toList(stream.readIds()));
+						} finally {
+							stream.close();
+						}
+					} finally {
+						geoPackage.endTransaction(false);
+					}
+
+					// Pooled read connections are reused by the workers
+					geoPackage.getConnection().enablePool(2);
+					try {
+						stream = parallelQuery.queryStream(queryBoundingBox,
+								queryWhere, null);
+						try {
+							TestCase.assertEquals(expected,
+									toList(stream.readIds()));
+						} finally {
+							stream.close();
+						}
+					} finally {
+						geoPackage.getConnection().disablePool();
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Convert the ids to a list
+	 *
+	 * @param ids
+	 *            ids
+	 * @return id list
+	 */
+	private static List<Long> toList(long[] ids) {
+		List<Long> list = new ArrayList<>();
+		for (long id : ids) {
+			list.add(id);
+		}
+		return list;
+	}
+
+	/**
+	 * Get the lower left quarter of the bounding box
+	 *
+	 * @param boundingBox
+	 *            bounding box
+	 * @return bounding box
+	 */
+	private static BoundingBox halfBoundingBox(BoundingBox boundingBox) {
+		return new BoundingBox(boundingBox.getMinLongitude(),
+				boundingBox.getMinLatitude(),
+				(boundingBox.getMinLongitude() + boundingBox.getMaxLongitude())
+						/ 2.0,
+				(boundingBox.getMinLatitude() + boundingBox.getMaxLatitude())
+						/ 2.0);
+	}
+
 	/**
 	 * Test large index
 	 *
@@ -604,6 +1174,9 @@ public class FeatureIndexManagerUtils {
 		testTimedIndex(geoPackage, FeatureIndexType.RTREE, featureDao,
 				envelopes, .0000000001, .0001, compareProjectionCounts, .001,
 				verbose);
+		testTimedIndex(geoPackage, FeatureIndexType.MEMORY, featureDao,
+				envelopes, .0000000001, .0001, compareProjectionCounts, .001,
+				verbose);
 		testTimedIndex(geoPackage, FeatureIndexType.NONE, featureDao, envelopes,
 				.0000000001, compareProjectionCounts, .001, verbose);
 	}
@@ -864,6 +1437,7 @@ public class FeatureIndexManagerUtils {
 
 		switch (type) {
 		case RTREE:
+		case MEMORY:
 
 			if (expectedCount != fullCount) {
 				int count = 0;
@@ -0,0 +1,81 @@
+package mil.nga.geopackage.test.features.index;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.features.index.PackedRTree;
+import mil.nga.sf.GeometryEnvelope;
+
+import org.junit.Test;
+
+/**
+ * Test Packed RTree queries against a brute force search
+ *
+ * @author osbornb
+ */
+public class PackedRTreeTest {
+
+	/**
+	 * Test queries
+	 */
+	@Test
+	public void testQuery() {
+
+		Random random = new Random(7);
+
+		for (int size : new int[] { 0, 1, 16, 17, 255, 10000 }) {
+
+			long[] ids = new long[size];
+			double[] envelopes = new double[size * 4];
+			for (int i = 0; i < size; i++) {
+				ids[i] = i * 3 + 1;
+				double x = random.nextDouble() * 360 - 180;
+				double y = random.nextDouble() * 180 - 90;
+				envelopes[i * 4] = x;
+				envelopes[i * 4 + 1] = y;
+				envelopes[i * 4 + 2] = x + random.nextDouble() * 5;
+				envelopes[i * 4 + 3] = y + random.nextDouble() * 5;
+			}
+
+			PackedRTree tree = PackedRTree.build(ids, envelopes, size);
+			TestCase.assertEquals(size, tree.size());
+			if (size == 0) {
+				TestCase.assertNull(tree.getBounds());
+			} else {
+				TestCase.assertNotNull(tree.getBounds());
+			}
+
+			long[] allIds = tree.getIds();
+			Arrays.sort(allIds);
+			TestCase.assertTrue(Arrays.equals(ids, allIds));
+
+			for (int query = 0; query < 50; query++) {
+				double x = random.nextDouble() * 360 - 180;
+				double y = random.nextDouble() * 180 - 90;
+				GeometryEnvelope envelope = new GeometryEnvelope(x, y,
+						x + random.nextDouble() * 90,
+						y + random.nextDouble() * 45);
+
+				long[] expected = new long[size];
+				int count = 0;
+				for (int i = 0; i < size; i++) {
+					if (envelopes[i * 4] <= envelope.getMaxX()
+							&& envelopes[i * 4 + 1] <= envelope.getMaxY()
+							&& envelopes[i * 4 + 2] >= envelope.getMinX()
+							&& envelopes[i * 4 + 3] >= envelope.getMinY()) {
+						expected[count++] = ids[i];
+					}
+				}
+				expected = Arrays.copyOf(expected, count);
+
+				long[] results = tree.query(envelope);
+				Arrays.sort(results);
+				TestCase.assertTrue(Arrays.equals(expected, results));
+				TestCase.assertEquals(count, tree.count(envelope));
+			}
+		}
+
+	}
+
+}
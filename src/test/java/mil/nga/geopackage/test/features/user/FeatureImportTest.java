@@ -85,4 +85,56 @@ public class FeatureImportTest extends ImportGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test result count modes
+	 * 
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testCountMode() throws SQLException {
+
+		FeatureUtils.testCountMode(geoPackage);
+
+	}
+
+	/**
+	 * Test id chunk queries
+	 * 
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testIdChunk() throws SQLException {
+
+		FeatureUtils.testIdChunk(geoPackage);
+
+	}
+
+	/**
+	 * Test batch inserts
+	 * 
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testBatchInsert() throws SQLException {
+
+		FeatureUtils.testBatchInsert(geoPackage);
+
+	}
+
+	/**
+	 * Test the feature row cache
+	 * 
+	 * @throws SQLException
+	 *             upon error
+	 */
+	@Test
+	public void testFeatureCache() throws SQLException {
+
+		FeatureUtils.testFeatureCache(geoPackage);
+
+	}
+
 }
@@ -4,6 +4,7 @@ import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -15,11 +16,14 @@ import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.db.DateConverter;
 import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.ResultCountMode;
 import mil.nga.geopackage.db.ResultUtils;
 import mil.nga.geopackage.db.SQLUtils;
 import mil.nga.geopackage.db.SQLiteQueryBuilder;
 import mil.nga.geopackage.features.columns.GeometryColumns;
 import mil.nga.geopackage.features.columns.GeometryColumnsDao;
+import mil.nga.geopackage.features.user.FeatureCache;
+import mil.nga.geopackage.features.user.FeatureCacheTables;
 import mil.nga.geopackage.features.user.FeatureColumn;
 import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.features.user.FeatureResultSet;
@@ -29,6 +33,8 @@ import mil.nga.geopackage.geom.GeoPackageGeometryData;
 import mil.nga.geopackage.test.TestUtils;
 import mil.nga.geopackage.test.geom.GeoPackageGeometryDataUtils;
 import mil.nga.geopackage.user.ColumnValue;
+import mil.nga.geopackage.user.ContentValues;
+import mil.nga.geopackage.user.UserBatchInserter;
 import mil.nga.sf.Geometry;
 import mil.nga.sf.GeometryCollection;
 import mil.nga.sf.GeometryType;
@@ -1405,4 +1411,361 @@ public class FeatureUtils {
 		}
 	}
 
+	/**
+	 * Test result count modes
+	 * 
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testCountMode(GeoPackage geoPackage)
+			throws SQLException {
+
+		GeometryColumnsDao geometryColumnsDao = geoPackage
+				.getGeometryColumnsDao();
+
+		if (geometryColumnsDao.isTableExists()) {
+			List<GeometryColumns> results = geometryColumnsDao.queryForAll();
+
+			for (GeometryColumns geometryColumns : results) {
+
+				FeatureDao dao = geoPackage.getFeatureDao(geometryColumns);
+				TestCase.assertNotNull(dao);
+				TestCase.assertEquals(ResultCountMode.LAZY,
+						dao.getCountMode());
+
+				int count = dao.count();
+
+				FeatureResultSet cursor = dao.queryForAll();
+				TestCase.assertFalse(cursor.isCounted());
+				TestCase.assertEquals(count, cursor.getCount());
+				TestCase.assertTrue(cursor.isCounted());
+				cursor.close();
+
+				cursor = dao.queryForAll(ResultCountMode.EAGER);
+				TestCase.assertTrue(cursor.isCounted());
+				TestCase.assertEquals(count, cursor.getCount());
+				cursor.close();
+
+				cursor = dao.queryForAll(ResultCountMode.LAZY);
+				TestCase.assertEquals(count == 0, cursor.isEmpty());
+				TestCase.assertFalse(cursor.isCounted());
+				cursor.close();
+
+				cursor = dao.queryForAll(ResultCountMode.DISABLED);
+				TestCase.assertTrue(cursor.isCounted());
+				TestCase.assertEquals(-1, cursor.getCount());
+				TestCase.assertEquals(count == 0, cursor.isEmpty());
+				int manualCount = 0;
+				while (cursor.moveToNext()) {
+					manualCount++;
+				}
+				cursor.close();
+				TestCase.assertEquals(count, manualCount);
+
+				dao.setCountMode(ResultCountMode.DISABLED);
+				cursor = dao.queryForAll();
+				TestCase.assertEquals(-1, cursor.getCount());
+				cursor.close();
+				cursor = dao.query(null, null, ResultCountMode.LAZY);
+				TestCase.assertFalse(cursor.isCounted());
+				TestCase.assertEquals(count, cursor.getCount());
+				cursor.close();
+				dao.setCountMode(ResultCountMode.LAZY);
+			}
+		}
+	}
+
+	/**
+	 * Test id chunk queries
+	 * 
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testIdChunk(GeoPackage geoPackage) throws SQLException {
+
+		GeometryColumnsDao geometryColumnsDao = geoPackage
+				.getGeometryColumnsDao();
+
+		if (geometryColumnsDao.isTableExists()) {
+			List<GeometryColumns> results = geometryColumnsDao.queryForAll();
+
+			for (GeometryColumns geometryColumns : results) {
+
+				FeatureDao dao = geoPackage.getFeatureDao(geometryColumns);
+				TestCase.assertNotNull(dao);
+
+				int count = dao.count();
+				int chunkLimit = Math.max(1, count / 3);
+
+				int chunkCount = 0;
+				int rowCount = 0;
+				Long lastId = null;
+				boolean hasResults = true;
+				while (hasResults) {
+					hasResults = false;
+					FeatureResultSet cursor = dao.queryForIdChunk(chunkLimit,
+							lastId);
+					int chunkRows = 0;
+					while (cursor.moveToNext()) {
+						hasResults = true;
+						long id = cursor.getId();
+						if (lastId != null) {
+							TestCase.assertTrue(id > lastId);
+						}
+						lastId = id;
+						chunkRows++;
+					}
+					cursor.close();
+					TestCase.assertTrue(chunkRows <= chunkLimit);
+					if (hasResults) {
+						chunkCount++;
+					}
+					rowCount += chunkRows;
+				}
+				TestCase.assertEquals(count, rowCount);
+				TestCase.assertEquals(
+						(int) Math.ceil(count / (double) chunkLimit),
+						chunkCount);
+
+				String where = dao.getGeometryColumnName() + " IS NOT NULL";
+				int whereCount = dao.count(where);
+				rowCount = 0;
+				lastId = null;
+				hasResults = true;
+				while (hasResults) {
+					hasResults = false;
+					FeatureResultSet cursor = dao.queryForIdChunk(where,
+							chunkLimit, lastId);
+					while (cursor.moveToNext()) {
+						hasResults = true;
+						TestCase.assertNotNull(cursor.getGeometry());
+						lastId = cursor.getId();
+						rowCount++;
+					}
+					cursor.close();
+				}
+				TestCase.assertEquals(whereCount, rowCount);
+			}
+		}
+	}
+
+	/**
+	 * Test batch inserts
+	 * 
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testBatchInsert(GeoPackage geoPackage)
+			throws SQLException {
+
+		GeometryColumnsDao geometryColumnsDao = geoPackage
+				.getGeometryColumnsDao();
+
+		if (geometryColumnsDao.isTableExists()) {
+			List<GeometryColumns> results = geometryColumnsDao.queryForAll();
+
+			for (GeometryColumns geometryColumns : results) {
+
+				FeatureDao dao = geoPackage.getFeatureDao(geometryColumns);
+				TestCase.assertNotNull(dao);
+
+				FeatureResultSet cursor = dao.queryForAll();
+				FeatureRow row = null;
+				if (cursor.moveToNext()) {
+					row = cursor.getRow();
+				}
+				cursor.close();
+				if (row == null) {
+					continue;
+				}
+
+				int count = dao.count();
+
+				// Insert returning ids
+				UserBatchInserter<FeatureColumn, FeatureTable, FeatureRow> inserter = dao
+						.newBatchInserter();
+				TestCase.assertTrue(inserter.isReturnIds());
+				long lastId = -1;
+				for (int i = 0; i < 3; i++) {
+					FeatureRow copy = row.copy();
+					copy.resetId();
+					long id = inserter.insert(copy);
+					TestCase.assertTrue(id > lastId);
+					TestCase.assertEquals(id, copy.getId());
+					TestCase.assertNotNull(dao.queryForIdRow(id));
+					lastId = id;
+				}
+				TestCase.assertEquals(3, inserter.getCount());
+				inserter.close();
+				count += 3;
+				TestCase.assertEquals(count, dao.count());
+
+				// Batched inserts without ids
+				inserter = dao.newBatchInserter();
+				inserter.setReturnIds(false);
+				inserter.setBatchSize(2);
+				inserter.setCommitLimit(3);
+				for (int i = 0; i < 5; i++) {
+					FeatureRow copy = row.copy();
+					copy.resetId();
+					TestCase.assertEquals(-1, inserter.insert(copy));
+				}
+				TestCase.assertEquals(5, inserter.getCount());
+				inserter.close();
+				count += 5;
+				TestCase.assertEquals(count, dao.count());
+
+				// Failed batch inserts are rolled back
+				inserter = dao.newBatchInserter();
+				inserter.setReturnIds(false);
+				inserter.setBatchSize(2);
+				inserter.setCommitLimit(0);
+				for (int i = 0; i < 3; i++) {
+					FeatureRow copy = row.copy();
+					copy.resetId();
+					inserter.insert(copy);
+				}
+				inserter.close(false);
+				TestCase.assertEquals(count, dao.count());
+
+				// Caller transactions are not committed by the inserter
+				Connection connection = dao.getConnection();
+				boolean autoCommit = SQLUtils.beginTransaction(connection);
+				try {
+					inserter = dao.newBatchInserter();
+					inserter.setReturnIds(false);
+					for (int i = 0; i < 2; i++) {
+						FeatureRow copy = row.copy();
+						copy.resetId();
+						inserter.insert(copy);
+					}
+					inserter.commit();
+					inserter.close();
+				} finally {
+					SQLUtils.endTransaction(connection, false, autoCommit);
+				}
+				TestCase.assertEquals(count, dao.count());
+			}
+		}
+	}
+
+	/**
+	 * Test the feature row cache
+	 * 
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @throws SQLException
+	 *             upon error
+	 */
+	public static void testFeatureCache(GeoPackage geoPackage)
+			throws SQLException {
+
+		GeometryColumnsDao geometryColumnsDao = geoPackage
+				.getGeometryColumnsDao();
+
+		if (geometryColumnsDao.isTableExists()) {
+			List<GeometryColumns> results = geometryColumnsDao.queryForAll();
+
+			for (GeometryColumns geometryColumns : results) {
+
+				FeatureDao dao = geoPackage.getFeatureDao(geometryColumns);
+				TestCase.assertNotNull(dao);
+				TestCase.assertFalse(dao.isCacheEnabled());
+				TestCase.assertNull(dao.getCache());
+
+				FeatureResultSet cursor = dao.queryForAll();
+				List<Long> ids = new ArrayList<>();
+				while (cursor.moveToNext() && ids.size() < 2) {
+					ids.add(cursor.getId());
+				}
+				cursor.close();
+				if (ids.isEmpty()) {
+					continue;
+				}
+				long id = ids.get(0);
+
+				FeatureCacheTables cacheTables = new FeatureCacheTables();
+				dao.setCacheTables(cacheTables);
+				TestCase.assertTrue(dao.isCacheEnabled());
+				FeatureCache cache = dao.getCache();
+				TestCase.assertNotNull(cache);
+				TestCase.assertSame(cache,
+						cacheTables.getCache(dao.getTableName()));
+
+				// Read through the cache
+				FeatureRow row = dao.queryForIdRow(id);
+				TestCase.assertNotNull(row);
+				TestCase.assertEquals(0, cache.getHits());
+				TestCase.assertEquals(1, cache.getMisses());
+				TestCase.assertEquals(1, cache.getSize());
+				TestCase.assertSame(row, dao.queryForIdRow(id));
+				TestCase.assertEquals(1, cache.getHits());
+				TestCase.assertEquals(0.5, cache.getHitRate(), 0.0);
+
+				// Shared between DAOs with the same cache tables
+				FeatureDao dao2 = geoPackage.getFeatureDao(geometryColumns);
+				dao2.setCacheTables(cacheTables);
+				TestCase.assertSame(row, dao2.queryForIdRow(id));
+				TestCase.assertEquals(2, cache.getHits());
+
+				// Invalidated by updates
+				TestCase.assertEquals(1, dao2.update(row));
+				TestCase.assertEquals(0, cache.getSize());
+				FeatureRow updatedRow = dao.queryForIdRow(id);
+				TestCase.assertNotSame(row, updatedRow);
+				TestCase.assertEquals(2, cache.getMisses());
+
+				// Invalidated by where clause updates and deletes
+				if (ids.size() > 1) {
+					long id2 = ids.get(1);
+					FeatureRow row2 = dao.queryForIdRow(id2);
+					TestCase.assertNotNull(row2);
+					TestCase.assertEquals(2, cache.getSize());
+					String pkWhere = dao.buildWhere(dao.getTable()
+							.getPkColumn().getName(), id2);
+					String[] pkWhereArgs = dao.buildWhereArgs(id2);
+					ContentValues values = new ContentValues();
+					values.put(dao.getGeometryColumnName(),
+							row2.getValue(dao.getGeometryColumnName()) != null
+									? row2.getGeometry().getBytes() : null);
+					TestCase.assertEquals(1,
+							dao.update(values, pkWhere, pkWhereArgs));
+					TestCase.assertEquals(0, cache.getSize());
+					TestCase.assertNotSame(row2, dao.queryForIdRow(id2));
+					TestCase.assertEquals(1, dao.delete(pkWhere, pkWhereArgs));
+					TestCase.assertEquals(0, cache.getSize());
+					TestCase.assertNull(dao.queryForIdRow(id2));
+				}
+
+				// Invalidated by deletes
+				TestCase.assertNotNull(dao.queryForIdRow(id));
+				TestCase.assertEquals(1, dao2.deleteById(id));
+				TestCase.assertNull(dao.queryForIdRow(id));
+
+				// Invalidated by creates
+				updatedRow.resetId();
+				long newId = dao.create(updatedRow);
+				FeatureRow createdRow = dao.queryForIdRow(newId);
+				TestCase.assertNotNull(createdRow);
+				TestCase.assertEquals(newId, createdRow.getId());
+
+				cache.resetStatistics();
+				TestCase.assertEquals(0, cache.getHits());
+				TestCase.assertEquals(0, cache.getMisses());
+				TestCase.assertEquals(0.0, cache.getHitRate(), 0.0);
+
+				dao.disableCache();
+				TestCase.assertFalse(dao.isCacheEnabled());
+				TestCase.assertNotNull(dao.queryForIdRow(newId));
+				TestCase.assertEquals(0, cache.getMisses());
+			}
+		}
+	}
+
 }
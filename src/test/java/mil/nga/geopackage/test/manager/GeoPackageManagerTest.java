@@ -1,22 +1,32 @@
 package mil.nga.geopackage.test.manager;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.GeoPackageConstants;
+import mil.nga.geopackage.db.GeoPackageConnection;
+import mil.nga.geopackage.db.GeoPackageDataType;
+import mil.nga.geopackage.db.SQLUtils;
 import mil.nga.geopackage.io.GeoPackageIOUtils;
 import mil.nga.geopackage.manager.GeoPackageManager;
+import mil.nga.geopackage.manager.GeoPackageOpenOptions;
 import mil.nga.geopackage.test.BaseTestCase;
 import mil.nga.geopackage.test.TestConstants;
 import mil.nga.geopackage.test.TestUtils;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.LockingMode;
 
 /**
  * Test GeoPackage Manager methods
@@ -225,6 +235,142 @@ public class GeoPackageManagerTest extends BaseTestCase {
 		}
 	}
 
+	/**
+	 * Test opening a database with open options
+	 * 
+	 * @throws IOException
+	 * @throws SQLException
+	 */
+	@Test
+	public void testOpenOptions() throws IOException, SQLException {
+
+		File testFolder = folder.newFolder();
+		File dbFile = new File(testFolder, TestConstants.TEST_DB_FILE_NAME);
+
+		assertTrue("Database failed to create",
+				GeoPackageManager.create(dbFile));
+
+		// Open read optimized, keeping the journal mode
+		GeoPackage geoPackage = GeoPackageManager.open(dbFile,
+				GeoPackageOpenOptions.readOptimized());
+		try {
+			assertEquals("delete", pragma(geoPackage, "journal_mode"));
+			assertEquals("1", pragma(geoPackage, "synchronous"));
+			assertEquals("-65536", pragma(geoPackage, "cache_size"));
+			assertEquals("268435456", pragma(geoPackage, "mmap_size"));
+			assertEquals("2", pragma(geoPackage, "temp_store"));
+			geoPackage.execSQL("CREATE TABLE test_options (id INTEGER)");
+
+			// Read connections apply the options
+			GeoPackageConnection connection = geoPackage.getConnection();
+			connection.enablePool(1);
+			try {
+				Connection readConnection = connection.getReadConnection();
+				assertNotSame(connection.getConnection(), readConnection);
+				assertEquals("-65536", pragma(readConnection, "cache_size"));
+				assertEquals("268435456",
+						pragma(readConnection, "mmap_size"));
+			} finally {
+				connection.disablePool();
+			}
+			Connection readConnection = connection.openReadConnection();
+			try {
+				assertEquals("-65536", pragma(readConnection, "cache_size"));
+				assertTrue(readConnection.isReadOnly());
+			} finally {
+				readConnection.close();
+			}
+		} finally {
+			geoPackage.close();
+		}
+
+		// Open read only
+		GeoPackageOpenOptions options = GeoPackageOpenOptions.defaults();
+		options.setReadOnly(true);
+		geoPackage = GeoPackageManager.open(dbFile, options);
+		try {
+			assertTrue(geoPackage.isTable("test_options"));
+			try {
+				geoPackage.execSQL("DROP TABLE test_options");
+				fail("Read only GeoPackage write did not fail");
+			} catch (Exception e) {
+				// Expected
+			}
+			try {
+				geoPackage.getContentsDao()
+						.executeRaw("DELETE FROM gpkg_contents");
+				fail("Read only GeoPackage connection source write did not fail");
+			} catch (Exception e) {
+				// Expected
+			}
+		} finally {
+			geoPackage.close();
+		}
+
+		// Exclusive locking is not supported
+		try {
+			GeoPackageOpenOptions.defaults()
+					.setLockingMode(LockingMode.EXCLUSIVE);
+			fail("Exclusive locking mode did not fail");
+		} catch (Exception e) {
+			// Expected
+		}
+
+		// Opt-in write-ahead logging
+		options = GeoPackageOpenOptions.durable();
+		options.setJournalMode(JournalMode.WAL);
+		geoPackage = GeoPackageManager.open(dbFile, options);
+		try {
+			assertEquals("wal", pragma(geoPackage, "journal_mode"));
+			assertEquals("2", pragma(geoPackage, "synchronous"));
+		} finally {
+			geoPackage.close();
+		}
+
+		// Named profiles
+		assertEquals("OFF", GeoPackageOpenOptions.profile("BULK")
+				.getSynchronous().name());
+		assertEquals("FULL",
+				GeoPackageOpenOptions
+						.profile(GeoPackageOpenOptions.PROFILE_DURABLE)
+						.getSynchronous().name());
+		try {
+			GeoPackageOpenOptions.profile("fast");
+			fail("Unsupported profile did not fail");
+		} catch (Exception e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Query a pragma value
+	 * 
+	 * @param geoPackage
+	 *            GeoPackage
+	 * @param pragma
+	 *            pragma name
+	 * @return pragma value
+	 */
+	private String pragma(GeoPackage geoPackage, String pragma) {
+		return geoPackage.getConnection()
+				.querySingleResult("PRAGMA " + pragma, null).toString()
+				.toLowerCase();
+	}
+
+	/**
+	 * Query a pragma value of a connection
+	 * 
+	 * @param connection
+	 *            connection
+	 * @param pragma
+	 *            pragma name
+	 * @return pragma value
+	 */
+	private String pragma(Connection connection, String pragma) {
+		return SQLUtils.querySingleResult(connection, "PRAGMA " + pragma,
+				null, 0, GeoPackageDataType.TEXT).toString().toLowerCase();
+	}
+
 	/**
 	 * Test the memory footprint when repeatedly opening and closing a
 	 * GeoPackage
@@ -3,16 +3,26 @@ package mil.nga.geopackage.test.tiles;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.db.ResultCountMode;
 import mil.nga.geopackage.test.TestConstants;
 import mil.nga.geopackage.test.LoadGeoPackageTestCase;
 import mil.nga.geopackage.tiles.GeoPackageTile;
+import mil.nga.geopackage.tiles.GeoPackageTileRetriever;
 import mil.nga.geopackage.tiles.ImageUtils;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileCreator;
+import mil.nga.geopackage.tiles.TileImageCache;
+import mil.nga.geopackage.tiles.matrix.TileMatrix;
+import mil.nga.geopackage.tiles.user.TileColumn;
 import mil.nga.geopackage.tiles.user.TileDao;
+import mil.nga.geopackage.tiles.user.TileResultSet;
+import mil.nga.geopackage.tiles.user.TileRow;
+import mil.nga.geopackage.tiles.user.TileTable;
+import mil.nga.geopackage.user.UserBatchInserter;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionConstants;
 import mil.nga.sf.proj.ProjectionFactory;
@@ -98,6 +108,17 @@ public class TileCreatorGetTileTest extends LoadGeoPackageTestCase {
 		TestCase.assertEquals(width, image.getWidth());
 		TestCase.assertEquals(height, image.getHeight());
 		validateImage(image);
+
+		// Tiles are found when result counts are disabled
+		tileDao.setCountMode(ResultCountMode.DISABLED);
+		try {
+			TestCase.assertTrue(tileCreator.hasTile(boundingBox));
+			tile = tileCreator.getTile(boundingBox);
+			TestCase.assertNotNull(tile);
+			validateImage(tile.getImage());
+		} finally {
+			tileDao.setCountMode(ResultCountMode.LAZY);
+		}
 	}
 
 	/**
@@ -177,6 +198,201 @@ public class TileCreatorGetTileTest extends LoadGeoPackageTestCase {
 		}
 	}
 
+	/**
+	 * Test tile retriever passthrough of aligned stored tiles
+	 *
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	@Test
+	public void testGetTileRetrieverPassthrough() throws SQLException,
+			IOException {
+
+		TileDao tileDao = geoPackage
+				.getTileDao(TestConstants.TILES_DB_TABLE_NAME);
+		TestCase.assertTrue(tileDao.isGoogleTiles());
+
+		GeoPackageTileRetriever retriever = new GeoPackageTileRetriever(
+				tileDao);
+		TestCase.assertFalse(retriever.isPassthrough());
+		retriever.setPassthrough(true);
+		TestCase.assertTrue(retriever.isPassthrough());
+
+		GeoPackageTileRetriever drawingRetriever = new GeoPackageTileRetriever(
+				tileDao);
+
+		int count = 0;
+		int lastX = 0;
+		int lastY = 0;
+		int lastZoom = 0;
+		TileResultSet tileResults = tileDao.queryForAll();
+		try {
+			while (tileResults.moveToNext()) {
+				TileRow tileRow = tileResults.getRow();
+				int x = (int) tileRow.getTileColumn();
+				int y = (int) tileRow.getTileRow();
+				int zoom = (int) tileRow.getZoomLevel();
+				TileMatrix tileMatrix = tileDao.getTileMatrix(zoom);
+
+				GeoPackageTile tile = retriever.getTile(x, y, zoom);
+				TestCase.assertNotNull(tile);
+				TestCase.assertEquals(tileMatrix.getTileWidth(),
+						tile.getWidth());
+				TestCase.assertEquals(tileMatrix.getTileHeight(),
+						tile.getHeight());
+				TestCase.assertTrue(Arrays.equals(tileRow.getTileData(),
+						tile.getData()));
+
+				GeoPackageTile drawnTile = drawingRetriever.getTile(x, y,
+						zoom);
+				TestCase.assertNotNull(drawnTile);
+				TestCase.assertEquals(tile.getWidth(), drawnTile.getWidth());
+				TestCase.assertEquals(tile.getHeight(),
+						drawnTile.getHeight());
+				lastX = x;
+				lastY = y;
+				lastZoom = zoom;
+				count++;
+			}
+		} finally {
+			tileResults.close();
+		}
+		TestCase.assertTrue(count > 0);
+
+		// Missing tiles without scaling
+		TestCase.assertNull(retriever.getTile(0, 0, 0));
+		TestCase.assertNull(drawingRetriever.getTile(0, 0, 0));
+
+		// Requested image formats and dimensions are drawn
+		GeoPackageTileRetriever formatRetriever = new GeoPackageTileRetriever(
+				tileDao, 128, 128, "png");
+		GeoPackageTile formatTile = formatRetriever.getTile(lastX, lastY,
+				lastZoom);
+		TestCase.assertNotNull(formatTile);
+		TestCase.assertEquals(128, formatTile.getWidth());
+		TestCase.assertEquals(128, formatTile.getHeight());
+		BufferedImage image = formatTile.getImage();
+		TestCase.assertEquals(128, image.getWidth());
+		TestCase.assertEquals(128, image.getHeight());
+	}
+
+	/**
+	 * Test get tile with the decoded tile image cache
+	 *
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	@Test
+	public void testGetTileImageCache() throws SQLException, IOException {
+
+		TileDao tileDao = geoPackage
+				.getTileDao(TestConstants.TILES_DB_TABLE_NAME);
+		tileDao.adjustTileMatrixLengths();
+
+		TileImageCache imageCache = new TileImageCache();
+		tileDao.setImageCache(imageCache);
+
+		Projection wgs84 = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+
+		int width = 256;
+		int height = 140;
+		TileCreator tileCreator = new TileCreator(tileDao, width, height,
+				wgs84, "png");
+
+		BoundingBox boundingBox = new BoundingBox(-90.0, 0.0, 0.0, 45.0);
+
+		BufferedImage image = tileCreator.getTile(boundingBox).getImage();
+		validateImage(image);
+		int cached = imageCache.size();
+		TestCase.assertTrue(cached > 0);
+		TestCase.assertEquals(0, imageCache.getHits());
+		TestCase.assertEquals(cached, imageCache.getMisses());
+		TestCase.assertTrue(imageCache.getBytes() > 0);
+
+		BufferedImage cachedImage = tileCreator.getTile(boundingBox)
+				.getImage();
+		TestCase.assertEquals(cached, imageCache.getHits());
+		TestCase.assertEquals(cached, imageCache.getMisses());
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				TestCase.assertEquals(image.getRGB(x, y),
+						cachedImage.getRGB(x, y));
+			}
+		}
+
+		// Updating a tile invalidates the cached image
+		TileResultSet tileResults = tileDao.queryForAll();
+		TileRow tileRow = null;
+		try {
+			while (tileRow == null && tileResults.moveToNext()) {
+				TileRow row = tileResults.getRow();
+				if (imageCache.get(tileDao.getDatabaseIdentity(),
+						tileDao.getTableName(), row.getZoomLevel(),
+						row.getTileColumn(), row.getTileRow()) != null) {
+					tileRow = row;
+				}
+			}
+		} finally {
+			tileResults.close();
+		}
+		TestCase.assertNotNull(tileRow);
+		tileDao.update(tileRow);
+		TestCase.assertEquals(cached - 1, imageCache.size());
+		TestCase.assertNull(imageCache.get(tileDao.getDatabaseIdentity(),
+				tileDao.getTableName(), tileRow.getZoomLevel(),
+				tileRow.getTileColumn(), tileRow.getTileRow()));
+
+		// Keys include the database identity
+		imageCache.put("other.gpkg", tileDao.getTableName(),
+				tileRow.getZoomLevel(), tileRow.getTileColumn(),
+				tileRow.getTileRow(), image);
+		TestCase.assertEquals(cached, imageCache.size());
+
+		// Changes through other tile DAOs invalidate the cached images
+		tileCreator.getTile(boundingBox);
+		TestCase.assertEquals(cached + 1, imageCache.size());
+		TileDao otherTileDao = geoPackage
+				.getTileDao(TestConstants.TILES_DB_TABLE_NAME);
+		TestCase.assertNotSame(tileDao, otherTileDao);
+		TestCase.assertNull(otherTileDao.getImageCache());
+		otherTileDao.update(tileRow);
+		TestCase.assertEquals(cached, imageCache.size());
+
+		// Batch inserts invalidate the table images
+		tileCreator.getTile(boundingBox);
+		TestCase.assertEquals(cached + 1, imageCache.size());
+		UserBatchInserter<TileColumn, TileTable, TileRow> inserter = otherTileDao
+				.newBatchInserter();
+		try {
+			TileRow newRow = otherTileDao.newRow();
+			newRow.setZoomLevel(tileRow.getZoomLevel());
+			newRow.setTileColumn(Integer.MAX_VALUE);
+			newRow.setTileRow(Integer.MAX_VALUE);
+			newRow.setTileData(tileRow.getTileData());
+			inserter.insert(newRow);
+		} finally {
+			inserter.close();
+		}
+		TestCase.assertEquals(1, imageCache.size());
+		TestCase.assertNotNull(imageCache.get("other.gpkg",
+				tileDao.getTableName(), tileRow.getZoomLevel(),
+				tileRow.getTileColumn(), tileRow.getTileRow()));
+
+		// Bounded by pixel bytes
+		tileCreator.getTile(boundingBox);
+		int evictions = imageCache.size();
+		long previousEvictions = imageCache.getEvictions();
+		imageCache.resize(0);
+		TestCase.assertEquals(0, imageCache.size());
+		TestCase.assertEquals(0, imageCache.getBytes());
+		TestCase.assertEquals(previousEvictions + evictions,
+				imageCache.getEvictions());
+
+		tileDao.disableImageCache();
+		TestCase.assertNull(tileDao.getImageCache());
+	}
+
 	/**
 	 * Validate that the image has no transparency
 	 *
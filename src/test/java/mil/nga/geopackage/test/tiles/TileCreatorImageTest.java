@@ -2,21 +2,29 @@ package mil.nga.geopackage.test.tiles;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Arrays;
 
 import javax.imageio.ImageIO;
 
 import junit.framework.TestCase;
 import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.GeoPackageException;
 import mil.nga.geopackage.test.TestConstants;
 import mil.nga.geopackage.test.TestUtils;
 import mil.nga.geopackage.test.LoadGeoPackageTestCase;
 import mil.nga.geopackage.tiles.GeoPackageTile;
+import mil.nga.geopackage.tiles.GeoPackageTileRetriever;
+import mil.nga.geopackage.tiles.ImageEncodeOptions;
 import mil.nga.geopackage.tiles.ImageUtils;
+import mil.nga.geopackage.tiles.ImageWriterPool;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileCreator;
+import mil.nga.geopackage.tiles.TileReprojection;
+import mil.nga.geopackage.tiles.TileResamplingType;
 import mil.nga.geopackage.tiles.user.TileDao;
 import mil.nga.sf.proj.Projection;
 import mil.nga.sf.proj.ProjectionConstants;
@@ -233,6 +241,88 @@ public class TileCreatorImageTest extends LoadGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test get tile image with interpolated control point reprojection
+	 *
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	@Test
+	public void testTileImageReprojection() throws SQLException, IOException {
+
+		TileDao tileDao = geoPackage
+				.getTileDao(TestConstants.TILES2_DB_TABLE_NAME);
+
+		Projection webMercator = ProjectionFactory
+				.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		int width = 256;
+		int height = 256;
+		TileCreator tileCreator = new TileCreator(tileDao, width, height,
+				webMercator, "png");
+		TestCase.assertEquals(1, tileCreator.getReprojection()
+				.getControlPointSpacing());
+
+		BoundingBox webMercatorBoundingBox = TileBoundingBoxUtils
+				.getWebMercatorBoundingBox(0, 4, 4);
+
+		BufferedImage exactImage = tileCreator.getTile(webMercatorBoundingBox)
+				.getImage();
+
+		TileReprojection reprojection = new TileReprojection();
+		reprojection.setTaskRows(16);
+		tileCreator.setReprojection(reprojection);
+		BufferedImage image = tileCreator.getTile(webMercatorBoundingBox)
+				.getImage();
+		TestCase.assertEquals(width, image.getWidth());
+		TestCase.assertEquals(height, image.getHeight());
+		validateNoTransparency(image);
+
+		// Interpolated locations may round to a neighboring source pixel
+		int differences = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (image.getRGB(x, y) != exactImage.getRGB(x, y)) {
+					differences++;
+				}
+			}
+		}
+		TestCase.assertTrue(differences < (width * height) / 20);
+
+		reprojection.setParallel(false);
+		BufferedImage sequentialImage = tileCreator.getTile(
+				webMercatorBoundingBox).getImage();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				TestCase.assertEquals(image.getRGB(x, y),
+						sequentialImage.getRGB(x, y));
+			}
+		}
+
+		reprojection.setParallel(true);
+		reprojection.setResampling(TileResamplingType.BILINEAR);
+		BufferedImage bilinearImage = tileCreator.getTile(
+				webMercatorBoundingBox).getImage();
+		TestCase.assertEquals(width, bilinearImage.getWidth());
+		TestCase.assertEquals(height, bilinearImage.getHeight());
+		validateNoTransparency(bilinearImage);
+
+		GeoPackageTileRetriever retriever = new GeoPackageTileRetriever(
+				tileDao, width, height, "png");
+		TestCase.assertEquals(
+				TileReprojection.DEFAULT_CONTROL_POINT_SPACING, retriever
+						.getReprojection().getControlPointSpacing());
+		GeoPackageTile retrieverTile = retriever.getTile(0, 4, 4);
+		TestCase.assertNotNull(retrieverTile);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				TestCase.assertEquals(image.getRGB(x, y), retrieverTile
+						.getImage().getRGB(x, y));
+			}
+		}
+
+	}
+
 	/**
 	 * Test raw tile image
 	 *
@@ -346,6 +436,111 @@ public class TileCreatorImageTest extends LoadGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test writing images with the pooled image writers
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testImageWriterPool() throws IOException {
+
+		BufferedImage image = new BufferedImage(256, 256,
+				BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < 256; x++) {
+			for (int y = 0; y < 256; y++) {
+				image.setRGB(x, y, new Color(x, y, (x + y) % 256, 200).getRGB());
+			}
+		}
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		ImageIO.write(image, ImageUtils.IMAGE_FORMAT_PNG, stream);
+		byte[] expectedBytes = stream.toByteArray();
+
+		// Repeated writes reuse the pooled writer and buffer
+		for (int i = 0; i < 3; i++) {
+			byte[] bytes = ImageWriterPool.writeImageToBytes(image,
+					new ImageEncodeOptions(ImageUtils.IMAGE_FORMAT_PNG));
+			TestCase.assertTrue(Arrays.equals(expectedBytes, bytes));
+		}
+
+		// Compression levels
+		byte[] fastBytes = ImageWriterPool.writeImageToBytes(image,
+				ImageEncodeOptions.png(0));
+		byte[] bestBytes = ImageWriterPool.writeImageToBytes(image,
+				ImageEncodeOptions.png(9));
+		// The Java 8 PNG writer ignores compression levels
+		if (ImageIO.getImageWritersByFormatName(ImageUtils.IMAGE_FORMAT_PNG)
+				.next().getDefaultWriteParam().canWriteCompressed()) {
+			TestCase.assertTrue(fastBytes.length > bestBytes.length);
+		}
+		for (byte[] bytes : new byte[][] { fastBytes, bestBytes }) {
+			BufferedImage readImage = ImageUtils.getImage(bytes);
+			for (int x = 0; x < 256; x += 15) {
+				for (int y = 0; y < 256; y += 15) {
+					TestCase.assertEquals(image.getRGB(x, y),
+							readImage.getRGB(x, y));
+				}
+			}
+		}
+		try {
+			ImageEncodeOptions.png(10);
+			TestCase.fail("Invalid compression level");
+		} catch (GeoPackageException e) {
+			// Expected
+		}
+
+		// Quality compressed formats
+		BufferedImage rgbImage = ImageUtils.createBufferedImage(256, 256,
+				ImageUtils.IMAGE_FORMAT_JPEG);
+		rgbImage.getGraphics().drawImage(image, 0, 0, null);
+		byte[] jpegBytes = ImageUtils.compressAndWriteImageToBytes(rgbImage,
+				ImageUtils.IMAGE_FORMAT_JPEG, 0.5f);
+		TestCase.assertEquals(256, ImageUtils.getImage(jpegBytes).getWidth());
+		try {
+			ImageUtils.compressAndWriteImageToBytes(rgbImage, "unknown", 0.5f);
+			TestCase.fail("Unknown image format");
+		} catch (GeoPackageException e) {
+			// Expected
+		}
+
+		ImageWriterPool.clear();
+	}
+
+	/**
+	 * Test fully transparent image detection
+	 */
+	@Test
+	public void testFullyTransparent() {
+
+		int[] imageTypes = new int[] { BufferedImage.TYPE_INT_ARGB,
+				BufferedImage.TYPE_INT_ARGB_PRE,
+				BufferedImage.TYPE_4BYTE_ABGR };
+
+		for (int imageType : imageTypes) {
+
+			BufferedImage image = new BufferedImage(256, 256, imageType);
+			TestCase.assertTrue(ImageUtils.isFullyTransparent(image));
+
+			// Last pixel
+			image.setRGB(255, 255, new Color(0, 0, 0, 1).getRGB());
+			TestCase.assertFalse(ImageUtils.isFullyTransparent(image));
+
+			// Sub image excluding the drawn pixel
+			BufferedImage subImage = image.getSubimage(100, 100, 100, 100);
+			TestCase.assertTrue(ImageUtils.isFullyTransparent(subImage));
+			image.setRGB(199, 150, Color.RED.getRGB());
+			TestCase.assertFalse(ImageUtils.isFullyTransparent(subImage));
+			TestCase.assertTrue(ImageUtils.isFullyTransparent(image
+					.getSubimage(200, 0, 56, 255)));
+		}
+
+		// Images without alpha are opaque
+		TestCase.assertFalse(ImageUtils.isFullyTransparent(new BufferedImage(
+				256, 256, BufferedImage.TYPE_INT_RGB)));
+		TestCase.assertFalse(ImageUtils.isFullyTransparent(new BufferedImage(
+				256, 256, BufferedImage.TYPE_BYTE_BINARY)));
+	}
+
 	/**
 	 * Validate that the image has no transparency
 	 *
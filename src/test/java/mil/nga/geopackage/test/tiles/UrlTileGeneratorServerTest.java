@@ -0,0 +1,432 @@
+package mil.nga.geopackage.test.tiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.test.CreateGeoPackageTestCase;
+import mil.nga.geopackage.test.TestUtils;
+import mil.nga.geopackage.test.io.TestGeoPackageProgress;
+import mil.nga.geopackage.tiles.UrlTileGenerator;
+import mil.nga.geopackage.tiles.user.TileDao;
+import mil.nga.sf.proj.ProjectionConstants;
+import mil.nga.sf.proj.ProjectionFactory;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test URL Tile Generator against a local tile server
+ *
+ * @author osbornb
+ */
+public class UrlTileGeneratorServerTest extends CreateGeoPackageTestCase {
+
+	/**
+	 * Min zoom
+	 */
+	private static final int MIN_ZOOM = 0;
+
+	/**
+	 * Max zoom
+	 */
+	private static final int MAX_ZOOM = 2;
+
+	/**
+	 * Expected tiles from the min to max zoom of the world
+	 */
+	private static final int EXPECTED_TILES = 1 + 4 + 16;
+
+	/**
+	 * Local tile server
+	 */
+	private HttpServer server;
+
+	/**
+	 * Tile server executor
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Tile bytes served
+	 */
+	private byte[] tileBytes;
+
+	/**
+	 * Request counts by path
+	 */
+	private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+	/**
+	 * Requests in progress
+	 */
+	private final AtomicInteger active = new AtomicInteger();
+
+	/**
+	 * Max requests in progress at one time
+	 */
+	private final AtomicInteger maxActive = new AtomicInteger();
+
+	/**
+	 * Number of first requests failed for every third tile
+	 */
+	private int failedRequests = 0;
+
+	/**
+	 * Sleeps in nanoseconds requested by the tile generator, recorded without
+	 * sleeping
+	 */
+	private final List<Long> sleeps = Collections
+			.synchronizedList(new ArrayList<Long>());
+
+	/**
+	 * Tile generator clock in nanoseconds, advanced by sleeps
+	 */
+	private final AtomicLong clock = new AtomicLong();
+
+	/**
+	 * Constructor
+	 */
+	public UrlTileGeneratorServerTest() {
+
+	}
+
+	@Override
+	public void geoPackageSetUp() throws Exception {
+		super.geoPackageSetUp();
+
+		tileBytes = TestUtils.getTileBytes();
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/tiles", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleTile(exchange);
+			}
+		});
+		executor = Executors.newFixedThreadPool(8);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	@Override
+	public void tearDown() throws Exception {
+		server.stop(0);
+		executor.shutdownNow();
+		super.tearDown();
+	}
+
+	/**
+	 * Test generating tiles on a single thread
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testGenerateTiles() throws SQLException, IOException {
+
+		UrlTileGenerator tileGenerator = createTileGenerator();
+
+		testGenerateTiles(tileGenerator);
+
+		TestCase.assertEquals(1, maxActive.get());
+		TestCase.assertEquals(0, tileGenerator.getDownloadRetryDelay());
+		TestCase.assertFalse(tileGenerator.isDownloadRetryBackoff());
+		TestCase.assertTrue(sleeps.isEmpty());
+	}
+
+	/**
+	 * Test generating tiles on multiple threads with retries
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testGenerateTilesThreaded() throws SQLException, IOException {
+
+		failedRequests = 1;
+
+		UrlTileGenerator tileGenerator = createTileGenerator();
+		tileGenerator.setThreads(4);
+		tileGenerator.setDownloadRetryDelay(10);
+
+		testGenerateTiles(tileGenerator);
+
+		TestCase.assertTrue(maxActive.get() > 1);
+		TestCase.assertTrue(maxActive.get() <= 4);
+
+		int retried = countRetriedTiles(2);
+		TestCase.assertTrue(retried > 0);
+
+		// One retry delay wait per retried tile
+		TestCase.assertEquals(retried, sleeps.size());
+		for (long sleep : sleeps) {
+			TestCase.assertEquals(TimeUnit.MILLISECONDS.toNanos(10), sleep);
+		}
+	}
+
+	/**
+	 * Test generating tiles with retry delay back off
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testGenerateTilesRetryBackoff() throws SQLException,
+			IOException {
+
+		failedRequests = 2;
+
+		UrlTileGenerator tileGenerator = createTileGenerator();
+		tileGenerator.setDownloadRetryDelay(10);
+		tileGenerator.setDownloadRetryBackoff(true);
+		TestCase.assertTrue(tileGenerator.isDownloadRetryBackoff());
+
+		testGenerateTiles(tileGenerator);
+
+		int retried = countRetriedTiles(3);
+		TestCase.assertTrue(retried > 0);
+
+		// Doubled delay before the second retry of each retried tile
+		TestCase.assertEquals(2 * retried, sleeps.size());
+		for (int i = 0; i < sleeps.size(); i += 2) {
+			TestCase.assertEquals(TimeUnit.MILLISECONDS.toNanos(10),
+					(long) sleeps.get(i));
+			TestCase.assertEquals(TimeUnit.MILLISECONDS.toNanos(20),
+					(long) sleeps.get(i + 1));
+		}
+	}
+
+	/**
+	 * Test generating tiles failing after the download attempts
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testGenerateTilesFailedAttempts() throws SQLException,
+			IOException {
+
+		failedRequests = 2;
+
+		UrlTileGenerator tileGenerator = createTileGenerator();
+		tileGenerator.setDownloadAttempts(2);
+
+		TestGeoPackageProgress progress = new TestGeoPackageProgress();
+		tileGenerator.setProgress(progress);
+
+		int count = tileGenerator.generateTiles();
+
+		int failed = countRetriedTiles(2);
+		TestCase.assertTrue(failed > 0);
+		TestCase.assertEquals(EXPECTED_TILES - failed, count);
+		TestCase.assertEquals(EXPECTED_TILES, progress.getProgress());
+
+		// Retried immediately without a retry delay
+		TestCase.assertTrue(sleeps.isEmpty());
+	}
+
+	/**
+	 * Test generating tiles with a host rate limit
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testGenerateTilesRateLimit() throws SQLException, IOException {
+
+		int rateLimit = 50;
+
+		UrlTileGenerator tileGenerator = createTileGenerator();
+		tileGenerator.setDownloadHostRateLimit(rateLimit);
+		TestCase.assertEquals(rateLimit,
+				tileGenerator.getDownloadHostRateLimit());
+
+		testGenerateTiles(tileGenerator);
+
+		// Each request after the first waits one interval on the clock
+		long interval = TimeUnit.SECONDS.toNanos(1) / rateLimit;
+		TestCase.assertEquals(EXPECTED_TILES - 1, sleeps.size());
+		for (long sleep : sleeps) {
+			TestCase.assertEquals(interval, sleep);
+		}
+		TestCase.assertEquals((EXPECTED_TILES - 1) * interval, clock.get());
+	}
+
+	/**
+	 * Test generating tiles without keep-alive connections
+	 *
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	@Test
+	public void testGenerateTilesNoKeepAlive() throws SQLException,
+			IOException {
+
+		UrlTileGenerator tileGenerator = createTileGenerator();
+		tileGenerator.setThreads(2);
+		tileGenerator.setKeepAlive(false);
+		TestCase.assertFalse(tileGenerator.isKeepAlive());
+
+		testGenerateTiles(tileGenerator);
+	}
+
+	/**
+	 * Create a tile generator for the local tile server
+	 *
+	 * @return tile generator
+	 */
+	private UrlTileGenerator createTileGenerator() {
+
+		String url = "http://127.0.0.1:" + server.getAddress().getPort()
+				+ "/tiles/{z}/{x}/{y}.png";
+
+		BoundingBox boundingBox = new BoundingBox(
+				-ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH,
+				-ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH,
+				ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH,
+				ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH);
+
+		return new UrlTileGenerator(geoPackage, "server_tiles", url, MIN_ZOOM,
+				MAX_ZOOM, boundingBox,
+				ProjectionFactory
+						.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR)) {
+
+			@Override
+			protected long nanoTime() {
+				return clock.get();
+			}
+
+			@Override
+			protected void sleep(long nanos) {
+				sleeps.add(nanos);
+				clock.addAndGet(nanos);
+			}
+
+		};
+	}
+
+	/**
+	 * Count the tiles requested more than once, verifying the request count
+	 *
+	 * @param expected
+	 *            expected requests of a retried tile
+	 * @return retried tile count
+	 */
+	private int countRetriedTiles(int expected) {
+		int retried = 0;
+		for (AtomicInteger count : requests.values()) {
+			if (count.get() > 1) {
+				TestCase.assertEquals(expected, count.get());
+				retried++;
+			}
+		}
+		return retried;
+	}
+
+	/**
+	 * Generate the tiles and verify the results
+	 *
+	 * @param tileGenerator
+	 *            tile generator
+	 * @throws SQLException
+	 *             upon error
+	 * @throws IOException
+	 *             upon error
+	 */
+	private void testGenerateTiles(UrlTileGenerator tileGenerator)
+			throws SQLException, IOException {
+
+		TestGeoPackageProgress progress = new TestGeoPackageProgress();
+		tileGenerator.setProgress(progress);
+
+		int count = tileGenerator.generateTiles();
+
+		TestCase.assertEquals(EXPECTED_TILES, count);
+		TestCase.assertEquals(EXPECTED_TILES, progress.getProgress());
+
+		TileDao tileDao = geoPackage.getTileDao("server_tiles");
+		TestCase.assertEquals(EXPECTED_TILES, tileDao.count());
+		TestCase.assertEquals(MIN_ZOOM, tileDao.getMinZoom());
+		TestCase.assertEquals(MAX_ZOOM, tileDao.getMaxZoom());
+	}
+
+	/**
+	 * Handle a tile request
+	 *
+	 * @param exchange
+	 *            http exchange
+	 * @throws IOException
+	 *             upon error
+	 */
+	private void handleTile(HttpExchange exchange) throws IOException {
+
+		int current = active.incrementAndGet();
+		int max;
+		while (current > (max = maxActive.get())
+				&& !maxActive.compareAndSet(max, current)) {
+		}
+
+		try {
+
+			String path = exchange.getRequestURI().getPath();
+			AtomicInteger count = requests.get(path);
+			if (count == null) {
+				AtomicInteger newCount = new AtomicInteger();
+				count = requests.putIfAbsent(path, newCount);
+				if (count == null) {
+					count = newCount;
+				}
+			}
+			int request = count.incrementAndGet();
+
+			Thread.sleep(20);
+
+			if (request <= failedRequests
+					&& Math.abs(path.hashCode()) % 3 == 0) {
+				exchange.sendResponseHeaders(503, -1);
+			} else {
+				exchange.getResponseHeaders().set("Content-Type", "image/png");
+				exchange.sendResponseHeaders(200, tileBytes.length);
+				OutputStream body = exchange.getResponseBody();
+				body.write(tileBytes);
+				body.close();
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			active.decrementAndGet();
+			exchange.close();
+		}
+	}
+
+}
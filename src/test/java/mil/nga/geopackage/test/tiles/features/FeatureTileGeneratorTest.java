@@ -3,6 +3,11 @@ package mil.nga.geopackage.test.tiles.features;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 import mil.nga.geopackage.BoundingBox;
@@ -10,12 +15,16 @@ import mil.nga.geopackage.extension.index.FeatureTableIndex;
 import mil.nga.geopackage.extension.index.GeometryIndex;
 import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.test.CreateGeoPackageTestCase;
+import mil.nga.geopackage.test.io.TestGeoPackageProgress;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
 import mil.nga.geopackage.tiles.TileGenerator;
 import mil.nga.geopackage.tiles.TileGrid;
 import mil.nga.geopackage.tiles.features.FeatureTileGenerator;
 import mil.nga.geopackage.tiles.features.FeatureTiles;
 import mil.nga.geopackage.tiles.features.custom.NumberFeaturesTile;
+import mil.nga.geopackage.tiles.user.TileDao;
+import mil.nga.geopackage.tiles.user.TileResultSet;
+import mil.nga.geopackage.tiles.user.TileRow;
 import mil.nga.sf.proj.ProjectionConstants;
 import mil.nga.sf.proj.ProjectionFactory;
 
@@ -106,6 +115,29 @@ public class FeatureTileGeneratorTest extends CreateGeoPackageTestCase {
 		testTileGenerator(true, true, true);
 	}
 
+	/**
+	 * Test tile generator with multiple threads
+	 *
+	 * @throws java.io.IOException
+	 * @throws java.sql.SQLException
+	 */
+	@Test
+	public void testTileGeneratorThreaded() throws IOException, SQLException {
+		testTileGenerator(false, false, false, 4);
+	}
+
+	/**
+	 * Test tile generator with multiple threads
+	 *
+	 * @throws java.io.IOException
+	 * @throws java.sql.SQLException
+	 */
+	@Test
+	public void testTileGeneratorThreadedWithIndexAndIcon()
+			throws IOException, SQLException {
+		testTileGenerator(true, true, false, 4);
+	}
+
 	/**
 	 * Test tile generator
 	 *
@@ -118,14 +150,36 @@ public class FeatureTileGeneratorTest extends CreateGeoPackageTestCase {
 	 */
 	public void testTileGenerator(boolean index, boolean useIcon,
 			boolean maxFeatures) throws IOException, SQLException {
+		testTileGenerator(index, useIcon, maxFeatures, 1);
+	}
+
+	/**
+	 * Test tile generator
+	 *
+	 * @param index
+	 * @param useIcon
+	 * @param maxFeatures
+	 * @param threads
+	 *
+	 * @throws java.io.IOException
+	 * @throws java.sql.SQLException
+	 */
+	public void testTileGenerator(boolean index, boolean useIcon,
+			boolean maxFeatures, int threads) throws IOException,
+			SQLException {
 
 		int minZoom = 0;
 		int maxZoom = 4;
 
-		FeatureDao featureDao = FeatureTileUtils.createFeatureDao(geoPackage);
+		final FeatureDao featureDao = FeatureTileUtils
+				.createFeatureDao(geoPackage);
 
 		int num = FeatureTileUtils.insertFeatures(geoPackage, featureDao);
 
+		if (threads > 1) {
+			featureDao.enableCache();
+		}
+
 		FeatureTiles featureTiles = FeatureTileUtils.createFeatureTiles(
 				geoPackage, featureDao, useIcon);
 
@@ -146,14 +200,52 @@ public class FeatureTileGeneratorTest extends CreateGeoPackageTestCase {
 			featureTiles.setMaxFeaturesTileDraw(numberFeaturesTile);
 		}
 
+		// Track the tile creation threads and reads from the writer connection
+		final Set<Thread> tileThreads = Collections
+				.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+		final AtomicInteger writerReads = new AtomicInteger();
 		TileGenerator tileGenerator = new FeatureTileGenerator(geoPackage,
 				"gen_feature_tiles", featureTiles, minZoom, maxZoom,
 				ProjectionFactory
-						.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR));
+						.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR)) {
+			@Override
+			protected byte[] createTile(int z, long x, long y) {
+				tileThreads.add(Thread.currentThread());
+				if (featureDao.getReadConnection() == featureDao.getDb()
+						.getConnection()) {
+					writerReads.incrementAndGet();
+				}
+				return super.createTile(z, x, y);
+			}
+		};
 		tileGenerator.setGoogleTiles(false);
+		tileGenerator.setThreads(threads);
+		TestCase.assertEquals(threads, tileGenerator.getThreads());
+
+		TestGeoPackageProgress progress = new TestGeoPackageProgress();
+		tileGenerator.setProgress(progress);
 
 		int tiles = tileGenerator.generateTiles();
 
+		TestCase.assertEquals(tileGenerator.getTileCount(),
+				progress.getProgress());
+
+		// Threaded tiles are created on pooled threads reading features
+		// through their own read connections
+		TestCase.assertFalse(tileThreads.isEmpty());
+		if (threads > 1) {
+			TestCase.assertFalse(tileThreads.contains(Thread.currentThread()));
+			TestCase.assertEquals(0, writerReads.get());
+			TestCase.assertFalse(featureDao.getDb().isPooled());
+		} else {
+			TestCase.assertEquals(Collections.singleton(Thread.currentThread()),
+					tileThreads);
+		}
+
+		if (index && threads > 1) {
+			TestCase.assertTrue(featureDao.getCache().getHits() > 0);
+		}
+
 		int expectedTiles = 0;
 		if (!maxFeatures || index) {
 
@@ -193,6 +285,35 @@ public class FeatureTileGeneratorTest extends CreateGeoPackageTestCase {
 
 		TestCase.assertEquals(expectedTiles, tiles);
 
+		// Threaded feature tiles match a single thread generation
+		if (threads > 1) {
+			TileGenerator singleGenerator = new FeatureTileGenerator(
+					geoPackage, "gen_feature_tiles_single", featureTiles,
+					minZoom, maxZoom, ProjectionFactory
+							.getProjection(ProjectionConstants.EPSG_WEB_MERCATOR));
+			singleGenerator.setGoogleTiles(false);
+			TestCase.assertEquals(tiles, singleGenerator.generateTiles());
+
+			TileDao tileDao = geoPackage.getTileDao("gen_feature_tiles");
+			TileDao singleTileDao = geoPackage
+					.getTileDao("gen_feature_tiles_single");
+			TestCase.assertEquals(singleTileDao.count(), tileDao.count());
+			TileResultSet resultSet = singleTileDao.queryForAll();
+			try {
+				while (resultSet.moveToNext()) {
+					TileRow singleRow = resultSet.getRow();
+					TileRow row = tileDao.queryForTile(
+							singleRow.getTileColumn(), singleRow.getTileRow(),
+							singleRow.getZoomLevel());
+					TestCase.assertNotNull(row);
+					TestCase.assertTrue(Arrays.equals(
+							singleRow.getTileData(), row.getTileData()));
+				}
+			} finally {
+				resultSet.close();
+			}
+		}
+
 		// TileWriter.writeTiles(geoPackage, "gen_feature_tiles", new File(
 		// "/Users/osbornb/Documents/generator/tiles"), null, null, true);
 
@@ -1,13 +1,21 @@
 package mil.nga.geopackage.test.tiles.features;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
 
 import junit.framework.TestCase;
+import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.extension.index.FeatureTableIndex;
 import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.manager.GeoPackageManager;
 import mil.nga.geopackage.test.CreateGeoPackageTestCase;
+import mil.nga.geopackage.tiles.ImageUtils;
 import mil.nga.geopackage.tiles.TileBoundingBoxUtils;
+import mil.nga.geopackage.tiles.features.DefaultFeatureTiles;
+import mil.nga.geopackage.tiles.features.FeatureGeometryCache;
+import mil.nga.geopackage.tiles.features.FeatureTileGraphics;
 import mil.nga.geopackage.tiles.features.FeatureTiles;
 
 import org.junit.Test;
@@ -73,6 +81,225 @@ public class FeatureTilesTest extends CreateGeoPackageTestCase {
 
 	}
 
+	/**
+	 * Test a geometry cache shared between feature tiles
+	 *
+	 * @throws java.sql.SQLException
+	 */
+	@Test
+	public void testSharedGeometryCache() throws SQLException {
+
+		FeatureDao featureDao = FeatureTileUtils.createFeatureDao(geoPackage);
+
+		int num = FeatureTileUtils.insertFeatures(geoPackage, featureDao);
+
+		FeatureTableIndex featureIndex = new FeatureTableIndex(geoPackage,
+				featureDao);
+		int indexed = featureIndex.index();
+		TestCase.assertEquals(num, indexed);
+
+		FeatureGeometryCache geometryCache = new FeatureGeometryCache();
+
+		DefaultFeatureTiles featureTiles1 = (DefaultFeatureTiles) FeatureTileUtils
+				.createFeatureTiles(geoPackage, featureDao, false);
+		featureTiles1.setFeatureIndex(featureIndex);
+		featureTiles1.setGeometryCache(geometryCache);
+
+		DefaultFeatureTiles featureTiles2 = (DefaultFeatureTiles) FeatureTileUtils
+				.createFeatureTiles(geoPackage, featureDao, false);
+		featureTiles2.setFeatureIndex(featureIndex);
+		featureTiles2.setGeometryCache(geometryCache);
+		TestCase.assertSame(geometryCache, featureTiles2.getGeometryCache());
+
+		createTiles(featureTiles1, 0, 0);
+		TestCase.assertEquals(0, geometryCache.getHits());
+		TestCase.assertEquals(num, geometryCache.getMisses());
+		TestCase.assertEquals(num, geometryCache.size());
+		TestCase.assertTrue(geometryCache.getBytes() > 0);
+
+		createTiles(featureTiles2, 0, 0);
+		TestCase.assertEquals(num, geometryCache.getHits());
+		TestCase.assertEquals(num, geometryCache.getMisses());
+		TestCase.assertEquals(0.5, geometryCache.getHitRate(), 0.0);
+
+		// Bound the cache to fewer bytes than the cached geometries
+		long maxBytes = geometryCache.getBytes() / 2;
+		geometryCache.resize(maxBytes);
+		TestCase.assertTrue(geometryCache.getBytes() <= maxBytes);
+		TestCase.assertTrue(geometryCache.size() < num);
+		TestCase.assertEquals(num - geometryCache.size(),
+				geometryCache.getEvictions());
+
+		createTiles(featureTiles2, 0, 1);
+		TestCase.assertTrue(geometryCache.getBytes() <= maxBytes);
+
+		featureTiles1.clearGeometryCache();
+		TestCase.assertEquals(0, geometryCache.size());
+		TestCase.assertEquals(0, geometryCache.getBytes());
+
+		geometryCache.resetStatistics();
+		TestCase.assertEquals(0, geometryCache.getHits());
+		TestCase.assertEquals(0, geometryCache.getMisses());
+		TestCase.assertEquals(0.0, geometryCache.getHitRate(), 0.0);
+	}
+
+	/**
+	 * Test a geometry cache shared between feature tiles of GeoPackages with
+	 * the same feature table name and feature ids
+	 *
+	 * @throws java.sql.SQLException
+	 * @throws IOException
+	 */
+	@Test
+	public void testSharedGeometryCacheGeoPackages() throws SQLException,
+			IOException {
+
+		FeatureDao featureDao = FeatureTileUtils.createFeatureDao(geoPackage);
+		int num = FeatureTileUtils.insertFeatures(geoPackage, featureDao);
+
+		File otherFile = new File(folder.newFolder(), "other.gpkg");
+		TestCase.assertTrue(GeoPackageManager.create(otherFile));
+		GeoPackage otherGeoPackage = GeoPackageManager.open(otherFile);
+		try {
+
+			FeatureDao otherFeatureDao = FeatureTileUtils
+					.createFeatureDao(otherGeoPackage);
+			int otherNum = FeatureTileUtils.insertFeatures(otherGeoPackage,
+					otherFeatureDao);
+			TestCase.assertEquals(featureDao.getTableName(),
+					otherFeatureDao.getTableName());
+
+			FeatureGeometryCache geometryCache = new FeatureGeometryCache();
+
+			DefaultFeatureTiles featureTiles = (DefaultFeatureTiles) FeatureTileUtils
+					.createFeatureTiles(geoPackage, featureDao, false);
+			featureTiles.setFeatureIndex(new FeatureTableIndex(geoPackage,
+					featureDao));
+			TestCase.assertEquals(num, featureTiles.getFeatureIndex().index());
+			featureTiles.setGeometryCache(geometryCache);
+
+			DefaultFeatureTiles otherFeatureTiles = (DefaultFeatureTiles) FeatureTileUtils
+					.createFeatureTiles(otherGeoPackage, otherFeatureDao,
+							false);
+			otherFeatureTiles.setFeatureIndex(new FeatureTableIndex(
+					otherGeoPackage, otherFeatureDao));
+			TestCase.assertEquals(otherNum, otherFeatureTiles.getFeatureIndex()
+					.index());
+			otherFeatureTiles.setGeometryCache(geometryCache);
+
+			createTiles(featureTiles, 0, 0);
+			TestCase.assertEquals(num, geometryCache.size());
+
+			// Same table and ids in another GeoPackage are not cache hits
+			createTiles(otherFeatureTiles, 0, 0);
+			TestCase.assertEquals(0, geometryCache.getHits());
+			TestCase.assertEquals(num + otherNum, geometryCache.size());
+
+			otherFeatureTiles.clearGeometryCache();
+			TestCase.assertEquals(num, geometryCache.size());
+
+			createTiles(featureTiles, 0, 0);
+			TestCase.assertEquals(num, geometryCache.getHits());
+
+		} finally {
+			otherGeoPackage.close();
+		}
+	}
+
+	/**
+	 * Test single layer feature tiles
+	 *
+	 * @throws java.sql.SQLException
+	 * @throws IOException
+	 */
+	@Test
+	public void testSingleLayer() throws SQLException, IOException {
+
+		FeatureDao featureDao = FeatureTileUtils.createFeatureDao(geoPackage);
+		FeatureTileUtils.insertFeatures(geoPackage, featureDao);
+
+		testSingleLayer(featureDao, false);
+		testSingleLayer(featureDao, true);
+	}
+
+	/**
+	 * Test single layer feature tiles
+	 *
+	 * @param featureDao
+	 * @param useIcon
+	 *
+	 * @throws IOException
+	 */
+	private void testSingleLayer(FeatureDao featureDao, boolean useIcon)
+			throws IOException {
+
+		FeatureTiles layeredTiles = FeatureTileUtils.createFeatureTiles(
+				geoPackage, featureDao, useIcon);
+		FeatureTiles singleLayerTiles = FeatureTileUtils.createFeatureTiles(
+				geoPackage, featureDao, useIcon);
+		TestCase.assertFalse(singleLayerTiles.isSingleLayer());
+		singleLayerTiles.setSingleLayer(true);
+		TestCase.assertTrue(singleLayerTiles.isSingleLayer());
+
+		for (int zoom = 0; zoom <= 2; zoom++) {
+			int tilesPerSide = TileBoundingBoxUtils.tilesPerSide(zoom);
+			for (int x = 0; x < tilesPerSide; x++) {
+				for (int y = 0; y < tilesPerSide; y++) {
+					BufferedImage layeredImage = layeredTiles.drawTile(x, y,
+							zoom);
+					BufferedImage image = singleLayerTiles.drawTile(x, y, zoom);
+					if (layeredImage == null) {
+						TestCase.assertNull(image);
+					} else {
+						TestCase.assertNotNull(image);
+						compareImages(layeredImage, image);
+
+						// Drawn tile bytes reuse the pooled image
+						FeatureTileGraphics.recycle(image);
+						byte[] bytes = singleLayerTiles.drawTileBytes(x, y,
+								zoom);
+						compareImages(layeredImage, ImageUtils.getImage(bytes));
+						BufferedImage pooledImage = singleLayerTiles.drawTile(
+								x, y, zoom);
+						TestCase.assertSame(image, pooledImage);
+						compareImages(layeredImage, pooledImage);
+
+						// Images owned by the caller are not reused
+						BufferedImage ownedImage = singleLayerTiles.drawTile(x,
+								y, zoom);
+						TestCase.assertNotSame(pooledImage, ownedImage);
+						compareImages(layeredImage, pooledImage);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compare the pixels of the images, allowing for blending differences
+	 *
+	 * @param expected
+	 *            expected image
+	 * @param actual
+	 *            actual image
+	 */
+	private void compareImages(BufferedImage expected, BufferedImage actual) {
+		TestCase.assertEquals(expected.getWidth(), actual.getWidth());
+		TestCase.assertEquals(expected.getHeight(), actual.getHeight());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				int expectedPixel = expected.getRGB(x, y);
+				int actualPixel = actual.getRGB(x, y);
+				for (int shift = 0; shift < 32; shift += 8) {
+					int expectedChannel = (expectedPixel >>> shift) & 0xFF;
+					int actualChannel = (actualPixel >>> shift) & 0xFF;
+					TestCase.assertTrue(
+							Math.abs(expectedChannel - actualChannel) <= 2);
+				}
+			}
+		}
+	}
+
 	private void createTiles(FeatureTiles featureTiles, int minZoom, int maxZoom) {
 		for (int i = minZoom; i <= maxZoom; i++) {
 			createTiles(featureTiles, i);